@@ -2,7 +2,7 @@ package com.cottonlesergal.ucontrolbot;
 
 import com.cottonlesergal.ucontrolbot.api.WebServer;
 import com.cottonlesergal.ucontrolbot.config.Config;
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
@@ -14,7 +14,7 @@ import java.util.Map;
 
 /**
  * Main entry point for the Discord bot application.
- * Uses JDA client from JdaProvider and manages the web server.
+ * Uses the Discord runtime from JdaProvider and manages the web server.
  */
 @Component
 public class Bot implements CommandLineRunner {
@@ -22,34 +22,34 @@ public class Bot implements CommandLineRunner {
 
     private final Config config;
     private final WebServer webServer;
-    private final JDA jda;
+    private final DiscordRuntime discord;
     private final long startTime;
 
     /**
-     * Initializes the bot with configuration, JDA client, and web server.
-     * With Spring Boot, Config, WebServer, and JDA are automatically injected.
+     * Initializes the bot with configuration, Discord runtime, and web server.
+     * With Spring Boot, Config, WebServer, and DiscordRuntime are automatically injected.
      *
      * @param config The configuration
      * @param webServer The web server
-     * @param jda The JDA instance (provided by JdaProvider)
+     * @param discord The Discord runtime (provided by JdaProvider)
      */
     @Autowired
-    public Bot(Config config, WebServer webServer, JDA jda) {
+    public Bot(Config config, WebServer webServer, DiscordRuntime discord) {
         this.config = config;
         this.webServer = webServer;
-        this.jda = jda;
+        this.discord = discord;
         this.startTime = System.currentTimeMillis();
 
         logger.info("Bot instance created");
     }
 
     /**
-     * Gets the JDA instance.
+     * Gets the Discord runtime, which spans every shard.
      *
-     * @return JDA instance
+     * @return Discord runtime
      */
-    public JDA getJda() {
-        return jda;
+    public DiscordRuntime getDiscord() {
+        return discord;
     }
 
     /**
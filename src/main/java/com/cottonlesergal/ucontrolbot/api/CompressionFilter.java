@@ -0,0 +1,137 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+import com.cottonlesergal.ucontrolbot.config.Config;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compresses responses above a size threshold and records the bytes saved per endpoint.
+ * The body is buffered so its size is known before choosing whether to compress;
+ * small bodies, binary content and already-encoded responses are sent as-is.
+ * A strong ETag is weakened on compressed responses, since it describes the
+ * uncompressed bytes; conditional requests compare ETags weakly, so either form
+ * in If-None-Match still matches.
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private Config config;
+
+    @Autowired
+    private ResponseMetrics metrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // WebSocket upgrades must not be buffered
+        return request.getRequestURI().startsWith("/ws");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Async handlers write their body during the async dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            wrapper = new ContentCachingResponseWrapper(response);
+        }
+
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                writeResponse(request, wrapper);
+            }
+        }
+    }
+
+    private void writeResponse(HttpServletRequest request, ContentCachingResponseWrapper wrapper) throws IOException {
+        HttpServletResponse response = (HttpServletResponse) wrapper.getResponse();
+        byte[] body = wrapper.getContentAsByteArray();
+        String endpoint = endpointOf(request);
+
+        if (body.length >= config.getCompressionMinSize() && acceptsGzip(request)
+                && isCompressible(wrapper.getContentType()) && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                && !response.isCommitted()) {
+            byte[] compressed = gzip(body);
+            if (compressed.length < body.length) {
+                weakenETag(response);
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                response.setContentLength(compressed.length);
+                response.getOutputStream().write(compressed);
+                metrics.recordResponse(endpoint, body.length, compressed.length);
+                return;
+            }
+        }
+
+        if (body.length > 0) {
+            metrics.recordResponse(endpoint, body.length, body.length);
+        } else if (wrapper.getStatus() == HttpServletResponse.SC_NOT_MODIFIED && revalidatesGzipCopy(request, response)) {
+            // Confirm the tag the client holds, which came with the compressed response
+            weakenETag(response);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void weakenETag(HttpServletResponse response) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag != null && etag.startsWith("\"")) {
+            response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+        }
+    }
+
+    private static boolean revalidatesGzipCopy(HttpServletRequest request, HttpServletResponse response) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        return etag != null && etag.startsWith("\"") && ifNoneMatch != null && ifNoneMatch.contains("W/" + etag);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript")
+                || type.contains("xml") || type.contains("yaml");
+    }
+
+    /**
+     * Gets the metrics key of a request: its method and matched URL pattern.
+     */
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "(unmatched)");
+    }
+}
@@ -0,0 +1,78 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Answers conditional GET requests from version tokens, before the handler runs.
+ * Each versioned endpoint is tied to the guild, channel or user scope its data
+ * comes from; the scope's current token is sent as the ETag, and a request whose
+ * If-None-Match still matches gets a 304 without the handler being invoked.
+ * Endpoints that set their own content ETags are not listed here.
+ */
+@Component
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Autowired
+    private ResponseMetrics metrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod) || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return true;
+        }
+
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String tag = pattern != null ? versionTag(pattern, variables != null ? variables : Map.of()) : null;
+        if (tag == null) {
+            return true;
+        }
+
+        // Sets the ETag header, or the 304 status if the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(tag)) {
+            metrics.recordNotModified(request.getMethod() + " " + pattern);
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return true;
+    }
+
+    /**
+     * Gets the version token for an endpoint.
+     *
+     * @param pattern The matched URL pattern
+     * @param variables The URL template variables
+     * @return The token, or null if the endpoint is not versioned
+     */
+    private String versionTag(String pattern, Map<String, String> variables) {
+        switch (pattern) {
+            case "/api/guilds/{guildId}":
+            case "/api/guilds/{guildId}/members":
+            case "/api/guilds/{guildId}/emojis":
+                return versions.guildTag(variables.get("guildId"));
+            case "/api/channels/{channelId}/messages":
+            case "/api/channels/{channelId}/messages/{messageId}":
+            case "/api/channels/{channelId}/messages/bulk":
+                return versions.channelTag(variables.get("channelId"));
+            case "/api/users":
+            case "/api/users/{userId}":
+                return versions.usersTag();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+import com.cottonlesergal.ucontrolbot.db.DatabaseManager;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the author of a message for permission checks.
+ * The locally persisted author is used when the message is known, so edits and
+ * deletes do not need to fetch the message from Discord first; unknown messages
+ * fall back to a Discord fetch.
+ */
+@Component
+public class MessageAuthorLookup {
+
+    @Autowired
+    private DatabaseManager dbManager;
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong discordFetches = new AtomicLong();
+
+    /**
+     * Gets the author ID of a message.
+     *
+     * @param channel The channel containing the message
+     * @param messageId The message ID
+     * @return The author's user ID; fails if the message cannot be fetched
+     */
+    public CompletableFuture<String> getAuthorId(MessageChannel channel, String messageId) {
+        String authorId = dbManager.getMessageAuthorId(channel.getId(), messageId);
+        if (authorId != null) {
+            localHits.incrementAndGet();
+            return CompletableFuture.completedFuture(authorId);
+        }
+
+        discordFetches.incrementAndGet();
+        return channel.retrieveMessageById(messageId).submit()
+                .thenApply(message -> message.getAuthor().getId());
+    }
+
+    /**
+     * Checks whether the bot wrote a message.
+     *
+     * @param channel The channel containing the message
+     * @param messageId The message ID
+     * @return True if the bot is the author
+     */
+    public CompletableFuture<Boolean> isOwnMessage(MessageChannel channel, String messageId) {
+        String selfId = channel.getJDA().getSelfUser().getId();
+        return getAuthorId(channel, messageId).thenApply(selfId::equals);
+    }
+
+    /**
+     * Gets lookup counters.
+     *
+     * @return Local hits, Discord fetches and the local hit ratio
+     */
+    public Map<String, Object> getStats() {
+        long hits = localHits.get();
+        long fetches = discordFetches.get();
+        long lookups = hits + fetches;
+        return Map.of(
+                "localHits", hits,
+                "discordFetches", fetches,
+                "hitRatio", lookups > 0 ? (double) hits / lookups : 0.0
+        );
+    }
+}
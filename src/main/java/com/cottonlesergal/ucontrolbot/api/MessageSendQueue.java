@@ -0,0 +1,256 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound message queue.
+ * Sends are queued per channel and dispatched one at a time with RestAction.queue,
+ * so request threads never block on Discord's rate-limit buckets and messages to
+ * the same channel are delivered in the order they were submitted. JDA's requester
+ * still enforces the buckets themselves; the time a send spends there is recorded
+ * as bucket wait.
+ */
+@Component
+public class MessageSendQueue {
+    private static final Logger logger = LoggerFactory.getLogger(MessageSendQueue.class);
+
+    private static final int MAX_PENDING_PER_CHANNEL = 500;
+    private static final int TOP_CHANNELS = 10;
+
+    private final ConcurrentMap<String, ChannelQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timing queueWait = new Timing();
+    private final Timing bucketWait = new Timing();
+
+    /**
+     * Queues a message to be sent.
+     *
+     * @param channel The channel to send to
+     * @param data The message to send
+     * @return The queued job, whose result completes once Discord accepts or rejects the message
+     * @throws RejectedExecutionException If the channel already has too many pending sends
+     */
+    public SendJob submit(MessageChannel channel, MessageCreateData data) {
+        String channelId = channel.getId();
+        SendJob job = new SendJob(UUID.randomUUID().toString(), channel, data);
+
+        while (true) {
+            ChannelQueue queue = queues.computeIfAbsent(channelId, id -> new ChannelQueue());
+            boolean dispatch;
+            synchronized (queue) {
+                if (queue.retired) {
+                    // Lost a race with removal of an idle queue; use the replacement
+                    continue;
+                }
+                if (queue.pending.size() >= MAX_PENDING_PER_CHANNEL) {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Send queue full for channel " + channelId);
+                }
+                queue.pending.add(job);
+                job.position = queue.pending.size() + (queue.sending ? 1 : 0);
+                dispatch = !queue.sending;
+                queue.sending = true;
+            }
+
+            submitted.incrementAndGet();
+            if (dispatch) {
+                dispatchNext(channelId, queue);
+            }
+            return job;
+        }
+    }
+
+    /**
+     * Sends the next pending message of a channel, or marks the channel idle if none remain.
+     */
+    private void dispatchNext(String channelId, ChannelQueue queue) {
+        while (true) {
+            SendJob job;
+            synchronized (queue) {
+                job = queue.pending.poll();
+                if (job == null) {
+                    queue.sending = false;
+                    queue.retired = true;
+                    queues.remove(channelId, queue);
+                    return;
+                }
+            }
+
+            long dispatchedAt = System.nanoTime();
+            queueWait.record(dispatchedAt - job.enqueuedAt);
+            inFlight.incrementAndGet();
+
+            try {
+                job.channel.sendMessage(job.data).queue(
+                        message -> {
+                            finish(dispatchedAt);
+                            sent.incrementAndGet();
+                            job.result.complete(message);
+                            dispatchNext(channelId, queue);
+                        },
+                        error -> {
+                            finish(dispatchedAt);
+                            failed.incrementAndGet();
+                            logger.error("Error sending queued message {} to channel {}", job.id, channelId, error);
+                            job.result.completeExceptionally(error);
+                            dispatchNext(channelId, queue);
+                        });
+                return;
+            } catch (Exception e) {
+                // Rejected before reaching the requester, e.g. missing permissions
+                finish(dispatchedAt);
+                failed.incrementAndGet();
+                job.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void finish(long dispatchedAt) {
+        inFlight.decrementAndGet();
+        bucketWait.record(System.nanoTime() - dispatchedAt);
+    }
+
+    /**
+     * Gets queue metrics.
+     *
+     * @return Queue depth, counters, wait times and the deepest channel queues
+     */
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> channels = new ArrayList<>();
+        int pending = 0;
+        for (Map.Entry<String, ChannelQueue> entry : queues.entrySet()) {
+            int depth;
+            synchronized (entry.getValue()) {
+                depth = entry.getValue().pending.size();
+            }
+            pending += depth;
+            if (depth > 0) {
+                channels.add(Map.of("channelId", entry.getKey(), "depth", depth));
+            }
+        }
+        channels.sort(Comparator.comparingInt((Map<String, Object> c) -> (Integer) c.get("depth")).reversed());
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending);
+        stats.put("inFlight", inFlight.get());
+        stats.put("activeChannels", queues.size());
+        stats.put("submitted", submitted.get());
+        stats.put("sent", sent.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("queueWaitMs", queueWait.snapshot());
+        stats.put("bucketWaitMs", bucketWait.snapshot());
+        stats.put("deepestChannels", channels.subList(0, Math.min(channels.size(), TOP_CHANNELS)));
+        return stats;
+    }
+
+    /**
+     * A queued send.
+     */
+    public static final class SendJob {
+        private final String id;
+        private final MessageChannel channel;
+        private final MessageCreateData data;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Message> result = new CompletableFuture<>();
+        private int position;
+
+        private SendJob(String id, MessageChannel channel, MessageCreateData data) {
+            this.id = id;
+            this.channel = channel;
+            this.data = data;
+        }
+
+        /**
+         * Gets the job ID.
+         *
+         * @return The job ID
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the ID of the channel the message is sent to.
+         *
+         * @return The channel ID
+         */
+        public String getChannelId() {
+            return channel.getId();
+        }
+
+        /**
+         * Gets the job's position in its channel queue at submission, counting a send already in flight.
+         *
+         * @return The 1-based queue position
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Gets the send result.
+         *
+         * @return A future completed with the sent message, or exceptionally if the send failed
+         */
+        public CompletableFuture<Message> getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * The pending sends of one channel.
+     */
+    private static final class ChannelQueue {
+        private final ArrayDeque<SendJob> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean retired;
+    }
+
+    /**
+     * Running count, average and maximum of a duration.
+     */
+    private static final class Timing {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private synchronized void record(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        private synchronized Map<String, Object> snapshot() {
+            return Map.of(
+                    "count", count,
+                    "avg", count > 0 ? totalNanos / count / 1_000_000.0 : 0.0,
+                    "max", maxNanos / 1_000_000.0
+            );
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
+import jakarta.annotation.PostConstruct;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.emoji.GenericEmojiEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
+import net.dv8tion.jda.api.events.session.SessionRecreateEvent;
+import net.dv8tion.jda.api.events.session.SessionResumeEvent;
+import net.dv8tion.jda.api.events.user.GenericUserEvent;
+import net.dv8tion.jda.api.events.user.update.GenericUserPresenceEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version tokens for the state behind the REST API.
+ * Every gateway event bumps the version of the guild, channel or user scope it
+ * touches, so a token only changes when the data served for that scope may have
+ * changed. Tokens include an epoch that changes on startup and whenever the
+ * gateway session is recreated or resumed, since events may have been missed.
+ */
+@Component
+public class ResourceVersions implements EventListener {
+    private static final Logger logger = LoggerFactory.getLogger(ResourceVersions.class);
+
+    @Autowired
+    private DiscordRuntime discord;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentMap<Long, Long> guilds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> channels = new ConcurrentHashMap<>();
+    private volatile long users;
+    private volatile String epoch = newEpoch();
+
+    @PostConstruct
+    public void registerListener() {
+        discord.addEventListener(this);
+        logger.info("ResourceVersions registered with JDA");
+    }
+
+    @Override
+    public void onEvent(GenericEvent event) {
+        if (event instanceof SessionRecreateEvent || event instanceof SessionResumeEvent) {
+            // Events may have been missed while disconnected; invalidate every token
+            epoch = newEpoch();
+            return;
+        }
+
+        if (event instanceof GenericMessageEvent messageEvent) {
+            bump(channels, messageEvent.getChannel().getIdLong());
+        }
+        if (event instanceof GenericChannelEvent channelEvent) {
+            bump(channels, channelEvent.getChannel().getIdLong());
+            if (channelEvent.isFromGuild()) {
+                bump(guilds, channelEvent.getGuild().getIdLong());
+            }
+        }
+        if (event instanceof GenericGuildEvent guildEvent) {
+            bump(guilds, guildEvent.getGuild().getIdLong());
+        }
+        if (event instanceof GenericRoleEvent roleEvent) {
+            bump(guilds, roleEvent.getGuild().getIdLong());
+        }
+        if (event instanceof GenericEmojiEvent emojiEvent) {
+            bump(guilds, emojiEvent.getGuild().getIdLong());
+        }
+        if (event instanceof GenericUserPresenceEvent presenceEvent) {
+            bump(guilds, presenceEvent.getGuild().getIdLong());
+        }
+        if (event instanceof GenericUserEvent || event instanceof GenericGuildMemberEvent) {
+            // User listings include names, statuses and guild membership
+            users = sequence.incrementAndGet();
+        }
+    }
+
+    /**
+     * Bumps the versions that cover a user's data outside of gateway events,
+     * e.g. when a background profile fetch finishes.
+     *
+     * @param guildIds The guilds whose member listings include the user
+     */
+    public void userChanged(Collection<Long> guildIds) {
+        users = sequence.incrementAndGet();
+        for (Long guildId : guildIds) {
+            bump(guilds, guildId);
+        }
+    }
+
+    private void bump(ConcurrentMap<Long, Long> versions, long id) {
+        versions.put(id, sequence.incrementAndGet());
+    }
+
+    /**
+     * Gets the version token of a guild's data.
+     *
+     * @param guildId The guild ID
+     * @return The token, or null if the ID is invalid
+     */
+    public String guildTag(String guildId) {
+        Long id = Snowflake.parse(guildId);
+        return id != null ? tag(guilds.getOrDefault(id, 0L)) : null;
+    }
+
+    /**
+     * Gets the version token of a channel's messages.
+     *
+     * @param channelId The channel ID
+     * @return The token, or null if the ID is invalid
+     */
+    public String channelTag(String channelId) {
+        Long id = Snowflake.parse(channelId);
+        return id != null ? tag(channels.getOrDefault(id, 0L)) : null;
+    }
+
+    /**
+     * Gets the version token of the user listings.
+     *
+     * @return The token
+     */
+    public String usersTag() {
+        return tag(users);
+    }
+
+    private String tag(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+
+    private String newEpoch() {
+        return Long.toString(System.currentTimeMillis(), 36) + "." + sequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,87 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint counters for response size, compression and conditional requests.
+ * Endpoints are keyed by HTTP method and the matched URL pattern.
+ */
+@Component
+public class ResponseMetrics {
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records a response body as it was sent.
+     *
+     * @param endpoint The endpoint key
+     * @param originalBytes Body size before compression
+     * @param sentBytes Body size on the wire
+     */
+    public void recordResponse(String endpoint, long originalBytes, long sentBytes) {
+        EndpointStats stats = stats(endpoint);
+        stats.responses.increment();
+        stats.originalBytes.add(originalBytes);
+        stats.sentBytes.add(sentBytes);
+        if (sentBytes < originalBytes) {
+            stats.compressed.increment();
+        }
+    }
+
+    /**
+     * Records a request answered with 304 Not Modified without running its handler.
+     *
+     * @param endpoint The endpoint key
+     */
+    public void recordNotModified(String endpoint) {
+        stats(endpoint).notModified.increment();
+    }
+
+    private EndpointStats stats(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+    }
+
+    /**
+     * Gets the counters of every endpoint.
+     *
+     * @return Counters keyed by endpoint
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        long totalSaved = 0;
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            long original = stats.originalBytes.sum();
+            long sent = stats.sentBytes.sum();
+            totalSaved += original - sent;
+
+            Map<String, Object> endpoint = new HashMap<>();
+            endpoint.put("responses", stats.responses.sum());
+            endpoint.put("compressed", stats.compressed.sum());
+            endpoint.put("notModified", stats.notModified.sum());
+            endpoint.put("originalBytes", original);
+            endpoint.put("sentBytes", sent);
+            endpoint.put("bytesSaved", original - sent);
+            result.put(entry.getKey(), endpoint);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("endpoints", result);
+        stats.put("bytesSaved", totalSaved);
+        return stats;
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder compressed = new LongAdder();
+        private final LongAdder notModified = new LongAdder();
+        private final LongAdder originalBytes = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+    }
+}
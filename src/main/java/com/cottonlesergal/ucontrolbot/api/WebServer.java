@@ -1,8 +1,14 @@
 package com.cottonlesergal.ucontrolbot.api;
 
+import com.cottonlesergal.ucontrolbot.bus.BusEvent;
+import com.cottonlesergal.ucontrolbot.bus.EventBus;
+import com.cottonlesergal.ucontrolbot.bus.EventLog;
+import com.cottonlesergal.ucontrolbot.cache.DmChannelResolver;
 import com.cottonlesergal.ucontrolbot.config.Config;
+import com.cottonlesergal.ucontrolbot.config.ReadinessTracker;
 import com.cottonlesergal.ucontrolbot.db.DatabaseManager;
-import com.google.gson.Gson;
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.slf4j.Logger;
@@ -11,13 +17,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
@@ -26,14 +41,20 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Web server for the Discord bot API and web interface.
- * Handles WebSocket connections for real-time updates.
+ * Handles WebSocket connections for real-time updates. Broadcasts go through the
+ * event bus, so with a networked bus every web node fans them out to its own sessions.
  * With Spring Boot, REST API endpoints are handled by separate controller classes.
  */
 @Component
 public class WebServer extends TextWebSocketHandler {
     private static final Logger logger = LoggerFactory.getLogger(WebServer.class);
 
-    private final Gson gson = new Gson();
+    // A client that stays this far behind is disconnected instead of holding up the others
+    private static final int SEND_TIME_LIMIT_MILLIS = 10_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 8 * 1024 * 1024;
+
+    @Autowired
+    private JsonCodec jsonCodec;
 
     @Autowired
     private Config config;
@@ -41,7 +62,25 @@ public class WebServer extends TextWebSocketHandler {
     @Autowired
     private DatabaseManager dbManager;
 
-    // WebSocket sessions
+    @Autowired
+    private DmChannelResolver dmChannelResolver;
+
+    @Autowired
+    private ReadinessTracker readiness;
+
+    @Autowired
+    private EventBus eventBus;
+
+    @Autowired
+    private EventLog eventLog;
+
+    @Autowired
+    private WireCodec wireCodec;
+
+    // Gateway events reach this node from its event bus upstream, which also persists them
+    private boolean follower;
+
+    // WebSocket sessions, wrapped so any thread may send to them
     private final ConcurrentMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
 
     // Session subscriptions for DMs and channels
@@ -49,6 +88,12 @@ public class WebServer extends TextWebSocketHandler {
     private final ConcurrentMap<String, String> channelSubscriptions = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, String> guildSubscriptions = new ConcurrentHashMap<>();
 
+    // Encoding each session asked for when connecting
+    private final ConcurrentMap<String, WireEncoding> sessionEncodings = new ConcurrentHashMap<>();
+
+    // Events sent to sessions that may still resume, so a replay does not repeat them
+    private final ConcurrentMap<String, ResumeWindow> resumeWindows = new ConcurrentHashMap<>();
+
     // Scheduled executor for background tasks
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
 
@@ -68,6 +113,18 @@ public class WebServer extends TextWebSocketHandler {
 
         // Schedule periodic tasks
         scheduler.scheduleAtFixedRate(this::cleanupTypingIndicators, 5, 5, TimeUnit.SECONDS);
+
+        // Events reach local sessions through the bus, wherever they were published
+        eventBus.subscribe(this::deliver);
+        eventBus.onGap(this::resyncAfterGap);
+        follower = config.isEventBusFollower();
+        if (follower) {
+            logger.info("Taking Discord events from event bus upstream {}; local listener events are not persisted or published",
+                    config.getEventBusUpstream());
+        }
+
+        // Let clients show startup progress while guilds are still loading
+        readiness.addListener(snapshot -> broadcastTransientEvent("READINESS", snapshot));
     }
 
     /**
@@ -111,21 +168,26 @@ public class WebServer extends TextWebSocketHandler {
      * @param data Event data
      */
     public void broadcastEvent(String eventType, Object data) {
-        String message = String.format("{\"type\":\"%s\",\"data\":%s}", eventType, gson.toJson(data));
+        if (follower) {
+            return;
+        }
 
         // Save event to database first
         dbManager.processEvent(eventType, data);
 
         // Then broadcast to WebSocket clients
-        sessions.values().forEach(session -> {
-            try {
-                if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(message));
-                }
-            } catch (IOException e) {
-                logger.error("Error sending WebSocket message", e);
-            }
-        });
+        broadcastTransientEvent(eventType, data);
+    }
+
+    /**
+     * Broadcasts an event to all WebSocket clients without saving it to the database.
+     * Used for notifications that have no stored state, such as send job results.
+     *
+     * @param eventType Event type
+     * @param data Event data
+     */
+    public void broadcastTransientEvent(String eventType, Object data) {
+        publish(eventType, BusEvent.Scope.ALL, null, data);
     }
 
     /**
@@ -136,24 +198,14 @@ public class WebServer extends TextWebSocketHandler {
      * @param data Event data
      */
     public void broadcastChannelEvent(String eventType, String channelId, Object data) {
-        String message = String.format("{\"type\":\"%s\",\"data\":%s}", eventType, gson.toJson(data));
+        if (follower) {
+            return;
+        }
 
         // Save event to database first
         dbManager.processEvent(eventType, data);
 
-        // Send to all sessions subscribed to this channel
-        channelSubscriptions.entrySet().stream()
-                .filter(entry -> entry.getValue().equals(channelId))
-                .map(Map.Entry::getKey)
-                .map(sessions::get)
-                .filter(WebSocketSession::isOpen)
-                .forEach(session -> {
-                    try {
-                        session.sendMessage(new TextMessage(message));
-                    } catch (IOException e) {
-                        logger.error("Error sending channel WebSocket message", e);
-                    }
-                });
+        publish(eventType, BusEvent.Scope.CHANNEL, channelId, data);
     }
 
     /**
@@ -164,24 +216,14 @@ public class WebServer extends TextWebSocketHandler {
      * @param data Event data
      */
     public void broadcastDmEvent(String eventType, String userId, Object data) {
-        String message = String.format("{\"type\":\"%s\",\"data\":%s}", eventType, gson.toJson(data));
+        if (follower) {
+            return;
+        }
 
         // Save event to database first
         dbManager.processEvent(eventType, data);
 
-        // Send to all sessions subscribed to this user's DMs
-        dmSubscriptions.entrySet().stream()
-                .filter(entry -> entry.getValue().equals(userId))
-                .map(Map.Entry::getKey)
-                .map(sessions::get)
-                .filter(WebSocketSession::isOpen)
-                .forEach(session -> {
-                    try {
-                        session.sendMessage(new TextMessage(message));
-                    } catch (IOException e) {
-                        logger.error("Error sending DM WebSocket message", e);
-                    }
-                });
+        publish(eventType, BusEvent.Scope.DM, userId, data);
     }
 
     /**
@@ -192,24 +234,261 @@ public class WebServer extends TextWebSocketHandler {
      * @param data Event data
      */
     public void broadcastGuildEvent(String eventType, String guildId, Object data) {
-        String message = String.format("{\"type\":\"%s\",\"data\":%s}", eventType, gson.toJson(data));
+        if (follower) {
+            return;
+        }
 
         // Save event to database first
         dbManager.processEvent(eventType, data);
 
-        // Send to all sessions subscribed to this guild
-        guildSubscriptions.entrySet().stream()
-                .filter(entry -> entry.getValue().equals(guildId))
+        publish(eventType, BusEvent.Scope.GUILD, guildId, data);
+    }
+
+    /**
+     * Encodes an event once and publishes it on the event bus, which hands it
+     * to {@link #deliver} on this node and on every other web node.
+     */
+    private void publish(String eventType, BusEvent.Scope scope, String target, Object data) {
+        eventBus.publish(new BusEvent(eventType, scope, target, jsonCodec.encodeEvent(eventType, data)));
+    }
+
+    /**
+     * Relays an ephemeral event from a client, such as a typing indicator.
+     * Relays come from this node's own sessions rather than the gateway, so they
+     * are published on follower nodes too. They skip the database event processor,
+     * since the caller saves what it needs, and are not numbered in the event log,
+     * since replaying a stale typing indicator to a resuming client would be wrong.
+     */
+    private void relay(String eventType, BusEvent.Scope scope, String target, Object data) {
+        eventBus.publish(new BusEvent(eventType, scope, target, jsonCodec.encodeEvent(eventType, data), false));
+    }
+
+    /**
+     * Sends an event from the bus to the sessions of this node it is meant for,
+     * after numbering it in the event log unless it is ephemeral.
+     * Runs on the publishing thread, so sends only wait for a session that another
+     * thread is not already writing to; the session decorator buffers the rest.
+     * Events published concurrently on different threads may therefore reach a
+     * session slightly out of sequence order.
+     *
+     * @param event The event
+     */
+    private void deliver(BusEvent event) {
+        EventLog.Entry entry = event.replayable()
+                ? eventLog.append(event)
+                : new EventLog.Entry(0, event.scope(), event.target(), event.payload());
+        // Shared by every session it is sent to
+        OutgoingEvent message = new OutgoingEvent(entry.payload());
+        switch (entry.scope()) {
+            case ALL -> sessions.values().forEach(session -> send(session, entry, message));
+            case CHANNEL -> sendToSubscribers(channelSubscriptions, entry, message);
+            case DM -> sendToSubscribers(dmSubscriptions, entry, message);
+            case GUILD -> sendToSubscribers(guildSubscriptions, entry, message);
+        }
+    }
+
+    private void sendToSubscribers(Map<String, String> subscriptions, EventLog.Entry entry, OutgoingEvent message) {
+        subscriptions.entrySet().stream()
+                .filter(subscription -> subscription.getValue().equals(entry.target()))
                 .map(Map.Entry::getKey)
                 .map(sessions::get)
-                .filter(WebSocketSession::isOpen)
-                .forEach(session -> {
-                    try {
-                        session.sendMessage(new TextMessage(message));
-                    } catch (IOException e) {
-                        logger.error("Error sending guild WebSocket message", e);
-                    }
-                });
+                .filter(Objects::nonNull)
+                .forEach(session -> send(session, entry, message));
+    }
+
+    private void send(WebSocketSession session, EventLog.Entry entry, OutgoingEvent message) {
+        ResumeWindow window = resumeWindows.get(session.getId());
+        if (window == null) {
+            sendMessage(session, message.encoded(encodingOf(session)));
+            return;
+        }
+        // Keeps the sent set in step with what a concurrent resume replays
+        synchronized (window) {
+            if (window.held != null) {
+                window.held.add(new HeldEvent(entry, message));
+                return;
+            }
+            if (entry.seq() > 0 && entry.seq() <= window.replayedThrough) {
+                // Delivered late, after the resume already replayed it
+                return;
+            }
+            if (sendMessage(session, message.encoded(encodingOf(session))) && entry.seq() > 0) {
+                window.record(entry.seq());
+            }
+        }
+    }
+
+    /**
+     * Sends a message to a session if it is still open.
+     *
+     * @return Whether the message was sent or buffered
+     */
+    private boolean sendMessage(WebSocketSession session, WebSocketMessage<?> message) {
+        try {
+            if (session.isOpen()) {
+                session.sendMessage(message);
+                return true;
+            }
+        } catch (SessionLimitExceededException e) {
+            // The decorator has closed the session; cleanup follows from afterConnectionClosed
+            logger.warn("WebSocket session {} fell behind and was closed: {}", session.getId(), e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error sending WebSocket message", e);
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a session is subscribed to the scope of an event.
+     */
+    private boolean isSubscribed(String sessionId, EventLog.Entry entry) {
+        return switch (entry.scope()) {
+            case ALL -> true;
+            case CHANNEL -> entry.target().equals(channelSubscriptions.get(sessionId));
+            case DM -> entry.target().equals(dmSubscriptions.get(sessionId));
+            case GUILD -> entry.target().equals(guildSubscriptions.get(sessionId));
+        };
+    }
+
+    /**
+     * Starts a new event log epoch after the bus lost events, so no client resumes
+     * across the gap, and tells the connected clients to reload their state.
+     */
+    private void resyncAfterGap() {
+        eventLog.rotateEpoch();
+        for (WebSocketSession session : sessions.values()) {
+            try {
+                if (session.isOpen()) {
+                    sendResumeResult(session, "RESYNC", "events missed from the event bus", 0);
+                }
+            } catch (IOException | SessionLimitExceededException e) {
+                logger.error("Error sending WebSocket message", e);
+            }
+        }
+    }
+
+    /**
+     * Replays the events a reconnecting client missed since its last sequence number.
+     * Subscriptions in the request are applied first so scoped events are replayed too.
+     * Without a complete replay the client is told to resync, i.e. reload its state over REST.
+     * Live events for the session are held back until the replay has been sent, so
+     * the client gets the missed events before anything newer.
+     *
+     * @param session The WebSocket session
+     * @param data The RESUME data: epoch, seq and optional guildId, channelId and userId
+     */
+    private void resume(WebSocketSession session, JsonObject data) throws IOException {
+        String sessionId = session.getId();
+        String epoch = data.has("epoch") && !data.get("epoch").isJsonNull() ? data.get("epoch").getAsString() : "";
+        long lastSeq = data.has("seq") ? data.get("seq").getAsLong() : -1;
+
+        if (data.has("guildId")) {
+            guildSubscriptions.put(sessionId, data.get("guildId").getAsString());
+        }
+        if (data.has("channelId")) {
+            channelSubscriptions.put(sessionId, data.get("channelId").getAsString());
+        }
+        if (data.has("userId")) {
+            dmSubscriptions.put(sessionId, data.get("userId").getAsString());
+        }
+
+        ResumeWindow window = resumeWindows.get(sessionId);
+        if (window == null) {
+            logger.info("Client {} cannot resume from {}:{} (resume window passed), resync required", sessionId, epoch, lastSeq);
+            sendResumeResult(session, "RESYNC", "resume window passed", 0);
+            return;
+        }
+        synchronized (window) {
+            window.held = new ArrayList<>();
+        }
+
+        long replayedThrough = 0;
+        try {
+            // Nothing records into the window while events are held, so it is read without the lock
+            List<EventLog.Entry> missed = !window.overflowed ? eventLog.since(epoch, lastSeq) : null;
+            if (missed == null) {
+                String reason = window.overflowed ? "resume window passed" : "events no longer available";
+                logger.info("Client {} cannot resume from {}:{} ({}), resync required", sessionId, epoch, lastSeq, reason);
+                sendResumeResult(session, "RESYNC", reason, 0);
+                return;
+            }
+
+            int replayed = 0;
+            for (EventLog.Entry entry : missed) {
+                // Events sent live since the client connected are not repeated
+                if (!window.sent.contains(entry.seq()) && isSubscribed(sessionId, entry)) {
+                    sendEncoded(session, entry.payload());
+                    replayed++;
+                }
+            }
+            replayedThrough = lastSeq + missed.size();
+            logger.info("Client {} resumed from seq {}, replayed {} events", sessionId, lastSeq, replayed);
+            sendResumeResult(session, "RESUMED", null, replayed);
+        } finally {
+            releaseHeld(session, window, replayedThrough);
+        }
+    }
+
+    /**
+     * Ends a resume: sends the live events held back during the replay, except
+     * those the replay already covered, and stops tracking the session.
+     */
+    private void releaseHeld(WebSocketSession session, ResumeWindow window, long replayedThrough) {
+        synchronized (window) {
+            resumeWindows.remove(session.getId());
+            window.replayedThrough = replayedThrough;
+            WebSocketSession outbound = sessions.getOrDefault(session.getId(), session);
+            for (HeldEvent held : window.held) {
+                if (held.entry().seq() == 0 || held.entry().seq() > replayedThrough) {
+                    sendMessage(outbound, held.message().encoded(encodingOf(session)));
+                }
+            }
+            window.held = null;
+        }
+    }
+
+    private void sendResumeResult(WebSocketSession session, String type, String reason, int replayed) throws IOException {
+        JsonObject resultData = new JsonObject();
+        resultData.addProperty("epoch", eventLog.getEpoch());
+        resultData.addProperty("seq", eventLog.getLatestSeq());
+        if (reason != null) {
+            resultData.addProperty("reason", reason);
+        } else {
+            resultData.addProperty("replayed", replayed);
+        }
+        sendEncoded(session, jsonCodec.encodeEvent(type, resultData));
+    }
+
+    private WireEncoding encodingOf(WebSocketSession session) {
+        return sessionEncodings.getOrDefault(session.getId(), WireEncoding.JSON);
+    }
+
+    /**
+     * Sends an event to one session in the encoding it asked for, through the
+     * session's decorator so it never overlaps a delivery to the same session.
+     *
+     * @param session The WebSocket session
+     * @param json The encoded event
+     */
+    private void sendEncoded(WebSocketSession session, String json) throws IOException {
+        WebSocketSession outbound = sessions.getOrDefault(session.getId(), session);
+        outbound.sendMessage(wireCodec.encode(encodingOf(session), json));
+    }
+
+    /**
+     * Reads the encoding a client asked for with ?encoding= on the WebSocket URL.
+     * Unknown encodings fall back to json, which WELCOME reports.
+     */
+    private WireEncoding negotiateEncoding(WebSocketSession session) {
+        String requested = session.getUri() != null
+                ? UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("encoding")
+                : null;
+        WireEncoding encoding = WireEncoding.fromName(requested);
+        if (encoding == null) {
+            logger.warn("Client {} asked for unsupported encoding {}, using json", session.getId(), requested);
+            return WireEncoding.JSON;
+        }
+        return encoding;
     }
 
     /**
@@ -220,17 +499,30 @@ public class WebServer extends TextWebSocketHandler {
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         String sessionId = session.getId();
-        sessions.put(sessionId, session);
-        logger.info("WebSocket connected: {}", sessionId);
+        WireEncoding encoding = negotiateEncoding(session);
+        WebSocketSession outbound = new ConcurrentWebSocketSessionDecorator(session,
+                SEND_TIME_LIMIT_MILLIS, SEND_BUFFER_LIMIT_BYTES);
+        sessionEncodings.put(sessionId, encoding);
+        resumeWindows.put(sessionId, new ResumeWindow());
+        sessions.put(sessionId, outbound);
+        logger.info("WebSocket connected: {} ({})", sessionId, encoding.id());
 
         // Send a welcome message to confirm connection
         try {
             JsonObject welcomeData = new JsonObject();
             welcomeData.addProperty("message", "Connection established");
             welcomeData.addProperty("sessionId", sessionId);
-
-            String welcomeMessage = String.format("{\"type\":\"WELCOME\",\"data\":%s}", gson.toJson(welcomeData));
-            session.sendMessage(new TextMessage(welcomeMessage));
+            welcomeData.add("readiness", jsonCodec.gson().toJsonTree(readiness.snapshot()));
+            // Kept by the client and sent back in RESUME after a reconnect
+            welcomeData.addProperty("epoch", eventLog.getEpoch());
+            welcomeData.addProperty("seq", eventLog.getLatestSeq());
+            // Always sent as JSON text, with what the client needs to decode the frames after it
+            welcomeData.addProperty("encoding", encoding.id());
+            wireCodec.describe(encoding).forEach((key, value) ->
+                    welcomeData.add(key, jsonCodec.gson().toJsonTree(value)));
+
+            String welcomeMessage = jsonCodec.encodeEvent("WELCOME", welcomeData);
+            outbound.sendMessage(new TextMessage(welcomeMessage));
         } catch (IOException e) {
             logger.error("Error sending welcome message", e);
         }
@@ -365,23 +657,29 @@ public class WebServer extends TextWebSocketHandler {
                             }
 
                             // Relay typing indicator to other clients subscribed to this channel
-                            broadcastChannelEvent("TYPING_START", channelId, data);
+                            relay("TYPING_START", BusEvent.Scope.CHANNEL, channelId, data);
                         } else if (data.has("userId") && !data.get("userId").isJsonNull()) {
                             String userId = data.get("userId").getAsString();
                             logger.info("Client {} is typing in DM with user {}", sessionId, userId);
 
-                            // Save to database - need to get DM channel ID
-                            String dmChannelId = dbManager.getDmChannelIdByUserId(userId);
+                            // Save to database - need the DM channel ID, which is only looked up in memory here
+                            Long userKey = Snowflake.parse(userId);
+                            String dmChannelId = userKey != null ? dmChannelResolver.getKnownChannelId(userKey) : null;
                             if (dmChannelId != null) {
                                 dbManager.saveTypingIndicator(userId, dmChannelId);
                             }
 
                             // Relay typing indicator to other clients subscribed to this DM
-                            broadcastDmEvent("TYPING_START", userId, data);
+                            relay("TYPING_START", BusEvent.Scope.DM, userId, data);
                         }
                     }
                     break;
 
+                case "RESUME":
+                    // Replay events missed while disconnected
+                    resume(session, json.has("data") ? json.getAsJsonObject("data") : new JsonObject());
+                    break;
+
                 case "PING":
                     // Handle ping for keepalive
                     long timestamp = System.currentTimeMillis();
@@ -394,8 +692,8 @@ public class WebServer extends TextWebSocketHandler {
                     pongData.addProperty("timestamp", timestamp);
                     pongData.addProperty("serverTime", System.currentTimeMillis());
 
-                    String pongMessage = String.format("{\"type\":\"PONG\",\"data\":%s}", gson.toJson(pongData));
-                    session.sendMessage(new TextMessage(pongMessage));
+                    String pongMessage = jsonCodec.encodeEvent("PONG", pongData);
+                    sendEncoded(session, pongMessage);
                     break;
 
                 default:
@@ -417,8 +715,8 @@ public class WebServer extends TextWebSocketHandler {
             ackData.addProperty("status", "success");
             ackData.addProperty("timestamp", System.currentTimeMillis());
 
-            String ackMessage = String.format("{\"type\":\"ACK\",\"data\":%s}", gson.toJson(ackData));
-            session.sendMessage(new TextMessage(ackMessage));
+            String ackMessage = jsonCodec.encodeEvent("ACK", ackData);
+            sendEncoded(session, ackMessage);
         } catch (IOException e) {
             logger.error("Error sending acknowledgement message", e);
         }
@@ -460,6 +758,8 @@ public class WebServer extends TextWebSocketHandler {
         dmSubscriptions.remove(sessionId);
         channelSubscriptions.remove(sessionId);
         guildSubscriptions.remove(sessionId);
+        resumeWindows.remove(sessionId);
+        sessionEncodings.remove(sessionId);
     }
 
 
@@ -473,4 +773,58 @@ public class WebServer extends TextWebSocketHandler {
             logger.error("Error cleaning up typing indicators", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * An event being delivered, encoded once for each encoding its sessions use.
+     */
+    private final class OutgoingEvent {
+        private final String json;
+        private final WebSocketMessage<?>[] messages = new WebSocketMessage<?>[WireEncoding.values().length];
+
+        OutgoingEvent(String json) {
+            this.json = json;
+        }
+
+        WebSocketMessage<?> encoded(WireEncoding encoding) {
+            WebSocketMessage<?> message = messages[encoding.ordinal()];
+            if (message == null) {
+                message = wireCodec.encode(encoding, json);
+                messages[encoding.ordinal()] = message;
+            }
+            return message;
+        }
+    }
+
+    /**
+     * A live event held back from a session while its resume is replayed.
+     */
+    private record HeldEvent(EventLog.Entry entry, OutgoingEvent message) {
+    }
+
+    /**
+     * The events sent to a session before it resumed. Tracking stops once the
+     * session has received more than a resume can reasonably follow.
+     */
+    private static final class ResumeWindow {
+        private static final int MAX_TRACKED = 1000;
+
+        private final Set<Long> sent = new HashSet<>();
+        private boolean overflowed;
+        // Live events that arrived during a resume, or null when none is running
+        private List<HeldEvent> held;
+        // The last sequence number the resume replayed, for deliveries that arrive after it ended
+        private long replayedThrough;
+
+        void record(long seq) {
+            if (overflowed) {
+                return;
+            }
+            if (sent.size() >= MAX_TRACKED) {
+                overflowed = true;
+                sent.clear();
+                return;
+            }
+            sent.add(seq);
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes WebSocket events in the encoding each client asked for when connecting.
+ * json sends the event as a text frame. deflate sends the same JSON raw-deflated
+ * against a preset dictionary of the field names and values events repeat, so
+ * even a single small event compresses. binary sends a format version, the event
+ * type as an ID from {@link #EVENT_TYPES}, the sequence number as a varint and the
+ * data as tagged values, with field names as IDs from {@link #KEYS} and snowflake
+ * IDs as varints instead of strings. The tables and the dictionary are sent to
+ * the client in WELCOME.
+ *
+ * Each event is encoded once per encoding in use and shared by every session
+ * using that encoding, unlike permessage-deflate, which compresses per connection.
+ */
+@Component
+public class WireCodec {
+
+    /**
+     * Event type IDs for the binary encoding; the ID of a type is its index plus one.
+     * Types are only ever appended. Types not listed are sent by name.
+     */
+    public static final List<String> EVENT_TYPES = List.of(
+            "MESSAGE_RECEIVED", "MESSAGE_UPDATE", "MESSAGE_DELETE", "MESSAGE_REACTION_ADD",
+            "MESSAGE_REACTION_REMOVE", "MESSAGE_SEND_RESULT", "TYPING_START", "USER_TYPING",
+            "USER_UPDATE_STATUS", "USER_UPDATE_NAME", "USER_UPDATE_AVATAR", "USER_UPDATE_DISCRIMINATOR",
+            "USER_ACTIVITY_START", "USER_ACTIVITY_END", "GUILD_JOIN", "GUILD_LEAVE", "GUILD_READY",
+            "GUILD_UPDATE_NAME", "GUILD_MEMBER_JOIN", "GUILD_MEMBER_REMOVE", "GUILD_MEMBER_UPDATE_NICKNAME",
+            "GUILD_MEMBER_ROLE_ADD", "GUILD_MEMBER_ROLE_REMOVE", "GUILD_BAN", "GUILD_UNBAN",
+            "CHANNEL_CREATE", "CHANNEL_DELETE", "CHANNEL_UPDATE_NAME", "ROLE_CREATE", "ROLE_DELETE",
+            "ROLE_UPDATE_NAME", "EMOJI_ADDED", "EMOJI_REMOVED", "REFRESH_DM_LIST", "READINESS",
+            "ACK", "PONG", "RESUMED", "RESYNC");
+
+    /**
+     * Field name IDs for the binary encoding; the ID of a name is its index plus two.
+     * Names are only ever appended. Names not listed are sent inline.
+     */
+    public static final List<String> KEYS = List.of(
+            "id", "guildId", "guildName", "userId", "userName", "channelId", "channelName", "channelType",
+            "messageId", "content", "author", "timestamp", "name", "username", "globalName", "displayName",
+            "avatarUrl", "discriminator", "isBot", "bot", "status", "oldStatus", "newStatus", "roles", "roleId",
+            "roleName", "color", "position", "member", "nickname", "joinDate", "isOwner", "user", "oldName",
+            "newName", "oldNickname", "newNickname", "oldAvatarUrl", "newAvatarUrl", "emoji", "emojiId",
+            "emojiName", "emojiUrl", "emojiAnimated", "activityType", "activityName", "activityUrl", "iconUrl",
+            "ownerId", "memberCount", "action", "reason", "message", "serverTime", "epoch", "seq", "replayed",
+            "bannerUrl", "accentColor");
+
+    private static final int FORMAT_VERSION = 1;
+
+    // Value tags of the binary encoding
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_NUMBER = 4;
+    private static final int TAG_STRING = 5;
+    private static final int TAG_SNOWFLAKE = 6;
+    private static final int TAG_OBJECT = 7;
+    private static final int TAG_ARRAY = 8;
+    private static final int TAG_END = 9;
+
+    // Object entries start with a key: 0 ends the object, 1 is followed by the name, higher values are KEYS IDs
+    private static final int KEY_END = 0;
+    private static final int KEY_INLINE = 1;
+
+    private static final Map<String, Integer> EVENT_TYPE_IDS = indexOf(EVENT_TYPES, 1);
+    private static final Map<String, Integer> KEY_IDS = indexOf(KEYS, 2);
+
+    private static final String DICTIONARY = buildDictionary();
+    private static final byte[] DICTIONARY_BYTES = DICTIONARY.getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadLocal<Deflater> deflaters =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private final Map<WireEncoding, EncodingStats> stats = new EnumMap<>(WireEncoding.class);
+
+    public WireCodec() {
+        for (WireEncoding encoding : WireEncoding.values()) {
+            stats.put(encoding, new EncodingStats());
+        }
+    }
+
+    private static Map<String, Integer> indexOf(List<String> table, int firstId) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < table.size(); i++) {
+            ids.put(table.get(i), i + firstId);
+        }
+        return ids;
+    }
+
+    /**
+     * Builds the deflate dictionary. Deflate finds matches nearest the end of the
+     * dictionary cheapest, so the envelope every event starts with comes last.
+     */
+    private static String buildDictionary() {
+        StringBuilder dictionary = new StringBuilder();
+        dictionary.append("\"online\"\"idle\"\"dnd\"\"offline\"nulltruefalse");
+        dictionary.append("https://cdn.discordapp.com/emojis/https://cdn.discordapp.com/icons/");
+        dictionary.append("https://cdn.discordapp.com/embed/avatars/.png\"https://cdn.discordapp.com/avatars/");
+        for (int i = KEYS.size() - 1; i >= 0; i--) {
+            dictionary.append(",\"").append(KEYS.get(i)).append("\":");
+        }
+        for (int i = EVENT_TYPES.size() - 1; i >= 0; i--) {
+            dictionary.append("\"type\":\"").append(EVENT_TYPES.get(i)).append("\",\"data\":{");
+        }
+        dictionary.append("{\"seq\":");
+        return dictionary.toString();
+    }
+
+    /**
+     * Gets what a client needs in WELCOME to decode an encoding.
+     *
+     * @param encoding The encoding of the session
+     * @return The dictionary for deflate, the tables for binary, nothing for json
+     */
+    public Map<String, Object> describe(WireEncoding encoding) {
+        Map<String, Object> description = new HashMap<>();
+        switch (encoding) {
+            case DEFLATE -> description.put("dictionary", DICTIONARY);
+            case BINARY -> {
+                description.put("formatVersion", FORMAT_VERSION);
+                description.put("eventTypes", EVENT_TYPES);
+                description.put("keys", KEYS);
+            }
+            case JSON -> {
+            }
+        }
+        return description;
+    }
+
+    /**
+     * Encodes an event as a WebSocket message.
+     *
+     * @param encoding The encoding of the session
+     * @param json The event as JSON
+     * @return A text message for json, a binary message otherwise
+     */
+    public WebSocketMessage<?> encode(WireEncoding encoding, String json) {
+        long start = System.nanoTime();
+        WebSocketMessage<?> message;
+        int bytes;
+        if (encoding == WireEncoding.JSON) {
+            message = new TextMessage(json);
+            bytes = message.getPayloadLength();
+        } else {
+            byte[] frame = encodeBytes(encoding, json);
+            message = new BinaryMessage(frame);
+            bytes = frame.length;
+        }
+        stats.get(encoding).record(System.nanoTime() - start, bytes);
+        return message;
+    }
+
+    /**
+     * Encodes an event to the bytes sent on the wire.
+     *
+     * @param encoding The encoding
+     * @param json The event as JSON
+     * @return The frame payload
+     */
+    public byte[] encodeBytes(WireEncoding encoding, String json) {
+        return switch (encoding) {
+            case JSON -> json.getBytes(StandardCharsets.UTF_8);
+            case DEFLATE -> deflate(json.getBytes(StandardCharsets.UTF_8));
+            case BINARY -> toBinary(json);
+        };
+    }
+
+    /**
+     * Decodes a frame payload back to the event JSON, as a client would.
+     *
+     * @param encoding The encoding
+     * @param frame The frame payload
+     * @return The event as JSON
+     */
+    public String decode(WireEncoding encoding, byte[] frame) {
+        return switch (encoding) {
+            case JSON -> new String(frame, StandardCharsets.UTF_8);
+            case DEFLATE -> new String(inflate(frame), StandardCharsets.UTF_8);
+            case BINARY -> fromBinary(frame);
+        };
+    }
+
+    private byte[] deflate(byte[] input) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY_BYTES);
+        deflater.setInput(input);
+        deflater.finish();
+        Output out = new Output(input.length / 2 + 16);
+        byte[] chunk = new byte[Math.max(64, input.length + 16)];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] inflate(byte[] frame) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setDictionary(DICTIONARY_BYTES);
+            inflater.setInput(frame);
+            Output out = new Output(frame.length * 4);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && inflater.needsInput()) {
+                    throw new IllegalArgumentException("Truncated deflate frame");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Malformed deflate frame", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private byte[] toBinary(String json) {
+        Output data = new Output(json.length() / 2);
+        String type = "";
+        long seq = 0;
+        boolean hasData = false;
+        try {
+            JsonReader in = new JsonReader(new StringReader(json));
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "seq" -> seq = in.nextLong();
+                    case "type" -> type = in.nextString();
+                    case "data" -> {
+                        writeValue(in, data);
+                        hasData = true;
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!hasData) {
+            data.write(TAG_NULL);
+        }
+
+        Output out = new Output(data.size() + 16);
+        out.write(FORMAT_VERSION);
+        Integer typeId = EVENT_TYPE_IDS.get(type);
+        if (typeId != null) {
+            out.writeVarint(typeId);
+        } else {
+            out.writeVarint(0);
+            out.writeString(type);
+        }
+        out.writeVarint(seq);
+        out.append(data);
+        return out.toByteArray();
+    }
+
+    private static void writeValue(JsonReader in, Output out) throws IOException {
+        JsonToken token = in.peek();
+        switch (token) {
+            case NULL -> {
+                in.nextNull();
+                out.write(TAG_NULL);
+            }
+            case BOOLEAN -> out.write(in.nextBoolean() ? TAG_TRUE : TAG_FALSE);
+            case NUMBER -> {
+                String text = in.nextString();
+                Long value = parseInteger(text);
+                if (value != null) {
+                    out.write(TAG_INTEGER);
+                    out.writeVarint((value << 1) ^ (value >> 63));
+                } else {
+                    // Sent as written, so it reads back exactly
+                    out.write(TAG_NUMBER);
+                    out.writeString(text);
+                }
+            }
+            case STRING -> {
+                String text = in.nextString();
+                if (isSnowflake(text)) {
+                    out.write(TAG_SNOWFLAKE);
+                    out.writeVarint(Long.parseLong(text));
+                } else {
+                    out.write(TAG_STRING);
+                    out.writeString(text);
+                }
+            }
+            case BEGIN_OBJECT -> {
+                in.beginObject();
+                out.write(TAG_OBJECT);
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    Integer keyId = KEY_IDS.get(name);
+                    if (keyId != null) {
+                        out.writeVarint(keyId);
+                    } else {
+                        out.writeVarint(KEY_INLINE);
+                        out.writeString(name);
+                    }
+                    writeValue(in, out);
+                }
+                in.endObject();
+                out.writeVarint(KEY_END);
+            }
+            case BEGIN_ARRAY -> {
+                in.beginArray();
+                out.write(TAG_ARRAY);
+                while (in.hasNext()) {
+                    writeValue(in, out);
+                }
+                in.endArray();
+                out.write(TAG_END);
+            }
+            default -> throw new IOException("Unexpected " + token + " in event JSON");
+        }
+    }
+
+    /**
+     * Parses a JSON number that is written exactly as its long value would be.
+     */
+    private static Long parseInteger(String text) {
+        int length = text.length();
+        if (length == 0 || length > 20) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if ((c < '0' || c > '9') && !(c == '-' && i == 0)) {
+                return null;
+            }
+        }
+        try {
+            long value = Long.parseLong(text);
+            return Long.toString(value).equals(text) ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a string is a snowflake ID that reads back the same from its long value.
+     */
+    private static boolean isSnowflake(String text) {
+        int length = text.length();
+        if (length < 15 || length > 19 || text.charAt(0) == '0') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return length < 19 || text.compareTo(Long.toString(Long.MAX_VALUE)) <= 0;
+    }
+
+    private String fromBinary(byte[] frame) {
+        Input in = new Input(frame);
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary format version " + version);
+        }
+        int typeId = (int) in.readVarint();
+        String type = typeId == 0 ? in.readString() : EVENT_TYPES.get(typeId - 1);
+        long seq = in.readVarint();
+
+        StringWriter buffer = new StringWriter(frame.length * 2);
+        try {
+            JsonWriter out = new JsonWriter(buffer);
+            out.beginObject();
+            if (seq > 0) {
+                out.name("seq").value(seq);
+            }
+            out.name("type").value(type);
+            out.name("data");
+            readValue(in.readByte(), in, out);
+            out.endObject();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
+
+    private static void readValue(int tag, Input in, JsonWriter out) throws IOException {
+        switch (tag) {
+            case TAG_NULL -> out.nullValue();
+            case TAG_FALSE -> out.value(false);
+            case TAG_TRUE -> out.value(true);
+            case TAG_INTEGER -> {
+                long zigzag = in.readVarint();
+                out.value((zigzag >>> 1) ^ -(zigzag & 1));
+            }
+            case TAG_NUMBER -> out.jsonValue(in.readString());
+            case TAG_STRING -> out.value(in.readString());
+            case TAG_SNOWFLAKE -> out.value(Long.toString(in.readVarint()));
+            case TAG_OBJECT -> {
+                out.beginObject();
+                for (int key = (int) in.readVarint(); key != KEY_END; key = (int) in.readVarint()) {
+                    out.name(key == KEY_INLINE ? in.readString() : KEYS.get(key - 2));
+                    readValue(in.readByte(), in, out);
+                }
+                out.endObject();
+            }
+            case TAG_ARRAY -> {
+                out.beginArray();
+                for (int element = in.readByte(); element != TAG_END; element = in.readByte()) {
+                    readValue(element, in, out);
+                }
+                out.endArray();
+            }
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * Measures every encoding on a recorded event stream: each event is encoded
+     * and decoded again, as the server and a client would. A warm-up pass runs first
+     * so the measured pass runs compiled code. Time is thread CPU time where the
+     * JVM supports it.
+     *
+     * @param events The events as JSON, as they were sent
+     * @return Bytes per event and encode and decode time per event of each encoding
+     */
+    public Map<String, Object> benchmark(List<String> events) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpuTime = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+        int count = events.size();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("events", count);
+        result.put("clock", cpuTime ? "thread-cpu" : "wall");
+        Map<String, Object> encodings = new HashMap<>();
+        result.put("encodings", encodings);
+        if (count == 0) {
+            return result;
+        }
+
+        long jsonBytes = 0;
+        for (WireEncoding encoding : WireEncoding.values()) {
+            for (String event : events) {
+                decode(encoding, encodeBytes(encoding, event));
+            }
+
+            byte[][] frames = new byte[count][];
+            long start = clock(threads, cpuTime);
+            for (int i = 0; i < count; i++) {
+                frames[i] = encodeBytes(encoding, events.get(i));
+            }
+            long encodeNanos = clock(threads, cpuTime) - start;
+
+            String[] decoded = new String[count];
+            start = clock(threads, cpuTime);
+            for (int i = 0; i < count; i++) {
+                decoded[i] = decode(encoding, frames[i]);
+            }
+            long decodeNanos = clock(threads, cpuTime) - start;
+
+            long bytes = 0;
+            int mismatches = 0;
+            for (int i = 0; i < count; i++) {
+                bytes += frames[i].length;
+                if (!JsonParser.parseString(decoded[i]).equals(JsonParser.parseString(events.get(i)))) {
+                    mismatches++;
+                }
+            }
+            if (encoding == WireEncoding.JSON) {
+                jsonBytes = bytes;
+            }
+
+            Map<String, Object> measured = new HashMap<>();
+            measured.put("totalBytes", bytes);
+            measured.put("bytesPerEvent", (double) bytes / count);
+            measured.put("sizeVsJson", jsonBytes > 0 ? (double) bytes / jsonBytes : 1.0);
+            measured.put("encodeMicrosPerEvent", encodeNanos / 1000.0 / count);
+            measured.put("decodeMicrosPerEvent", decodeNanos / 1000.0 / count);
+            measured.put("mismatches", mismatches);
+            encodings.put(encoding.id(), measured);
+        }
+        return result;
+    }
+
+    private static long clock(ThreadMXBean threads, boolean cpuTime) {
+        return cpuTime ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Gets encoding statistics of the events sent so far.
+     *
+     * @return Events, bytes per event and encode time per event of each encoding
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        stats.forEach((encoding, s) -> result.put(encoding.id(), s.toMap()));
+        return result;
+    }
+
+    private static final class EncodingStats {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void record(long elapsedNanos, int size) {
+            events.increment();
+            bytes.add(size);
+            nanos.add(elapsedNanos);
+        }
+
+        Map<String, Object> toMap() {
+            long n = events.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("events", n);
+            map.put("totalBytes", bytes.sum());
+            map.put("avgBytes", n > 0 ? (double) bytes.sum() / n : 0);
+            map.put("avgMicros", n > 0 ? nanos.sum() / 1000.0 / n : 0);
+            return map;
+        }
+    }
+
+    /**
+     * Byte buffer with the varint and string writes of the binary encoding.
+     */
+    private static final class Output extends ByteArrayOutputStream {
+        Output(int size) {
+            super(Math.max(32, size));
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeString(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void append(Output other) {
+            write(other.buf, 0, other.count);
+        }
+    }
+
+    /**
+     * Reads the values written by {@link Output}.
+     */
+    private static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated binary frame");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        String readString() {
+            int length = (int) readVarint();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated binary frame");
+            }
+            String text = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return text;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.cottonlesergal.ucontrolbot.api;
+
+/**
+ * The encodings a WebSocket client can ask for with ?encoding= when connecting.
+ */
+public enum WireEncoding {
+    /** JSON text frames, the default */
+    JSON,
+    /** JSON deflated against a preset dictionary, in binary frames */
+    DEFLATE,
+    /** Tagged binary values with event types and field names as table IDs */
+    BINARY;
+
+    /**
+     * Gets the encoding a client asked for.
+     *
+     * @param name The requested encoding, case-insensitive
+     * @return The encoding, or null if it is not supported
+     */
+    public static WireEncoding fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return JSON;
+        }
+        for (WireEncoding encoding : values()) {
+            if (encoding.name().equalsIgnoreCase(name.trim())) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the name clients use for the encoding.
+     *
+     * @return The lower-case name
+     */
+    public String id() {
+        return name().toLowerCase();
+    }
+}
@@ -1,7 +1,8 @@
 package com.cottonlesergal.ucontrolbot.api.controllers;
 
 import com.cottonlesergal.ucontrolbot.config.Config;
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.config.ReadinessTracker;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
 import net.dv8tion.jda.api.entities.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -20,18 +21,38 @@ import java.util.Map;
 @RequestMapping("/api/bot")
 public class BotController {
 
-    private final JDA jda;
+    private final DiscordRuntime discord;
     private final Config config;
+    private final ReadinessTracker readiness;
 
     /**
-     * Initializes the bot controller with the JDA instance.
+     * Initializes the bot controller with the Discord runtime.
      *
-     * @param jda The JDA instance
+     * @param discord The Discord runtime
+     * @param config The configuration
+     * @param readiness The startup readiness tracker
      */
     @Autowired
-    public BotController(JDA jda, Config config) {
-        this.jda = jda;
+    public BotController(DiscordRuntime discord, Config config, ReadinessTracker readiness) {
+        this.discord = discord;
         this.config = config;
+        this.readiness = readiness;
+    }
+
+    /**
+     * Gets the startup readiness of the Discord connection.
+     * Guild data is served while guilds are still loading; clients can use this
+     * (or the READINESS WebSocket event) to show that it is incomplete.
+     *
+     * @return Readiness, with 503 Service Unavailable until every shard is ready
+     */
+    @GetMapping("/readiness")
+    public ResponseEntity<?> getReadiness() {
+        Map<String, Object> snapshot = readiness.snapshot();
+        if (!readiness.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(snapshot);
+        }
+        return ResponseEntity.ok(snapshot);
     }
 
     /**
@@ -41,7 +62,7 @@ public class BotController {
      */
     @GetMapping("/info")
     public ResponseEntity<?> getBotInfo() {
-        User selfUser = jda.getSelfUser();
+        User selfUser = discord.getSelfUser();
 
         Map<String, Object> botInfo = new HashMap<>();
         botInfo.put("id", selfUser.getId());
@@ -60,7 +81,7 @@ public class BotController {
 
             try {
                 // Try to retrieve the owner user by ID
-                owner = jda.retrieveUserById(ownerId).complete();
+                owner = discord.retrieveUserById(ownerId).complete();
             } catch (Exception e) {
                 /*logger.error("Could not retrieve owner user", e)*/;
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
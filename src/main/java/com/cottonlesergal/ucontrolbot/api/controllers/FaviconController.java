@@ -26,7 +26,7 @@ public class FaviconController {
     public ResponseEntity<byte[]> getFavicon() {
         try {
             // Get the bot's avatar URL from JDA
-            String avatarUrl = bot.getJda().getSelfUser().getEffectiveAvatarUrl();
+            String avatarUrl = bot.getDiscord().getSelfUser().getEffectiveAvatarUrl();
 
             // For Discord avatars, we can request a specific size and format
             // Make sure it's the right size for a favicon (typically 16x16, 32x32, or 64x64)
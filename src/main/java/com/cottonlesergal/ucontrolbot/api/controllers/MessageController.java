@@ -1,17 +1,18 @@
 package com.cottonlesergal.ucontrolbot.api.controllers;
 
-import com.cottonlesergal.ucontrolbot.Bot;
-import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
+import com.cottonlesergal.ucontrolbot.api.MessageSendQueue;
+import com.cottonlesergal.ucontrolbot.api.WebServer;
+import com.cottonlesergal.ucontrolbot.db.DatabaseManager;
+import com.cottonlesergal.ucontrolbot.services.ApiErrors;
+import com.cottonlesergal.ucontrolbot.services.MessageService;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
+import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Message;
-import net.dv8tion.jda.api.entities.MessageEmbed;
-import net.dv8tion.jda.api.entities.User;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
-import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.exceptions.ErrorResponseException;
-import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.utils.TimeUtil;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,11 +21,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * REST controller for message-related API endpoints.
@@ -34,16 +40,29 @@ import java.util.stream.Collectors;
 public class MessageController {
     private static final Logger logger = LoggerFactory.getLogger(MessageController.class);
 
-    private final Bot bot;
+    private static final int MAX_BULK_IDS = 500;
+    // Below the servlet container's default async timeout of 30 seconds
+    private static final long SEND_TIMEOUT_SECONDS = 25;
+    private static final int BULK_DELETE_CHUNK_SIZE = 100;
+    // Discord's bulk delete rejects messages older than two weeks; keep a minute of slack for clock skew
+    private static final long BULK_DELETE_MAX_AGE_MS = TimeUnit.DAYS.toMillis(14) - TimeUnit.MINUTES.toMillis(1);
+
+    private final MessageService messageService;
+    private final WebServer webServer;
+    private final DatabaseManager dbManager;
 
     /**
-     * Initializes the message controller with the specified bot instance.
+     * Initializes the message controller.
      *
-     * @param bot The bot instance
+     * @param messageService The shared message operations
+     * @param webServer The WebSocket server used to report queued send results
+     * @param dbManager The database manager used to persist sent and fetched messages
      */
     @Autowired
-    public MessageController(Bot bot) {
-        this.bot = bot;
+    public MessageController(MessageService messageService, WebServer webServer, DatabaseManager dbManager) {
+        this.messageService = messageService;
+        this.webServer = webServer;
+        this.dbManager = dbManager;
     }
 
     /**
@@ -56,52 +75,19 @@ public class MessageController {
      * @return List of messages
      */
     @GetMapping
-    public ResponseEntity<?> getMessages(
+    public CompletableFuture<ResponseEntity<?>> getMessages(
             @PathVariable String channelId,
             @RequestParam(required = false, defaultValue = "50") int limit,
             @RequestParam(required = false) String before,
             @RequestParam(required = false) String after) {
-        try {
-            MessageChannel channel = getChannelById(channelId);
-            if (channel == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of(
-                                "error", "Channel not found",
-                                "message", "No channel found with ID: " + channelId
-                        ));
-            }
-
-            // Fetch messages with optional pagination
-            List<Message> messages;
-            if (before != null && !before.isEmpty()) {
-                messages = channel.getHistoryBefore(before, limit).complete().getRetrievedHistory();
-            } else if (after != null && !after.isEmpty()) {
-                messages = channel.getHistoryAfter(after, limit).complete().getRetrievedHistory();
-            } else {
-                messages = channel.getHistory().retrievePast(limit).complete();
-            }
-
-            List<Map<String, Object>> messageDataList = messages.stream()
-                    .map(this::mapMessage)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(messageDataList);
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error getting messages for channel: " + channelId, e);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(Map.of(
-                            "error", "Discord API error",
-                            "code", e.getErrorCode(),
-                            "message", e.getMeaning()
-                    ));
-        } catch (Exception e) {
-            logger.error("Error getting messages for channel: " + channelId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "error", "Internal server error",
-                            "message", e.getMessage()
-                    ));
+        MessageChannel channel = messageService.getChannel(channelId);
+        if (channel == null) {
+            return CompletableFuture.completedFuture(channelNotFound(channelId));
         }
+
+        return messageService.getHistory(channel, limit, before, after)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(error -> failure("getting messages for channel: " + channelId, error));
     }
 
     /**
@@ -112,113 +98,127 @@ public class MessageController {
      * @return Message information
      */
     @GetMapping("/{messageId}")
-    public ResponseEntity<?> getMessage(
+    public CompletableFuture<ResponseEntity<?>> getMessage(
             @PathVariable String channelId,
             @PathVariable String messageId) {
-        try {
-            MessageChannel channel = getChannelById(channelId);
-            if (channel == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of(
-                                "error", "Channel not found",
-                                "message", "No channel found with ID: " + channelId
-                        ));
-            }
-
-            Message message = channel.retrieveMessageById(messageId).complete();
-            Map<String, Object> messageData = mapMessage(message);
-
-            return ResponseEntity.ok(messageData);
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error getting message: " + messageId, e);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(Map.of(
-                            "error", "Discord API error",
-                            "code", e.getErrorCode(),
-                            "message", e.getMeaning()
-                    ));
-        } catch (Exception e) {
-            logger.error("Error getting message: " + messageId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "error", "Internal server error",
-                            "message", e.getMessage()
-                    ));
+        MessageChannel channel = messageService.getChannel(channelId);
+        if (channel == null) {
+            return CompletableFuture.completedFuture(channelNotFound(channelId));
         }
+
+        return messageService.getMessage(channel, messageId)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(error -> failure("getting message: " + messageId, error));
     }
 
     /**
      * Sends a message to a specific channel.
+     * Sends go through the per-channel outbound queue. With async=true the request
+     * returns immediately with a job ID, and the result is pushed to WebSocket
+     * clients as a MESSAGE_SEND_RESULT event. Otherwise the request waits up to
+     * SEND_TIMEOUT_SECONDS for the send; if the queue is slower, it answers 504 with
+     * the job ID and the result is pushed the same way once the message is sent.
      *
      * @param channelId Channel ID
      * @param request Message request body
-     * @return Sent message information
+     * @param async Whether to return before the message is sent
+     * @return Sent message information, or the queued job when async
      */
     @PostMapping
-    public ResponseEntity<?> sendMessage(
+    public CompletableFuture<ResponseEntity<?>> sendMessage(
             @PathVariable String channelId,
-            @RequestBody MessageRequest request) {
-        try {
-            MessageChannel channel = getChannelById(channelId);
-            if (channel == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of(
-                                "error", "Channel not found",
-                                "message", "No channel found with ID: " + channelId
-                        ));
-            }
-
-            if ((request.getContent() == null || request.getContent().isEmpty()) &&
-                    (request.getEmbed() == null)) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of(
-                                "error", "Bad request",
-                                "message", "Message must contain content or embed"
-                        ));
-            }
+            @RequestBody MessageRequest request,
+            @RequestParam(required = false, defaultValue = "false") boolean async) {
+        MessageChannel channel = messageService.getChannel(channelId);
+        if (channel == null) {
+            return CompletableFuture.completedFuture(channelNotFound(channelId));
+        }
 
-            // Build message
-            MessageCreateBuilder messageBuilder = new MessageCreateBuilder();
+        if ((request.getContent() == null || request.getContent().isEmpty()) &&
+                (request.getEmbed() == null)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", "Bad request",
+                            "message", "Message must contain content or embed"
+                    )));
+        }
 
-            // Add content if present
-            if (request.getContent() != null && !request.getContent().isEmpty()) {
-                messageBuilder.setContent(request.getContent());
-            }
+        // Build and queue message
+        MessageSendQueue.SendJob job;
+        try {
+            MessageCreateData messageData = messageService.buildMessage(
+                    request.getContent(), request.getEmbed(), request.isSuppressEmbeds());
+            job = messageService.send(channel, messageData);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of(
+                            "error", "Too many requests",
+                            "message", e.getMessage()
+                    )));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure("sending message to channel: " + channelId, e));
+        }
 
-            // Add embed if present
-            if (request.getEmbed() != null) {
-                MessageEmbed embed = buildEmbed(request.getEmbed());
-                messageBuilder.addEmbeds(embed);
-            }
+        if (async) {
+            job.getResult().whenComplete((message, error) -> reportSendResult(job, channel, message, error));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.ACCEPTED).body(jobData(job, "queued")));
+        }
 
-            // Set message flags if needed
-            if (request.isSuppressEmbeds()) {
-                messageBuilder.setSuppressEmbeds(true);
-            }
+        // The timeout applies to this request only; the job stays queued
+        return job.getResult()
+                .thenApply(message -> {
+                    Map<String, Object> responseData = messageService.mapMessage(message);
+                    dbManager.processEventAsync("MESSAGE_RECEIVED", messageService.toPersistData(responseData, message, channel));
+                    return ResponseEntity.status(HttpStatus.CREATED).<Object>body(responseData);
+                })
+                .orTimeout(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .<ResponseEntity<?>>thenApply(response -> response)
+                .exceptionally(error -> {
+                    if (ApiErrors.unwrap(error) instanceof TimeoutException) {
+                        job.getResult().whenComplete((message, sendError) -> reportSendResult(job, channel, message, sendError));
+                        Map<String, Object> body = jobData(job, "queued");
+                        body.put("error", "Gateway timeout");
+                        body.put("message", "Message not sent within " + SEND_TIMEOUT_SECONDS
+                                + " seconds; the result will be sent as MESSAGE_SEND_RESULT");
+                        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(body);
+                    }
+                    return failure("sending message to channel: " + channelId, error);
+                });
+    }
 
-            // Send message
-            MessageCreateData messageData = messageBuilder.build();
-            Message message = channel.sendMessage(messageData).complete();
+    private static Map<String, Object> jobData(MessageSendQueue.SendJob job, String status) {
+        Map<String, Object> jobData = new HashMap<>();
+        jobData.put("jobId", job.getId());
+        jobData.put("channelId", job.getChannelId());
+        jobData.put("status", status);
+        jobData.put("position", job.getPosition());
+        return jobData;
+    }
 
-            // Return created message
-            Map<String, Object> responseData = mapMessage(message);
-            return ResponseEntity.status(HttpStatus.CREATED).body(responseData);
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error sending message to channel: " + channelId, e);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(Map.of(
-                            "error", "Discord API error",
-                            "code", e.getErrorCode(),
-                            "message", e.getMeaning()
-                    ));
-        } catch (Exception e) {
-            logger.error("Error sending message to channel: " + channelId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "error", "Internal server error",
-                            "message", e.getMessage()
-                    ));
+    /**
+     * Persists a queued send and reports its result to WebSocket clients.
+     */
+    private void reportSendResult(MessageSendQueue.SendJob job, MessageChannel channel, Message message, Throwable error) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("jobId", job.getId());
+        result.put("channelId", job.getChannelId());
+
+        if (error == null) {
+            Map<String, Object> messageData = messageService.mapMessage(message);
+            dbManager.processEventAsync("MESSAGE_RECEIVED", messageService.toPersistData(messageData, message, channel));
+            result.put("status", "sent");
+            result.put("message", messageData);
+        } else {
+            result.put("status", "failed");
+            if (error instanceof ErrorResponseException e) {
+                result.put("code", e.getErrorCode());
+                result.put("error", e.getMeaning());
+            } else {
+                result.put("error", error.getMessage());
+            }
         }
+
+        webServer.broadcastTransientEvent("MESSAGE_SEND_RESULT", result);
     }
 
     /**
@@ -230,53 +230,32 @@ public class MessageController {
      * @return Edited message information
      */
     @PatchMapping("/{messageId}")
-    public ResponseEntity<?> editMessage(
+    public CompletableFuture<ResponseEntity<?>> editMessage(
             @PathVariable String channelId,
             @PathVariable String messageId,
             @RequestBody MessageRequest request) {
-        try {
-            MessageChannel channel = getChannelById(channelId);
-            if (channel == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of(
-                                "error", "Channel not found",
-                                "message", "No channel found with ID: " + channelId
-                        ));
-            }
+        MessageChannel channel = messageService.getChannel(channelId);
+        if (channel == null) {
+            return CompletableFuture.completedFuture(channelNotFound(channelId));
+        }
 
+        try {
             // Check if we're trying to edit our own message
-            Message message = channel.retrieveMessageById(messageId).complete();
-            if (!message.getAuthor().getId().equals(bot.getJda().getSelfUser().getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of(
-                                "error", "Forbidden",
-                                "message", "Cannot edit messages from other users"
-                        ));
-            }
-
-            // Build edited message
-            if (request.getContent() != null) {
-                message = message.editMessage(request.getContent()).complete();
-            }
-
-            // Return updated message
-            Map<String, Object> responseData = mapMessage(message);
-            return ResponseEntity.ok(responseData);
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error editing message: " + messageId, e);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(Map.of(
-                            "error", "Discord API error",
-                            "code", e.getErrorCode(),
-                            "message", e.getMeaning()
-                    ));
+            return messageService.canEdit(channel, messageId)
+                    .thenCompose(allowed -> {
+                        if (!allowed) {
+                            return CompletableFuture.<ResponseEntity<?>>completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                    .body(Map.of(
+                                            "error", "Forbidden",
+                                            "message", "Cannot edit messages from other users"
+                                    )));
+                        }
+                        return messageService.editMessage(channel, messageId, request.getContent())
+                                .<ResponseEntity<?>>thenApply(ResponseEntity::ok);
+                    })
+                    .exceptionally(error -> failure("editing message: " + messageId, error));
         } catch (Exception e) {
-            logger.error("Error editing message: " + messageId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "error", "Internal server error",
-                            "message", e.getMessage()
-                    ));
+            return CompletableFuture.completedFuture(failure("editing message: " + messageId, e));
         }
     }
 
@@ -288,352 +267,293 @@ public class MessageController {
      * @return Success response
      */
     @DeleteMapping("/{messageId}")
-    public ResponseEntity<?> deleteMessage(
+    public CompletableFuture<ResponseEntity<?>> deleteMessage(
             @PathVariable String channelId,
             @PathVariable String messageId) {
+        MessageChannel channel = messageService.getChannel(channelId);
+        if (channel == null) {
+            return CompletableFuture.completedFuture(channelNotFound(channelId));
+        }
+
+        try {
+            return messageService.canDelete(channel, messageId)
+                    .thenCompose(allowed -> {
+                        if (!allowed) {
+                            return CompletableFuture.<ResponseEntity<?>>completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                    .body(Map.of(
+                                            "error", "Forbidden",
+                                            "message", "Cannot delete this message due to permissions"
+                                    )));
+                        }
+                        // Return success with no content
+                        return messageService.deleteMessage(channel, messageId)
+                                .<ResponseEntity<?>>thenApply(done -> ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+                    })
+                    .exceptionally(error -> failure("deleting message: " + messageId, error));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure("deleting message: " + messageId, e));
+        }
+    }
+
+    /**
+     * Gets several messages from a channel.
+     * Messages stored in the local database are served from there; only the
+     * remaining IDs are fetched from Discord, in parallel, and then persisted.
+     * Every message has the shape of the single-message endpoints.
+     *
+     * @param channelId Channel ID
+     * @param ids Message IDs, comma-separated
+     * @return The messages found, in request order, and the IDs that do not exist
+     */
+    @GetMapping("/bulk")
+    public CompletableFuture<ResponseEntity<?>> bulkGetMessages(
+            @PathVariable String channelId,
+            @RequestParam List<String> ids) {
         try {
-            MessageChannel channel = getChannelById(channelId);
+            MessageChannel channel = messageService.getChannel(channelId);
             if (channel == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of(
-                                "error", "Channel not found",
-                                "message", "No channel found with ID: " + channelId
-                        ));
+                return CompletableFuture.completedFuture(channelNotFound(channelId));
             }
 
-            // Try to get the message first to verify it exists
-            Message message = channel.retrieveMessageById(messageId).complete();
-
-            // Check if we can delete this message
-            boolean canDelete = message.getAuthor().getId().equals(bot.getJda().getSelfUser().getId());
-            if (!canDelete && channel instanceof GuildMessageChannel) {
-                GuildMessageChannel guildChannel = (GuildMessageChannel) channel;
-                Guild guild = guildChannel.getGuild();
-                Member selfMember = guild.getSelfMember();
-                canDelete = selfMember.hasPermission(net.dv8tion.jda.api.Permission.MESSAGE_MANAGE);
+            ResponseEntity<?> invalid = validateBulkIds(ids);
+            if (invalid != null) {
+                return CompletableFuture.completedFuture(invalid);
             }
-
-            if (!canDelete) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of(
-                                "error", "Forbidden",
-                                "message", "Cannot delete this message due to permissions"
-                        ));
+            Set<String> messageIds = new LinkedHashSet<>(ids);
+
+            // Serve what we can from the database
+            Map<String, Map<String, Object>> found = new HashMap<>();
+            dbManager.getMessagesByIds(channelId, messageIds)
+                    .forEach((messageId, stored) -> found.put(messageId, messageService.mapStoredMessage(stored)));
+            int fromDatabase = found.size();
+
+            // Fetch the rest from Discord in parallel
+            List<CompletableFuture<BulkOutcome>> fetches = new ArrayList<>();
+            for (String messageId : messageIds) {
+                if (!found.containsKey(messageId)) {
+                    fetches.add(channel.retrieveMessageById(messageId).submit()
+                            .thenApply(message -> {
+                                Map<String, Object> messageData = messageService.mapMessage(message);
+                                dbManager.processEventAsync("MESSAGE_RECEIVED", messageService.toPersistData(messageData, message, channel));
+                                return messageData;
+                            })
+                            .handle((messageData, error) -> new BulkOutcome(List.of(messageId), messageData, error)));
+                }
             }
 
-            // Delete message
-            message.delete().complete();
-
-            // Return success with no content
-            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error deleting message: " + messageId, e);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(Map.of(
-                            "error", "Discord API error",
-                            "code", e.getErrorCode(),
-                            "message", e.getMeaning()
-                    ));
+            return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]))
+                    .<ResponseEntity<?>>thenApply(done -> {
+                        List<String> missing = new ArrayList<>();
+                        List<Map<String, Object>> failed = new ArrayList<>();
+                        for (CompletableFuture<BulkOutcome> fetch : fetches) {
+                            BulkOutcome outcome = fetch.getNow(null);
+                            String messageId = outcome.ids().get(0);
+                            Throwable error = ApiErrors.unwrap(outcome.error());
+                            if (error == null) {
+                                found.put(messageId, outcome.message());
+                            } else if (error instanceof ErrorResponseException e
+                                    && e.getErrorResponse() == ErrorResponse.UNKNOWN_MESSAGE) {
+                                missing.add(messageId);
+                            } else {
+                                failed.add(bulkFailure(messageId, error));
+                            }
+                        }
+
+                        List<Map<String, Object>> messages = new ArrayList<>();
+                        for (String messageId : messageIds) {
+                            if (found.containsKey(messageId)) {
+                                messages.add(found.get(messageId));
+                            }
+                        }
+
+                        Map<String, Object> responseData = new HashMap<>();
+                        responseData.put("messages", messages);
+                        responseData.put("missing", missing);
+                        responseData.put("failed", failed);
+                        responseData.put("fromDatabase", fromDatabase);
+                        responseData.put("fromDiscord", fetches.size() - missing.size() - failed.size());
+                        return ResponseEntity.status(failed.isEmpty() ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(responseData);
+                    })
+                    .exceptionally(error -> failure("bulk getting messages for channel: " + channelId, error));
         } catch (Exception e) {
-            logger.error("Error deleting message: " + messageId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "error", "Internal server error",
-                            "message", e.getMessage()
-                    ));
+            return CompletableFuture.completedFuture(failure("bulk getting messages for channel: " + channelId, e));
         }
     }
 
     /**
-     * Gets a channel by ID, attempting to resolve it as any valid message channel type.
+     * Deletes several messages from a channel.
+     * In guild channels where the bot can manage messages, messages younger than two
+     * weeks are removed with Discord's bulk-delete endpoint, up to 100 per call. Older
+     * messages, and all messages elsewhere, are deleted individually in parallel,
+     * with JDA queueing the calls against the rate-limit bucket.
      *
-     * @param channelId The channel ID
-     * @return The message channel, or null if not found
+     * @param channelId Channel ID
+     * @param request The message IDs to delete
+     * @return The deleted IDs and per-message failures
      */
-    private MessageChannel getChannelById(String channelId) {
-        // Try as text channel
-        TextChannel textChannel = bot.getJda().getTextChannelById(channelId);
-        if (textChannel != null) {
-            return textChannel;
-        }
+    @PostMapping("/bulk-delete")
+    public CompletableFuture<ResponseEntity<?>> bulkDeleteMessages(
+            @PathVariable String channelId,
+            @RequestBody BulkMessageRequest request) {
+        try {
+            MessageChannel channel = messageService.getChannel(channelId);
+            if (channel == null) {
+                return CompletableFuture.completedFuture(channelNotFound(channelId));
+            }
 
-        // Try as thread channel
-        ThreadChannel threadChannel = bot.getJda().getThreadChannelById(channelId);
-        if (threadChannel != null) {
-            return threadChannel;
-        }
+            ResponseEntity<?> invalid = validateBulkIds(request.getMessageIds());
+            if (invalid != null) {
+                return CompletableFuture.completedFuture(invalid);
+            }
+            Set<String> messageIds = new LinkedHashSet<>(request.getMessageIds());
+
+            // Split into messages the bulk-delete endpoint accepts and ones that need single deletes
+            List<String> recent = new ArrayList<>();
+            List<String> individual = new ArrayList<>();
+            boolean canBulkDelete = channel instanceof GuildMessageChannel guildChannel
+                    && guildChannel.getGuild().getSelfMember().hasPermission(guildChannel, Permission.MESSAGE_MANAGE);
+            long bulkCutoff = TimeUtil.getDiscordTimestamp(System.currentTimeMillis() - BULK_DELETE_MAX_AGE_MS);
+            for (String messageId : messageIds) {
+                if (canBulkDelete && Snowflake.parse(messageId) > bulkCutoff) {
+                    recent.add(messageId);
+                } else {
+                    individual.add(messageId);
+                }
+            }
 
-        // Try as private channel
-        return bot.getJda().getPrivateChannelById(channelId);
+            List<CompletableFuture<BulkOutcome>> deletes = new ArrayList<>();
+            for (int i = 0; i < recent.size(); i += BULK_DELETE_CHUNK_SIZE) {
+                List<String> chunk = recent.subList(i, Math.min(i + BULK_DELETE_CHUNK_SIZE, recent.size()));
+                if (chunk.size() < 2) {
+                    // Discord's bulk delete needs at least two messages
+                    individual.addAll(chunk);
+                } else {
+                    deletes.add(((GuildMessageChannel) channel).deleteMessagesByIds(chunk).submit()
+                            .handle((done, error) -> new BulkOutcome(chunk, null, error)));
+                }
+            }
+            int bulkCalls = deletes.size();
+            for (String messageId : individual) {
+                deletes.add(channel.deleteMessageById(messageId).submit()
+                        .handle((done, error) -> new BulkOutcome(List.of(messageId), null, error)));
+            }
+
+            return CompletableFuture.allOf(deletes.toArray(new CompletableFuture[0]))
+                    .<ResponseEntity<?>>thenApply(done -> {
+                        List<String> deleted = new ArrayList<>();
+                        List<Map<String, Object>> failed = new ArrayList<>();
+                        for (CompletableFuture<BulkOutcome> delete : deletes) {
+                            BulkOutcome outcome = delete.getNow(null);
+                            if (outcome.error() == null) {
+                                deleted.addAll(outcome.ids());
+                            } else {
+                                for (String messageId : outcome.ids()) {
+                                    failed.add(bulkFailure(messageId, ApiErrors.unwrap(outcome.error())));
+                                }
+                            }
+                        }
+
+                        Map<String, Object> responseData = new HashMap<>();
+                        responseData.put("deleted", deleted);
+                        responseData.put("failed", failed);
+                        responseData.put("bulkDeleteCalls", bulkCalls);
+                        responseData.put("singleDeleteCalls", deletes.size() - bulkCalls);
+                        return ResponseEntity.status(failed.isEmpty() ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(responseData);
+                    })
+                    .exceptionally(error -> failure("bulk deleting messages from channel: " + channelId, error));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure("bulk deleting messages from channel: " + channelId, e));
+        }
     }
 
     /**
-     * Maps a JDA Message to a Map.
-     *
-     * @param message The JDA Message
-     * @return Map containing message data
+     * The result of one Discord call of a bulk request, for the IDs it covered.
+     * Futures complete with an outcome instead of failing, so allOf waits for all of them.
      */
-    private Map<String, Object> mapMessage(Message message) {
-        Map<String, Object> messageData = new HashMap<>();
-        messageData.put("id", message.getId());
-        messageData.put("content", message.getContentRaw());
-        messageData.put("channelId", message.getChannel().getId());
-
-        // Add timestamps
-        messageData.put("timestamp", message.getTimeCreated().toInstant().toEpochMilli());
-        if (message.getTimeEdited() != null) {
-            messageData.put("editedTimestamp", message.getTimeEdited().toInstant().toEpochMilli());
-        }
-
-        // Add author information
-        User author = message.getAuthor();
-        Map<String, Object> authorData = new HashMap<>();
-        authorData.put("id", author.getId());
-        authorData.put("username", author.getName());
-        authorData.put("discriminator", author.getDiscriminator());
-        authorData.put("avatarUrl", author.getEffectiveAvatarUrl());
-        authorData.put("bot", author.isBot());
-        messageData.put("author", authorData);
-
-        // Add member information if available
-        if (message.getMember() != null) {
-            Member member = message.getMember();
-            Map<String, Object> memberData = new HashMap<>();
-            memberData.put("nickname", member.getNickname());
-            memberData.put("joinedAt", member.getTimeJoined().toInstant().toEpochMilli());
-            memberData.put("roles", member.getRoles().stream()
-                    .map(role -> Map.of(
-                            "id", role.getId(),
-                            "name", role.getName(),
-                            "color", role.getColorRaw()
-                    ))
-                    .collect(Collectors.toList()));
-            messageData.put("member", memberData);
-        }
-
-        // Add mentions
-        messageData.put("mentions", message.getMentions().getUsers().stream()
-                .map(user -> {
-                    Map<String, Object> userData = new HashMap<>();
-                    userData.put("id", user.getId());
-                    userData.put("username", user.getName());
-                    userData.put("discriminator", user.getDiscriminator());
-                    userData.put("avatarUrl", user.getEffectiveAvatarUrl());
-                    userData.put("bot", user.isBot());
-                    return userData;
-                })
-                .collect(Collectors.toList()));
-
-        // Add mentioned roles
-        messageData.put("mentionedRoles", message.getMentions().getRoles().stream()
-                .map(role -> {
-                    Map<String, Object> roleData = new HashMap<>();
-                    roleData.put("id", role.getId());
-                    roleData.put("name", role.getName());
-                    roleData.put("color", role.getColorRaw());
-                    return roleData;
-                })
-                .collect(Collectors.toList()));
-
-        // Add mentioned channels
-        messageData.put("mentionedChannels", message.getMentions().getChannels().stream()
-                .map(channel -> {
-                    Map<String, Object> channelData = new HashMap<>();
-                    channelData.put("id", channel.getId());
-                    channelData.put("name", channel.getName());
-                    channelData.put("type", channel.getType().name());
-                    return channelData;
-                })
-                .collect(Collectors.toList()));
-
-        // Add embeds
-        messageData.put("embeds", message.getEmbeds().stream()
-                .map(this::mapEmbed)
-                .collect(Collectors.toList()));
-
-        // Add attachments
-        messageData.put("attachments", message.getAttachments().stream()
-                .map(attachment -> {
-                    Map<String, Object> attachmentData = new HashMap<>();
-                    attachmentData.put("id", attachment.getId());
-                    attachmentData.put("filename", attachment.getFileName());
-                    attachmentData.put("size", attachment.getSize());
-                    attachmentData.put("url", attachment.getUrl());
-                    if (attachment.getContentType() != null) {
-                        attachmentData.put("contentType", attachment.getContentType());
-                    } else {
-                        attachmentData.put("contentType", "unknown");
-                    }
-                    return attachmentData;
-                })
-                .collect(Collectors.toList()));
-
-        // Add reactions
-        messageData.put("reactions", message.getReactions().stream()
-                .map(reaction -> {
-                    Map<String, Object> reactionData = new HashMap<>();
-                    reactionData.put("emoji", reaction.getEmoji().getAsReactionCode());
-                    reactionData.put("count", reaction.getCount());
-                    reactionData.put("me", reaction.isSelf());
-                    return reactionData;
-                })
-                .collect(Collectors.toList()));
-
-        // Add message flags
-        messageData.put("flags", message.getFlags().stream()
-                .map(Message.MessageFlag::name)
-                .collect(Collectors.toList()));
-
-        // Add reply data if this is a reply
-        if (message.getReferencedMessage() != null) {
-            Message referencedMessage = message.getReferencedMessage();
-            Map<String, Object> reference = new HashMap<>();
-            reference.put("messageId", referencedMessage.getId());
-            reference.put("channelId", referencedMessage.getChannel().getId());
-            reference.put("authorId", referencedMessage.getAuthor().getId());
-            messageData.put("referencedMessage", reference);
-        }
-
-        return messageData;
+    private record BulkOutcome(List<String> ids, Map<String, Object> message, Throwable error) {
     }
 
     /**
-     * Maps a JDA MessageEmbed to a Map.
+     * Validates the message IDs of a bulk request.
      *
-     * @param embed The JDA MessageEmbed
-     * @return Map containing embed data
+     * @return A 400 response if the IDs are invalid, or null if they are valid
      */
-    private Map<String, Object> mapEmbed(MessageEmbed embed) {
-        Map<String, Object> embedData = new HashMap<>();
-
-        // Add basic properties
-        if (embed.getTitle() != null) embedData.put("title", embed.getTitle());
-        if (embed.getDescription() != null) embedData.put("description", embed.getDescription());
-        if (embed.getUrl() != null) embedData.put("url", embed.getUrl());
-        if (embed.getColor() != null) embedData.put("color", embed.getColor().getRGB());
-        if (embed.getTimestamp() != null) embedData.put("timestamp", embed.getTimestamp().toInstant().toEpochMilli());
-
-        // Add author
-        if (embed.getAuthor() != null) {
-            Map<String, Object> author = new HashMap<>();
-            author.put("name", embed.getAuthor().getName());
-            if (embed.getAuthor().getUrl() != null) author.put("url", embed.getAuthor().getUrl());
-            if (embed.getAuthor().getIconUrl() != null) author.put("iconUrl", embed.getAuthor().getIconUrl());
-            embedData.put("author", author);
-        }
-
-        // Add footer
-        if (embed.getFooter() != null) {
-            Map<String, Object> footer = new HashMap<>();
-            footer.put("text", embed.getFooter().getText());
-            if (embed.getFooter().getIconUrl() != null) footer.put("iconUrl", embed.getFooter().getIconUrl());
-            embedData.put("footer", footer);
+    private ResponseEntity<?> validateBulkIds(List<String> messageIds) {
+        if (messageIds == null || messageIds.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", "Bad request",
+                            "message", "At least one message ID is required"
+                    ));
         }
-
-        // Add image
-        if (embed.getImage() != null) {
-            Map<String, Object> image = new HashMap<>();
-            image.put("url", embed.getImage().getUrl());
-            embedData.put("image", image);
+        if (messageIds.size() > MAX_BULK_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", "Bad request",
+                            "message", "At most " + MAX_BULK_IDS + " message IDs are allowed per request"
+                    ));
         }
-
-        // Add thumbnail
-        if (embed.getThumbnail() != null) {
-            Map<String, Object> thumbnail = new HashMap<>();
-            thumbnail.put("url", embed.getThumbnail().getUrl());
-            embedData.put("thumbnail", thumbnail);
+        for (String messageId : messageIds) {
+            if (!Snowflake.isValid(messageId)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of(
+                                "error", "Bad request",
+                                "message", "Invalid message ID: " + messageId
+                        ));
+            }
         }
+        return null;
+    }
 
-        // Add fields
-        if (!embed.getFields().isEmpty()) {
-            List<Map<String, Object>> fields = embed.getFields().stream()
-                    .map(field -> {
-                        Map<String, Object> fieldData = new HashMap<>();
-                        fieldData.put("name", field.getName());
-                        fieldData.put("value", field.getValue());
-                        fieldData.put("inline", field.isInline());
-                        return fieldData;
-                    })
-                    .collect(Collectors.toList());
-            embedData.put("fields", fields);
+    /**
+     * Describes why one message of a bulk request failed.
+     */
+    private Map<String, Object> bulkFailure(String messageId, Throwable error) {
+        Map<String, Object> failure = new HashMap<>();
+        failure.put("id", messageId);
+        if (error instanceof ErrorResponseException e) {
+            failure.put("code", e.getErrorCode());
+            failure.put("error", e.getMeaning());
+        } else {
+            failure.put("error", error != null ? error.getMessage() : "Unknown error");
         }
+        return failure;
+    }
 
-        return embedData;
+    private ResponseEntity<?> channelNotFound(String channelId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of(
+                        "error", "Channel not found",
+                        "message", "No channel found with ID: " + channelId
+                ));
     }
 
     /**
-     * Builds a MessageEmbed from a map of properties.
+     * Builds the error response for a failed message operation.
      *
-     * @param embedJson The embed properties map
-     * @return The built MessageEmbed
+     * @param action What was being done, for the log
+     * @param error The failure, possibly wrapped by a future
+     * @return A 503 for Discord errors, otherwise a 500
      */
-    private MessageEmbed buildEmbed(Map<String, Object> embedJson) {
-        net.dv8tion.jda.api.EmbedBuilder builder = new net.dv8tion.jda.api.EmbedBuilder();
-
-        // Set basic properties
-        if (embedJson.containsKey("title")) builder.setTitle((String) embedJson.get("title"));
-        if (embedJson.containsKey("description")) builder.setDescription((String) embedJson.get("description"));
-        if (embedJson.containsKey("url")) builder.setUrl((String) embedJson.get("url"));
-        if (embedJson.containsKey("color")) builder.setColor((Integer) embedJson.get("color"));
-        if (embedJson.containsKey("timestamp")) {
-            try {
-                long timestamp = (Long) embedJson.get("timestamp");
-                builder.setTimestamp(OffsetDateTime.ofInstant(
-                        java.time.Instant.ofEpochMilli(timestamp),
-                        java.time.ZoneId.systemDefault()
-                ));
-            } catch (Exception e) {
-                logger.warn("Invalid timestamp format, using current time", e);
-                builder.setTimestamp(OffsetDateTime.now().withNano(0)); // Set to current time as fallback
-            }
-        }
-
-        // Set author
-        if (embedJson.containsKey("author") && embedJson.get("author") instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> authorJson = (Map<String, Object>) embedJson.get("author");
-            String name = authorJson.containsKey("name") ? (String) authorJson.get("name") : "";
-            String url = authorJson.containsKey("url") ? (String) authorJson.get("url") : null;
-            String iconUrl = authorJson.containsKey("iconUrl") ? (String) authorJson.get("iconUrl") : null;
-            builder.setAuthor(name, url, iconUrl);
-        }
-
-        // Set footer
-        if (embedJson.containsKey("footer") && embedJson.get("footer") instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> footerJson = (Map<String, Object>) embedJson.get("footer");
-            String text = footerJson.containsKey("text") ? (String) footerJson.get("text") : "";
-            String iconUrl = footerJson.containsKey("iconUrl") ? (String) footerJson.get("iconUrl") : null;
-            builder.setFooter(text, iconUrl);
-        }
+    private ResponseEntity<?> failure(String action, Throwable error) {
+        Throwable cause = ApiErrors.unwrap(error);
+        logger.error((cause instanceof ErrorResponseException ? "Discord error " : "Error ") + action, cause);
+        return ResponseEntity.status(ApiErrors.status(cause)).body(ApiErrors.body(cause));
+    }
 
-        // Set image
-        if (embedJson.containsKey("image") && embedJson.get("image") instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> imageJson = (Map<String, Object>) embedJson.get("image");
-            if (imageJson.containsKey("url")) builder.setImage((String) imageJson.get("url"));
-        }
+    /**
+     * Request class for bulk message operations.
+     */
+    public static class BulkMessageRequest {
+        private List<String> messageIds;
 
-        // Set thumbnail
-        if (embedJson.containsKey("thumbnail") && embedJson.get("thumbnail") instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> thumbnailJson = (Map<String, Object>) embedJson.get("thumbnail");
-            if (thumbnailJson.containsKey("url")) builder.setThumbnail((String) thumbnailJson.get("url"));
+        public List<String> getMessageIds() {
+            return messageIds;
         }
 
-        // Add fields
-        if (embedJson.containsKey("fields") && embedJson.get("fields") instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> fields = (List<Map<String, Object>>) embedJson.get("fields");
-            for (Map<String, Object> fieldJson : fields) {
-                String name = fieldJson.containsKey("name") ? (String) fieldJson.get("name") : "";
-                String value = fieldJson.containsKey("value") ? (String) fieldJson.get("value") : "";
-                boolean inline = fieldJson.containsKey("inline") && (Boolean) fieldJson.get("inline");
-                builder.addField(name, value, inline);
-            }
+        public void setMessageIds(List<String> messageIds) {
+            this.messageIds = messageIds;
         }
-
-        return builder.build();
     }
 
     /**
@@ -0,0 +1,255 @@
+package com.cottonlesergal.ucontrolbot.api.controllers;
+
+import com.cottonlesergal.ucontrolbot.api.MessageAuthorLookup;
+import com.cottonlesergal.ucontrolbot.api.MessageSendQueue;
+import com.cottonlesergal.ucontrolbot.api.ResponseMetrics;
+import com.cottonlesergal.ucontrolbot.api.WireCodec;
+import com.cottonlesergal.ucontrolbot.bus.EventBus;
+import com.cottonlesergal.ucontrolbot.bus.EventLog;
+import com.cottonlesergal.ucontrolbot.cache.DmChannelResolver;
+import com.cottonlesergal.ucontrolbot.cache.GuildMemberIndex;
+import com.cottonlesergal.ucontrolbot.cache.GuildViewCache;
+import com.cottonlesergal.ucontrolbot.cache.PayloadFragmentCache;
+import com.cottonlesergal.ucontrolbot.cache.UserDirectory;
+import com.cottonlesergal.ucontrolbot.cache.UserProfileCache;
+import com.cottonlesergal.ucontrolbot.config.JdaProvider;
+import com.cottonlesergal.ucontrolbot.config.ReadinessTracker;
+import com.cottonlesergal.ucontrolbot.listeners.ShardMetrics;
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller exposing runtime metrics of the bot's API layer.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final MessageSendQueue sendQueue;
+    private final MessageAuthorLookup authorLookup;
+    private final GuildMemberIndex memberIndex;
+    private final UserDirectory userDirectory;
+    private final GuildViewCache viewCache;
+    private final ResponseMetrics responseMetrics;
+    private final DmChannelResolver dmChannelResolver;
+    private final UserProfileCache profileCache;
+    private final JsonCodec jsonCodec;
+    private final PayloadFragmentCache fragmentCache;
+    private final JdaProvider jdaProvider;
+    private final ShardMetrics shardMetrics;
+    private final ReadinessTracker readiness;
+    private final EventBus eventBus;
+    private final EventLog eventLog;
+    private final WireCodec wireCodec;
+
+    /**
+     * Initializes the metrics controller.
+     *
+     * @param sendQueue The outbound message queue
+     * @param authorLookup The message author lookup used by edit and delete
+     * @param memberIndex The per-guild member index
+     * @param userDirectory The cross-guild user directory
+     * @param viewCache The serialized guild view cache
+     * @param responseMetrics Per-endpoint response size and conditional request counters
+     * @param dmChannelResolver The DM channel resolver
+     * @param profileCache The user profile cache
+     * @param jsonCodec The shared JSON codec
+     * @param fragmentCache The pre-serialized author and member cache
+     * @param jdaProvider The JDA provider, for cache profile statistics
+     * @param shardMetrics Per-shard gateway metrics
+     * @param readiness The startup readiness tracker
+     * @param eventBus The event bus between listeners and WebSocket sessions
+     * @param eventLog The replayable log of delivered WebSocket events
+     * @param wireCodec The WebSocket event encodings
+     */
+    @Autowired
+    public MetricsController(MessageSendQueue sendQueue, MessageAuthorLookup authorLookup,
+                             GuildMemberIndex memberIndex, UserDirectory userDirectory,
+                             GuildViewCache viewCache, ResponseMetrics responseMetrics,
+                             DmChannelResolver dmChannelResolver, UserProfileCache profileCache,
+                             JsonCodec jsonCodec, PayloadFragmentCache fragmentCache,
+                             JdaProvider jdaProvider, ShardMetrics shardMetrics,
+                             ReadinessTracker readiness, EventBus eventBus,
+                             EventLog eventLog, WireCodec wireCodec) {
+        this.sendQueue = sendQueue;
+        this.authorLookup = authorLookup;
+        this.memberIndex = memberIndex;
+        this.userDirectory = userDirectory;
+        this.viewCache = viewCache;
+        this.responseMetrics = responseMetrics;
+        this.dmChannelResolver = dmChannelResolver;
+        this.profileCache = profileCache;
+        this.jsonCodec = jsonCodec;
+        this.fragmentCache = fragmentCache;
+        this.jdaProvider = jdaProvider;
+        this.shardMetrics = shardMetrics;
+        this.readiness = readiness;
+        this.eventBus = eventBus;
+        this.eventLog = eventLog;
+        this.wireCodec = wireCodec;
+    }
+
+    /**
+     * Gets all metrics.
+     *
+     * @return Metrics grouped by component
+     */
+    @GetMapping
+    public ResponseEntity<?> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("sendQueue", sendQueue.getStats());
+        metrics.put("authorLookup", authorLookup.getStats());
+        metrics.put("memberIndex", memberIndex.getStats());
+        metrics.put("userDirectory", userDirectory.getStats());
+        metrics.put("guildViewCache", viewCache.getStats());
+        metrics.put("responses", responseMetrics.getStats());
+        metrics.put("dmChannels", dmChannelResolver.getStats());
+        metrics.put("userProfiles", profileCache.getStats());
+        metrics.put("eventSerialization", jsonCodec.getStats());
+        metrics.put("payloadFragments", fragmentCache.getStats());
+        metrics.put("jdaCache", jdaProvider.getCacheStats());
+        metrics.put("shards", shardMetrics.getStats());
+        metrics.put("startup", readiness.getStats());
+        metrics.put("eventBus", eventBus.getStats());
+        metrics.put("eventLog", eventLog.getStats());
+        metrics.put("wireEncodings", wireCodec.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * Gets outbound message queue metrics.
+     *
+     * @return Queue depth, counters and wait times
+     */
+    @GetMapping("/send-queue")
+    public ResponseEntity<?> getSendQueueMetrics() {
+        return ResponseEntity.ok(sendQueue.getStats());
+    }
+
+    /**
+     * Gets message author lookup metrics.
+     *
+     * @return Local hits, Discord fetches and the hit ratio
+     */
+    @GetMapping("/author-lookup")
+    public ResponseEntity<?> getAuthorLookupMetrics() {
+        return ResponseEntity.ok(authorLookup.getStats());
+    }
+
+    /**
+     * Gets per-endpoint response metrics.
+     *
+     * @return Response counts, bytes before and after compression, bytes saved and 304 counts
+     */
+    @GetMapping("/responses")
+    public ResponseEntity<?> getResponseMetrics() {
+        return ResponseEntity.ok(responseMetrics.getStats());
+    }
+
+    /**
+     * Gets DM channel resolver metrics.
+     *
+     * @return Known channels and lookups answered from memory, the database and Discord
+     */
+    @GetMapping("/dm-channels")
+    public ResponseEntity<?> getDmChannelMetrics() {
+        return ResponseEntity.ok(dmChannelResolver.getStats());
+    }
+
+    /**
+     * Gets user profile cache metrics.
+     *
+     * @return Cache hits, queued and dropped background fetches, and Discord requests
+     */
+    @GetMapping("/user-profiles")
+    public ResponseEntity<?> getUserProfileMetrics() {
+        return ResponseEntity.ok(profileCache.getStats());
+    }
+
+    /**
+     * Gets WebSocket event serialization metrics.
+     *
+     * @return Encode count, time and average size per event type
+     */
+    @GetMapping("/serialization")
+    public ResponseEntity<?> getSerializationMetrics() {
+        return ResponseEntity.ok(jsonCodec.getStats());
+    }
+
+    /**
+     * Gets gateway metrics per shard.
+     *
+     * @return Status, gateway ping, guild count and event rate of each shard
+     */
+    @GetMapping("/shards")
+    public ResponseEntity<?> getShardMetrics() {
+        return ResponseEntity.ok(shardMetrics.getStats());
+    }
+
+    /**
+     * Gets startup metrics.
+     *
+     * @return Readiness and the time from JVM start to the Spring context, the first request and Discord readiness
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<?> getStartupMetrics() {
+        return ResponseEntity.ok(readiness.getStats());
+    }
+
+    /**
+     * Gets event bus metrics.
+     *
+     * @return Published and delivered events and, for a networked bus, peers and bytes sent
+     */
+    @GetMapping("/event-bus")
+    public ResponseEntity<?> getEventBusMetrics() {
+        return ResponseEntity.ok(eventBus.getStats());
+    }
+
+    /**
+     * Gets event log metrics.
+     *
+     * @return Sequence range, resumes, replayed events and resyncs
+     */
+    @GetMapping("/event-log")
+    public ResponseEntity<?> getEventLogMetrics() {
+        return ResponseEntity.ok(eventLog.getStats());
+    }
+
+    /**
+     * Gets WebSocket encoding metrics.
+     *
+     * @return Events, bytes per event and encode time per event of each encoding
+     */
+    @GetMapping("/encodings")
+    public ResponseEntity<?> getEncodingMetrics() {
+        return ResponseEntity.ok(wireCodec.getStats());
+    }
+
+    /**
+     * Measures every WebSocket encoding on the most recent events in the event log.
+     *
+     * @param limit The number of events to measure on
+     * @return Bytes per event and CPU time per event of each encoding
+     */
+    @GetMapping("/encodings/benchmark")
+    public ResponseEntity<?> benchmarkEncodings(@RequestParam(required = false, defaultValue = "1000") int limit) {
+        List<String> events = eventLog.recentPayloads(Math.max(1, Math.min(limit, 100_000)));
+        if (events.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "error", "No events recorded",
+                    "message", "The event log is empty; measure again once events have been sent"));
+        }
+        return ResponseEntity.ok(wireCodec.benchmark(events));
+    }
+}
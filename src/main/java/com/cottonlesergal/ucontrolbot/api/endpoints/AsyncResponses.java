@@ -0,0 +1,100 @@
+package com.cottonlesergal.ucontrolbot.api.endpoints;
+
+import com.cottonlesergal.ucontrolbot.services.ApiErrors;
+import io.javalin.http.Context;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Completes Javalin requests from asynchronous service calls.
+ * Failures are reported the same way as by the REST controllers.
+ */
+final class AsyncResponses {
+
+    private AsyncResponses() {
+    }
+
+    /**
+     * Completes a request from a service call without holding the Javalin thread.
+     *
+     * @param ctx The HTTP context
+     * @param logger The calling endpoint's logger
+     * @param action What is being done, for the log
+     * @param call The service call
+     * @param status The status of a successful response
+     */
+    static void respond(Context ctx, Logger logger, String action, ServiceCall call, int status) {
+        ctx.future(() -> complete(ctx, logger, action, call, status));
+    }
+
+    /**
+     * Completes a request from a service call once an asynchronous permission check
+     * passes, or with 403 if it does not.
+     *
+     * @param ctx The HTTP context
+     * @param logger The calling endpoint's logger
+     * @param action What is being done, for the log
+     * @param allowed The permission check
+     * @param forbidden The body of the 403 response
+     * @param call The service call
+     * @param status The status of a successful response
+     */
+    static void respondIfAllowed(Context ctx, Logger logger, String action, CompletableFuture<Boolean> allowed,
+                                 Map<String, Object> forbidden, ServiceCall call, int status) {
+        ctx.future(() -> allowed
+                .thenCompose(isAllowed -> {
+                    if (!isAllowed) {
+                        ctx.status(403).json(forbidden);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return complete(ctx, logger, action, call, status);
+                })
+                .exceptionally(error -> {
+                    fail(ctx, logger, action, error);
+                    return null;
+                }));
+    }
+
+    private static CompletableFuture<?> complete(Context ctx, Logger logger, String action, ServiceCall call, int status) {
+        CompletableFuture<?> result;
+        try {
+            result = call.start();
+        } catch (RejectedExecutionException e) {
+            ctx.status(429).json(Map.of(
+                    "error", "Too many requests",
+                    "message", e.getMessage()
+            ));
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.handle((data, error) -> {
+            if (error != null) {
+                fail(ctx, logger, action, error);
+            } else if (data != null) {
+                ctx.status(status).json(data);
+            } else {
+                ctx.status(status);
+            }
+            return null;
+        });
+    }
+
+    private static void fail(Context ctx, Logger logger, String action, Throwable error) {
+        Throwable cause = ApiErrors.unwrap(error);
+        logger.error((cause instanceof ErrorResponseException ? "Discord error " : "Error ") + action, cause);
+        ctx.status(ApiErrors.status(cause)).json(ApiErrors.body(cause));
+    }
+
+    /**
+     * A service call that may fail before returning its future.
+     */
+    @FunctionalInterface
+    interface ServiceCall {
+        CompletableFuture<?> start() throws Exception;
+    }
+}
@@ -1,39 +1,34 @@
 package com.cottonlesergal.ucontrolbot.api.endpoints;
 
-import com.cottonlesergal.ucontrolbot.Bot;
-import com.cottonlesergal.ucontrolbot.models.DiscordUser;
-import com.google.gson.Gson;
+import com.cottonlesergal.ucontrolbot.services.GuildService;
+import com.cottonlesergal.ucontrolbot.services.UserService;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
 import io.javalin.http.Context;
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.User;
-import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
-import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Endpoint for user-related API requests.
+ * A Javalin front end over {@link UserService}, which the REST controllers share.
  */
 public class UserEndpoint {
     private static final Logger logger = LoggerFactory.getLogger(UserEndpoint.class);
-    private final Bot bot;
-    private final Gson gson = new Gson();
+    private final UserService userService;
+    private final GuildService guildService;
 
     /**
-     * Initializes the user endpoint with the specified bot instance.
+     * Initializes the user endpoint.
      *
-     * @param bot The bot instance
+     * @param userService The shared user operations
+     * @param guildService The shared guild operations
      */
-    public UserEndpoint(Bot bot) {
-        this.bot = bot;
+    public UserEndpoint(UserService userService, GuildService guildService) {
+        this.userService = userService;
+        this.guildService = guildService;
     }
 
     /**
@@ -43,66 +38,26 @@ public class UserEndpoint {
      * @param ctx The HTTP context
      */
     public void getUsers(Context ctx) {
-        try {
-            JDA jda = bot.getJda();
-
-            // Get query parameters for filtering
-            String nameFilter = ctx.queryParam("name");
-            String guildId = ctx.queryParam("guildId");
-
-            List<User> users = new ArrayList<>();
-
-            // If guild ID is provided, get members from that guild
-            if (guildId != null && !guildId.isEmpty()) {
-                Guild guild = jda.getGuildById(guildId);
-                if (guild == null) {
-                    ctx.status(404).json(Map.of(
-                            "error", "Guild not found",
-                            "message", "No guild found with ID: " + guildId
-                    ));
-                    return;
-                }
-
-                List<Member> members;
-                if (guild.isLoaded()) {
-                    members = guild.getMembers();
-                } else {
-                    // Load members if needed
-                    members = guild.loadMembers().get();
-                }
-
-                users = members.stream()
-                        .map(Member::getUser)
-                        .collect(Collectors.toList());
-            } else {
-                // Otherwise, get all users from cache
-                users = jda.getUserCache().asList();
-            }
-
-            // Apply name filter if provided
-            if (nameFilter != null && !nameFilter.isEmpty()) {
-                String finalNameFilter = nameFilter.toLowerCase();
-                users = users.stream()
-                        .filter(user -> user.getName().toLowerCase().contains(finalNameFilter))
-                        .collect(Collectors.toList());
+        // Get query parameters for filtering
+        String nameFilter = ctx.queryParam("name");
+        String guildId = ctx.queryParam("guildId");
+        boolean allUsers = Boolean.parseBoolean(ctx.queryParam("all"));
+
+        Guild guild = null;
+        if (!allUsers && guildId != null && !guildId.isEmpty()) {
+            guild = guildService.getGuild(guildId);
+            if (guild == null) {
+                ctx.status(404).json(Map.of(
+                        "error", "Guild not found",
+                        "message", "No guild found with ID: " + guildId
+                ));
+                return;
             }
-
-            // Convert to response format
-            List<Map<String, Object>> userData = users.stream()
-                    .map(user -> {
-                        DiscordUser discordUser = DiscordUser.fromJdaUser(user);
-                        return discordUser.getUserData();
-                    })
-                    .collect(Collectors.toList());
-
-            ctx.json(userData);
-        } catch (Exception e) {
-            logger.error("Error getting users", e);
-            ctx.status(500).json(Map.of(
-                    "error", "Internal server error",
-                    "message", e.getMessage()
-            ));
         }
+
+        Guild finalGuild = guild;
+        AsyncResponses.respond(ctx, logger, "getting users",
+                () -> userService.listUsers(finalGuild, nameFilter, allUsers), 200);
     }
 
     /**
@@ -112,91 +67,17 @@ public class UserEndpoint {
      */
     public void getUser(Context ctx) {
         String userId = ctx.pathParam("userId");
+        String guildId = ctx.queryParam("guildId");
 
-        try {
-            JDA jda = bot.getJda();
-            User user = jda.retrieveUserById(userId).complete();
-
-            if (user == null) {
-                ctx.status(404).json(Map.of(
-                        "error", "User not found",
-                        "message", "No user found with ID: " + userId
-                ));
-                return;
-            }
-
-            // Basic user data
-            Map<String, Object> userData = new HashMap<>();
-            userData.put("id", user.getId());
-            userData.put("name", user.getName());
-            userData.put("discriminator", user.getDiscriminator());
-            userData.put("avatarUrl", user.getEffectiveAvatarUrl());
-            userData.put("bot", user.isBot());
-            userData.put("globalName", user.getGlobalName());
-
-            // Get guild-specific data if available
-            String guildId = ctx.queryParam("guildId");
-            if (guildId != null && !guildId.isEmpty()) {
-                Guild guild = jda.getGuildById(guildId);
-                if (guild != null) {
-                    Member member = guild.retrieveMember(user).complete();
-                    if (member != null) {
-                        Map<String, Object> memberData = new HashMap<>();
-                        memberData.put("nickname", member.getNickname());
-                        memberData.put("joinedAt", member.getTimeJoined().toInstant().toEpochMilli());
-                        memberData.put("boosting", member.isBoosting());
-                        memberData.put("color", member.getColorRaw());
-
-                        // Get roles
-                        List<Map<String, Object>> roles = member.getRoles().stream()
-                                .map(role -> {
-                                    Map<String, Object> roleData = new HashMap<>();
-                                    roleData.put("id", role.getId());
-                                    roleData.put("name", role.getName());
-                                    roleData.put("color", role.getColorRaw());
-                                    roleData.put("position", role.getPosition());
-                                    return roleData;
-                                })
-                                .collect(Collectors.toList());
-                        memberData.put("roles", roles);
-
-                        // Add permissions
-                        memberData.put("permissions", member.getPermissions().stream()
-                                .map(Enum::name)
-                                .collect(Collectors.toList()));
-
-                        userData.put("memberData", memberData);
-                    }
-                }
-            }
-
-            // Get mutual guilds
-            List<Map<String, Object>> mutualGuilds = jda.getMutualGuilds(user).stream()
-                    .map(guild -> {
-                        Map<String, Object> guildData = new HashMap<>();
-                        guildData.put("id", guild.getId());
-                        guildData.put("name", guild.getName());
-                        guildData.put("iconUrl", guild.getIconUrl());
-                        return guildData;
-                    })
-                    .collect(Collectors.toList());
-            userData.put("mutualGuilds", mutualGuilds);
-
-            ctx.json(userData);
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error retrieving user: " + userId, e);
-            ctx.status(e.getErrorCode()).json(Map.of(
-                    "error", "Discord API error",
-                    "code", e.getErrorCode(),
-                    "message", e.getMeaning()
-            ));
-        } catch (Exception e) {
-            logger.error("Error retrieving user: " + userId, e);
-            ctx.status(500).json(Map.of(
-                    "error", "Internal server error",
-                    "message", e.getMessage()
-            ));
+        if ("@me".equals(userId)) {
+            AsyncResponses.respond(ctx, logger, "retrieving bot user information",
+                    () -> CompletableFuture.completedFuture(userService.describeSelfUser()), 200);
+            return;
         }
+
+        Guild guild = guildId != null && !guildId.isEmpty() ? guildService.getGuild(guildId) : null;
+        AsyncResponses.respond(ctx, logger, "retrieving user: " + userId,
+                () -> userService.retrieveUser(userId).thenCompose(user -> userService.describeUser(user, guild)), 200);
     }
 
     /**
@@ -206,43 +87,15 @@ public class UserEndpoint {
      */
     public void getDmChannel(Context ctx) {
         String userId = ctx.pathParam("userId");
-
-        try {
-            JDA jda = bot.getJda();
-            User user = jda.retrieveUserById(userId).complete();
-
-            if (user == null) {
-                ctx.status(404).json(Map.of(
-                        "error", "User not found",
-                        "message", "No user found with ID: " + userId
-                ));
-                return;
-            }
-
-            // Open or retrieve DM channel
-            PrivateChannel channel = user.openPrivateChannel().complete();
-
-            Map<String, Object> channelData = new HashMap<>();
-            channelData.put("id", channel.getId());
-            channelData.put("type", channel.getType().name());
-            channelData.put("name", "@" + user.getName());
-            channelData.put("userId", user.getId());
-
-            ctx.json(channelData);
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error retrieving DM channel for user: " + userId, e);
-            ctx.status(e.getErrorCode()).json(Map.of(
-                    "error", "Discord API error",
-                    "code", e.getErrorCode(),
-                    "message", e.getMeaning()
-            ));
-        } catch (Exception e) {
-            logger.error("Error retrieving DM channel for user: " + userId, e);
-            ctx.status(500).json(Map.of(
-                    "error", "Internal server error",
-                    "message", e.getMessage()
+        if (!Snowflake.isValid(userId)) {
+            ctx.status(400).json(Map.of(
+                    "error", "Bad request",
+                    "message", "Invalid user ID: " + userId
             ));
+            return;
         }
+        AsyncResponses.respond(ctx, logger, "retrieving DM channel for user: " + userId,
+                () -> userService.openDmChannel(userId), 200);
     }
 
     /**
@@ -254,42 +107,14 @@ public class UserEndpoint {
      */
     public void createDmChannel(Context ctx) {
         String userId = ctx.pathParam("userId");
-
-        try {
-            JDA jda = bot.getJda();
-            User user = jda.retrieveUserById(userId).complete();
-
-            if (user == null) {
-                ctx.status(404).json(Map.of(
-                        "error", "User not found",
-                        "message", "No user found with ID: " + userId
-                ));
-                return;
-            }
-
-            // Open or create DM channel
-            PrivateChannel channel = user.openPrivateChannel().complete();
-
-            Map<String, Object> channelData = new HashMap<>();
-            channelData.put("id", channel.getId());
-            channelData.put("type", channel.getType().name());
-            channelData.put("name", "@" + user.getName());
-            channelData.put("userId", user.getId());
-
-            ctx.status(201).json(channelData);
-        } catch (ErrorResponseException e) {
-            logger.error("Discord error creating DM channel for user: " + userId, e);
-            ctx.status(e.getErrorCode()).json(Map.of(
-                    "error", "Discord API error",
-                    "code", e.getErrorCode(),
-                    "message", e.getMeaning()
-            ));
-        } catch (Exception e) {
-            logger.error("Error creating DM channel for user: " + userId, e);
-            ctx.status(500).json(Map.of(
-                    "error", "Internal server error",
-                    "message", e.getMessage()
+        if (!Snowflake.isValid(userId)) {
+            ctx.status(400).json(Map.of(
+                    "error", "Bad request",
+                    "message", "Invalid user ID: " + userId
             ));
+            return;
         }
+        AsyncResponses.respond(ctx, logger, "creating DM channel for user: " + userId,
+                () -> userService.openDmChannel(userId), 201);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.cottonlesergal.ucontrolbot.bus;
+
+/**
+ * An event on its way from the node that produced it to the WebSocket sessions
+ * of every web node. The payload is the event already encoded for clients, so
+ * it is serialized once on the publishing node and forwarded as is.
+ *
+ * @param type The event type
+ * @param scope Which sessions receive the event
+ * @param target The channel, user or guild ID for scoped events; null for {@link Scope#ALL}
+ * @param payload The encoded event
+ * @param replayable Whether the event is numbered in the event log for resuming clients;
+ *                   false for ephemeral relays such as client typing indicators
+ */
+public record BusEvent(String type, Scope scope, String target, String payload, boolean replayable) {
+
+    /**
+     * Creates a replayable event.
+     *
+     * @param type The event type
+     * @param scope Which sessions receive the event
+     * @param target The channel, user or guild ID for scoped events
+     * @param payload The encoded event
+     */
+    public BusEvent(String type, Scope scope, String target, String payload) {
+        this(type, scope, target, payload, true);
+    }
+
+    /**
+     * Which sessions receive an event.
+     */
+    public enum Scope {
+        /** Every session */
+        ALL,
+        /** Sessions subscribed to the target channel */
+        CHANNEL,
+        /** Sessions subscribed to DMs with the target user */
+        DM,
+        /** Sessions subscribed to the target guild */
+        GUILD
+    }
+}
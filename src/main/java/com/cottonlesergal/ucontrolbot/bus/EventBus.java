@@ -0,0 +1,45 @@
+package com.cottonlesergal.ucontrolbot.bus;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Carries events from the listeners to the WebSocket session layer.
+ * The gateway node publishes each event once; every node subscribed to the bus,
+ * including the publisher itself, fans it out to its own sessions.
+ * Set with event-bus.mode: local keeps everything in process, tcp links nodes
+ * over a socket, and loopback runs the tcp bus against itself on one node.
+ */
+public interface EventBus {
+
+    /**
+     * Publishes an event to every subscriber on every node.
+     *
+     * @param event The event
+     */
+    void publish(BusEvent event);
+
+    /**
+     * Subscribes to the events delivered to this node.
+     *
+     * @param subscriber Called for each event, in publish order
+     */
+    void subscribe(Consumer<BusEvent> subscriber);
+
+    /**
+     * Registers a listener for when this node may have missed events, e.g. because
+     * its connection to the publishing node was lost. Buses that cannot lose
+     * events never call it.
+     *
+     * @param listener Called before the first event delivered after the gap
+     */
+    default void onGap(Runnable listener) {
+    }
+
+    /**
+     * Gets bus statistics.
+     *
+     * @return Published and delivered counts and, for networked buses, peer counters
+     */
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,219 @@
+package com.cottonlesergal.ucontrolbot.bus;
+
+import com.cottonlesergal.ucontrolbot.config.Config;
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log of the events delivered to this node's WebSocket sessions, so a client
+ * that reconnects can resume from the last sequence number it saw instead of
+ * reloading everything. Each event gets the next sequence number on delivery
+ * and is kept in a fixed-size ring; events pushed out of the ring go to the
+ * optional memory-mapped spill file (event-log.spill-file). Sequence numbers
+ * are only meaningful with the epoch they were issued under, which changes
+ * whenever the node starts or the event bus reports it may have missed events.
+ */
+@Component
+public class EventLog {
+    private static final Logger logger = LoggerFactory.getLogger(EventLog.class);
+
+    @Autowired
+    private Config config;
+
+    private volatile String epoch = UUID.randomUUID().toString();
+
+    private Entry[] ring;
+    private long nextSeq = 1;
+    private SpillFile spill;
+
+    private final LongAdder resumes = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        ring = new Entry[Math.max(1, config.getEventLogCapacity())];
+        String spillPath = config.getEventLogSpillFile();
+        if (spillPath != null && !spillPath.isBlank()) {
+            // A memory-mapped buffer holds at most 2 GB
+            long spillBytes = config.getEventLogSpillSizeMb() * 1024L * 1024;
+            if (spillBytes <= 0 || spillBytes > Integer.MAX_VALUE) {
+                logger.error("event-log.spill-size-mb must be between 1 and 2047, got {}; keeping events in memory only",
+                        config.getEventLogSpillSizeMb());
+                return;
+            }
+            try {
+                spill = new SpillFile(Path.of(spillPath), (int) spillBytes);
+                logger.info("Event log spilling to {} ({} MB)", spillPath, config.getEventLogSpillSizeMb());
+            } catch (IOException e) {
+                logger.error("Could not open event log spill file {}, keeping events in memory only", spillPath, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                logger.warn("Error closing event log spill file: {}", e.getMessage());
+            }
+            spill = null;
+        }
+    }
+
+    /**
+     * Gets the epoch sequence numbers belong to.
+     *
+     * @return The epoch
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Starts a new epoch, so no client resumes across events this node never
+     * received. Sequence numbers keep increasing.
+     */
+    public synchronized void rotateEpoch() {
+        epoch = UUID.randomUUID().toString();
+        rotations.increment();
+        logger.warn("Event log epoch rotated to {} at seq {}", epoch, nextSeq - 1);
+    }
+
+    /**
+     * Gets the sequence number of the latest event.
+     *
+     * @return The sequence number, 0 before the first event
+     */
+    public synchronized long getLatestSeq() {
+        return nextSeq - 1;
+    }
+
+    /**
+     * Assigns the next sequence number to an event and records it.
+     * The sequence number is added to the encoded payload.
+     *
+     * @param event The event from the bus
+     * @return The recorded event
+     */
+    public synchronized Entry append(BusEvent event) {
+        long seq = nextSeq++;
+        Entry entry = new Entry(seq, event.scope(), event.target(), JsonCodec.withSequence(event.payload(), seq));
+        int slot = (int) (seq % ring.length);
+        Entry evicted = ring[slot];
+        if (evicted != null && spill != null) {
+            spill.append(evicted);
+        }
+        ring[slot] = entry;
+        return entry;
+    }
+
+    /**
+     * Gets the events after a sequence number for a resuming client.
+     *
+     * @param epoch The epoch the client's sequence number is from
+     * @param lastSeq The last sequence number the client received
+     * @return The missed events oldest first, or null if they are no longer all available
+     *         (or the epoch does not match) and the client must reload its state
+     */
+    public synchronized List<Entry> since(String epoch, long lastSeq) {
+        long latest = nextSeq - 1;
+        if (!this.epoch.equals(epoch) || lastSeq < 0 || lastSeq > latest) {
+            resyncs.increment();
+            return null;
+        }
+        long oldestInRing = Math.max(1, nextSeq - ring.length);
+        long oldest = oldestInRing;
+        if (spill != null && spill.oldestSeq() > 0) {
+            oldest = Math.min(oldest, spill.oldestSeq());
+        }
+        if (lastSeq + 1 < oldest) {
+            resyncs.increment();
+            return null;
+        }
+
+        List<Entry> missed = new ArrayList<>();
+        if (lastSeq + 1 < oldestInRing) {
+            missed.addAll(spill.readRange(lastSeq, oldestInRing));
+            // The spill file drops events too large for it, so check nothing is missing
+            if (missed.size() != oldestInRing - lastSeq - 1) {
+                resyncs.increment();
+                return null;
+            }
+        }
+        for (long seq = Math.max(lastSeq + 1, oldestInRing); seq <= latest; seq++) {
+            missed.add(ring[(int) (seq % ring.length)]);
+        }
+        resumes.increment();
+        replayed.add(missed.size());
+        return missed;
+    }
+
+    /**
+     * Gets the payloads of the most recent events still in memory, e.g. to measure
+     * encodings on the events clients actually received.
+     *
+     * @param limit The maximum number of events
+     * @return The encoded events oldest first
+     */
+    public synchronized List<String> recentPayloads(int limit) {
+        long latest = nextSeq - 1;
+        long first = Math.max(Math.max(1, nextSeq - ring.length), latest - limit + 1);
+        List<String> payloads = new ArrayList<>();
+        for (long seq = first; seq <= latest; seq++) {
+            payloads.add(ring[(int) (seq % ring.length)].payload());
+        }
+        return payloads;
+    }
+
+    /**
+     * Gets event log statistics.
+     *
+     * @return Capacity, sequence range, resumes, replayed events, resyncs and epoch rotations
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("epoch", epoch);
+        stats.put("capacity", ring.length);
+        stats.put("latestSeq", nextSeq - 1);
+        stats.put("oldestSeq", Math.max(1, nextSeq - ring.length));
+        stats.put("resumes", resumes.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("resyncs", resyncs.sum());
+        stats.put("epochRotations", rotations.sum());
+        if (spill != null) {
+            stats.put("spilledEvents", spill.size());
+            stats.put("spillOldestSeq", spill.oldestSeq());
+            stats.put("spillCapacityBytes", spill.capacityBytes());
+        }
+        return stats;
+    }
+
+    /**
+     * An event as recorded in the log.
+     *
+     * @param seq The sequence number
+     * @param scope Which sessions receive the event
+     * @param target The channel, user or guild ID for scoped events
+     * @param payload The encoded event, including its sequence number
+     */
+    public record Entry(long seq, BusEvent.Scope scope, String target, String payload) {
+    }
+}
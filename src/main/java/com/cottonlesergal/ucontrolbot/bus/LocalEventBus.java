@@ -0,0 +1,61 @@
+package com.cottonlesergal.ucontrolbot.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-process event bus for a single node: events are handed to the
+ * subscribers on the publishing thread.
+ */
+public class LocalEventBus implements EventBus {
+    private static final Logger logger = LoggerFactory.getLogger(LocalEventBus.class);
+
+    private final List<Consumer<BusEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+
+    @Override
+    public void publish(BusEvent event) {
+        published.increment();
+        deliver(event);
+    }
+
+    @Override
+    public void subscribe(Consumer<BusEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Hands an event to every subscriber of this node.
+     *
+     * @param event The event
+     */
+    void deliver(BusEvent event) {
+        for (Consumer<BusEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+                delivered.increment();
+            } catch (Exception e) {
+                logger.error("Event bus subscriber failed on {}", event.type(), e);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", "local");
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("subscribers", subscribers.size());
+        return stats;
+    }
+}
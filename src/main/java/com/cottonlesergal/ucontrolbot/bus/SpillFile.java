@@ -0,0 +1,132 @@
+package com.cottonlesergal.ucontrolbot.bus;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Memory-mapped ring of events evicted from the in-memory event log, so that
+ * clients can resume across a longer gap without keeping every payload on the heap.
+ * Records are written one after another and wrap to the start of the file when
+ * the next one does not fit, overwriting the oldest. Only the position of each
+ * record is kept in memory. Not thread-safe; EventLog serializes access.
+ */
+final class SpillFile implements AutoCloseable {
+    // seq, scope, target length, payload length
+    private static final int HEADER_BYTES = 8 + 1 + 2 + 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Deque<Record> records = new ArrayDeque<>();
+    private int position;
+
+    SpillFile(Path path, int sizeBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+    }
+
+    /**
+     * Appends an event, overwriting the oldest records it overlaps.
+     *
+     * @param entry The event
+     * @return Whether the event fit; events larger than the file are not spilled
+     */
+    boolean append(EventLog.Entry entry) {
+        byte[] target = entry.target() != null ? entry.target().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] payload = entry.payload().getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_BYTES + target.length + payload.length;
+        if (size > buffer.capacity()) {
+            return false;
+        }
+        if (position + size > buffer.capacity()) {
+            // Records in the unused tail are older than everything from the start; drop them with the wrap
+            int tail = position;
+            while (!records.isEmpty() && records.peekFirst().offset >= tail) {
+                records.pollFirst();
+            }
+            position = 0;
+        }
+        int end = position + size;
+        while (!records.isEmpty() && records.peekFirst().offset < end
+                && records.peekFirst().offset + records.peekFirst().size > position) {
+            records.pollFirst();
+        }
+
+        buffer.position(position);
+        buffer.putLong(entry.seq());
+        buffer.put((byte) entry.scope().ordinal());
+        buffer.putShort((short) target.length);
+        buffer.putInt(payload.length);
+        buffer.put(target);
+        buffer.put(payload);
+        records.addLast(new Record(entry.seq(), position, size));
+        position = end;
+        return true;
+    }
+
+    /**
+     * Gets the sequence number of the oldest spilled event.
+     *
+     * @return The sequence number, or -1 if nothing is spilled
+     */
+    long oldestSeq() {
+        return records.isEmpty() ? -1 : records.peekFirst().seq;
+    }
+
+    /**
+     * Reads the spilled events after a sequence number, oldest first.
+     *
+     * @param afterSeq The last sequence number the reader has
+     * @param beforeSeq Stop before this sequence number, where the in-memory log takes over
+     * @return The events
+     */
+    List<EventLog.Entry> readRange(long afterSeq, long beforeSeq) {
+        List<EventLog.Entry> entries = new ArrayList<>();
+        for (Record record : records) {
+            if (record.seq <= afterSeq) {
+                continue;
+            }
+            if (record.seq >= beforeSeq) {
+                break;
+            }
+            entries.add(read(record));
+        }
+        return entries;
+    }
+
+    private EventLog.Entry read(Record record) {
+        buffer.position(record.offset);
+        long seq = buffer.getLong();
+        BusEvent.Scope scope = BusEvent.Scope.values()[buffer.get()];
+        byte[] target = new byte[buffer.getShort()];
+        byte[] payload = new byte[buffer.getInt()];
+        buffer.get(target);
+        buffer.get(payload);
+        return new EventLog.Entry(seq, scope, target.length > 0 ? new String(target, StandardCharsets.UTF_8) : null,
+                new String(payload, StandardCharsets.UTF_8));
+    }
+
+    int size() {
+        return records.size();
+    }
+
+    int capacityBytes() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private record Record(long seq, int offset, int size) {
+    }
+}
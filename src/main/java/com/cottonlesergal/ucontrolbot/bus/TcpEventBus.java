@@ -0,0 +1,458 @@
+package com.cottonlesergal.ucontrolbot.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Event bus linking nodes over TCP.
+ * The gateway node listens on event-bus.listen-port and streams every event it
+ * publishes to each connected node; web nodes connect to it with
+ * event-bus.upstream and fan the events out to their own sessions. Every peer
+ * has its own bounded queue and writer thread, so a slow node drops events
+ * instead of holding up the publisher, and an upstream connection that fails
+ * is retried until it is back.
+ *
+ * Nodes share event-bus.secret. The listening side sends a random challenge,
+ * the connecting node answers with an HMAC of it and its own challenge, and the
+ * listening side answers that in turn; only then is the node sent events. Both
+ * sides thereby prove they know the secret without sending it. The stream itself
+ * is not encrypted, so nodes on different hosts belong on a private network.
+ *
+ * Frames are the event type, scope, target and replayable flag followed by the
+ * length-prefixed payload. In loopback mode the bus connects to itself on
+ * 127.0.0.1 with a random secret, so a single node exercises the whole network
+ * path.
+ *
+ * A node that cannot keep up with the events for it is disconnected rather than
+ * skipped silently, and a node whose upstream connection is lost reports a gap
+ * once it is back, so neither hands out sequence numbers across missing events.
+ */
+public class TcpEventBus implements EventBus {
+    private static final Logger logger = LoggerFactory.getLogger(TcpEventBus.class);
+
+    // "UCB" and protocol version 2, sent by the listening side when a node connects
+    private static final int HANDSHAKE = 0x55434202;
+    // Sent by the listening side once the connecting node has authenticated
+    private static final int AUTHENTICATED = 0x55434241;
+    private static final int CHALLENGE_BYTES = 32;
+    private static final int MAC_BYTES = 32;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    // Labels keep one side's answer from being replayed as the other's
+    private static final byte[] NODE_LABEL = "ucb-node".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UPSTREAM_LABEL = "ucb-upstream".getBytes(StandardCharsets.UTF_8);
+    private static final int AUTH_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_QUEUED_PER_PEER = 10_000;
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+    private static final long RECONNECT_DELAY_MILLIS = 2000;
+
+    private final LocalEventBus local = new LocalEventBus();
+    private final String bindAddress;
+    private final int listenPort;
+    private final String upstreamHost;
+    private final int upstreamPort;
+    private final boolean loopback;
+    private final SecretKeySpec secret;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Set<Peer> peers = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> gapListeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger peerIds = new AtomicInteger();
+    private volatile ServerSocket serverSocket;
+    private volatile Socket upstreamSocket;
+    private volatile boolean running;
+    private final CountDownLatch upstreamConnected = new CountDownLatch(1);
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a bus node.
+     *
+     * @param bindAddress The address to listen on
+     * @param listenPort The port other nodes connect to, or -1 to not accept nodes
+     * @param upstream The host:port of the node to receive events from, or null
+     * @param secret The secret shared by all nodes
+     * @throws IllegalArgumentException If the secret is missing
+     */
+    public TcpEventBus(String bindAddress, int listenPort, String upstream, String secret) {
+        this(bindAddress, listenPort, upstream, secret, false);
+    }
+
+    private TcpEventBus(String bindAddress, int listenPort, String upstream, String secret, boolean loopback) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("event-bus.secret must be set in tcp mode");
+        }
+        this.bindAddress = bindAddress;
+        this.listenPort = listenPort;
+        this.loopback = loopback;
+        this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        if (upstream != null && !upstream.isBlank()) {
+            int colon = upstream.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("event-bus.upstream must be host:port, got " + upstream);
+            }
+            this.upstreamHost = upstream.substring(0, colon);
+            this.upstreamPort = Integer.parseInt(upstream.substring(colon + 1));
+        } else {
+            this.upstreamHost = null;
+            this.upstreamPort = -1;
+        }
+    }
+
+    /**
+     * Creates a bus that sends its own events through a socket on 127.0.0.1, as a
+     * stand-in for a multi-node setup. Events are only delivered once they have
+     * made the round trip.
+     *
+     * @return The bus, not yet started
+     */
+    public static TcpEventBus loopback() {
+        byte[] secret = new byte[CHALLENGE_BYTES];
+        new SecureRandom().nextBytes(secret);
+        return new TcpEventBus(InetAddress.getLoopbackAddress().getHostAddress(), 0, null,
+                HexFormat.of().formatHex(secret), true);
+    }
+
+    /**
+     * Starts listening and connects upstream.
+     *
+     * @throws IOException If the listen port cannot be bound
+     */
+    public void start() throws IOException {
+        running = true;
+        if (listenPort >= 0) {
+            ServerSocket server = new ServerSocket();
+            server.bind(new InetSocketAddress(bindAddress, listenPort));
+            serverSocket = server;
+            daemon(this::acceptPeers, "event-bus-accept").start();
+            logger.info("Event bus listening on {}:{}", bindAddress, server.getLocalPort());
+        }
+        if (loopback) {
+            startUpstream(bindAddress, serverSocket.getLocalPort());
+            // Events published before the round trip is up would be lost
+            try {
+                if (!upstreamConnected.await(5, TimeUnit.SECONDS)) {
+                    logger.warn("Event bus loopback connection not up after 5 seconds");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (upstreamHost != null) {
+            startUpstream(upstreamHost, upstreamPort);
+        }
+    }
+
+    private void startUpstream(String host, int port) {
+        daemon(() -> readUpstream(host, port), "event-bus-upstream").start();
+    }
+
+    @Override
+    public void publish(BusEvent event) {
+        published.increment();
+        if (!loopback) {
+            local.deliver(event);
+        }
+        for (Peer peer : peers) {
+            if (!peer.queue.offer(event)) {
+                dropped.increment();
+                // Losing a typing relay is harmless; losing anything else must not go unnoticed
+                if (event.replayable()) {
+                    disconnectLagging(peer);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<BusEvent> subscriber) {
+        local.subscribe(subscriber);
+    }
+
+    @Override
+    public void onGap(Runnable listener) {
+        gapListeners.add(listener);
+    }
+
+    /**
+     * Disconnects a node whose queue is full, so it reconnects and reports the gap.
+     */
+    private void disconnectLagging(Peer peer) {
+        if (!peer.lagging) {
+            peer.lagging = true;
+            peers.remove(peer);
+            logger.warn("Event bus node {} fell {} events behind, disconnecting it",
+                    peer.socket.getRemoteSocketAddress(), MAX_QUEUED_PER_PEER);
+            closeQuietly(peer.socket);
+        }
+    }
+
+    private void reportGap() {
+        for (Runnable listener : gapListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                logger.error("Event bus gap listener failed", e);
+            }
+        }
+    }
+
+    private void acceptPeers() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Peer peer = new Peer(socket, peerIds.incrementAndGet());
+                // The peer only joins the fan-out once it has authenticated
+                daemon(() -> writePeer(peer), "event-bus-peer-" + peer.id).start();
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Event bus accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writePeer(Peer peer) {
+        try (Socket socket = peer.socket;
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            byte[] challenge = new byte[CHALLENGE_BYTES];
+            random.nextBytes(challenge);
+            out.writeInt(HANDSHAKE);
+            out.write(challenge);
+            out.flush();
+
+            socket.setSoTimeout(AUTH_TIMEOUT_MILLIS);
+            byte[] answer = new byte[MAC_BYTES];
+            byte[] nodeChallenge = new byte[CHALLENGE_BYTES];
+            in.readFully(answer);
+            in.readFully(nodeChallenge);
+            if (!MessageDigest.isEqual(answer, sign(NODE_LABEL, challenge))) {
+                rejected.increment();
+                logger.warn("Event bus node {} rejected: wrong event-bus.secret", socket.getRemoteSocketAddress());
+                return;
+            }
+            socket.setSoTimeout(0);
+
+            peers.add(peer);
+            out.writeInt(AUTHENTICATED);
+            out.write(sign(UPSTREAM_LABEL, nodeChallenge));
+            out.flush();
+            logger.info("Event bus node connected from {}", socket.getRemoteSocketAddress());
+            while (running) {
+                BusEvent event = peer.queue.take();
+                writeFrame(out, event);
+                // Flush once the queue is drained so bursts share packets
+                if (peer.queue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            logger.info("Event bus node {} disconnected: {}", peer.socket.getRemoteSocketAddress(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            peers.remove(peer);
+        }
+    }
+
+    private void writeFrame(DataOutputStream out, BusEvent event) throws IOException {
+        byte[] payload = event.payload().getBytes(StandardCharsets.UTF_8);
+        out.writeUTF(event.type());
+        out.writeByte(event.scope().ordinal());
+        out.writeUTF(event.target() != null ? event.target() : "");
+        out.writeBoolean(event.replayable());
+        out.writeInt(payload.length);
+        out.write(payload);
+        sent.increment();
+        sentBytes.add(payload.length);
+    }
+
+    private void readUpstream(String host, int port) {
+        // Events published while reconnecting never reach this node
+        boolean reconnecting = false;
+        while (running) {
+            try (Socket socket = new Socket(host, port);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                upstreamSocket = socket;
+                if (in.readInt() != HANDSHAKE) {
+                    throw new IOException("Not an event bus node or incompatible protocol version");
+                }
+                authenticateUpstream(socket, in, out);
+                logger.info("Event bus connected upstream to {}:{}", host, port);
+                upstreamConnected.countDown();
+                if (reconnecting) {
+                    reportGap();
+                }
+                reconnecting = true;
+                while (running) {
+                    BusEvent event = readFrame(in);
+                    received.increment();
+                    local.deliver(event);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    reconnects.increment();
+                    logger.warn("Event bus upstream {}:{} unavailable ({}), retrying", host, port, e.toString());
+                    try {
+                        Thread.sleep(RECONNECT_DELAY_MILLIS);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers the upstream node's challenge and checks its answer to ours.
+     */
+    private void authenticateUpstream(Socket socket, DataInputStream in, DataOutputStream out) throws IOException {
+        byte[] challenge = new byte[CHALLENGE_BYTES];
+        in.readFully(challenge);
+        byte[] ownChallenge = new byte[CHALLENGE_BYTES];
+        random.nextBytes(ownChallenge);
+        out.write(sign(NODE_LABEL, challenge));
+        out.write(ownChallenge);
+        out.flush();
+
+        socket.setSoTimeout(AUTH_TIMEOUT_MILLIS);
+        try {
+            if (in.readInt() != AUTHENTICATED) {
+                throw new IOException("Unexpected reply to authentication");
+            }
+        } catch (EOFException e) {
+            // The upstream node closes the connection on a wrong answer
+            throw new IOException("Upstream rejected this node; check event-bus.secret");
+        }
+        byte[] answer = new byte[MAC_BYTES];
+        in.readFully(answer);
+        if (!MessageDigest.isEqual(answer, sign(UPSTREAM_LABEL, ownChallenge))) {
+            throw new IOException("Upstream did not prove it knows event-bus.secret");
+        }
+        socket.setSoTimeout(0);
+    }
+
+    private byte[] sign(byte[] label, byte[] challenge) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(secret);
+            mac.update(label);
+            return mac.doFinal(challenge);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private BusEvent readFrame(DataInputStream in) throws IOException {
+        String type = in.readUTF();
+        int scope = in.readUnsignedByte();
+        String target = in.readUTF();
+        boolean replayable = in.readBoolean();
+        int length = in.readInt();
+        if (scope >= BusEvent.Scope.values().length || length < 0 || length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Malformed event bus frame");
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new BusEvent(type, BusEvent.Scope.values()[scope], target.isEmpty() ? null : target,
+                new String(payload, StandardCharsets.UTF_8), replayable);
+    }
+
+    /**
+     * Stops listening and disconnects from every node.
+     */
+    public void close() {
+        running = false;
+        closeQuietly(serverSocket);
+        closeQuietly(upstreamSocket);
+        for (Peer peer : peers) {
+            closeQuietly(peer.socket);
+        }
+        peers.clear();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already closed
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(local.getStats());
+        stats.put("mode", loopback ? "loopback" : "tcp");
+        stats.put("published", published.sum());
+        stats.put("peers", peers.size());
+        stats.put("sent", sent.sum());
+        stats.put("sentBytes", sentBytes.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("received", received.sum());
+        stats.put("upstreamConnected", upstreamSocket != null && upstreamSocket.isConnected() && !upstreamSocket.isClosed());
+        stats.put("reconnects", reconnects.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private static final class Peer {
+        private final Socket socket;
+        private final int id;
+        private final BlockingQueue<BusEvent> queue = new LinkedBlockingQueue<>(MAX_QUEUED_PER_PEER);
+        private volatile boolean lagging;
+
+        private Peer(Socket socket, int id) {
+            this.socket = socket;
+            this.id = id;
+        }
+    }
+}
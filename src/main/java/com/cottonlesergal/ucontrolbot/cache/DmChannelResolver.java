@@ -0,0 +1,230 @@
+package com.cottonlesergal.ucontrolbot.cache;
+
+import com.cottonlesergal.ucontrolbot.db.DatabaseManager;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves the DM channel of a user.
+ * DM channel IDs never change once Discord has created them, so resolved channels
+ * are kept in memory and in the dm_channels table. Discord is only asked on a
+ * miss in both, with a single openPrivateChannelById call; concurrent misses for
+ * the same user share one lookup.
+ */
+@Component
+public class DmChannelResolver {
+    private static final Logger logger = LoggerFactory.getLogger(DmChannelResolver.class);
+
+    // How long a user with no DM channel on record is not looked up again
+    private static final long MISS_TTL_MILLIS = 60_000;
+    private static final int MAX_MISSES = 10_000;
+
+    @Autowired
+    private DiscordRuntime discord;
+
+    @Autowired
+    private DatabaseManager dbManager;
+
+    private final ConcurrentMap<Long, DmChannel> channels = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, CompletableFuture<DmChannel>> pending = new ConcurrentHashMap<>();
+    // Users whose channel was not in the database, mapped to when it may be asked again
+    private final ConcurrentMap<Long, Long> misses = new ConcurrentHashMap<>();
+
+    // Database lookups and writes run here so callers are never blocked on JDBC
+    private final ExecutorService loader = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "dm-channel-resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder discordOpens = new LongAdder();
+    private final LongAdder sharedLookups = new LongAdder();
+
+    /**
+     * Resolves the DM channel of a user, opening it on Discord if it is not known yet.
+     *
+     * @param userId The user ID
+     * @return The DM channel
+     */
+    public CompletableFuture<DmChannel> resolve(long userId) {
+        DmChannel known = channels.get(userId);
+        if (known != null) {
+            memoryHits.increment();
+            return CompletableFuture.completedFuture(known);
+        }
+
+        CompletableFuture<DmChannel> created = new CompletableFuture<>();
+        CompletableFuture<DmChannel> existing = pending.putIfAbsent(userId, created);
+        if (existing != null) {
+            sharedLookups.increment();
+            return existing;
+        }
+
+        lookup(userId).whenComplete((channel, error) -> {
+            pending.remove(userId, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                channels.put(userId, channel);
+                misses.remove(userId);
+                created.complete(channel);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Gets the ID of a user's DM channel if it is already in memory, without
+     * blocking: e.g. for typing events, which arrive on the WebSocket thread.
+     * On a miss the database is checked in the background, so a later call finds
+     * the channel; users with no channel on record are not checked again for a minute.
+     *
+     * @param userId The user ID
+     * @return The channel ID, or null if the channel is not in memory yet
+     */
+    public String getKnownChannelId(long userId) {
+        DmChannel known = channels.get(userId);
+        if (known != null) {
+            return known.getChannelId();
+        }
+        loadInBackground(userId);
+        return null;
+    }
+
+    private void loadInBackground(long userId) {
+        long now = System.currentTimeMillis();
+        Long retryAt = misses.get(userId);
+        if (retryAt != null && retryAt > now) {
+            return;
+        }
+        // Claiming the slot also keeps concurrent callers from queueing the same lookup
+        long next = now + MISS_TTL_MILLIS;
+        boolean claimed = retryAt == null ? misses.putIfAbsent(userId, next) == null : misses.replace(userId, retryAt, next);
+        if (!claimed) {
+            return;
+        }
+        if (misses.size() > MAX_MISSES) {
+            misses.values().removeIf(expiry -> expiry <= now);
+        }
+
+        loader.execute(() -> {
+            try {
+                DmChannel stored = fromDatabase(userId);
+                if (stored != null) {
+                    databaseHits.increment();
+                    channels.putIfAbsent(userId, stored);
+                    misses.remove(userId);
+                }
+            } catch (Exception e) {
+                logger.warn("Could not load DM channel of user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Records a DM channel seen in a gateway event.
+     *
+     * @param channel The DM channel
+     */
+    public void remember(PrivateChannel channel) {
+        User user = channel.getUser();
+        if (user != null) {
+            channels.putIfAbsent(user.getIdLong(), new DmChannel(channel.getId(), user.getId(), user.getName()));
+            misses.remove(user.getIdLong());
+        }
+    }
+
+    private CompletableFuture<DmChannel> lookup(long userId) {
+        return CompletableFuture.supplyAsync(() -> fromDatabase(userId), loader)
+                .thenCompose(stored -> {
+                    if (stored != null) {
+                        databaseHits.increment();
+                        return CompletableFuture.completedFuture(stored);
+                    }
+                    discordOpens.increment();
+                    return discord.openPrivateChannelById(userId).submit().thenApply(channel -> {
+                        DmChannel opened = new DmChannel(channel.getId(), Long.toUnsignedString(userId), nameOf(channel, userId));
+                        loader.execute(() -> dbManager.saveDmChannel(channel.getIdLong(), userId, opened.getUserName()));
+                        return opened;
+                    });
+                });
+    }
+
+    private DmChannel fromDatabase(long userId) {
+        Map<String, Object> row = dbManager.getDmChannelByUserId(userId);
+        if (row == null) {
+            return null;
+        }
+        return new DmChannel((String) row.get("id"), Long.toUnsignedString(userId), (String) row.get("username"));
+    }
+
+    private String nameOf(PrivateChannel channel, long userId) {
+        if (channel.getUser() != null) {
+            return channel.getUser().getName();
+        }
+        User cached = discord.getUserById(userId);
+        return cached != null ? cached.getName() : null;
+    }
+
+    /**
+     * Gets resolver statistics.
+     *
+     * @return Lookup counters by source
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("channels", channels.size());
+        stats.put("misses", misses.size());
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("databaseHits", databaseHits.sum());
+        stats.put("discordOpens", discordOpens.sum());
+        stats.put("sharedLookups", sharedLookups.sum());
+        return stats;
+    }
+
+    /**
+     * A user's DM channel.
+     */
+    public static final class DmChannel {
+        private final String channelId;
+        private final String userId;
+        private final String userName;
+
+        private DmChannel(String channelId, String userId, String userName) {
+            this.channelId = channelId;
+            this.userId = userId;
+            this.userName = userName;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        /**
+         * Gets the recipient's name as last known, or null if it was never seen.
+         */
+        public String getUserName() {
+            return userName;
+        }
+    }
+}
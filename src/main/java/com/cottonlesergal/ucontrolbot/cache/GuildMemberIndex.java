@@ -0,0 +1,416 @@
+package com.cottonlesergal.ucontrolbot.cache;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Per-guild member index.
+ * Members are kept sorted by snowflake for keyset paging, and their username,
+ * global name and nickname are kept in a sorted name index for prefix search.
+ * Both lookups cost O(log n) plus the page size instead of a scan of the guild.
+ * A guild is indexed on first use and then maintained from member events.
+ *
+ * Under the active and lazy cache profiles JDA does not keep every member, so
+ * the index is how endpoints get a guild's members: it requests them from
+ * Discord once and serves pages from memory. Such detached indexes expire
+ * after a while so members of idle guilds do not stay on the heap.
+ * Lookups return futures; concurrent requests for a guild that is being
+ * loaded share one load instead of each asking Discord. Member events that
+ * arrive during a load are buffered and applied on top of the loaded members.
+ */
+@Component
+public class GuildMemberIndex {
+    private static final Logger logger = LoggerFactory.getLogger(GuildMemberIndex.class);
+
+    // Separates the name from the member ID in name index keys; sorts below every name character
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    // How long the index of a guild that JDA does not fully cache is kept
+    private static final long DETACHED_INDEX_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    // A guild's entry is its index once built, or the pending build
+    private final ConcurrentMap<Long, CompletableFuture<GuildIndex>> guilds = new ConcurrentHashMap<>();
+
+    // Member events for guilds whose index is being built
+    private final ConcurrentMap<Long, PendingEvents> pendingEvents = new ConcurrentHashMap<>();
+
+    /**
+     * Gets a page of members ordered by user ID.
+     *
+     * @param guild The guild
+     * @param after Only return members with a greater ID, or null for the first page
+     * @param limit Maximum number of members to return
+     * @return The members
+     */
+    public CompletableFuture<List<Member>> page(Guild guild, Long after, int limit) {
+        return getIndex(guild).thenApply(index -> page(index, after, limit));
+    }
+
+    private static List<Member> page(GuildIndex index, Long after, int limit) {
+        NavigableMap<Long, Member> members = index.members;
+        if (after != null) {
+            members = members.tailMap(after, false);
+        }
+
+        List<Member> page = new ArrayList<>(Math.min(limit, members.size()));
+        for (Member member : members.values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(member);
+        }
+        return page;
+    }
+
+    /**
+     * Finds members whose username, global name or nickname starts with a prefix.
+     * Matching is case-insensitive and results are ordered by the matching name.
+     *
+     * @param guild The guild
+     * @param prefix The name prefix
+     * @param limit Maximum number of members to return
+     * @return The matching members
+     */
+    public CompletableFuture<List<Member>> search(Guild guild, String prefix, int limit) {
+        return getIndex(guild).thenApply(index -> search(index, prefix, limit));
+    }
+
+    private static List<Member> search(GuildIndex index, String prefix, int limit) {
+        String from = normalize(prefix);
+        String to = from + Character.MAX_VALUE;
+
+        Set<Long> matched = new LinkedHashSet<>();
+        for (String key : index.names.subMap(from, true, to, false).keySet()) {
+            if (matched.size() >= limit) {
+                break;
+            }
+            matched.add(Long.parseLong(key.substring(key.lastIndexOf(KEY_SEPARATOR) + 1)));
+        }
+
+        List<Member> results = new ArrayList<>(matched.size());
+        for (Long id : matched) {
+            Member member = index.members.get(id);
+            if (member != null) {
+                results.add(member);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Gets every member of a guild, requesting them from Discord if the guild is not fully cached.
+     *
+     * @param guild The guild
+     * @return The members, ordered by user ID
+     */
+    public CompletableFuture<List<Member>> all(Guild guild) {
+        return getIndex(guild).thenApply(index -> new ArrayList<>(index.members.values()));
+    }
+
+    /**
+     * Adds or refreshes a member, e.g. after a join or nickname change.
+     * Ignored if the guild has not been indexed yet; it is built on first use.
+     *
+     * @param member The member
+     */
+    public void update(Member member) {
+        apply(member.getGuild().getIdLong(), index -> index.put(member));
+    }
+
+    /**
+     * Refreshes a user's names in every indexed guild they are a member of.
+     *
+     * @param user The user whose names changed
+     */
+    public void updateUser(User user) {
+        for (Guild guild : user.getMutualGuilds()) {
+            Member member = guild.getMember(user);
+            if (member != null) {
+                update(member);
+            }
+        }
+    }
+
+    /**
+     * Removes a member that left the guild.
+     *
+     * @param guildId The guild ID
+     * @param userId The user ID
+     */
+    public void remove(long guildId, long userId) {
+        apply(guildId, index -> index.remove(userId));
+    }
+
+    /**
+     * Applies a member event to a guild's index, or buffers it while the index is being built.
+     */
+    private void apply(long guildId, Consumer<GuildIndex> event) {
+        PendingEvents pending = pendingEvents.get(guildId);
+        if (pending != null) {
+            pending.add(event);
+            return;
+        }
+        // The build's future completes before its buffer is removed
+        GuildIndex index = built(guildId);
+        if (index != null) {
+            event.accept(index);
+        }
+    }
+
+    /**
+     * Gets the indexed guilds a user is a member of.
+     *
+     * @param userId The user ID
+     * @return The guild IDs
+     */
+    public Set<Long> guildsOf(long userId) {
+        Set<Long> guildIds = new HashSet<>();
+        guilds.forEach((guildId, entry) -> {
+            GuildIndex index = built(entry);
+            if (index != null && index.members.containsKey(userId)) {
+                guildIds.add(guildId);
+            }
+        });
+        return guildIds;
+    }
+
+    /**
+     * Drops the index of a guild the bot left.
+     *
+     * @param guildId The guild ID
+     */
+    public void removeGuild(long guildId) {
+        guilds.remove(guildId);
+    }
+
+    /**
+     * Gets index statistics.
+     *
+     * @return The number of indexed guilds, members and name keys
+     */
+    public Map<String, Object> getStats() {
+        long members = 0;
+        long names = 0;
+        int detached = 0;
+        int loading = 0;
+        for (CompletableFuture<GuildIndex> entry : guilds.values()) {
+            GuildIndex index = built(entry);
+            if (index == null) {
+                loading++;
+                continue;
+            }
+            members += index.members.size();
+            names += index.names.size();
+            if (index.detached) {
+                detached++;
+            }
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("guilds", guilds.size() - loading);
+        stats.put("loadingGuilds", loading);
+        stats.put("members", members);
+        stats.put("nameKeys", names);
+        stats.put("detachedGuilds", detached);
+        return stats;
+    }
+
+    /**
+     * Drops expired detached indexes.
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictExpired() {
+        guilds.values().removeIf(entry -> {
+            GuildIndex index = built(entry);
+            return index != null && index.isExpired();
+        });
+    }
+
+    /**
+     * Gets a guild's index, starting a build if there is none or it expired.
+     * The build runs outside the map, and callers that arrive meanwhile get the same future.
+     */
+    private CompletableFuture<GuildIndex> getIndex(Guild guild) {
+        long guildId = guild.getIdLong();
+        while (true) {
+            CompletableFuture<GuildIndex> current = guilds.get(guildId);
+            GuildIndex index = built(current);
+            if (current != null && (index == null || !index.isExpired())) {
+                return current;
+            }
+
+            CompletableFuture<GuildIndex> pending = new CompletableFuture<>();
+            boolean claimed = current == null
+                    ? guilds.putIfAbsent(guildId, pending) == null
+                    : guilds.replace(guildId, current, pending);
+            if (claimed) {
+                PendingEvents events = new PendingEvents();
+                pendingEvents.put(guildId, events);
+                build(guild).whenComplete((built, error) -> {
+                    if (error != null) {
+                        guilds.remove(guildId, pending);
+                        pending.completeExceptionally(error);
+                    } else {
+                        events.replayOnto(built);
+                        pending.complete(built);
+                    }
+                    pendingEvents.remove(guildId, events);
+                });
+                return pending;
+            }
+        }
+    }
+
+    /**
+     * Builds a guild's index from its members, requesting them from Discord if the guild is not fully cached.
+     * Discord's member chunks arrive on JDA's threads; no caller waits for them.
+     */
+    private CompletableFuture<GuildIndex> build(Guild guild) {
+        boolean detached = !guild.isLoaded();
+        CompletableFuture<List<Member>> members = new CompletableFuture<>();
+        if (!detached) {
+            members.complete(guild.getMembers());
+        } else {
+            guild.loadMembers()
+                    .onSuccess(members::complete)
+                    .onError(members::completeExceptionally);
+        }
+
+        return members
+                .exceptionally(error -> {
+                    logger.warn("Could not load all members of guild {}, indexing cached members only", guild.getId(), error);
+                    return guild.getMembers();
+                })
+                .thenApply(loaded -> {
+                    GuildIndex index = new GuildIndex(detached);
+                    for (Member member : loaded) {
+                        index.put(member);
+                    }
+                    logger.info("Indexed {} members of guild {}", index.members.size(), guild.getId());
+                    return index;
+                });
+    }
+
+    private GuildIndex built(long guildId) {
+        return built(guilds.get(guildId));
+    }
+
+    /**
+     * Gets the index of an entry whose build has finished, or null while it is loading.
+     */
+    private static GuildIndex built(CompletableFuture<GuildIndex> entry) {
+        return entry != null && entry.isDone() && !entry.isCompletedExceptionally() ? entry.join() : null;
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Member events that arrived while a guild's index was being built. Once
+     * they are replayed onto the new index, later events go straight to it.
+     */
+    private static final class PendingEvents {
+        private final List<Consumer<GuildIndex>> events = new ArrayList<>();
+        private GuildIndex index;
+
+        private synchronized void add(Consumer<GuildIndex> event) {
+            if (index != null) {
+                event.accept(index);
+            } else {
+                events.add(event);
+            }
+        }
+
+        private synchronized void replayOnto(GuildIndex built) {
+            for (Consumer<GuildIndex> event : events) {
+                event.accept(built);
+            }
+            events.clear();
+            index = built;
+        }
+    }
+
+    /**
+     * The sorted member and name maps of one guild.
+     * Writers synchronize so a member's names are always replaced as a unit;
+     * readers rely on the concurrent maps and never block.
+     */
+    private static final class GuildIndex {
+        private final ConcurrentSkipListMap<Long, Member> members = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<String, Boolean> names = new ConcurrentSkipListMap<>();
+        private final Map<Long, Set<String>> keysByMember = new HashMap<>();
+        private final boolean detached;
+        private final long builtAt = System.currentTimeMillis();
+
+        private GuildIndex(boolean detached) {
+            this.detached = detached;
+        }
+
+        private boolean isExpired() {
+            return detached && System.currentTimeMillis() - builtAt > DETACHED_INDEX_TTL_MILLIS;
+        }
+
+        private synchronized void put(Member member) {
+            long id = member.getIdLong();
+            removeKeys(id);
+
+            Set<String> keys = new HashSet<>();
+            for (String name : namesOf(member)) {
+                String key = normalize(name) + KEY_SEPARATOR + id;
+                names.put(key, Boolean.TRUE);
+                keys.add(key);
+            }
+            keysByMember.put(id, keys);
+            members.put(id, member);
+        }
+
+        private synchronized void remove(long id) {
+            members.remove(id);
+            removeKeys(id);
+        }
+
+        private void removeKeys(long id) {
+            Set<String> keys = keysByMember.remove(id);
+            if (keys != null) {
+                for (String key : keys) {
+                    names.remove(key);
+                }
+            }
+        }
+
+        private static Set<String> namesOf(Member member) {
+            Set<String> names = new HashSet<>();
+            User user = member.getUser();
+            names.add(user.getName());
+            if (user.getGlobalName() != null) {
+                names.add(user.getGlobalName());
+            }
+            if (member.getNickname() != null) {
+                names.add(member.getNickname());
+            }
+            return names;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.cottonlesergal.ucontrolbot.cache;
+
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import com.cottonlesergal.ucontrolbot.util.TtlLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized guild list, channel and role views.
+ * Each view is stored as the JSON bytes sent to clients together with a strong
+ * ETag derived from those bytes, so a repeated request is a map lookup and,
+ * when the client already has the current version, a 304 without a body.
+ * GuildListener invalidates a view whenever an event changes the data behind it.
+ */
+@Component
+public class GuildViewCache {
+
+    private static final int MAX_VIEWS = 4096;
+    private static final String GUILDS = "guilds";
+    private static final String CHANNELS_PREFIX = "channels:";
+    private static final String ROLES_PREFIX = "roles:";
+
+    @Autowired
+    private JsonCodec jsonCodec;
+
+    // No expiry: views are only replaced when an event invalidates them
+    private final TtlLruCache<String, View> views = new TtlLruCache<>(MAX_VIEWS, 0);
+
+    /**
+     * Responds with the guild list view.
+     *
+     * @param request The current request, used to answer conditional requests
+     * @param builder Builds the view data on a miss
+     * @return The view, or null if a 304 has already been prepared
+     */
+    public ResponseEntity<byte[]> respondGuilds(WebRequest request, Supplier<Object> builder) {
+        return respond(GUILDS, request, builder);
+    }
+
+    /**
+     * Responds with the channel view of a guild.
+     *
+     * @param guildId The guild ID
+     * @param request The current request, used to answer conditional requests
+     * @param builder Builds the view data on a miss
+     * @return The view, or null if a 304 has already been prepared
+     */
+    public ResponseEntity<byte[]> respondChannels(long guildId, WebRequest request, Supplier<Object> builder) {
+        return respond(CHANNELS_PREFIX + guildId, request, builder);
+    }
+
+    /**
+     * Responds with the role view of a guild.
+     *
+     * @param guildId The guild ID
+     * @param request The current request, used to answer conditional requests
+     * @param builder Builds the view data on a miss
+     * @return The view, or null if a 304 has already been prepared
+     */
+    public ResponseEntity<byte[]> respondRoles(long guildId, WebRequest request, Supplier<Object> builder) {
+        return respond(ROLES_PREFIX + guildId, request, builder);
+    }
+
+    private ResponseEntity<byte[]> respond(String key, WebRequest request, Supplier<Object> builder) {
+        View view = views.get(key, () -> serialize(builder.get()));
+        if (request.checkNotModified(view.etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(view.etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(view.body);
+    }
+
+    private View serialize(Object data) {
+        try {
+            byte[] body = jsonCodec.toBytes(data);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new View(body, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Invalidates the guild list, e.g. after a guild joins, leaves, changes or gains or loses a member.
+     */
+    public void invalidateGuilds() {
+        views.invalidate(GUILDS);
+    }
+
+    /**
+     * Invalidates the channel view of a guild.
+     *
+     * @param guildId The guild ID
+     */
+    public void invalidateChannels(long guildId) {
+        views.invalidate(CHANNELS_PREFIX + guildId);
+    }
+
+    /**
+     * Invalidates the role view of a guild.
+     *
+     * @param guildId The guild ID
+     */
+    public void invalidateRoles(long guildId) {
+        views.invalidate(ROLES_PREFIX + guildId);
+    }
+
+    /**
+     * Invalidates every view of a guild the bot left, and the guild list.
+     *
+     * @param guildId The guild ID
+     */
+    public void invalidateGuild(long guildId) {
+        invalidateGuilds();
+        invalidateChannels(guildId);
+        invalidateRoles(guildId);
+    }
+
+    /**
+     * Gets cache statistics.
+     *
+     * @return Cache counters
+     */
+    public Map<String, Object> getStats() {
+        return views.getStats();
+    }
+
+    /**
+     * A serialized view and its ETag.
+     */
+    private static final class View {
+        private final byte[] body;
+        private final String etag;
+
+        private View(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+    }
+}
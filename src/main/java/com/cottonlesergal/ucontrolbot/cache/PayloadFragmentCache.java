@@ -0,0 +1,154 @@
+package com.cottonlesergal.ucontrolbot.cache;
+
+import com.cottonlesergal.ucontrolbot.models.dto.JsonFragment;
+import com.cottonlesergal.ucontrolbot.models.dto.UserDTO;
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import com.cottonlesergal.ucontrolbot.util.TtlLruCache;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of pre-serialized author and member JSON for message payloads.
+ * In a busy channel the same few authors appear in message after message, so
+ * their JSON is encoded once and spliced into each payload as a {@link JsonFragment}.
+ *
+ * Fragments are keyed by entity ID. Listeners invalidate a user's fragments when
+ * the user changes and a member's when their nickname or roles change. A role
+ * change affects every member of the guild, so member keys also carry a guild
+ * epoch that is bumped instead of finding each member; the old entries age out.
+ */
+@Component
+public class PayloadFragmentCache {
+
+    private static final int MAX_FRAGMENTS = 20_000;
+    // Safety net for changes no event reports, such as a new profile banner
+    private static final long FRAGMENT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String AUTHOR_PREFIX = "author:";
+    private static final String USER_PREFIX = "user:";
+    private static final String MEMBER_PREFIX = "member:";
+
+    @Autowired
+    private JsonCodec jsonCodec;
+
+    @Autowired
+    private UserProfileCache profileCache;
+
+    private final TtlLruCache<String, JsonFragment> fragments = new TtlLruCache<>(MAX_FRAGMENTS, FRAGMENT_TTL_MILLIS);
+    private final ConcurrentMap<Long, Long> guildEpochs = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the author of a gateway message event, as a user DTO with the profile applied.
+     * Until the profile has been fetched the author is serialized without it and not cached.
+     *
+     * @param user The author
+     * @return The serialized author
+     */
+    public JsonFragment author(User user) {
+        String key = AUTHOR_PREFIX + user.getIdLong();
+        JsonFragment cached = fragments.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        UserProfileCache.Profile profile = profileCache.peek(user);
+        if (profile == null) {
+            return jsonCodec.fragment(UserDTO.from(user));
+        }
+        return fragments.get(key, () -> jsonCodec.fragment(
+                UserDTO.from(user).withProfile(profile.getBannerUrl(), profile.getAccentColor())));
+    }
+
+    /**
+     * Gets the author of a message returned by the REST API.
+     *
+     * @param user The author
+     * @return The serialized author
+     */
+    public JsonFragment messageAuthor(User user) {
+        return fragments.get(USER_PREFIX + user.getIdLong(), () -> {
+            Map<String, Object> authorData = new HashMap<>();
+            authorData.put("id", user.getId());
+            authorData.put("username", user.getName());
+            authorData.put("discriminator", user.getDiscriminator());
+            authorData.put("avatarUrl", user.getEffectiveAvatarUrl());
+            authorData.put("bot", user.isBot());
+            return jsonCodec.fragment(authorData);
+        });
+    }
+
+    /**
+     * Gets the member data of a message returned by the REST API.
+     *
+     * @param member The author's member
+     * @return The serialized member data
+     */
+    public JsonFragment member(Member member) {
+        long guildId = member.getGuild().getIdLong();
+        return fragments.get(memberKey(guildId, member.getIdLong()), () -> {
+            Map<String, Object> memberData = new HashMap<>();
+            memberData.put("nickname", member.getNickname());
+            memberData.put("joinedAt", member.getTimeJoined().toInstant().toEpochMilli());
+            memberData.put("roles", member.getRoles().stream()
+                    .map(role -> Map.of(
+                            "id", role.getId(),
+                            "name", role.getName(),
+                            "color", role.getColorRaw()
+                    ))
+                    .collect(Collectors.toList()));
+            return jsonCodec.fragment(memberData);
+        });
+    }
+
+    private String memberKey(long guildId, long userId) {
+        return MEMBER_PREFIX + guildId + ":" + guildEpochs.getOrDefault(guildId, 0L) + ":" + userId;
+    }
+
+    /**
+     * Invalidates a user's fragments, e.g. after a name or avatar change.
+     *
+     * @param userId The user ID
+     */
+    public void invalidateUser(long userId) {
+        fragments.invalidate(AUTHOR_PREFIX + userId);
+        fragments.invalidate(USER_PREFIX + userId);
+    }
+
+    /**
+     * Invalidates a member's fragment, e.g. after a nickname or role change.
+     *
+     * @param guildId The guild ID
+     * @param userId The user ID
+     */
+    public void invalidateMember(long guildId, long userId) {
+        fragments.invalidate(memberKey(guildId, userId));
+    }
+
+    /**
+     * Invalidates the fragments of every member of a guild, e.g. after a role changes.
+     *
+     * @param guildId The guild ID
+     */
+    public void invalidateGuild(long guildId) {
+        guildEpochs.merge(guildId, 1L, Long::sum);
+    }
+
+    /**
+     * Gets cache statistics.
+     *
+     * @return Fragment count, hits and misses, and the number of guilds invalidated
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(fragments.getStats());
+        stats.put("invalidatedGuilds", guildEpochs.size());
+        return stats;
+    }
+}
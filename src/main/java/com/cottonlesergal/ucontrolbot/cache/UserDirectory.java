@@ -0,0 +1,350 @@
+package com.cottonlesergal.ucontrolbot.cache;
+
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
+import com.cottonlesergal.ucontrolbot.config.ReadinessTracker;
+import jakarta.annotation.PostConstruct;
+import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Directory of every user the bot shares a guild with.
+ * Holds one entry per user across all guilds with a precomputed status, and
+ * indexes usernames and global names by their 1- to 3-character n-grams so a
+ * substring search reads only the posting lists of the query instead of every
+ * cached user. The directory is built on first use and then kept current from
+ * member, name and presence events.
+ *
+ * Only members JDA already caches are listed; building never requests members
+ * from Discord. Under the active and lazy cache profiles JDA drops members over
+ * time, so users it no longer caches are swept from the directory as well, and
+ * the directory never holds more than JDA does.
+ */
+@Component
+public class UserDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+
+    private static final int GRAM_SIZE = 3;
+
+    @Autowired
+    private DiscordRuntime discord;
+
+    @Autowired
+    private ReadinessTracker readiness;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Long>> grams = new ConcurrentHashMap<>();
+    private volatile boolean built;
+
+    @PostConstruct
+    public void rebuildWhenReady() {
+        // Guilds still loading when the directory was first built would be missing from it
+        readiness.whenReady().thenRun(() -> {
+            if (built) {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Gets all users.
+     *
+     * @return Every user in the directory
+     */
+    public List<User> getAll() {
+        ensureBuilt();
+        List<User> users = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            users.add(entry.user);
+        }
+        return users;
+    }
+
+    /**
+     * Finds users whose username or global name contains the query, ignoring case.
+     *
+     * @param query The text to search for
+     * @return The matching users, ordered by username
+     */
+    public List<User> search(String query) {
+        ensureBuilt();
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return getAll();
+        }
+
+        List<User> results = new ArrayList<>();
+        if (needle.length() <= GRAM_SIZE) {
+            // Every substring of up to GRAM_SIZE characters is indexed, so the posting list is the answer
+            for (Long id : grams.getOrDefault(needle, Set.of())) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    results.add(entry.user);
+                }
+            }
+        } else {
+            // Candidates must contain every trigram of the query; verify them against the rarest one
+            Set<Long> candidates = null;
+            for (int i = 0; i + GRAM_SIZE <= needle.length(); i++) {
+                Set<Long> posting = grams.getOrDefault(needle.substring(i, i + GRAM_SIZE), Set.of());
+                if (candidates == null || posting.size() < candidates.size()) {
+                    candidates = posting;
+                }
+            }
+            for (Long id : candidates) {
+                Entry entry = entries.get(id);
+                if (entry != null && entry.matches(needle)) {
+                    results.add(entry.user);
+                }
+            }
+        }
+
+        results.sort(Comparator.comparing(User::getName, String.CASE_INSENSITIVE_ORDER));
+        return results;
+    }
+
+    /**
+     * Gets the precomputed status of a user.
+     *
+     * @param user The user
+     * @return The user's best status across mutual guilds, lowercased
+     */
+    public String getStatus(User user) {
+        Entry entry = entries.get(user.getIdLong());
+        return entry != null ? entry.status : computeStatus(user);
+    }
+
+    /**
+     * Adds a user or refreshes their names and status.
+     *
+     * @param user The user
+     */
+    public synchronized void update(User user) {
+        if (!built) {
+            return;
+        }
+        put(user);
+    }
+
+    /**
+     * Recomputes a user's status after a presence change.
+     *
+     * @param user The user
+     */
+    public void updateStatus(User user) {
+        Entry entry = entries.get(user.getIdLong());
+        if (entry != null) {
+            entry.status = computeStatus(user);
+        }
+    }
+
+    /**
+     * Removes a user who left a guild if the bot no longer shares any guild with them.
+     *
+     * @param user The user
+     */
+    public synchronized void removeIfUnreachable(User user) {
+        if (discord.getMutualGuilds(user).isEmpty()) {
+            remove(user.getIdLong());
+        } else {
+            updateStatus(user);
+        }
+    }
+
+    /**
+     * Adds the members of a guild the bot joined.
+     *
+     * @param guild The guild
+     */
+    public synchronized void addGuild(Guild guild) {
+        if (!built) {
+            return;
+        }
+        for (Member member : guild.getMembers()) {
+            put(member.getUser());
+        }
+    }
+
+    /**
+     * Drops users JDA no longer caches, e.g. members unloaded by the member cache policy.
+     */
+    @Scheduled(fixedRate = 60000)
+    public synchronized void evictUncached() {
+        if (!built) {
+            return;
+        }
+        int before = entries.size();
+        for (Long id : new ArrayList<>(entries.keySet())) {
+            if (discord.getUserById(id) == null) {
+                remove(id);
+            }
+        }
+        int evicted = before - entries.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} users JDA no longer caches from the user directory", evicted);
+        }
+    }
+
+    /**
+     * Discards the directory so it is rebuilt on next use, e.g. after leaving a guild.
+     */
+    public synchronized void invalidate() {
+        built = false;
+        entries.clear();
+        grams.clear();
+    }
+
+    /**
+     * Gets directory statistics.
+     *
+     * @return The number of users and n-gram keys
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("built", built);
+        stats.put("users", entries.size());
+        stats.put("grams", grams.size());
+        return stats;
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        synchronized (this) {
+            if (built) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            for (Guild guild : discord.getGuilds()) {
+                for (Member member : guild.getMembers()) {
+                    if (!entries.containsKey(member.getIdLong())) {
+                        put(member.getUser());
+                    }
+                }
+            }
+            built = true;
+            logger.info("Built user directory with {} users in {}ms", entries.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private void put(User user) {
+        long id = user.getIdLong();
+        Entry previous = entries.get(id);
+        Set<String> names = namesOf(user);
+        Set<String> userGrams = gramsOf(names);
+
+        if (previous != null) {
+            for (String gram : previous.grams) {
+                if (!userGrams.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+        }
+        for (String gram : userGrams) {
+            grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        entries.put(id, new Entry(user, names, userGrams, computeStatus(user)));
+    }
+
+    private void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            for (String gram : entry.grams) {
+                removePosting(gram, id);
+            }
+        }
+    }
+
+    private void removePosting(String gram, long id) {
+        grams.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Computes a user's status: the first non-offline presence among mutual guilds.
+     */
+    private String computeStatus(User user) {
+        for (Guild guild : discord.getMutualGuilds(user)) {
+            Member member = guild.getMember(user);
+            if (member != null) {
+                OnlineStatus status = member.getOnlineStatus();
+                if (status != null && status != OnlineStatus.OFFLINE) {
+                    return status.name().toLowerCase();
+                }
+            }
+        }
+        return "offline";
+    }
+
+    private static Set<String> namesOf(User user) {
+        Set<String> names = new HashSet<>();
+        names.add(normalize(user.getName()));
+        if (user.getGlobalName() != null) {
+            names.add(normalize(user.getGlobalName()));
+        }
+        return names;
+    }
+
+    private static Set<String> gramsOf(Collection<String> names) {
+        Set<String> result = new HashSet<>();
+        for (String name : names) {
+            for (int length = 1; length <= GRAM_SIZE; length++) {
+                for (int i = 0; i + length <= name.length(); i++) {
+                    result.add(name.substring(i, i + length));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A user with their indexed names and precomputed status.
+     */
+    private static final class Entry {
+        private final User user;
+        private final Set<String> names;
+        private final Set<String> grams;
+        private volatile String status;
+
+        private Entry(User user, Set<String> names, Set<String> grams, String status) {
+            this.user = user;
+            this.names = names;
+            this.grams = grams;
+            this.status = status;
+        }
+
+        private boolean matches(String needle) {
+            for (String name : names) {
+                if (name.contains(needle)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.cottonlesergal.ucontrolbot.cache;
+
+import com.cottonlesergal.ucontrolbot.api.ResourceVersions;
+import com.cottonlesergal.ucontrolbot.models.DiscordUser;
+import com.cottonlesergal.ucontrolbot.models.dto.UserDTO;
+import com.cottonlesergal.ucontrolbot.util.TtlLruCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the extended profile (banner and accent color) of users.
+ * Profiles are not part of the user object and cost one REST call each, so
+ * mapping code never fetches them inline: {@link #enrich} applies a cached
+ * profile or queues a background fetch, and the queue is drained at a fixed
+ * rate. Concurrent requests for the same user share one fetch, and failed
+ * fetches are cached as empty profiles so they are not retried until they expire.
+ * A fetched banner or accent color changes what the API returns for the user,
+ * so it bumps the resource versions of the user listings and the user's guilds.
+ */
+@Component
+public class UserProfileCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileCache.class);
+
+    private static final int MAX_PROFILES = 10_000;
+    private static final long PROFILE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int MAX_QUEUED_FETCHES = 5_000;
+    // At most 4 background profile requests per second
+    private static final long FETCH_INTERVAL_MILLIS = 250;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private GuildMemberIndex memberIndex;
+
+    private final TtlLruCache<Long, Profile> profiles = new TtlLruCache<>(MAX_PROFILES, PROFILE_TTL_MILLIS);
+    private final ConcurrentMap<Long, PendingFetch> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingFetch> queue = new LinkedBlockingQueue<>(MAX_QUEUED_FETCHES);
+
+    private final ScheduledExecutorService fetcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "user-profile-fetcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sharedFetches = new LongAdder();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        fetcher.scheduleWithFixedDelay(this::fetchNext, FETCH_INTERVAL_MILLIS, FETCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetcher.shutdownNow();
+    }
+
+    /**
+     * Adds a user's profile to mapped user data without blocking.
+     * If the profile is not cached yet it is queued for a background fetch,
+     * and the data is returned without it.
+     *
+     * @param user The mapped user
+     * @param jdaUser The JDA user it was mapped from
+     * @return The mapped user, for chaining
+     */
+    public DiscordUser enrich(DiscordUser user, User jdaUser) {
+        Profile profile = peek(jdaUser);
+        if (profile != null) {
+            user.applyProfile(profile.getBannerUrl(), profile.getAccentColor());
+        }
+        return user;
+    }
+
+    /**
+     * Adds a user's profile to a user DTO without blocking, like {@link #enrich(DiscordUser, User)}.
+     *
+     * @param user The user DTO
+     * @param jdaUser The JDA user it was created from
+     * @return The DTO with the profile if it was cached, otherwise the DTO unchanged
+     */
+    public UserDTO enrich(UserDTO user, User jdaUser) {
+        Profile profile = peek(jdaUser);
+        return profile != null ? user.withProfile(profile.getBannerUrl(), profile.getAccentColor()) : user;
+    }
+
+    /**
+     * Gets a user's profile if it is cached, queuing a background fetch otherwise.
+     *
+     * @param jdaUser The user
+     * @return The profile, or null if it is not known yet
+     */
+    public Profile peek(User jdaUser) {
+        Profile profile = profiles.getIfPresent(jdaUser.getIdLong());
+        if (profile == null) {
+            request(jdaUser);
+            return null;
+        }
+        hits.increment();
+        return profile;
+    }
+
+    /**
+     * Gets a user's profile, fetching it now if it is not cached.
+     * An already queued background fetch for the user is started early and shared.
+     *
+     * @param jdaUser The user
+     * @return The profile; empty if Discord could not provide it
+     */
+    public CompletableFuture<Profile> getProfile(User jdaUser) {
+        Profile profile = profiles.getIfPresent(jdaUser.getIdLong());
+        if (profile != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(profile);
+        }
+        PendingFetch fetch = pendingFetch(jdaUser);
+        start(fetch);
+        return fetch.result;
+    }
+
+    /**
+     * Queues a background fetch unless one is already pending.
+     */
+    private void request(User jdaUser) {
+        long userId = jdaUser.getIdLong();
+        if (pending.containsKey(userId)) {
+            sharedFetches.increment();
+            return;
+        }
+        PendingFetch fetch = pendingFetch(jdaUser);
+        if (fetch.queued.compareAndSet(false, true)) {
+            if (queue.offer(fetch)) {
+                queued.increment();
+            } else {
+                // Queue full: forget the request, a later mapping will ask again
+                pending.remove(userId, fetch);
+                dropped.increment();
+            }
+        }
+    }
+
+    private PendingFetch pendingFetch(User jdaUser) {
+        PendingFetch created = new PendingFetch(jdaUser);
+        PendingFetch existing = pending.putIfAbsent(jdaUser.getIdLong(), created);
+        if (existing != null) {
+            sharedFetches.increment();
+            return existing;
+        }
+        return created;
+    }
+
+    private void fetchNext() {
+        PendingFetch fetch;
+        // Skip entries already started by getProfile so they don't use up a slot
+        do {
+            fetch = queue.poll();
+        } while (fetch != null && fetch.started.get());
+        if (fetch != null) {
+            start(fetch);
+        }
+    }
+
+    private void start(PendingFetch fetch) {
+        if (!fetch.started.compareAndSet(false, true)) {
+            return;
+        }
+        long userId = fetch.user.getIdLong();
+        fetches.increment();
+        fetch.user.retrieveProfile().submit().whenComplete((userProfile, error) -> {
+            Profile profile;
+            if (error != null) {
+                failures.increment();
+                logger.debug("Could not retrieve profile of user {}: {}", userId, error.getMessage());
+                profile = Profile.EMPTY;
+            } else {
+                profile = new Profile(userProfile.getBannerUrl(),
+                        userProfile.getAccentColorRaw() != User.DEFAULT_ACCENT_COLOR_RAW ? userProfile.getAccentColorRaw() : null);
+            }
+            profiles.put(userId, profile);
+            pending.remove(userId, fetch);
+            if (profile.getBannerUrl() != null || profile.getAccentColor() != null) {
+                Set<Long> guildIds = memberIndex.guildsOf(userId);
+                for (Guild guild : fetch.user.getMutualGuilds()) {
+                    guildIds.add(guild.getIdLong());
+                }
+                resourceVersions.userChanged(guildIds);
+            }
+            fetch.result.complete(profile);
+        });
+    }
+
+    /**
+     * Forgets a user's cached profile, e.g. after they changed it.
+     *
+     * @param userId The user ID
+     */
+    public void invalidate(long userId) {
+        profiles.invalidate(userId);
+    }
+
+    /**
+     * Gets cache statistics.
+     *
+     * @return Cache and fetch counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(profiles.getStats());
+        stats.put("enrichHits", hits.sum());
+        stats.put("queued", queued.sum());
+        stats.put("queueSize", queue.size());
+        stats.put("dropped", dropped.sum());
+        stats.put("sharedFetches", sharedFetches.sum());
+        stats.put("fetches", fetches.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+
+    private static final class PendingFetch {
+        private final User user;
+        private final CompletableFuture<Profile> result = new CompletableFuture<>();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private PendingFetch(User user) {
+            this.user = user;
+        }
+    }
+
+    /**
+     * A user's extended profile.
+     */
+    public static final class Profile {
+        static final Profile EMPTY = new Profile(null, null);
+
+        private final String bannerUrl;
+        private final Integer accentColor;
+
+        private Profile(String bannerUrl, Integer accentColor) {
+            this.bannerUrl = bannerUrl;
+            this.accentColor = accentColor;
+        }
+
+        public String getBannerUrl() {
+            return bannerUrl;
+        }
+
+        public Integer getAccentColor() {
+            return accentColor;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.cottonlesergal.ucontrolbot.config;
+
+import java.util.Locale;
+
+/**
+ * How much of Discord's state JDA keeps in memory, set with discord.cache-profile.
+ */
+public enum CacheProfile {
+    /**
+     * Every member of every guild is chunked at startup and kept, with presences and activities.
+     */
+    FULL,
+
+    /**
+     * No chunking; online and voice members are cached as they are seen,
+     * up to discord.member-cache-size with the least recently used evicted.
+     */
+    ACTIVE,
+
+    /**
+     * No chunking and no presences; members are requested from Discord when needed.
+     */
+    LAZY;
+
+    /**
+     * Parses a profile name, case-insensitively.
+     *
+     * @param name The profile name
+     * @return The profile, or FULL if the name is empty
+     * @throws IllegalArgumentException If the name is not a profile
+     */
+    public static CacheProfile fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return FULL;
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -49,6 +49,60 @@ public class Config {
     @Value("${discord.cache-expiry}")
     private long cacheExpirySeconds;
 
+    // Message retention from properties, 0 disables the tier
+    @Value("${database.retention.hot-days:30}")
+    private int messageHotDays;
+
+    @Value("${database.retention.warm-days:365}")
+    private int messageWarmDays;
+
+    // Smallest response body in bytes that is gzip-compressed
+    @Value("${api.compression.min-size:1024}")
+    private int compressionMinSize;
+
+    // JDA cache profile: full, active or lazy
+    @Value("${discord.cache-profile:full}")
+    private String cacheProfile;
+
+    // Most members kept by the active cache profile
+    @Value("${discord.member-cache-size:10000}")
+    private int memberCacheSize;
+
+    // Gateway shards: off for a single connection, auto for Discord's recommended count, or a number
+    @Value("${discord.shards:off}")
+    private String shards;
+
+    // Event bus between listeners and WebSocket sessions: local, tcp or loopback
+    @Value("${event-bus.mode:local}")
+    private String eventBusMode;
+
+    // Port other nodes connect to for events, or -1 to accept none
+    @Value("${event-bus.listen-port:-1}")
+    private int eventBusListenPort;
+
+    // The bus is plaintext; listen on another interface only on a private network
+    @Value("${event-bus.bind-address:127.0.0.1}")
+    private String eventBusBindAddress;
+
+    // Shared secret nodes prove they know before events are streamed to them
+    @Value("${event-bus.secret:}")
+    private String eventBusSecret;
+
+    // host:port of the gateway node this node receives events from
+    @Value("${event-bus.upstream:}")
+    private String eventBusUpstream;
+
+    // Events kept in memory for resuming WebSocket sessions
+    @Value("${event-log.capacity:10000}")
+    private int eventLogCapacity;
+
+    // Optional memory-mapped file for events pushed out of memory
+    @Value("${event-log.spill-file:}")
+    private String eventLogSpillFile;
+
+    @Value("${event-log.spill-size-mb:64}")
+    private int eventLogSpillSizeMb;
+
     /**
      * Initializes configuration by logging the loaded values.
      */
@@ -61,6 +115,10 @@ public class Config {
 
         logger.info("Configuration loaded successfully");
         logger.info("API will run on {}:{}", apiHost, apiPort);
+        logger.info("JDA cache profile: {}", getCacheProfile());
+        if (isSharded()) {
+            logger.info("Sharding enabled with {} shards", getShardCount() < 0 ? "auto" : getShardCount());
+        }
     }
 
     /**
@@ -117,6 +175,164 @@ public class Config {
         return cacheExpirySeconds;
     }
 
+    /**
+     * Gets how many days messages stay in the hot table before being archived.
+     *
+     * @return Hot retention in days, or 0 to never archive
+     */
+    public int getMessageHotDays() {
+        return messageHotDays;
+    }
+
+    /**
+     * Gets the message age in days after which archived messages are deleted.
+     *
+     * @return Warm retention in days, or 0 to keep archived messages forever
+     */
+    public int getMessageWarmDays() {
+        return messageWarmDays;
+    }
+
+    /**
+     * Gets the smallest response size that is compressed.
+     *
+     * @return Minimum response body size in bytes
+     */
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    /**
+     * Gets the JDA cache profile.
+     *
+     * @return The cache profile
+     */
+    public CacheProfile getCacheProfile() {
+        return CacheProfile.fromName(cacheProfile);
+    }
+
+    /**
+     * Gets the most members cached by the active cache profile.
+     *
+     * @return Member cache size
+     */
+    public int getMemberCacheSize() {
+        return memberCacheSize;
+    }
+
+    /**
+     * Gets the number of gateway shards.
+     *
+     * @return 0 for a single unsharded connection, -1 for Discord's recommended count, otherwise the shard count
+     */
+    public int getShardCount() {
+        String value = shards == null ? "" : shards.trim().toLowerCase();
+        if (value.isEmpty() || value.equals("off") || value.equals("0")) {
+            return 0;
+        }
+        if (value.equals("auto")) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid discord.shards value '{}', sharding disabled", shards);
+            return 0;
+        }
+    }
+
+    /**
+     * Checks whether the bot connects through a shard manager.
+     *
+     * @return Whether sharding is enabled
+     */
+    public boolean isSharded() {
+        return getShardCount() != 0;
+    }
+
+    /**
+     * Gets the event bus mode.
+     *
+     * @return local, tcp or loopback
+     */
+    public String getEventBusMode() {
+        return eventBusMode == null ? "local" : eventBusMode.trim().toLowerCase();
+    }
+
+    /**
+     * Gets the port other nodes connect to for events.
+     *
+     * @return The port, or -1 if this node accepts no nodes
+     */
+    public int getEventBusListenPort() {
+        return eventBusListenPort;
+    }
+
+    /**
+     * Gets the address the event bus listens on.
+     *
+     * @return Bind address
+     */
+    public String getEventBusBindAddress() {
+        return eventBusBindAddress;
+    }
+
+    /**
+     * Gets the secret event bus nodes authenticate each other with.
+     *
+     * @return The secret, or an empty string if none is configured
+     */
+    public String getEventBusSecret() {
+        return eventBusSecret;
+    }
+
+    /**
+     * Gets the node this node receives events from.
+     *
+     * @return host:port, or an empty string for none
+     */
+    public String getEventBusUpstream() {
+        return eventBusUpstream;
+    }
+
+    /**
+     * Checks whether this node takes its Discord events from an upstream node.
+     * Such a node still runs its own gateway connection for the REST API, but the
+     * events its listeners see are persisted and published by the upstream node.
+     *
+     * @return True in tcp mode with event-bus.upstream set
+     */
+    public boolean isEventBusFollower() {
+        return "tcp".equals(getEventBusMode()) && eventBusUpstream != null && !eventBusUpstream.isBlank();
+    }
+
+    /**
+     * Gets how many events are kept in memory for resuming sessions.
+     *
+     * @return Event log capacity
+     */
+    public int getEventLogCapacity() {
+        return eventLogCapacity;
+    }
+
+    /**
+     * Gets the memory-mapped file events are spilled to when they leave memory.
+     *
+     * @return File path, or an empty string to keep events in memory only
+     */
+    public String getEventLogSpillFile() {
+        return eventLogSpillFile;
+    }
+
+    /**
+     * Gets the size of the event log spill file.
+     *
+     * @return Size in MB
+     */
+    public int getEventLogSpillSizeMb() {
+        return eventLogSpillSizeMb;
+    }
+
     /**
      * Gets the API base URL.
      *
@@ -0,0 +1,192 @@
+package com.cottonlesergal.ucontrolbot.config;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.cache.SnowflakeCacheView;
+
+import java.util.List;
+
+/**
+ * The bot's connection to Discord: a single JDA instance, or a shard manager
+ * when discord.shards is set. Lookups go across every shard, so callers resolve
+ * a guild, channel or user the same way whichever shard it lives on, and
+ * listeners added here are registered on every shard.
+ */
+public final class DiscordRuntime {
+    private final JDA jda;
+    private final ShardManager shardManager;
+
+    private DiscordRuntime(JDA jda, ShardManager shardManager) {
+        this.jda = jda;
+        this.shardManager = shardManager;
+    }
+
+    /**
+     * Wraps a single, unsharded JDA instance.
+     *
+     * @param jda The JDA instance
+     * @return The runtime
+     */
+    public static DiscordRuntime single(JDA jda) {
+        return new DiscordRuntime(jda, null);
+    }
+
+    /**
+     * Wraps a shard manager.
+     *
+     * @param shardManager The shard manager
+     * @return The runtime
+     */
+    public static DiscordRuntime sharded(ShardManager shardManager) {
+        return new DiscordRuntime(null, shardManager);
+    }
+
+    /**
+     * Checks whether the bot runs on a shard manager.
+     *
+     * @return Whether the bot is sharded
+     */
+    public boolean isSharded() {
+        return shardManager != null;
+    }
+
+    /**
+     * Gets the running shards; a single entry when the bot is not sharded.
+     *
+     * @return The JDA instance of each shard
+     */
+    public List<JDA> getShards() {
+        return shardManager != null ? shardManager.getShards() : List.of(jda);
+    }
+
+    /**
+     * Gets the total number of shards.
+     *
+     * @return The shard count, 1 when the bot is not sharded
+     */
+    public int getShardsTotal() {
+        return shardManager != null ? shardManager.getShardsTotal() : 1;
+    }
+
+    /**
+     * Registers event listeners on every shard, including shards started later.
+     *
+     * @param listeners The listeners
+     */
+    public void addEventListener(Object... listeners) {
+        if (shardManager != null) {
+            shardManager.addEventListener(listeners);
+        } else {
+            jda.addEventListener(listeners);
+        }
+    }
+
+    /**
+     * Gets the bot user. It is the same on every shard.
+     *
+     * @return The bot user
+     */
+    public SelfUser getSelfUser() {
+        return anyShard().getSelfUser();
+    }
+
+    /**
+     * Gets the gateway ping, averaged over the shards.
+     *
+     * @return The ping in milliseconds
+     */
+    public long getGatewayPing() {
+        return shardManager != null ? Math.round(shardManager.getAverageGatewayPing()) : jda.getGatewayPing();
+    }
+
+    public Guild getGuildById(String id) {
+        return shardManager != null ? shardManager.getGuildById(id) : jda.getGuildById(id);
+    }
+
+    public Guild getGuildById(long id) {
+        return shardManager != null ? shardManager.getGuildById(id) : jda.getGuildById(id);
+    }
+
+    public List<Guild> getGuilds() {
+        return shardManager != null ? shardManager.getGuilds() : jda.getGuilds();
+    }
+
+    public SnowflakeCacheView<Guild> getGuildCache() {
+        return shardManager != null ? shardManager.getGuildCache() : jda.getGuildCache();
+    }
+
+    public List<Guild> getMutualGuilds(User... users) {
+        return shardManager != null ? shardManager.getMutualGuilds(users) : jda.getMutualGuilds(users);
+    }
+
+    public User getUserById(String id) {
+        return shardManager != null ? shardManager.getUserById(id) : jda.getUserById(id);
+    }
+
+    public User getUserById(long id) {
+        return shardManager != null ? shardManager.getUserById(id) : jda.getUserById(id);
+    }
+
+    public SnowflakeCacheView<User> getUserCache() {
+        return shardManager != null ? shardManager.getUserCache() : jda.getUserCache();
+    }
+
+    public RestAction<User> retrieveUserById(String id) {
+        return shardManager != null ? shardManager.retrieveUserById(id) : jda.retrieveUserById(id);
+    }
+
+    public RestAction<User> retrieveUserById(long id) {
+        return shardManager != null ? shardManager.retrieveUserById(id) : jda.retrieveUserById(id);
+    }
+
+    public TextChannel getTextChannelById(String id) {
+        return shardManager != null ? shardManager.getTextChannelById(id) : jda.getTextChannelById(id);
+    }
+
+    public ThreadChannel getThreadChannelById(String id) {
+        return shardManager != null ? shardManager.getThreadChannelById(id) : jda.getThreadChannelById(id);
+    }
+
+    public PrivateChannel getPrivateChannelById(String id) {
+        return shardManager != null ? shardManager.getPrivateChannelById(id) : jda.getPrivateChannelById(id);
+    }
+
+    /**
+     * Opens the DM channel with a user. DMs are not tied to a shard, so any shard is used.
+     *
+     * @param userId The user ID
+     * @return The request for the channel
+     */
+    public RestAction<PrivateChannel> openPrivateChannelById(long userId) {
+        return anyShard().openPrivateChannelById(userId);
+    }
+
+    private JDA anyShard() {
+        if (shardManager == null) {
+            return jda;
+        }
+        List<JDA> shards = shardManager.getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("No shard has been started yet");
+        }
+        return shards.get(0);
+    }
+
+    /**
+     * Shuts down every shard.
+     */
+    public void shutdown() {
+        if (shardManager != null) {
+            shardManager.shutdown();
+        } else {
+            jda.shutdown();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.cottonlesergal.ucontrolbot.config;
+
+import com.cottonlesergal.ucontrolbot.bus.EventBus;
+import com.cottonlesergal.ucontrolbot.bus.LocalEventBus;
+import com.cottonlesergal.ucontrolbot.bus.TcpEventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Selects the event bus between the listeners and the WebSocket sessions.
+ */
+@Configuration
+public class EventBusConfig {
+    private static final Logger logger = LoggerFactory.getLogger(EventBusConfig.class);
+
+    /**
+     * Creates the event bus for event-bus.mode.
+     *
+     * @param config The configuration
+     * @return The event bus; closed with the context
+     */
+    @Bean
+    public EventBus eventBus(Config config) throws IOException {
+        String mode = config.getEventBusMode();
+        switch (mode) {
+            case "tcp" -> {
+                TcpEventBus bus = new TcpEventBus(config.getEventBusBindAddress(),
+                        config.getEventBusListenPort(), config.getEventBusUpstream(), config.getEventBusSecret());
+                bus.start();
+                return bus;
+            }
+            case "loopback" -> {
+                TcpEventBus bus = TcpEventBus.loopback();
+                bus.start();
+                return bus;
+            }
+            case "local" -> {
+                return new LocalEventBus();
+            }
+            default -> {
+                logger.warn("Unknown event-bus.mode '{}', using local", mode);
+                return new LocalEventBus();
+            }
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.cottonlesergal.ucontrolbot.config;
 
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
 import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,68 +15,90 @@ import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Provider for the JDA (Java Discord API) instance.
- * Responsible for creating, configuring, and managing the lifecycle of the JDA client.
+ * Responsible for creating, configuring, and managing the lifecycle of the JDA client,
+ * which is a shard manager when discord.shards is set.
  */
 @Component
 public class JdaProvider {
     private static final Logger logger = LoggerFactory.getLogger(JdaProvider.class);
 
     private final Config config;
-    private JDA jda;
+    private final ReadinessTracker readiness;
+    private DiscordRuntime discord;
+
+    // Measured once every shard is ready so cache profiles can be compared
+    private volatile long startupMillis;
+    private volatile long heapAfterReadyBytes;
 
     /**
      * Initializes the JDA provider with configuration.
      *
      * @param config The configuration
+     * @param readiness The startup readiness tracker, registered before the first event
      */
     @Autowired
-    public JdaProvider(Config config) {
+    public JdaProvider(Config config, ReadinessTracker readiness) {
         this.config = config;
+        this.readiness = readiness;
         logger.info("JDA Provider created");
     }
 
     /**
-     * Initializes the JDA instance.
-     * Called after bean initialization.
+     * Starts the JDA instance, or the shard manager if sharding is enabled.
+     * Called after bean initialization. Only the login is waited for: guilds load
+     * in the background while the rest of the application starts, and
+     * ReadinessTracker reports when every shard is ready.
      */
     @PostConstruct
     public void initializeJda() {
         logger.info("Initializing JDA...");
 
         try {
-            // Initialize JDA with necessary intents
-            JDABuilder builder = JDABuilder.createDefault(config.getToken());
-
-            // Configure gateway intents
-            builder.enableIntents(EnumSet.of(
-                    GatewayIntent.GUILD_MEMBERS,      // For member events
-                    GatewayIntent.GUILD_PRESENCES,    // For user statuses
-                    GatewayIntent.GUILD_MESSAGES,     // For message events
-                    GatewayIntent.MESSAGE_CONTENT,    // For message content
-                    GatewayIntent.DIRECT_MESSAGES     // For DM events
-            ));
-
-            // Configure cache
-            builder.enableCache(EnumSet.of(
-                    CacheFlag.ONLINE_STATUS,          // Cache online statuses
-                    CacheFlag.ACTIVITY,               // Cache user activities
-                    CacheFlag.MEMBER_OVERRIDES,       // Cache permission overrides
-                    CacheFlag.ROLE_TAGS,              // Cache role tags
-                    CacheFlag.EMOJI                   // Cache emojis
-            ));
-
-            // Configure member chunking for guild member caching
-            builder.setChunkingFilter(ChunkingFilter.ALL);
-
-            // Build JDA instance
-            this.jda = builder.build();
-            this.jda.awaitReady(); // Wait for JDA to be ready
-            logger.info("JDA initialized and ready");
-            logger.info("Connected to Discord as {}", jda.getSelfUser().getAsTag());
-            logger.info("Bot is in {} servers", jda.getGuilds().size());
+            CacheProfile profile = config.getCacheProfile();
+            BuilderSettings settings = settingsFor(profile);
+            long startTime = System.currentTimeMillis();
+
+            if (config.isSharded()) {
+                DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createDefault(config.getToken())
+                        .enableIntents(settings.enabledIntents())
+                        .disableIntents(settings.disabledIntents())
+                        .enableCache(settings.enabledCache())
+                        .disableCache(settings.disabledCache())
+                        .setMemberCachePolicy(settings.memberCachePolicy())
+                        .setChunkingFilter(settings.chunkingFilter())
+                        .setShardsTotal(config.getShardCount())
+                        .addEventListeners(readiness);
+                this.discord = DiscordRuntime.sharded(builder.build());
+            } else {
+                JDABuilder builder = JDABuilder.createDefault(config.getToken())
+                        .enableIntents(settings.enabledIntents())
+                        .disableIntents(settings.disabledIntents())
+                        .enableCache(settings.enabledCache())
+                        .disableCache(settings.disabledCache())
+                        .setMemberCachePolicy(settings.memberCachePolicy())
+                        .setChunkingFilter(settings.chunkingFilter())
+                        .addEventListeners(readiness);
+                this.discord = DiscordRuntime.single(builder.build());
+            }
+            readiness.connecting(discord.getShardsTotal());
+            logger.info("JDA logged in after {} ms with cache profile {} and {} shard(s); loading guilds in the background",
+                    System.currentTimeMillis() - startTime, profile, discord.getShardsTotal());
+
+            readiness.whenReady().thenRun(() -> {
+                Runtime runtime = Runtime.getRuntime();
+                this.startupMillis = System.currentTimeMillis() - startTime;
+                this.heapAfterReadyBytes = runtime.totalMemory() - runtime.freeMemory();
+                logger.info("JDA ready in {} ms with cache profile {} (heap used: {} MB)",
+                        startupMillis, profile, heapAfterReadyBytes / (1024 * 1024));
+                logger.info("Connected to Discord as {}", discord.getSelfUser().getAsTag());
+                logger.info("Bot is in {} servers", discord.getGuilds().size());
+            });
         } catch (Exception e) {
             logger.error("Failed to initialize JDA", e);
             throw new RuntimeException("Failed to initialize Discord bot", e);
@@ -83,13 +106,92 @@ public class JdaProvider {
     }
 
     /**
-     * Provides the JDA instance as a bean for dependency injection.
+     * Gets the intents, caches, member caching and chunking for a cache profile.
+     * Only the full profile chunks members at startup; the others leave
+     * GuildMemberIndex to request a guild's members when an endpoint needs them.
+     *
+     * @param profile The cache profile
+     * @return The builder settings
+     */
+    private BuilderSettings settingsFor(CacheProfile profile) {
+        EnumSet<GatewayIntent> enabledIntents = EnumSet.of(
+                GatewayIntent.GUILD_MEMBERS,      // For member events
+                GatewayIntent.GUILD_MESSAGES,     // For message events
+                GatewayIntent.MESSAGE_CONTENT,    // For message content
+                GatewayIntent.DIRECT_MESSAGES     // For DM events
+        );
+        EnumSet<GatewayIntent> disabledIntents = EnumSet.noneOf(GatewayIntent.class);
+        EnumSet<CacheFlag> enabledCache = EnumSet.of(
+                CacheFlag.MEMBER_OVERRIDES,       // Cache permission overrides
+                CacheFlag.ROLE_TAGS,              // Cache role tags
+                CacheFlag.EMOJI                   // Cache emojis
+        );
+        EnumSet<CacheFlag> disabledCache = EnumSet.noneOf(CacheFlag.class);
+
+        return switch (profile) {
+            case FULL -> {
+                enabledIntents.add(GatewayIntent.GUILD_PRESENCES);
+                enabledCache.addAll(EnumSet.of(CacheFlag.ONLINE_STATUS, CacheFlag.ACTIVITY));
+                yield new BuilderSettings(enabledIntents, disabledIntents, enabledCache, disabledCache,
+                        MemberCachePolicy.ALL, ChunkingFilter.ALL);
+            }
+            case ACTIVE -> {
+                enabledIntents.add(GatewayIntent.GUILD_PRESENCES);
+                enabledCache.addAll(EnumSet.of(CacheFlag.ONLINE_STATUS, CacheFlag.ACTIVITY));
+                yield new BuilderSettings(enabledIntents, disabledIntents, enabledCache, disabledCache,
+                        MemberCachePolicy.ONLINE
+                                .or(MemberCachePolicy.VOICE)
+                                .or(MemberCachePolicy.OWNER)
+                                .and(MemberCachePolicy.lru(config.getMemberCacheSize())),
+                        ChunkingFilter.NONE);
+            }
+            case LAZY -> {
+                disabledIntents.add(GatewayIntent.GUILD_PRESENCES);
+                disabledCache.addAll(EnumSet.of(CacheFlag.ONLINE_STATUS, CacheFlag.ACTIVITY, CacheFlag.CLIENT_STATUS));
+                yield new BuilderSettings(enabledIntents, disabledIntents, enabledCache, disabledCache,
+                        MemberCachePolicy.DEFAULT, ChunkingFilter.NONE);
+            }
+        };
+    }
+
+    /**
+     * Settings applied alike to a JDA builder and a shard manager builder.
+     */
+    private record BuilderSettings(EnumSet<GatewayIntent> enabledIntents, EnumSet<GatewayIntent> disabledIntents,
+                                   EnumSet<CacheFlag> enabledCache, EnumSet<CacheFlag> disabledCache,
+                                   MemberCachePolicy memberCachePolicy, ChunkingFilter chunkingFilter) {
+    }
+
+    /**
+     * Gets cache statistics for the active cache profile.
+     *
+     * @return Profile, startup time, heap used after ready and cached entity counts
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("profile", config.getCacheProfile().name().toLowerCase(Locale.ROOT));
+        stats.put("startupMillis", startupMillis);
+        stats.put("heapAfterReadyBytes", heapAfterReadyBytes);
+        if (discord != null) {
+            stats.put("shards", discord.getShardsTotal());
+            stats.put("guilds", discord.getGuildCache().size());
+            stats.put("users", discord.getUserCache().size());
+            stats.put("members", discord.getGuildCache().stream()
+                    .mapToLong(guild -> guild.getMemberCache().size())
+                    .sum());
+        }
+        return stats;
+    }
+
+    /**
+     * Provides the Discord runtime as a bean for dependency injection.
+     * It covers every shard when sharding is enabled.
      *
-     * @return The JDA instance
+     * @return The Discord runtime
      */
     @Bean
-    public JDA getJda() {
-        return jda;
+    public DiscordRuntime getDiscordRuntime() {
+        return discord;
     }
 
     /**
@@ -101,8 +203,8 @@ public class JdaProvider {
         logger.info("Shutting down JDA...");
 
         // Shutdown JDA
-        if (jda != null) {
-            jda.shutdown();
+        if (discord != null) {
+            discord.shutdown();
             logger.info("JDA shutdown complete");
         }
     }
@@ -0,0 +1,214 @@
+package com.cottonlesergal.ucontrolbot.config;
+
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.StatusChangeEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Tracks startup of the Discord connection, which no longer blocks the rest of
+ * the application: the web tier and database come up right away and serve
+ * guilds as JDA loads them. Readiness moves from starting through connecting
+ * and loading guilds to ready once every shard has sent its ready event.
+ * Changes are passed to listeners (the WebSocket server pushes them to clients),
+ * with guild progress limited to one update per interval.
+ *
+ * Startup timings are measured from JVM start: the Spring context, the first
+ * HTTP request handled, and Discord readiness.
+ */
+@Component
+public class ReadinessTracker implements EventListener {
+    private static final Logger logger = LoggerFactory.getLogger(ReadinessTracker.class);
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Startup stage of the Discord connection.
+     */
+    public enum State {
+        STARTING, CONNECTING, LOADING_GUILDS, READY
+    }
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private volatile State state = State.STARTING;
+    private volatile int expectedShards;
+    private final Set<Integer> readyShards = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, String> shardStatus = new ConcurrentHashMap<>();
+    private final AtomicInteger guildsLoaded = new AtomicInteger();
+    private final AtomicInteger guildsTotal = new AtomicInteger();
+    private final AtomicLong lastProgressMillis = new AtomicLong();
+
+    private volatile long contextReadyMillis = -1;
+    private volatile long firstRequestMillis = -1;
+    private volatile long discordReadyMillis = -1;
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final List<Consumer<Map<String, Object>>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Records that the Discord client has been built and is connecting.
+     *
+     * @param shards The number of shards that must become ready
+     */
+    public void connecting(int shards) {
+        expectedShards = shards;
+        if (state == State.STARTING) {
+            changeState(State.CONNECTING);
+        }
+        checkReady();
+    }
+
+    /**
+     * Gets a future completed once every shard is ready.
+     *
+     * @return The future
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready;
+    }
+
+    /**
+     * Checks whether every shard is ready.
+     *
+     * @return Whether Discord data is complete
+     */
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * Registers a listener for readiness changes.
+     *
+     * @param listener Called with a readiness snapshot on every change
+     */
+    public void addListener(Consumer<Map<String, Object>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onEvent(GenericEvent event) {
+        int shardId = event.getJDA().getShardInfo().getShardId();
+        if (event instanceof StatusChangeEvent statusChange) {
+            shardStatus.put(shardId, statusChange.getNewStatus().name());
+        } else if (event instanceof GuildReadyEvent) {
+            guildsLoaded.incrementAndGet();
+            if (state == State.STARTING || state == State.CONNECTING) {
+                changeState(State.LOADING_GUILDS);
+            } else {
+                progress();
+            }
+        } else if (event instanceof ReadyEvent readyEvent) {
+            guildsTotal.addAndGet(readyEvent.getGuildTotalCount());
+            readyShards.add(shardId);
+            logger.info("Shard {} ready with {}/{} guilds available", shardId,
+                    readyEvent.getGuildAvailableCount(), readyEvent.getGuildTotalCount());
+            checkReady();
+        }
+    }
+
+    private void checkReady() {
+        if (state != State.READY && expectedShards > 0 && readyShards.size() >= expectedShards) {
+            discordReadyMillis = System.currentTimeMillis() - jvmStartMillis;
+            changeState(State.READY);
+            logger.info("Discord ready {} ms after JVM start with {} guilds", discordReadyMillis, guildsLoaded.get());
+            ready.complete(null);
+        }
+    }
+
+    private synchronized void changeState(State newState) {
+        if (state == State.READY || state == newState) {
+            return;
+        }
+        state = newState;
+        lastProgressMillis.set(System.currentTimeMillis());
+        notifyListeners();
+    }
+
+    private void progress() {
+        long now = System.currentTimeMillis();
+        long last = lastProgressMillis.get();
+        if (now - last >= PROGRESS_INTERVAL_MILLIS && lastProgressMillis.compareAndSet(last, now)) {
+            notifyListeners();
+        }
+    }
+
+    private void notifyListeners() {
+        Map<String, Object> snapshot = snapshot();
+        for (Consumer<Map<String, Object>> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (Exception e) {
+                logger.warn("Readiness listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @org.springframework.context.event.EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        contextReadyMillis = System.currentTimeMillis() - jvmStartMillis;
+        logger.info("Application ready {} ms after JVM start (Discord: {})", contextReadyMillis, state);
+    }
+
+    @org.springframework.context.event.EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestMillis < 0) {
+            synchronized (this) {
+                if (firstRequestMillis < 0) {
+                    firstRequestMillis = System.currentTimeMillis() - jvmStartMillis;
+                    logger.info("First request handled {} ms after JVM start", firstRequestMillis);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the current readiness.
+     *
+     * @return State, whether the bot is ready, shard and guild progress
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("state", state.name().toLowerCase(Locale.ROOT));
+        snapshot.put("ready", state == State.READY);
+        snapshot.put("shardsReady", readyShards.size());
+        snapshot.put("shardsTotal", expectedShards);
+        snapshot.put("guildsLoaded", guildsLoaded.get());
+        // Only known once shards are ready
+        snapshot.put("guildsTotal", guildsTotal.get());
+        return snapshot;
+    }
+
+    /**
+     * Gets startup statistics.
+     *
+     * @return The readiness snapshot, shard statuses and startup timings in ms from JVM start (-1 if not reached yet)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(snapshot());
+        stats.put("shardStatus", new HashMap<>(shardStatus));
+        stats.put("contextReadyMillis", contextReadyMillis);
+        stats.put("firstRequestMillis", firstRequestMillis);
+        stats.put("discordReadyMillis", discordReadyMillis);
+        return stats;
+    }
+}
@@ -1,18 +1,58 @@
 package com.cottonlesergal.ucontrolbot.config;
 
+import com.cottonlesergal.ucontrolbot.api.ConditionalRequestInterceptor;
 import com.cottonlesergal.ucontrolbot.db.DatabaseApiInterceptor;
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.GsonHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
     @Autowired
     private DatabaseApiInterceptor databaseApiInterceptor;
 
+    @Autowired
+    private ConditionalRequestInterceptor conditionalRequestInterceptor;
+
+    /**
+     * Exposes the shared JSON codec to components.
+     *
+     * @return The shared codec
+     */
+    @Bean
+    public JsonCodec jsonCodec() {
+        return JsonCodec.shared();
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(databaseApiInterceptor);
+        registry.addInterceptor(conditionalRequestInterceptor).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Replaces Spring's Jackson converter with one backed by the shared codec,
+     * which streams responses straight to the servlet output.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        GsonHttpMessageConverter gsonConverter = new GsonHttpMessageConverter(JsonCodec.shared().gson());
+        int index = -1;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                index = i;
+                break;
+            }
+        }
+        converters.removeIf(converter -> converter instanceof MappingJackson2HttpMessageConverter);
+        converters.add(index >= 0 ? index : converters.size(), gsonConverter);
     }
 }
@@ -1,5 +1,6 @@
 package com.cottonlesergal.ucontrolbot.db;
 
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,9 +9,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * REST controller for database API endpoints.
@@ -27,6 +30,12 @@ public class DatabaseApiController {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private DatabaseReadCache readCache;
+
+    @Autowired
+    private DatabaseWriteService writeService;
+
     /**
      * Gets all users from the database.
      */
@@ -52,15 +61,25 @@ public class DatabaseApiController {
     public ResponseEntity<?> getUser(@PathVariable String userId) {
         logger.info("Database request for user {}", userId);
         try {
-            String query = "SELECT * FROM users WHERE id = ?";
-            List<Map<String, Object>> result = jdbcTemplate.queryForList(query, userId);
+            Long userKey = Snowflake.parse(userId);
+            Map<String, Object> user = readCache.getUser(userKey, () -> {
+                String query = "SELECT * FROM users WHERE id = ?";
+                List<Map<String, Object>> result = jdbcTemplate.queryForList(query, userKey);
+                if (result.isEmpty()) {
+                    return null;
+                }
+
+                Map<String, Object> row = result.get(0);
+                row.put("id", Snowflake.format(row.get("id")));
+                return row;
+            });
 
-            if (result.isEmpty()) {
+            if (user == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("error", "User not found"));
             }
 
-            return ResponseEntity.ok(result.get(0));
+            return ResponseEntity.ok(user);
         } catch (Exception e) {
             logger.error("Error fetching user from database", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -69,68 +88,11 @@ public class DatabaseApiController {
     }
 
     /**
-     * Creates or updates a user in the database.
+     * Creates or updates a user, or a batch of users, in the database.
      */
     @PostMapping("/users")
-    public ResponseEntity<?> saveUser(@RequestBody Map<String, Object> userData) {
-        logger.info("Database request to save user: {}", userData);
-        try {
-            String userId = (String) userData.get("id");
-            if (userId == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "User ID is required"));
-            }
-
-            String username = (String) userData.get("username");
-            if (username == null) {
-                username = "Unknown User";
-            }
-
-            String discriminator = (String) userData.get("discriminator");
-            String avatarUrl = (String) userData.get("avatarUrl");
-            Boolean isBot = (Boolean) userData.get("isBot");
-            Boolean isOwner = (Boolean) userData.get("isOwner");
-            String status = (String) userData.get("status");
-            if (status == null) {
-                status = "offline";
-            }
-
-            // Check if user exists
-            int count = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM users WHERE id = ?",
-                    Integer.class,
-                    userId
-            );
-
-            if (count > 0) {
-                // Update user
-                jdbcTemplate.update(
-                        "UPDATE users SET username = ?, discriminator = ?, avatar_url = ?, " +
-                                "is_bot = ?, is_owner = ?, status = ? WHERE id = ?",
-                        username, discriminator, avatarUrl,
-                        isBot != null ? isBot : false,
-                        isOwner != null ? isOwner : false,
-                        status, userId
-                );
-            } else {
-                // Insert user
-                jdbcTemplate.update(
-                        "INSERT INTO users (id, username, discriminator, avatar_url, is_bot, is_owner, status) " +
-                                "VALUES (?, ?, ?, ?, ?, ?, ?)",
-                        userId, username, discriminator, avatarUrl,
-                        isBot != null ? isBot : false,
-                        isOwner != null ? isOwner : false,
-                        status
-                );
-            }
-
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(Map.of("id", userId, "status", "success"));
-        } catch (Exception e) {
-            logger.error("Error saving user to database", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> saveUser(@RequestBody Object userData) {
+        return respond(userData, writeService::saveUsers, "user");
     }
 
     /**
@@ -148,26 +110,7 @@ public class DatabaseApiController {
                         .body(Map.of("error", "Status is required"));
             }
 
-            // Check if user exists
-            int count = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM users WHERE id = ?",
-                    Integer.class,
-                    userId
-            );
-
-            if (count == 0) {
-                // Create minimalistic user entry
-                jdbcTemplate.update(
-                        "INSERT INTO users (id, username, status) VALUES (?, ?, ?)",
-                        userId, "Unknown User", status
-                );
-            } else {
-                // Update user status
-                jdbcTemplate.update(
-                        "UPDATE users SET status = ? WHERE id = ?",
-                        status, userId
-                );
-            }
+            writeService.updateUserStatus(Snowflake.parse(userId), status);
 
             return ResponseEntity.ok(Map.of("id", userId, "status", status));
         } catch (Exception e) {
@@ -194,142 +137,19 @@ public class DatabaseApiController {
     }*/
 
     /**
-     * Creates or updates a guild in the database.
+     * Creates or updates a guild, or a batch of guilds, in the database.
      */
     @PostMapping("/guilds")
-    public ResponseEntity<?> saveGuild(@RequestBody Map<String, Object> guildData) {
-        logger.info("Database request to save guild: {}", guildData);
-        try {
-            String guildId = (String) guildData.get("id");
-            if (guildId == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "Guild ID is required"));
-            }
-
-            String name = (String) guildData.get("name");
-            if (name == null) {
-                name = "Unknown Guild";
-            }
-
-            String iconUrl = (String) guildData.get("iconUrl");
-            String ownerId = (String) guildData.get("ownerId");
-            Integer memberCount = null;
-
-            if (guildData.containsKey("memberCount")) {
-                if (guildData.get("memberCount") instanceof Integer) {
-                    memberCount = (Integer) guildData.get("memberCount");
-                } else if (guildData.get("memberCount") instanceof Double) {
-                    memberCount = ((Double) guildData.get("memberCount")).intValue();
-                }
-            }
-
-            String description = (String) guildData.get("description");
-
-            // Check if guild exists
-            int count = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM guilds WHERE id = ?",
-                    Integer.class,
-                    guildId
-            );
-
-            if (count > 0) {
-                // Update guild
-                jdbcTemplate.update(
-                        "UPDATE guilds SET name = ?, icon_url = ?, owner_id = ?, " +
-                                "member_count = ?, description = ? WHERE id = ?",
-                        name, iconUrl, ownerId, memberCount, description, guildId
-                );
-            } else {
-                // Insert guild
-                jdbcTemplate.update(
-                        "INSERT INTO guilds (id, name, icon_url, owner_id, member_count, description) " +
-                                "VALUES (?, ?, ?, ?, ?, ?)",
-                        guildId, name, iconUrl, ownerId, memberCount, description
-                );
-            }
-
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(Map.of("id", guildId, "status", "success"));
-        } catch (Exception e) {
-            logger.error("Error saving guild to database", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> saveGuild(@RequestBody Object guildData) {
+        return respond(guildData, writeService::saveGuilds, "guild");
     }
 
     /**
-     * Creates or updates a channel in the database.
+     * Creates or updates a channel, or a batch of channels, in the database.
      */
     @PostMapping("/channels")
-    public ResponseEntity<?> saveChannel(@RequestBody Map<String, Object> channelData) {
-        logger.info("Database request to save channel: {}", channelData);
-        try {
-            String channelId = (String) channelData.get("id");
-            if (channelId == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "Channel ID is required"));
-            }
-
-            String name = (String) channelData.get("name");
-            if (name == null) {
-                name = "Unknown Channel";
-            }
-
-            String type = (String) channelData.get("type");
-            if (type == null) {
-                type = "UNKNOWN";
-            }
-
-            String guildId = (String) channelData.get("guildId");
-            String parentId = (String) channelData.get("parentId");
-            String topic = (String) channelData.get("topic");
-
-            Integer position = null;
-            if (channelData.containsKey("position")) {
-                if (channelData.get("position") instanceof Integer) {
-                    position = (Integer) channelData.get("position");
-                } else if (channelData.get("position") instanceof Double) {
-                    position = ((Double) channelData.get("position")).intValue();
-                }
-            }
-
-            Boolean nsfw = (Boolean) channelData.get("nsfw");
-
-            // Check if channel exists
-            int count = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM channels WHERE id = ?",
-                    Integer.class,
-                    channelId
-            );
-
-            if (count > 0) {
-                // Update channel
-                jdbcTemplate.update(
-                        "UPDATE channels SET guild_id = ?, parent_id = ?, name = ?, " +
-                                "type = ?, topic = ?, position = ?, is_nsfw = ? WHERE id = ?",
-                        guildId, parentId, name, type, topic,
-                        position != null ? position : 0,
-                        nsfw != null ? nsfw : false,
-                        channelId
-                );
-            } else {
-                // Insert channel
-                jdbcTemplate.update(
-                        "INSERT INTO channels (id, guild_id, parent_id, name, type, topic, position, is_nsfw) " +
-                                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
-                        channelId, guildId, parentId, name, type, topic,
-                        position != null ? position : 0,
-                        nsfw != null ? nsfw : false
-                );
-            }
-
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(Map.of("id", channelId, "status", "success"));
-        } catch (Exception e) {
-            logger.error("Error saving channel to database", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> saveChannel(@RequestBody Object channelData) {
+        return respond(channelData, writeService::saveChannels, "channel");
     }
 
     /**
@@ -353,270 +173,67 @@ public class DatabaseApiController {
     }*/
 
     /**
-     * Saves a message to the database.
+     * Saves a message, or a batch of messages, to the database.
      * This is a key endpoint for ensuring messages are saved properly.
      */
     @PostMapping("/messages")
-    public ResponseEntity<?> saveMessage(@RequestBody Map<String, Object> messageData) {
-        logger.info("Database request to save message: {}", messageData);
-        try {
-            // Extract message ID
-            String messageId = (String) messageData.get("id");
-            if (messageId == null) {
-                // Generate ID if not provided
-                messageId = "msg-" + System.currentTimeMillis();
-                messageData.put("id", messageId);
-            }
-
-            // Extract required fields
-            String channelId = (String) messageData.get("channelId");
-            if (channelId == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "Channel ID is required"));
-            }
-
-            String content = (String) messageData.get("content");
-            if (content == null) {
-                content = "";
-            }
-
-            // Get author information
-            String authorId = null;
-            @SuppressWarnings("unchecked")
-            Map<String, Object> author = (Map<String, Object>) messageData.get("author");
-            if (author != null) {
-                authorId = (String) author.get("id");
-
-                // Save author to users table if needed
-                if (authorId != null) {
-                    saveUser(author);
-                }
-            }
-
-            if (authorId == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "Author ID is required"));
-            }
+    public ResponseEntity<?> saveMessage(@RequestBody Object messageData) {
+        return respond(messageData, writeService::saveMessages, "message");
+    }
 
-            // Parse timestamp
-            Long timestamp = null;
-            if (messageData.containsKey("timestamp")) {
-                if (messageData.get("timestamp") instanceof Long) {
-                    timestamp = (Long) messageData.get("timestamp");
-                } else if (messageData.get("timestamp") instanceof Double) {
-                    timestamp = ((Double) messageData.get("timestamp")).longValue();
-                } else if (messageData.get("timestamp") instanceof String) {
-                    timestamp = Long.parseLong((String) messageData.get("timestamp"));
+    /**
+     * Runs a save for a single object or an array of objects.
+     * A single object keeps the original response shape: 201 with the ID,
+     * 400 for invalid input or 500 if the write failed. An array returns
+     * per-item results, with 201 if every item was saved and 207 otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<?> respond(Object body,
+                                      Function<List<Map<String, Object>>, List<Map<String, Object>>> writer,
+                                      String entity) {
+        try {
+            if (body instanceof Map) {
+                logger.info("Database request to save {}: {}", entity, body);
+                Map<String, Object> result = writer.apply(List.of((Map<String, Object>) body)).get(0);
+                String status = (String) result.get("status");
+                if (DatabaseWriteService.STATUS_INVALID.equals(status)) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(Map.of("error", String.valueOf(result.get("error"))));
                 }
-            }
-
-            if (timestamp == null) {
-                timestamp = System.currentTimeMillis();
-            }
-
-            // Parse edited timestamp
-            Long editedTimestamp = null;
-            if (messageData.containsKey("editedTimestamp")) {
-                if (messageData.get("editedTimestamp") instanceof Long) {
-                    editedTimestamp = (Long) messageData.get("editedTimestamp");
-                } else if (messageData.get("editedTimestamp") instanceof Double) {
-                    editedTimestamp = ((Double) messageData.get("editedTimestamp")).longValue();
-                } else if (messageData.get("editedTimestamp") instanceof String) {
-                    editedTimestamp = Long.parseLong((String) messageData.get("editedTimestamp"));
+                if (DatabaseWriteService.STATUS_FAILED.equals(status)) {
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of("error", String.valueOf(result.get("error"))));
                 }
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Map.of("id", result.get("id"), "status", "success"));
             }
 
-            // Get referenced message ID
-            String referencedMessageId = null;
-            @SuppressWarnings("unchecked")
-            Map<String, Object> referencedMessage = (Map<String, Object>) messageData.get("referencedMessage");
-            if (referencedMessage != null) {
-                referencedMessageId = (String) referencedMessage.get("messageId");
-            }
-
-            // Check if message exists
-            int count = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM messages WHERE id = ?",
-                    Integer.class,
-                    messageId
-            );
-
-            // Start transaction
-            jdbcTemplate.execute("BEGIN");
-
-            try {
-                if (count > 0) {
-                    // Update existing message
-                    jdbcTemplate.update(
-                            "UPDATE messages SET content = ?, edited_timestamp = ?, referenced_message_id = ? WHERE id = ?",
-                            content, editedTimestamp, referencedMessageId, messageId
-                    );
-
-                    // Delete existing attachments and embeds to replace them
-                    jdbcTemplate.update("DELETE FROM attachments WHERE message_id = ?", messageId);
-
-                    // Get embed IDs to delete fields
-                    List<Integer> embedIds = jdbcTemplate.queryForList(
-                            "SELECT id FROM embeds WHERE message_id = ?",
-                            Integer.class, messageId
-                    );
-
-                    // Delete embed fields
-                    for (Integer embedId : embedIds) {
-                        jdbcTemplate.update("DELETE FROM embed_fields WHERE embed_id = ?", embedId);
-                    }
-
-                    // Delete embeds
-                    jdbcTemplate.update("DELETE FROM embeds WHERE message_id = ?", messageId);
-                } else {
-                    // Insert new message
-                    jdbcTemplate.update(
-                            "INSERT INTO messages (id, channel_id, author_id, content, timestamp, edited_timestamp, referenced_message_id) " +
-                                    "VALUES (?, ?, ?, ?, ?, ?, ?)",
-                            messageId, channelId, authorId, content, timestamp, editedTimestamp, referencedMessageId
-                    );
-                }
-
-                // Process attachments
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> attachments = (List<Map<String, Object>>) messageData.get("attachments");
-                if (attachments != null && !attachments.isEmpty()) {
-                    for (Map<String, Object> attachment : attachments) {
-                        String attachmentId = (String) attachment.get("id");
-                        if (attachmentId == null) {
-                            attachmentId = "att-" + System.currentTimeMillis() + "-" + Math.random();
-                        }
-
-                        String filename = (String) attachment.get("filename");
-                        String url = (String) attachment.get("url");
-                        String contentType = (String) attachment.get("contentType");
-
-                        Long size = null;
-                        if (attachment.containsKey("size")) {
-                            if (attachment.get("size") instanceof Long) {
-                                size = (Long) attachment.get("size");
-                            } else if (attachment.get("size") instanceof Double) {
-                                size = ((Double) attachment.get("size")).longValue();
-                            } else if (attachment.get("size") instanceof String) {
-                                size = Long.parseLong((String) attachment.get("size"));
-                            }
-                        }
-
-                        jdbcTemplate.update(
-                                "INSERT INTO attachments (id, message_id, filename, url, content_type, size) " +
-                                        "VALUES (?, ?, ?, ?, ?, ?)",
-                                attachmentId, messageId, filename, url, contentType, size
-                        );
-                    }
+            if (body instanceof List) {
+                logger.info("Database request to save batch of {} {} items", ((List<?>) body).size(), entity);
+                List<Map<String, Object>> items = new ArrayList<>();
+                for (Object item : (List<Object>) body) {
+                    items.add(item instanceof Map ? (Map<String, Object>) item : new HashMap<>());
                 }
 
-                // Process embeds
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> embeds = (List<Map<String, Object>>) messageData.get("embeds");
-                if (embeds != null && !embeds.isEmpty()) {
-                    for (Map<String, Object> embed : embeds) {
-                        String title = (String) embed.get("title");
-                        String description = (String) embed.get("description");
-                        String url = (String) embed.get("url");
+                List<Map<String, Object>> results = writer.apply(items);
+                long saved = results.stream()
+                        .filter(result -> DatabaseWriteService.STATUS_SUCCESS.equals(result.get("status")))
+                        .count();
 
-                        Integer color = null;
-                        if (embed.containsKey("color")) {
-                            if (embed.get("color") instanceof Integer) {
-                                color = (Integer) embed.get("color");
-                            } else if (embed.get("color") instanceof Double) {
-                                color = ((Double) embed.get("color")).intValue();
-                            } else if (embed.get("color") instanceof String) {
-                                color = Integer.parseInt((String) embed.get("color"));
-                            }
-                        }
-
-                        Long embedTimestamp = null;
-                        if (embed.containsKey("timestamp")) {
-                            if (embed.get("timestamp") instanceof Long) {
-                                embedTimestamp = (Long) embed.get("timestamp");
-                            } else if (embed.get("timestamp") instanceof Double) {
-                                embedTimestamp = ((Double) embed.get("timestamp")).longValue();
-                            } else if (embed.get("timestamp") instanceof String) {
-                                embedTimestamp = Long.parseLong((String) embed.get("timestamp"));
-                            }
-                        }
-
-                        // Insert embed and get its ID
-                        jdbcTemplate.update(
-                                "INSERT INTO embeds (message_id, title, description, url, color, timestamp) " +
-                                        "VALUES (?, ?, ?, ?, ?, ?)",
-                                messageId, title, description, url, color, embedTimestamp
-                        );
-
-                        // Get the ID of the newly inserted embed
-                        Integer embedId = jdbcTemplate.queryForObject(
-                                "SELECT LAST_INSERT_ID()", Integer.class
-                        );
-
-                        // Process embed fields
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> fields = (List<Map<String, Object>>) embed.get("fields");
-                        if (fields != null && !fields.isEmpty()) {
-                            for (int i = 0; i < fields.size(); i++) {
-                                Map<String, Object> field = fields.get(i);
-                                String name = (String) field.get("name");
-                                String value = (String) field.get("value");
-                                Boolean inline = (Boolean) field.get("inline");
-
-                                jdbcTemplate.update(
-                                        "INSERT INTO embed_fields (embed_id, name, value, is_inline, position) " +
-                                                "VALUES (?, ?, ?, ?, ?)",
-                                        embedId, name, value, inline != null ? inline : false, i
-                                );
-                            }
-                        }
-                    }
-                }
-
-                // If this is a DM, update the DM channel record
-                if (messageData.containsKey("isDm") && (Boolean) messageData.get("isDm")) {
-                    String dmUserId = authorId;
-                    // If the message is from the bot, use the recipient ID as DM user
-                    if (messageData.containsKey("fromBot") && (Boolean) messageData.get("fromBot")) {
-                        String recipientId = (String) messageData.get("recipientId");
-                        if (recipientId != null) {
-                            dmUserId = recipientId;
-                        }
-                    }
-
-                    int dmExists = jdbcTemplate.queryForObject(
-                            "SELECT COUNT(*) FROM dm_channels WHERE id = ?",
-                            Integer.class,
-                            channelId
-                    );
-
-                    if (dmExists > 0) {
-                        jdbcTemplate.update(
-                                "UPDATE dm_channels SET user_id = ?, last_message_id = ? WHERE id = ?",
-                                dmUserId, messageId, channelId
-                        );
-                    } else {
-                        jdbcTemplate.update(
-                                "INSERT INTO dm_channels (id, user_id, last_message_id) VALUES (?, ?, ?)",
-                                channelId, dmUserId, messageId
-                        );
-                    }
-                }
-
-                // Commit transaction
-                jdbcTemplate.execute("COMMIT");
-
-                return ResponseEntity.status(HttpStatus.CREATED)
-                        .body(Map.of("id", messageId, "status", "success"));
-            } catch (Exception e) {
-                // Rollback transaction on error
-                jdbcTemplate.execute("ROLLBACK");
-                throw e;
+                Map<String, Object> response = new HashMap<>();
+                response.put("results", results);
+                response.put("saved", saved);
+                response.put("failed", results.size() - saved);
+                return ResponseEntity.status(saved == results.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                        .body(response);
             }
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Expected a " + entity + " object or an array of them"));
         } catch (Exception e) {
-            logger.error("Error saving message to database", e);
+            logger.error("Error saving {} to database", entity, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.cottonlesergal.ucontrolbot.db;
 
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.config.Config;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.channel.Channel;
 import org.slf4j.Logger;
@@ -20,15 +21,22 @@ public class DatabaseEventInjector {
     private DatabaseManager dbManager;
 
     @Autowired
-    private JDA jda;
+    private DiscordRuntime discord;
+
+    @Autowired
+    private Config config;
 
     @Scheduled(fixedRate = 60000) // Every minute
     public void injectGuildsAndChannels() {
+        if (config.isEventBusFollower()) {
+            // The upstream node keeps guilds and channels in the database
+            return;
+        }
         try {
             logger.info("Forcing database injection of guilds and channels");
 
             // Inject all guilds
-            for (Guild guild : jda.getGuilds()) {
+            for (Guild guild : discord.getGuilds()) {
                 Map<String, Object> guildData = new HashMap<>();
                 guildData.put("id", guild.getId());
                 guildData.put("name", guild.getName());
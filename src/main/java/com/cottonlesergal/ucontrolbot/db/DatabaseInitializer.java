@@ -1,6 +1,8 @@
 package com.cottonlesergal.ucontrolbot.db;
 
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
+import com.cottonlesergal.ucontrolbot.config.ReadinessTracker;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
@@ -26,13 +28,27 @@ public class DatabaseInitializer implements CommandLineRunner {
     private JdbcTemplate jdbcTemplate;
 
     @Autowired
-    private JDA jda;
+    private DiscordRuntime discord;
 
     @Autowired
     private DatabaseManager dbManager;
 
+    @Autowired
+    private DatabaseReadCache readCache;
+
+    @Autowired
+    private ReadinessTracker readiness;
+
+    /**
+     * Seeds the database once every guild has loaded, so startup is not held up
+     * and no guild is missed.
+     */
     @Override
-    public void run(String... args) throws Exception {
+    public void run(String... args) {
+        readiness.whenReady().thenRunAsync(this::initialize);
+    }
+
+    private void initialize() {
         logger.info("Forcing database initialization...");
 
         try {
@@ -42,7 +58,7 @@ public class DatabaseInitializer implements CommandLineRunner {
             logger.info("Database tables: {}", tables);
 
             // Force inject the bot user
-            User botUser = jda.getSelfUser();
+            User botUser = discord.getSelfUser();
             Map<String, Object> botData = new HashMap<>();
             botData.put("id", botUser.getId());
             botData.put("username", botUser.getName());
@@ -56,21 +72,21 @@ public class DatabaseInitializer implements CommandLineRunner {
                             "VALUES (?, ?, ?, ?, ?, ?) " +
                             "ON DUPLICATE KEY UPDATE username = VALUES(username), discriminator = VALUES(discriminator), " +
                             "avatar_url = VALUES(avatar_url), is_bot = VALUES(is_bot), status = VALUES(status)",
-                    botUser.getId(), botUser.getName(), botUser.getDiscriminator(),
+                    botUser.getIdLong(), botUser.getName(), botUser.getDiscriminator(),
                     botUser.getEffectiveAvatarUrl(), true, "online"
             );
 
             // Force inject owner
             String ownerId = "568631703053139974"; // From your logs
             try {
-                User owner = jda.retrieveUserById(ownerId).complete();
+                User owner = discord.retrieveUserById(ownerId).complete();
                 jdbcTemplate.update(
                         "INSERT INTO users (id, username, discriminator, avatar_url, is_bot, is_owner, status) " +
                                 "VALUES (?, ?, ?, ?, ?, ?, ?) " +
                                 "ON DUPLICATE KEY UPDATE username = VALUES(username), discriminator = VALUES(discriminator), " +
                                 "avatar_url = VALUES(avatar_url), is_bot = VALUES(is_bot), is_owner = VALUES(is_owner), " +
                                 "status = VALUES(status)",
-                        owner.getId(), owner.getName(), owner.getDiscriminator(),
+                        owner.getIdLong(), owner.getName(), owner.getDiscriminator(),
                         owner.getEffectiveAvatarUrl(), false, true, "online"
                 );
             } catch (Exception e) {
@@ -78,7 +94,7 @@ public class DatabaseInitializer implements CommandLineRunner {
             }
 
             // Force inject all guilds and channels
-            for (Guild guild : jda.getGuilds()) {
+            for (Guild guild : discord.getGuilds()) {
                 logger.info("Injecting guild: {} ({})", guild.getName(), guild.getId());
 
                 // Insert guild
@@ -87,8 +103,8 @@ public class DatabaseInitializer implements CommandLineRunner {
                                 "VALUES (?, ?, ?, ?, ?) " +
                                 "ON DUPLICATE KEY UPDATE name = VALUES(name), icon_url = VALUES(icon_url), " +
                                 "owner_id = VALUES(owner_id), member_count = VALUES(member_count)",
-                        guild.getId(), guild.getName(), guild.getIconUrl(),
-                        guild.getOwnerId(), guild.getMemberCount()
+                        guild.getIdLong(), guild.getName(), guild.getIconUrl(),
+                        guild.getOwnerIdLong(), guild.getMemberCount()
                 );
 
                 // Step 1: Insert all categories (parents first to avoid FK violation)
@@ -100,7 +116,7 @@ public class DatabaseInitializer implements CommandLineRunner {
                                     "VALUES (?, ?, NULL, ?, ?, NULL, ?) " +
                                     "ON DUPLICATE KEY UPDATE guild_id = VALUES(guild_id), parent_id = VALUES(parent_id), " +
                                     "name = VALUES(name), type = VALUES(type), topic = VALUES(topic), position = VALUES(position)",
-                            category.getId(), guild.getId(), category.getName(),
+                            category.getIdLong(), guild.getIdLong(), category.getName(),
                             category.getType().name(), category.getPosition()
                     );
                 });
@@ -150,12 +166,15 @@ public class DatabaseInitializer implements CommandLineRunner {
                                     "VALUES (?, ?, ?, ?, ?, ?, ?) " +
                                     "ON DUPLICATE KEY UPDATE guild_id = VALUES(guild_id), parent_id = VALUES(parent_id), " +
                                     "name = VALUES(name), type = VALUES(type), topic = VALUES(topic), position = VALUES(position)",
-                            channel.getId(), guild.getId(), parentId, channel.getName(),
+                            channel.getIdLong(), guild.getIdLong(), Snowflake.parse(parentId), channel.getName(),
                             channel.getType().name(), topic, position
                     );
                 }
             }
 
+            // Rows were written directly above, so drop anything read before this ran
+            readCache.invalidateAll();
+
             logger.info("Database initialization complete");
             dbManager.checkDatabaseStatus();
         } catch (Exception e) {
@@ -2,24 +2,31 @@ package com.cottonlesergal.ucontrolbot.db;
 
 import com.cottonlesergal.ucontrolbot.config.Config;
 import com.cottonlesergal.ucontrolbot.config.JdaProvider;
-import com.google.gson.Gson;
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Database manager for the Discord bot.
@@ -33,10 +40,21 @@ public class DatabaseManager {
     private Config config;
 
     private JdbcTemplate jdbcTemplate;
-    private final Gson gson = new Gson();
+    private TransactionTemplate transactionTemplate;
+    private final ExecutorService eventExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "db-event-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
     private String botUserId;
     @Autowired
     private JdaProvider jdaProvider;
+    @Autowired
+    private MessageSearchIndex searchIndex;
+    @Autowired
+    private DatabaseReadCache readCache;
+    @Autowired
+    private JsonCodec jsonCodec;
 
     /**
      * Initializes the database manager.
@@ -53,10 +71,14 @@ public class DatabaseManager {
 
             // Create JDBC template
             jdbcTemplate = new JdbcTemplate(dataSource);
+            transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
 
             // Initialize database tables
             initializeDatabase();
 
+            // Start the background search indexer
+            searchIndex.start(jdbcTemplate);
+
             logger.info("Database manager initialized");
         } catch (Exception e) {
             logger.error("Error initializing database manager", e);
@@ -79,7 +101,7 @@ public class DatabaseManager {
 
             // Create users table
             statement.execute("CREATE TABLE IF NOT EXISTS users (" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
                     "username VARCHAR(255) NOT NULL, " +
                     "discriminator VARCHAR(10), " +
                     "global_name VARCHAR(255), " +
@@ -93,10 +115,10 @@ public class DatabaseManager {
 
             // Create guilds table
             statement.execute("CREATE TABLE IF NOT EXISTS guilds (" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
                     "name VARCHAR(255) NOT NULL, " +
                     "icon_url VARCHAR(512), " +
-                    "owner_id VARCHAR(255), " +
+                    "owner_id BIGINT UNSIGNED, " +
                     "member_count INT DEFAULT 0, " +
                     "description TEXT, " +
                     "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
@@ -105,9 +127,9 @@ public class DatabaseManager {
 
             // Create channels table
             statement.execute("CREATE TABLE IF NOT EXISTS channels (" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
-                    "guild_id VARCHAR(255), " +
-                    "parent_id VARCHAR(255), " +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
+                    "guild_id BIGINT UNSIGNED, " +
+                    "parent_id BIGINT UNSIGNED, " +
                     "name VARCHAR(255) NOT NULL, " +
                     "type VARCHAR(50) NOT NULL, " +
                     "topic TEXT, " +
@@ -118,25 +140,25 @@ public class DatabaseManager {
                     "FOREIGN KEY (parent_id) REFERENCES channels(id) ON DELETE SET NULL" +
                     ")");
 
-            // Create messages table
+            // Create messages table. referenced_message_id has no foreign key, so replies
+            // keep pointing at parents that have moved to the archive.
             statement.execute("CREATE TABLE IF NOT EXISTS messages (" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
-                    "channel_id VARCHAR(255) NOT NULL, " +
-                    "author_id VARCHAR(255) NOT NULL, " +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
+                    "channel_id BIGINT UNSIGNED NOT NULL, " +
+                    "author_id BIGINT UNSIGNED NOT NULL, " +
                     "content TEXT, " +
                     "timestamp BIGINT NOT NULL, " +
                     "edited_timestamp BIGINT, " +
-                    "referenced_message_id VARCHAR(255), " +
+                    "referenced_message_id BIGINT UNSIGNED, " +
                     "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
                     "FOREIGN KEY (channel_id) REFERENCES channels(id) ON DELETE CASCADE, " +
-                    "FOREIGN KEY (author_id) REFERENCES users(id) ON DELETE CASCADE, " +
-                    "FOREIGN KEY (referenced_message_id) REFERENCES messages(id) ON DELETE SET NULL" +
+                    "FOREIGN KEY (author_id) REFERENCES users(id) ON DELETE CASCADE" +
                     ")");
 
             // Create attachments table
             statement.execute("CREATE TABLE IF NOT EXISTS attachments (" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
-                    "message_id VARCHAR(255) NOT NULL, " +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
+                    "message_id BIGINT UNSIGNED NOT NULL, " +
                     "filename VARCHAR(255) NOT NULL, " +
                     "url VARCHAR(512) NOT NULL, " +
                     "content_type VARCHAR(255), " +
@@ -147,7 +169,7 @@ public class DatabaseManager {
             // Create embeds table
             statement.execute("CREATE TABLE IF NOT EXISTS embeds (" +
                     "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                    "message_id VARCHAR(255) NOT NULL, " +
+                    "message_id BIGINT UNSIGNED NOT NULL, " +
                     "title VARCHAR(255), " +
                     "description TEXT, " +
                     "url VARCHAR(512), " +
@@ -169,8 +191,8 @@ public class DatabaseManager {
 
             // Create roles table
             statement.execute("CREATE TABLE IF NOT EXISTS roles (" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
-                    "guild_id VARCHAR(255) NOT NULL, " +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
+                    "guild_id BIGINT UNSIGNED NOT NULL, " +
                     "name VARCHAR(255) NOT NULL, " +
                     "color INT DEFAULT 0, " +
                     "position INT DEFAULT 0, " +
@@ -183,9 +205,9 @@ public class DatabaseManager {
 
             // Create user roles table
             statement.execute("CREATE TABLE IF NOT EXISTS user_roles (" +
-                    "user_id VARCHAR(255) NOT NULL, " +
-                    "role_id VARCHAR(255) NOT NULL, " +
-                    "guild_id VARCHAR(255) NOT NULL, " +
+                    "user_id BIGINT UNSIGNED NOT NULL, " +
+                    "role_id BIGINT UNSIGNED NOT NULL, " +
+                    "guild_id BIGINT UNSIGNED NOT NULL, " +
                     "PRIMARY KEY (user_id, role_id), " +
                     "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE, " +
                     "FOREIGN KEY (role_id) REFERENCES roles(id) ON DELETE CASCADE, " +
@@ -194,8 +216,8 @@ public class DatabaseManager {
 
             // Create guild members table
             statement.execute("CREATE TABLE IF NOT EXISTS guild_members (" +
-                    "user_id VARCHAR(255) NOT NULL, " +
-                    "guild_id VARCHAR(255) NOT NULL, " +
+                    "user_id BIGINT UNSIGNED NOT NULL, " +
+                    "guild_id BIGINT UNSIGNED NOT NULL, " +
                     "nickname VARCHAR(255), " +
                     "joined_at BIGINT, " +
                     "PRIMARY KEY (user_id, guild_id), " +
@@ -205,17 +227,17 @@ public class DatabaseManager {
 
             // Create DM channels table
             statement.execute("CREATE TABLE IF NOT EXISTS dm_channels (" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
-                    "user_id VARCHAR(255) NOT NULL, " +
-                    "last_message_id VARCHAR(255), " +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
+                    "user_id BIGINT UNSIGNED NOT NULL, " +
+                    "last_message_id BIGINT UNSIGNED, " +
                     "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
                     "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE" +
                     ")");
 
             // Create reactions table
             statement.execute("CREATE TABLE IF NOT EXISTS reactions (" +
-                    "message_id VARCHAR(255) NOT NULL, " +
-                    "user_id VARCHAR(255) NOT NULL, " +
+                    "message_id BIGINT UNSIGNED NOT NULL, " +
+                    "user_id BIGINT UNSIGNED NOT NULL, " +
                     "emoji VARCHAR(255) NOT NULL, " +
                     "PRIMARY KEY (message_id, user_id, emoji), " +
                     "FOREIGN KEY (message_id) REFERENCES messages(id) ON DELETE CASCADE, " +
@@ -224,24 +246,73 @@ public class DatabaseManager {
 
             // Create typing indicators table
             statement.execute("CREATE TABLE IF NOT EXISTS typing_indicators (" +
-                    "user_id VARCHAR(255) NOT NULL, " +
-                    "channel_id VARCHAR(255) NOT NULL, " +
+                    "user_id BIGINT UNSIGNED NOT NULL, " +
+                    "channel_id BIGINT UNSIGNED NOT NULL, " +
                     "timestamp BIGINT NOT NULL, " +
                     "PRIMARY KEY (user_id, channel_id), " +
                     "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE, " +
                     "FOREIGN KEY (channel_id) REFERENCES channels(id) ON DELETE CASCADE" +
                     ")");
 
+            // Create message archive table. Messages past the hot retention window are moved
+            // here with their attachments, embeds (with their fields) and reactions folded into
+            // JSON, so the table has no foreign keys and can use compressed rows.
+            statement.execute("CREATE TABLE IF NOT EXISTS messages_archive (" +
+                    "id BIGINT UNSIGNED PRIMARY KEY, " +
+                    "channel_id BIGINT UNSIGNED NOT NULL, " +
+                    "author_id BIGINT UNSIGNED NOT NULL, " +
+                    "content TEXT, " +
+                    "timestamp BIGINT NOT NULL, " +
+                    "edited_timestamp BIGINT, " +
+                    "referenced_message_id BIGINT UNSIGNED, " +
+                    "attachments LONGTEXT, " +
+                    "embeds LONGTEXT, " +
+                    "reactions LONGTEXT, " +
+                    "archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "INDEX idx_messages_archive_channel (channel_id, id)" +
+                    ") ROW_FORMAT=COMPRESSED");
+            statement.execute("ALTER TABLE messages_archive ADD COLUMN IF NOT EXISTS reactions LONGTEXT AFTER embeds");
+
+            // Create message search table, maintained asynchronously by MessageSearchIndex.
+            // It has no foreign keys so archived messages stay searchable.
+            statement.execute("CREATE TABLE IF NOT EXISTS message_search (" +
+                    "message_id BIGINT UNSIGNED PRIMARY KEY, " +
+                    "channel_id BIGINT UNSIGNED NOT NULL, " +
+                    "guild_id BIGINT UNSIGNED, " +
+                    "author_id BIGINT UNSIGNED NOT NULL, " +
+                    "content TEXT, " +
+                    "embed_text TEXT, " +
+                    "FULLTEXT INDEX ft_message_search_text (content, embed_text), " +
+                    "INDEX idx_message_search_channel (channel_id, message_id), " +
+                    "INDEX idx_message_search_guild (guild_id, message_id), " +
+                    "INDEX idx_message_search_author (author_id, message_id)" +
+                    ")");
+
+            // Create search backfill progress table, so an interrupted backfill resumes where it stopped
+            statement.execute("CREATE TABLE IF NOT EXISTS message_search_backfill (" +
+                    "source VARCHAR(64) PRIMARY KEY, " +
+                    "last_id BIGINT UNSIGNED NOT NULL DEFAULT 0, " +
+                    "complete BOOLEAN NOT NULL DEFAULT FALSE" +
+                    ")");
+
             // Create indexes for faster queries
             statement.execute("CREATE INDEX IF NOT EXISTS idx_users_status ON users(status)");
             statement.execute("CREATE INDEX IF NOT EXISTS idx_channels_guild_id ON channels(guild_id)");
             statement.execute("CREATE INDEX IF NOT EXISTS idx_channels_parent_id ON channels(parent_id)");
-            statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_channel_id ON messages(channel_id)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_channel_id_id ON messages(channel_id, id)");
+            statement.execute("DROP INDEX IF EXISTS idx_messages_channel_id ON messages");
             statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_author_id ON messages(author_id)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_referenced_message_id ON messages(referenced_message_id)");
             statement.execute("CREATE INDEX IF NOT EXISTS idx_guild_members_guild_id ON guild_members(guild_id)");
             statement.execute("CREATE INDEX IF NOT EXISTS idx_user_roles_user_id ON user_roles(user_id)");
             statement.execute("CREATE INDEX IF NOT EXISTS idx_user_roles_guild_id ON user_roles(guild_id)");
 
+            // Tables created by older versions have a reply foreign key that archiving would null out
+            dropReplyForeignKey(connection, statement);
+
+            // Convert tables created by older versions that stored IDs as VARCHAR
+            migrateSnowflakeColumns(connection, statement);
+
             logger.info("Database tables initialized");
         } catch (SQLException e) {
             logger.error("Error initializing database tables", e);
@@ -249,14 +320,147 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Snowflake ID columns per table, in an order where referenced tables come first.
+     */
+    private static final Map<String, List<String>> SNOWFLAKE_COLUMNS = new LinkedHashMap<>();
+    static {
+        SNOWFLAKE_COLUMNS.put("users", List.of("id"));
+        SNOWFLAKE_COLUMNS.put("guilds", List.of("id", "owner_id"));
+        SNOWFLAKE_COLUMNS.put("channels", List.of("id", "guild_id", "parent_id"));
+        SNOWFLAKE_COLUMNS.put("messages", List.of("id", "channel_id", "author_id", "referenced_message_id"));
+        SNOWFLAKE_COLUMNS.put("attachments", List.of("id", "message_id"));
+        SNOWFLAKE_COLUMNS.put("embeds", List.of("message_id"));
+        SNOWFLAKE_COLUMNS.put("roles", List.of("id", "guild_id"));
+        SNOWFLAKE_COLUMNS.put("user_roles", List.of("user_id", "role_id", "guild_id"));
+        SNOWFLAKE_COLUMNS.put("guild_members", List.of("user_id", "guild_id"));
+        SNOWFLAKE_COLUMNS.put("dm_channels", List.of("id", "user_id", "last_message_id"));
+        SNOWFLAKE_COLUMNS.put("reactions", List.of("message_id", "user_id"));
+        SNOWFLAKE_COLUMNS.put("typing_indicators", List.of("user_id", "channel_id"));
+    }
+
+    private static final Set<String> NULLABLE_SNOWFLAKE_COLUMNS = Set.of(
+            "guilds.owner_id", "channels.guild_id", "channels.parent_id",
+            "messages.referenced_message_id", "dm_channels.last_message_id");
+
+    /**
+     * Migrates ID columns from VARCHAR(255) to BIGINT UNSIGNED.
+     * Rows whose IDs are not numeric snowflakes (such as the old "msg-" placeholders)
+     * cannot be converted and are removed first. Foreign key checks are disabled on
+     * this connection only while the key columns are rewritten.
+     *
+     * @param connection The connection used to create the tables
+     * @param statement A statement on that connection
+     * @throws SQLException If the migration fails
+     */
+    private void migrateSnowflakeColumns(Connection connection, Statement statement) throws SQLException {
+        Map<String, List<String>> pending = new LinkedHashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND DATA_TYPE = 'varchar'");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String table = rs.getString(1);
+                String column = rs.getString(2);
+                List<String> columns = SNOWFLAKE_COLUMNS.get(table);
+                if (columns != null && columns.contains(column)) {
+                    pending.computeIfAbsent(table, k -> new ArrayList<>()).add(column);
+                }
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        logger.info("Migrating snowflake ID columns to BIGINT UNSIGNED: {}", pending);
+        statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+        try {
+            for (String table : SNOWFLAKE_COLUMNS.keySet()) {
+                List<String> columns = pending.get(table);
+                if (columns == null) {
+                    continue;
+                }
+
+                StringJoiner invalid = new StringJoiner(" OR ");
+                StringJoiner modify = new StringJoiner(", ");
+                for (String column : columns) {
+                    invalid.add(column + " NOT REGEXP '^[0-9]{1,20}$'");
+                    boolean nullable = NULLABLE_SNOWFLAKE_COLUMNS.contains(table + "." + column);
+                    modify.add("MODIFY " + column + " BIGINT UNSIGNED" + (nullable ? "" : " NOT NULL"));
+                }
+
+                int removed = statement.executeUpdate("DELETE FROM " + table + " WHERE " + invalid);
+                if (removed > 0) {
+                    logger.warn("Removed {} rows with non-snowflake IDs from {}", removed, table);
+                }
+                statement.execute("ALTER TABLE " + table + " " + modify);
+            }
+
+            // Child rows of deleted placeholders are orphaned because cascades do not fire with checks off
+            statement.executeUpdate("DELETE FROM attachments WHERE message_id NOT IN (SELECT id FROM messages)");
+            statement.executeUpdate("DELETE FROM embeds WHERE message_id NOT IN (SELECT id FROM messages)");
+            statement.executeUpdate("DELETE FROM embed_fields WHERE embed_id NOT IN (SELECT id FROM embeds)");
+            statement.executeUpdate("DELETE FROM reactions WHERE message_id NOT IN (SELECT id FROM messages)");
+        } finally {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+        logger.info("Snowflake ID migration complete");
+    }
+
+    /**
+     * Drops the foreign key from messages.referenced_message_id to messages.id that older
+     * versions created. Its ON DELETE SET NULL would unlink replies whenever their parent
+     * is moved to the archive.
+     */
+    private void dropReplyForeignKey(Connection connection, Statement statement) throws SQLException {
+        List<String> constraints = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                        "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'messages' " +
+                        "AND REFERENCED_TABLE_NAME = 'messages'");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                constraints.add(rs.getString(1));
+            }
+        }
+        for (String constraint : constraints) {
+            statement.execute("ALTER TABLE messages DROP FOREIGN KEY `" + constraint + "`");
+            logger.info("Dropped reply foreign key {} from messages", constraint);
+        }
+    }
+
+    /**
+     * Gets the size of each table as reported by the storage engine.
+     * Row counts are InnoDB estimates, which keeps this cheap on large tables.
+     *
+     * @return One entry per table with row count, data and index sizes in bytes
+     */
+    public List<Map<String, Object>> getTableStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME, TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH FROM information_schema.TABLES " +
+                        "WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME");
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> table = new HashMap<>();
+            table.put("table", row.get("TABLE_NAME"));
+            table.put("rows", row.get("TABLE_ROWS"));
+            table.put("dataBytes", row.get("DATA_LENGTH"));
+            table.put("indexBytes", row.get("INDEX_LENGTH"));
+            stats.add(table);
+        }
+        return stats;
+    }
+
     // Add this to your DatabaseManager class
     public void checkDatabaseConnection() {
         fetchDBInfo();
     }
 
-    private static void displayDatabaseMetrics(int userCount, int guildCount, int channelCount, int messageCount) {
-        logger.info("Database status: Users={}, Guilds={}, Channels={}, Messages={}",
-                userCount, guildCount, channelCount, messageCount);
+    private static void displayDatabaseMetrics(long userCount, long guildCount, long channelCount,
+                                               long messageCount, long archivedCount) {
+        logger.info("Database status: Users={}, Guilds={}, Channels={}, Messages={}, Archived={}",
+                userCount, guildCount, channelCount, messageCount, archivedCount);
     }
 
     // Call this method periodically
@@ -280,7 +484,7 @@ public class DatabaseManager {
             Map<String, EventProcessor> eventHandlers = new HashMap<>();
 
             if ("MESSAGE_RECEIVED".equals(eventType)) {
-                logger.info("📝 Received MESSAGE_RECEIVED event: {}", gson.toJson(eventData));
+                logger.info("📝 Received MESSAGE_RECEIVED event: {}", jsonCodec.toJson(eventData));
             }
 
             // Register event handlers
@@ -306,8 +510,7 @@ public class DatabaseManager {
             EventProcessor processor = eventHandlers.get(eventType);
             if (processor != null) {
                 // Convert object to map for easier processing
-                @SuppressWarnings("unchecked")
-                Map<String, Object> data = gson.fromJson(gson.toJson(eventData), Map.class);
+                Map<String, Object> data = jsonCodec.toMap(eventData);
 
                 // Process event
                 return processor.process(data);
@@ -321,6 +524,18 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Processes a Discord event on a background thread.
+     * Events are applied in submission order, so callers off the gateway thread
+     * (such as the REST API) can persist without waiting on the database.
+     *
+     * @param eventType The event type
+     * @param eventData The event data
+     */
+    public void processEventAsync(String eventType, Object eventData) {
+        eventExecutor.execute(() -> processEvent(eventType, eventData));
+    }
+
     /**
      * Gets the bot user ID.
      *
@@ -331,13 +546,17 @@ public class DatabaseManager {
     }
 
     public List<Map<String, Object>> getAllUsers() {
+        return readCache.getAllUsers(this::loadAllUsers);
+    }
+
+    private List<Map<String, Object>> loadAllUsers() {
         List<Map<String, Object>> users = new ArrayList<>();
         try {
             List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM users");
             for (Map<String, Object> row : rows) {
                 // Convert database column names to camelCase for frontend
                 Map<String, Object> user = new HashMap<>();
-                user.put("id", row.get("id"));
+                user.put("id", Snowflake.format(row.get("id")));
                 user.put("username", row.get("username"));
                 user.put("discriminator", row.get("discriminator"));
                 user.put("globalName", row.get("global_name"));
@@ -356,15 +575,19 @@ public class DatabaseManager {
     }
 
     public List<Map<String, Object>> getAllGuilds() {
+        return readCache.getAllGuilds(this::loadAllGuilds);
+    }
+
+    private List<Map<String, Object>> loadAllGuilds() {
         List<Map<String, Object>> guilds = new ArrayList<>();
         try {
             List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM guilds");
             for (Map<String, Object> row : rows) {
                 Map<String, Object> guild = new HashMap<>();
-                guild.put("id", row.get("id"));
+                guild.put("id", Snowflake.format(row.get("id")));
                 guild.put("name", row.get("name"));
                 guild.put("iconUrl", row.get("icon_url"));
-                guild.put("ownerId", row.get("owner_id"));
+                guild.put("ownerId", Snowflake.format(row.get("owner_id")));
                 guild.put("memberCount", row.get("member_count"));
                 guild.put("description", row.get("description"));
                 guilds.add(guild);
@@ -377,15 +600,20 @@ public class DatabaseManager {
     }
 
     public List<Map<String, Object>> getChannelsByGuildId(String guildId) {
+        Long guildKey = Snowflake.parse(guildId);
+        return readCache.getChannels(guildKey, () -> loadChannelsByGuildId(guildKey));
+    }
+
+    private List<Map<String, Object>> loadChannelsByGuildId(Long guildId) {
         List<Map<String, Object>> channels = new ArrayList<>();
         try {
             List<Map<String, Object>> rows = jdbcTemplate.queryForList(
                     "SELECT * FROM channels WHERE guild_id = ?", guildId);
             for (Map<String, Object> row : rows) {
                 Map<String, Object> channel = new HashMap<>();
-                channel.put("id", row.get("id"));
-                channel.put("guildId", row.get("guild_id"));
-                channel.put("parentId", row.get("parent_id"));
+                channel.put("id", Snowflake.format(row.get("id")));
+                channel.put("guildId", Snowflake.format(row.get("guild_id")));
+                channel.put("parentId", Snowflake.format(row.get("parent_id")));
                 channel.put("name", row.get("name"));
                 channel.put("type", row.get("type"));
                 channel.put("topic", row.get("topic"));
@@ -401,58 +629,397 @@ public class DatabaseManager {
     }
 
     public List<Map<String, Object>> getMessagesByChannelId(String channelId) {
+        return getMessagesByChannelId(channelId, null, 50);
+    }
+
+    /**
+     * Gets a page of messages from a channel, newest first, across the hot table and
+     * the archive. Pages are keyed on the message snowflake. A message edited after it
+     * was archived is back in the hot table, and only that copy is returned.
+     *
+     * @param channelId The channel ID
+     * @param before Only return messages older than this ID, or null or blank for the newest
+     * @param limit Maximum number of messages to return
+     * @return The messages, newest first
+     * @throws IllegalArgumentException If before is not a message ID
+     */
+    public List<Map<String, Object>> getMessagesByChannelId(String channelId, String before, int limit) {
+        Long beforeId;
+        try {
+            beforeId = Snowflake.parse(before);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid before message ID: " + before);
+        }
+        long cursor = beforeId != null ? beforeId : Long.MAX_VALUE;
+
         List<Map<String, Object>> messages = new ArrayList<>();
         try {
+            Long channelKey = Snowflake.parse(channelId);
+
+            // Each tier is cut to the page size on its own index before the two are merged
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT m.*, u.username, u.avatar_url, u.is_bot FROM (" +
+                            "(SELECT id, channel_id, author_id, content, timestamp, edited_timestamp, " +
+                            "referenced_message_id, NULL AS attachments, 0 AS archived " +
+                            "FROM messages WHERE channel_id = ? AND id < ? ORDER BY id DESC LIMIT ?) " +
+                            "UNION ALL " +
+                            "(SELECT a.id, a.channel_id, a.author_id, a.content, a.timestamp, a.edited_timestamp, " +
+                            "a.referenced_message_id, a.attachments, 1 AS archived " +
+                            "FROM messages_archive a WHERE a.channel_id = ? AND a.id < ? " +
+                            "AND NOT EXISTS (SELECT 1 FROM messages h WHERE h.id = a.id) " +
+                            "ORDER BY a.id DESC LIMIT ?)" +
+                            ") m LEFT JOIN users u ON m.author_id = u.id " +
+                            "ORDER BY m.id DESC LIMIT ?",
+                    channelKey, cursor, limit, channelKey, cursor, limit, limit);
+
+            // Load attachments of the hot rows for the whole page in one query
+            List<Map<String, Object>> hotRows = rows.stream()
+                    .filter(row -> ((Number) row.get("archived")).intValue() == 0)
+                    .toList();
+            Map<String, List<Map<String, Object>>> attachmentsByMessage = loadAttachments(hotRows);
+
+            Set<String> seen = new HashSet<>();
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> message = mapMessageRow(row);
+                if (!seen.add((String) message.get("id"))) {
+                    continue;
+                }
+                if (((Number) row.get("archived")).intValue() == 0) {
+                    message.put("attachments", attachmentsByMessage.getOrDefault(message.get("id"), new ArrayList<>()));
+                } else {
+                    String attachments = (String) row.get("attachments");
+                    message.put("attachments", attachments != null ? jsonCodec.fromJson(attachments, List.class) : new ArrayList<>());
+                    message.put("archived", true);
+                }
+                messages.add(message);
+            }
+        } catch (Exception e) {
+            logger.error("Error getting messages for channel " + channelId, e);
+            throw e;
+        }
+        return messages;
+    }
+
+    /**
+     * Gets specific messages of a channel from both the hot table and the archive,
+     * with their attachments, embeds and reactions. Reactions are the stored
+     * user_id/emoji pairs, one per user.
+     *
+     * @param channelId The channel ID
+     * @param messageIds The message IDs to look up
+     * @return The messages found, keyed by message ID; IDs not stored locally are absent
+     */
+    public Map<String, Map<String, Object>> getMessagesByIds(String channelId, Collection<String> messageIds) {
+        Map<String, Map<String, Object>> messages = new LinkedHashMap<>();
+        if (messageIds.isEmpty()) {
+            return messages;
+        }
+
+        try {
+            StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+            List<Object> params = new ArrayList<>();
+            params.add(Snowflake.parse(channelId));
+            for (String messageId : messageIds) {
+                placeholders.add("?");
+                params.add(Snowflake.parse(messageId));
+            }
+
             List<Map<String, Object>> rows = jdbcTemplate.queryForList(
                     "SELECT m.*, u.username, u.avatar_url, u.is_bot " +
                             "FROM messages m " +
                             "LEFT JOIN users u ON m.author_id = u.id " +
-                            "WHERE m.channel_id = ? " +
-                            "ORDER BY m.timestamp DESC LIMIT 50", channelId);
+                            "WHERE m.channel_id = ? AND m.id IN " + placeholders, params.toArray());
 
+            Map<String, List<Map<String, Object>>> attachmentsByMessage = loadAttachments(rows);
+            Map<String, List<Map<String, Object>>> embedsByMessage = loadEmbeds(rows);
+            Map<String, List<Map<String, Object>>> reactionsByMessage = loadReactions(rows);
             for (Map<String, Object> row : rows) {
-                Map<String, Object> message = new HashMap<>();
-                message.put("id", row.get("id"));
-                message.put("channelId", row.get("channel_id"));
-                message.put("content", row.get("content"));
-                message.put("timestamp", row.get("timestamp"));
-                message.put("editedTimestamp", row.get("edited_timestamp"));
-
-                // Add author data as a nested object
-                Map<String, Object> author = new HashMap<>();
-                author.put("id", row.get("author_id"));
-                author.put("username", row.get("username"));
-                author.put("avatarUrl", row.get("avatar_url"));
-                author.put("isBot", row.get("is_bot"));
-                message.put("author", author);
-
-                // Get attachments
-                List<Map<String, Object>> attachments = jdbcTemplate.queryForList(
-                        "SELECT * FROM attachments WHERE message_id = ?",
-                        row.get("id"));
-                message.put("attachments", attachments);
+                Map<String, Object> message = mapMessageRow(row);
+                message.put("attachments", attachmentsByMessage.getOrDefault(message.get("id"), new ArrayList<>()));
+                message.put("embeds", embedsByMessage.getOrDefault(message.get("id"), new ArrayList<>()));
+                message.put("reactions", reactionsByMessage.getOrDefault(message.get("id"), new ArrayList<>()));
+                messages.put((String) message.get("id"), message);
+            }
 
-                messages.add(message);
+            // Only look in the archive for IDs the hot table did not have
+            if (messages.size() < messageIds.size()) {
+                List<Map<String, Object>> archived = jdbcTemplate.queryForList(
+                        "SELECT m.*, u.username, u.avatar_url, u.is_bot " +
+                                "FROM messages_archive m " +
+                                "LEFT JOIN users u ON m.author_id = u.id " +
+                                "WHERE m.channel_id = ? AND m.id IN " + placeholders, params.toArray());
+
+                for (Map<String, Object> row : archived) {
+                    Map<String, Object> message = mapMessageRow(row);
+                    String attachments = (String) row.get("attachments");
+                    String embeds = (String) row.get("embeds");
+                    String reactions = (String) row.get("reactions");
+                    message.put("attachments", attachments != null ? jsonCodec.fromJson(attachments, List.class) : new ArrayList<>());
+                    message.put("embeds", embeds != null ? jsonCodec.fromJson(embeds, List.class) : new ArrayList<>());
+                    message.put("reactions", reactions != null ? jsonCodec.fromJson(reactions, List.class) : new ArrayList<>());
+                    message.put("archived", true);
+                    messages.putIfAbsent((String) message.get("id"), message);
+                }
             }
         } catch (Exception e) {
-            logger.error("Error getting messages for channel " + channelId, e);
+            logger.error("Error getting messages by ID for channel " + channelId, e);
             throw e;
         }
         return messages;
     }
 
+    /**
+     * Gets the author of a stored message.
+     *
+     * @param channelId The channel ID
+     * @param messageId The message ID
+     * @return The author's user ID, or null if the message is not stored locally
+     */
+    public String getMessageAuthorId(String channelId, String messageId) {
+        try {
+            Long channelKey = Snowflake.parse(channelId);
+            Long messageKey = Snowflake.parse(messageId);
+            if (channelKey == null || messageKey == null) {
+                return null;
+            }
+
+            List<Long> authors = jdbcTemplate.queryForList(
+                    "SELECT author_id FROM messages WHERE id = ? AND channel_id = ? " +
+                            "UNION ALL SELECT author_id FROM messages_archive WHERE id = ? AND channel_id = ? LIMIT 1",
+                    Long.class, messageKey, channelKey, messageKey, channelKey);
+            return authors.isEmpty() ? null : Snowflake.format(authors.get(0));
+        } catch (Exception e) {
+            logger.error("Error getting author of message " + messageId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Loads the attachments of a set of message rows in one query.
+     *
+     * @param rows Message rows
+     * @return Attachment rows grouped by message ID
+     */
+    private Map<String, List<Map<String, Object>>> loadAttachments(List<Map<String, Object>> rows) {
+        Map<String, List<Map<String, Object>>> attachmentsByMessage = new HashMap<>();
+        if (rows.isEmpty()) {
+            return attachmentsByMessage;
+        }
+
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        List<Object> ids = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            placeholders.add("?");
+            ids.add(row.get("id"));
+        }
+        List<Map<String, Object>> attachments = jdbcTemplate.queryForList(
+                "SELECT * FROM attachments WHERE message_id IN " + placeholders, ids.toArray());
+        for (Map<String, Object> attachment : attachments) {
+            attachment.put("id", Snowflake.format(attachment.get("id")));
+            attachment.put("message_id", Snowflake.format(attachment.get("message_id")));
+            attachmentsByMessage.computeIfAbsent((String) attachment.get("message_id"), k -> new ArrayList<>())
+                    .add(attachment);
+        }
+        return attachmentsByMessage;
+    }
+
+    /**
+     * Loads the embeds of a set of message rows, with their fields, in one query.
+     *
+     * @param rows Message rows
+     * @return Embeds keyed by message ID, in the shape of the archive's embeds column
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, List<Map<String, Object>>> loadEmbeds(List<Map<String, Object>> rows) {
+        Map<String, List<Map<String, Object>>> embedsByMessage = new HashMap<>();
+        if (rows.isEmpty()) {
+            return embedsByMessage;
+        }
+
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        List<Object> ids = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            placeholders.add("?");
+            ids.add(row.get("id"));
+        }
+        List<Map<String, Object>> embedRows = jdbcTemplate.queryForList(
+                "SELECT e.id AS embed_id, e.message_id, e.title, e.description, e.url, e.color, e.timestamp, " +
+                        "f.name AS field_name, f.value AS field_value, f.is_inline AS field_inline " +
+                        "FROM embeds e LEFT JOIN embed_fields f ON f.embed_id = e.id " +
+                        "WHERE e.message_id IN " + placeholders + " ORDER BY e.id, f.position", ids.toArray());
+
+        Map<Object, Map<String, Object>> embeds = new LinkedHashMap<>();
+        for (Map<String, Object> row : embedRows) {
+            Map<String, Object> embed = embeds.computeIfAbsent(row.get("embed_id"), embedId -> {
+                Map<String, Object> embedData = new HashMap<>();
+                embedData.put("title", row.get("title"));
+                embedData.put("description", row.get("description"));
+                embedData.put("url", row.get("url"));
+                embedData.put("color", row.get("color"));
+                embedData.put("timestamp", row.get("timestamp"));
+                embedData.put("fields", new ArrayList<Map<String, Object>>());
+                embedsByMessage.computeIfAbsent(Snowflake.format(row.get("message_id")), k -> new ArrayList<>())
+                        .add(embedData);
+                return embedData;
+            });
+            if (row.get("field_name") != null) {
+                Map<String, Object> field = new HashMap<>();
+                field.put("name", row.get("field_name"));
+                field.put("value", row.get("field_value"));
+                field.put("inline", Boolean.TRUE.equals(row.get("field_inline"))
+                        || (row.get("field_inline") instanceof Number inline && inline.intValue() != 0));
+                ((List<Map<String, Object>>) embed.get("fields")).add(field);
+            }
+        }
+        return embedsByMessage;
+    }
+
+    /**
+     * Loads the reactions of a set of message rows in one query.
+     *
+     * @param rows Message rows
+     * @return User ID and emoji pairs keyed by message ID
+     */
+    private Map<String, List<Map<String, Object>>> loadReactions(List<Map<String, Object>> rows) {
+        Map<String, List<Map<String, Object>>> reactionsByMessage = new HashMap<>();
+        if (rows.isEmpty()) {
+            return reactionsByMessage;
+        }
+
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        List<Object> ids = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            placeholders.add("?");
+            ids.add(row.get("id"));
+        }
+        List<Map<String, Object>> reactionRows = jdbcTemplate.queryForList(
+                "SELECT message_id, user_id, emoji FROM reactions WHERE message_id IN " + placeholders, ids.toArray());
+        for (Map<String, Object> row : reactionRows) {
+            Map<String, Object> reaction = new HashMap<>();
+            reaction.put("user_id", Snowflake.format(row.get("user_id")));
+            reaction.put("emoji", row.get("emoji"));
+            reactionsByMessage.computeIfAbsent(Snowflake.format(row.get("message_id")), k -> new ArrayList<>())
+                    .add(reaction);
+        }
+        return reactionsByMessage;
+    }
+
+    /**
+     * Maps a message row joined with its author to the frontend message shape.
+     */
+    private Map<String, Object> mapMessageRow(Map<String, Object> row) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("id", Snowflake.format(row.get("id")));
+        message.put("channelId", Snowflake.format(row.get("channel_id")));
+        message.put("content", row.get("content"));
+        message.put("timestamp", row.get("timestamp"));
+        message.put("editedTimestamp", row.get("edited_timestamp"));
+        message.put("referencedMessageId", Snowflake.format(row.get("referenced_message_id")));
+
+        // Add author data as a nested object
+        Map<String, Object> author = new HashMap<>();
+        author.put("id", Snowflake.format(row.get("author_id")));
+        author.put("username", row.get("username"));
+        author.put("avatarUrl", row.get("avatar_url"));
+        author.put("isBot", row.get("is_bot"));
+        message.put("author", author);
+        return message;
+    }
+
+    /**
+     * Moves messages older than the cutoff from the hot table into the archive.
+     * Each batch is copied and deleted in one transaction, so a message is always in
+     * exactly one tier. Deleting from the hot table cascades to attachments, embeds,
+     * embed fields and reactions, so all of them are copied into the archive row first,
+     * and only messages the archive holds are deleted.
+     *
+     * @param cutoffId Messages with a snowflake below this ID are archived
+     * @param batchSize Maximum number of messages moved per transaction
+     * @return The number of messages archived
+     */
+    public int archiveMessagesBefore(long cutoffId, int batchSize) {
+        int total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> {
+                // Locking the batch keeps reactions and embeds from being added between copy and delete
+                List<Long> batch = jdbcTemplate.queryForList(
+                        "SELECT id FROM messages WHERE id < ? ORDER BY id LIMIT ? FOR UPDATE",
+                        Long.class, cutoffId, batchSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                long upper = batch.get(batch.size() - 1);
+
+                jdbcTemplate.update(
+                        "INSERT INTO messages_archive (id, channel_id, author_id, content, timestamp, " +
+                                "edited_timestamp, referenced_message_id, attachments, embeds, reactions) " +
+                                "SELECT m.id, m.channel_id, m.author_id, m.content, m.timestamp, " +
+                                "m.edited_timestamp, m.referenced_message_id, " +
+                                "(SELECT JSON_ARRAYAGG(JSON_OBJECT('id', CAST(a.id AS CHAR), 'message_id', CAST(a.message_id AS CHAR), " +
+                                "'filename', a.filename, 'url', a.url, 'content_type', a.content_type, 'size', a.size)) " +
+                                "FROM attachments a WHERE a.message_id = m.id), " +
+                                "(SELECT JSON_ARRAYAGG(JSON_OBJECT('title', e.title, 'description', e.description, " +
+                                "'url', e.url, 'color', e.color, 'timestamp', e.timestamp, 'fields', " +
+                                "JSON_EXTRACT(COALESCE((SELECT JSON_ARRAYAGG(JSON_OBJECT('name', f.name, 'value', f.value, " +
+                                "'inline', f.is_inline = 1, 'position', f.position) ORDER BY f.position) " +
+                                "FROM embed_fields f WHERE f.embed_id = e.id), '[]'), '$')) ORDER BY e.id) " +
+                                "FROM embeds e WHERE e.message_id = m.id), " +
+                                "(SELECT JSON_ARRAYAGG(JSON_OBJECT('user_id', CAST(r.user_id AS CHAR), 'emoji', r.emoji)) " +
+                                "FROM reactions r WHERE r.message_id = m.id) " +
+                                "FROM messages m WHERE m.id <= ? " +
+                                "ON DUPLICATE KEY UPDATE content = VALUES(content), edited_timestamp = VALUES(edited_timestamp), " +
+                                "referenced_message_id = VALUES(referenced_message_id), attachments = VALUES(attachments), " +
+                                "embeds = VALUES(embeds), reactions = VALUES(reactions)",
+                        upper);
+                return jdbcTemplate.update(
+                        "DELETE m FROM messages m JOIN messages_archive a ON a.id = m.id WHERE m.id <= ?", upper);
+            });
+
+            if (moved == null || moved == 0) {
+                return total;
+            }
+            total += moved;
+        }
+    }
+
+    /**
+     * Permanently deletes archived messages older than the cutoff.
+     *
+     * @param cutoffId Archived messages with a snowflake below this ID are deleted
+     * @param batchSize Maximum number of rows deleted per statement
+     * @return The number of messages deleted
+     */
+    public int purgeArchivedMessagesBefore(long cutoffId, int batchSize) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM messages_archive WHERE id < ? ORDER BY id LIMIT ?",
+                    cutoffId, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        searchIndex.purgeBefore(cutoffId, batchSize);
+        return total;
+    }
+
     public void checkDatabaseStatus() {
         fetchDBInfo();
     }
 
     private void fetchDBInfo() {
         try {
-            int userCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
-            int guildCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM guilds", Integer.class);
-            int channelCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM channels", Integer.class);
-            int messageCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM messages", Integer.class);
-
-            displayDatabaseMetrics(userCount, guildCount, channelCount, messageCount);
+            // Use the storage engine's row estimates; COUNT(*) scans the whole table
+            Map<String, Long> counts = new HashMap<>();
+            jdbcTemplate.query(
+                    "SELECT TABLE_NAME, TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() " +
+                            "AND TABLE_NAME IN ('users', 'guilds', 'channels', 'messages', 'messages_archive')",
+                    rs -> {
+                        counts.put(rs.getString(1), rs.getLong(2));
+                    });
+
+            displayDatabaseMetrics(counts.getOrDefault("users", 0L), counts.getOrDefault("guilds", 0L),
+                    counts.getOrDefault("channels", 0L), counts.getOrDefault("messages", 0L),
+                    counts.getOrDefault("messages_archive", 0L));
         } catch (Exception e) {
             logger.error("Database check failed", e);
         }
@@ -470,8 +1037,9 @@ public class DatabaseManager {
         jdbcTemplate.update(
                 "INSERT INTO users (id, username, is_bot, status) VALUES (?, ?, ?, ?) " +
                         "ON DUPLICATE KEY UPDATE username = VALUES(username), is_bot = VALUES(is_bot), status = VALUES(status)",
-                botUserId, "Bot", true, "online"
+                Snowflake.parse(botUserId), "Bot", true, "online"
         );
+        readCache.invalidateUser(Snowflake.parse(botUserId));
     }
 
     private boolean processRefreshDmList(Map<String, Object> data) {
@@ -497,7 +1065,7 @@ public class DatabaseManager {
             return jdbcTemplate.queryForObject(
                     "SELECT id FROM dm_channels WHERE user_id = ?",
                     String.class,
-                    userId
+                    Snowflake.parse(userId)
             );
         } catch (Exception e) {
             logger.debug("No DM channel found for user ID: {}", userId);
@@ -505,6 +1073,53 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Gets the stored DM channel of a user, with the user's stored name.
+     *
+     * @param userId The user ID
+     * @return Row with "id" and "username", or null if none is stored
+     */
+    public Map<String, Object> getDmChannelByUserId(long userId) {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT d.id, u.username FROM dm_channels d LEFT JOIN users u ON u.id = d.user_id " +
+                            "WHERE d.user_id = ? LIMIT 1",
+                    userId);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            Map<String, Object> row = new HashMap<>(rows.get(0));
+            row.put("id", Snowflake.format(row.get("id")));
+            return row;
+        } catch (Exception e) {
+            logger.error("Error getting DM channel for user: {}", userId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the DM channel of a user, keeping its last message if already known.
+     *
+     * @param channelId The DM channel ID
+     * @param userId The recipient's user ID
+     * @param username The recipient's name, used if the user is not stored yet
+     */
+    public void saveDmChannel(long channelId, long userId, String username) {
+        try {
+            int inserted = jdbcTemplate.update("INSERT IGNORE INTO users (id, username) VALUES (?, ?)",
+                    userId, username != null ? username : "Unknown User");
+            if (inserted > 0) {
+                readCache.invalidateUser(userId);
+            }
+            jdbcTemplate.update(
+                    "INSERT INTO dm_channels (id, user_id) VALUES (?, ?) " +
+                            "ON DUPLICATE KEY UPDATE user_id = VALUES(user_id)",
+                    channelId, userId);
+        } catch (Exception e) {
+            logger.error("Error saving DM channel {} for user {}", channelId, userId, e);
+        }
+    }
+
     /**
      * Saves a typing indicator.
      *
@@ -513,6 +1128,15 @@ public class DatabaseManager {
      * @return True if saved successfully
      */
     public boolean saveTypingIndicator(String userId, String channelId) {
+        try {
+            return saveTypingIndicator(Snowflake.parse(userId), Snowflake.parse(channelId));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid typing indicator IDs: user={}, channel={}", userId, channelId);
+            return false;
+        }
+    }
+
+    private boolean saveTypingIndicator(Long userId, Long channelId) {
         try {
             // Ensure channel exists
             ensureChannelExists(channelId, null);
@@ -561,7 +1185,7 @@ public class DatabaseManager {
      * @param userId The user ID
      * @return True if the user exists or was created
      */
-    private boolean ensureUserExists(String userId) {
+    private boolean ensureUserExists(Long userId) {
         try {
             // Check if user exists
             int count = jdbcTemplate.queryForObject(
@@ -574,8 +1198,9 @@ public class DatabaseManager {
                 // Create minimal user entry
                 jdbcTemplate.update(
                         "INSERT INTO users (id, username) VALUES (?, ?)",
-                        userId, jdaProvider.getJda().getUserById(userId).getGlobalName() != null ? jdaProvider.getJda().getUserById(userId).getGlobalName() : "Unknown User"
+                        userId, jdaProvider.getDiscordRuntime().getUserById(userId).getGlobalName() != null ? jdaProvider.getDiscordRuntime().getUserById(userId).getGlobalName() : "Unknown User"
                 );
+                readCache.invalidateUser(userId);
             }
 
             return true;
@@ -592,7 +1217,7 @@ public class DatabaseManager {
      * @param name The guild name (optional)
      * @return True if the guild exists or was created
      */
-    private boolean ensureGuildExists(String guildId, String name) {
+    private boolean ensureGuildExists(Long guildId, String name) {
         try {
             // Check if guild exists
             int count = jdbcTemplate.queryForObject(
@@ -607,6 +1232,7 @@ public class DatabaseManager {
                         "INSERT INTO guilds (id, name) VALUES (?, ?)",
                         guildId, name != null ? name : "Unknown Guild"
                 );
+                readCache.invalidateGuilds();
             }
 
             return true;
@@ -623,7 +1249,7 @@ public class DatabaseManager {
      * @param name The channel name (optional)
      * @return True if the channel exists or was created
      */
-    private boolean ensureChannelExists(String channelId, String name) {
+    private boolean ensureChannelExists(Long channelId, String name) {
         try {
             // Check if channel exists
             int count = jdbcTemplate.queryForObject(
@@ -655,9 +1281,9 @@ public class DatabaseManager {
     private boolean processUserUpdate(Map<String, Object> data) {
         try {
             // Extract user data
-            String userId = (String) data.get("userId");
+            Long userId = Snowflake.parse(data.get("userId"));
             if (userId == null) {
-                userId = (String) data.get("id");
+                userId = Snowflake.parse(data.get("id"));
             }
 
             String userName = (String) data.get("userName");
@@ -692,6 +1318,7 @@ public class DatabaseManager {
                                 "global_name = VALUES(global_name), avatar_url = VALUES(avatar_url), is_bot = VALUES(is_bot)",
                         userId, userName, discriminator, globalName, avatarUrl, isBot
                 );
+                readCache.invalidateUser(userId);
 
                 return true;
             } else {
@@ -709,7 +1336,7 @@ public class DatabaseManager {
      */
     private boolean processUserStatusUpdate(Map<String, Object> data) {
         try {
-            String userId = (String) data.get("userId");
+            Long userId = Snowflake.parse(data.get("userId"));
             String newStatus = (String) data.get("newStatus");
 
             if (userId == null || newStatus == null) {
@@ -733,6 +1360,9 @@ public class DatabaseManager {
                         "UPDATE users SET is_owner = true WHERE id = ?",
                         userId
                 );
+                readCache.invalidateUser(userId);
+            } else {
+                readCache.invalidateUserStatus(userId);
             }
 
             return true;
@@ -747,10 +1377,10 @@ public class DatabaseManager {
      */
     private boolean processGuildJoin(Map<String, Object> data) {
         try {
-            String guildId = (String) data.get("id");
+            Long guildId = Snowflake.parse(data.get("id"));
             String name = (String) data.get("name");
             String iconUrl = (String) data.get("iconUrl");
-            String ownerId = (String) data.get("ownerId");
+            Long ownerId = Snowflake.parse(data.get("ownerId"));
             Integer memberCount = null;
 
             if (data.containsKey("memberCount")) {
@@ -777,6 +1407,7 @@ public class DatabaseManager {
                             "owner_id = VALUES(owner_id), member_count = VALUES(member_count), description = VALUES(description)",
                     guildId, name, iconUrl, ownerId, memberCount, description
             );
+            readCache.invalidateGuilds();
 
             return true;
         } catch (Exception e) {
@@ -798,8 +1429,8 @@ public class DatabaseManager {
      */
     private boolean processGuildMemberJoin(Map<String, Object> data) {
         try {
-            String guildId = (String) data.get("guildId");
-            String userId = null;
+            Long guildId = Snowflake.parse(data.get("guildId"));
+            Long userId = null;
             String nickname = null;
             Long joinedAt = null;
 
@@ -808,7 +1439,7 @@ public class DatabaseManager {
             Map<String, Object> memberData = (Map<String, Object>) data.get("member");
 
             if (memberData != null) {
-                userId = (String) memberData.get("id");
+                userId = Snowflake.parse(memberData.get("id"));
                 nickname = (String) memberData.get("nickname");
 
                 if (memberData.containsKey("joinedAt")) {
@@ -816,7 +1447,7 @@ public class DatabaseManager {
                 }
             } else {
                 // Try to get user data directly
-                userId = (String) data.get("userId");
+                userId = Snowflake.parse(data.get("userId"));
 
                 if (data.containsKey("joinTime")) {
                     joinedAt = ((Number) data.get("joinTime")).longValue();
@@ -854,8 +1485,8 @@ public class DatabaseManager {
      */
     private boolean processGuildMemberLeave(Map<String, Object> data) {
         try {
-            String guildId = (String) data.get("guildId");
-            String userId = (String) data.get("userId");
+            Long guildId = Snowflake.parse(data.get("guildId"));
+            Long userId = Snowflake.parse(data.get("userId"));
 
             if (guildId == null || userId == null) {
                 logger.warn("Guild member leave event missing guild ID or user ID");
@@ -886,12 +1517,12 @@ public class DatabaseManager {
      */
     private boolean processChannelCreate(Map<String, Object> data) {
         try {
-            String channelId = (String) data.get("channelId");
-            String guildId = (String) data.get("guildId");
+            Long channelId = Snowflake.parse(data.get("channelId"));
+            Long guildId = Snowflake.parse(data.get("guildId"));
             String name = (String) data.get("channelName");
             String type = (String) data.get("channelType");
             String topic = (String) data.get("topic");
-            String parentId = (String) data.get("parentId");
+            Long parentId = Snowflake.parse(data.get("parentId"));
 
             Integer position = null;
             if (data.containsKey("position")) {
@@ -927,6 +1558,7 @@ public class DatabaseManager {
                             "position = VALUES(position), is_nsfw = VALUES(is_nsfw)",
                     channelId, guildId, parentId, name, type, topic, position, nsfw
             );
+            readCache.invalidateChannels(guildId);
 
             return true;
         } catch (Exception e) {
@@ -949,8 +1581,8 @@ public class DatabaseManager {
     private boolean processMessageReceived(Map<String, Object> data) {
         try {
             // Extract message data
-            String messageId = (String) data.get("id");
-            String channelId = (String) data.get("channelId");
+            Long messageId = Snowflake.parse(data.get("id"));
+            Long channelId = Snowflake.parse(data.get("channelId"));
             String content = (String) data.get("content");
 
             // Parse timestamp
@@ -968,19 +1600,19 @@ public class DatabaseManager {
             }
 
             // Get referenced message ID
-            String referencedMessageId = null;
+            Long referencedMessageId = null;
             @SuppressWarnings("unchecked")
             Map<String, Object> referencedMessage = (Map<String, Object>) data.get("referencedMessage");
             if (referencedMessage != null) {
-                referencedMessageId = (String) referencedMessage.get("messageId");
+                referencedMessageId = Snowflake.parse(referencedMessage.get("messageId"));
             }
 
             // Get author information
-            String authorId = null;
+            Long authorId = null;
             @SuppressWarnings("unchecked")
             Map<String, Object> author = (Map<String, Object>) data.get("author");
             if (author != null) {
-                authorId = (String) author.get("id");
+                authorId = Snowflake.parse(author.get("id"));
 
                 // Save author
                 processUserUpdate(author);
@@ -1008,7 +1640,7 @@ public class DatabaseManager {
             List<Map<String, Object>> attachments = (List<Map<String, Object>>) data.get("attachments");
             if (attachments != null) {
                 for (Map<String, Object> attachment : attachments) {
-                    String attachmentId = (String) attachment.get("id");
+                    Long attachmentId = Snowflake.parse(attachment.get("id"));
                     String filename = (String) attachment.get("filename");
                     String url = (String) attachment.get("url");
                     String contentType = (String) attachment.get("contentType");
@@ -1031,6 +1663,7 @@ public class DatabaseManager {
             }
 
             // Process embeds
+            StringJoiner embedText = new StringJoiner("\n");
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> embeds = (List<Map<String, Object>>) data.get("embeds");
             if (embeds != null) {
@@ -1038,6 +1671,8 @@ public class DatabaseManager {
                     String title = (String) embed.get("title");
                     String description = (String) embed.get("description");
                     String url = (String) embed.get("url");
+                    if (title != null) embedText.add(title);
+                    if (description != null) embedText.add(description);
 
                     Integer color;
                     if (embed.containsKey("color")) {
@@ -1062,7 +1697,7 @@ public class DatabaseManager {
                                         "VALUES (?, ?, ?, ?, ?, ?)",
                                 Statement.RETURN_GENERATED_KEYS
                         );
-                        ps.setString(1, messageId);
+                        ps.setLong(1, messageId);
                         ps.setString(2, title);
                         ps.setString(3, description);
                         ps.setString(4, url);
@@ -1084,6 +1719,7 @@ public class DatabaseManager {
                                 Boolean inline = (Boolean) field.get("inline");
 
                                 if (name != null && value != null) {
+                                    embedText.add(name).add(value);
                                     jdbcTemplate.update(
                                             "INSERT INTO embed_fields (embed_id, name, value, is_inline, position) " +
                                                     "VALUES (?, ?, ?, ?, ?)",
@@ -1096,23 +1732,27 @@ public class DatabaseManager {
                 }
             }
 
+            // Queue for the search index
+            searchIndex.index(messageId, channelId, Snowflake.parse(data.get("guildId")), authorId,
+                    content, embedText.length() > 0 ? embedText.toString() : null);
+
             // If this is a DM and we have an author, update the DM channel
             if (!data.containsKey("guildId") && authorId != null) {
-                boolean isDmFromBot = botUserId != null && authorId.equals(botUserId);
-                String dmUserId;
+                boolean isDmFromBot = botUserId != null && authorId.equals(Snowflake.parse(botUserId));
+                Long dmUserId;
 
                 if (isDmFromBot) {
                     // If the message is from the bot, try to determine the recipient
                     @SuppressWarnings("unchecked")
                     Map<String, Object> recipient = (Map<String, Object>) data.get("recipient");
                     if (recipient != null) {
-                        dmUserId = (String) recipient.get("id");
+                        dmUserId = Snowflake.parse(recipient.get("id"));
                     } else {
                         // Try to find the recipient from the database
                         try {
                             dmUserId = jdbcTemplate.queryForObject(
                                     "SELECT user_id FROM dm_channels WHERE id = ?",
-                                    String.class,
+                                    Long.class,
                                     channelId
                             );
                         } catch (Exception e) {
@@ -1162,7 +1802,7 @@ public class DatabaseManager {
      */
     private boolean processMessageDelete(Map<String, Object> data) {
         try {
-            String messageId = (String) data.get("messageId");
+            Long messageId = Snowflake.parse(data.get("messageId"));
 
             if (messageId == null) {
                 logger.warn("Message delete event missing message ID");
@@ -1174,6 +1814,11 @@ public class DatabaseManager {
                     "DELETE FROM messages WHERE id = ?",
                     messageId
             );
+            jdbcTemplate.update(
+                    "DELETE FROM messages_archive WHERE id = ?",
+                    messageId
+            );
+            searchIndex.remove(messageId);
 
             return true;
         } catch (Exception e) {
@@ -1187,8 +1832,8 @@ public class DatabaseManager {
      */
     private boolean processReactionAdd(Map<String, Object> data) {
         try {
-            String messageId = (String) data.get("messageId");
-            String userId = (String) data.get("userId");
+            Long messageId = Snowflake.parse(data.get("messageId"));
+            Long userId = Snowflake.parse(data.get("userId"));
             String emoji = (String) data.get("emoji");
 
             if (messageId == null || userId == null || emoji == null) {
@@ -1217,8 +1862,8 @@ public class DatabaseManager {
      */
     private boolean processReactionRemove(Map<String, Object> data) {
         try {
-            String messageId = (String) data.get("messageId");
-            String userId = (String) data.get("userId");
+            Long messageId = Snowflake.parse(data.get("messageId"));
+            Long userId = Snowflake.parse(data.get("userId"));
             String emoji = (String) data.get("emoji");
 
             if (messageId == null || userId == null || emoji == null) {
@@ -1244,8 +1889,8 @@ public class DatabaseManager {
      */
     private boolean processTypingStart(Map<String, Object> data) {
         try {
-            String userId = (String) data.get("userId");
-            String channelId = (String) data.get("channelId");
+            Long userId = Snowflake.parse(data.get("userId"));
+            Long channelId = Snowflake.parse(data.get("channelId"));
 
             if (userId == null || channelId == null) {
                 logger.warn("Typing start event missing user ID or channel ID");
@@ -1265,8 +1910,8 @@ public class DatabaseManager {
      */
     private boolean processRoleCreate(Map<String, Object> data) {
         try {
-            String roleId = (String) data.get("roleId");
-            String guildId = (String) data.get("guildId");
+            Long roleId = Snowflake.parse(data.get("roleId"));
+            Long guildId = Snowflake.parse(data.get("guildId"));
             String name = (String) data.get("roleName");
 
             Integer color = null;
@@ -1331,7 +1976,13 @@ public class DatabaseManager {
      */
     @PreDestroy
     public void cleanup() {
-        // Cleanup method if needed
+        // Let queued writes finish before the data source goes away
+        eventExecutor.shutdown();
+        try {
+            eventExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -5,9 +5,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -21,6 +23,12 @@ public class DatabaseProxyController {
     @Autowired
     private DatabaseManager dbManager;
 
+    @Autowired
+    private MessageSearchIndex searchIndex;
+
+    @Autowired
+    private DatabaseReadCache readCache;
+
     @GetMapping("/users")
     public ResponseEntity<?> getUsers() {
         logger.info("Direct database request for users");
@@ -61,15 +69,78 @@ public class DatabaseProxyController {
     }
 
     @GetMapping("/messages/{channelId}")
-    public ResponseEntity<?> getMessages(@PathVariable String channelId) {
-        logger.info("Direct database request for messages in channel {}", channelId);
+    public ResponseEntity<?> getMessages(
+            @PathVariable String channelId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false, defaultValue = "50") int limit) {
+        logger.info("Direct database request for messages in channel {}, before={}, limit={}", channelId, before, limit);
         try {
-            List<Map<String, Object>> messages = dbManager.getMessagesByChannelId(channelId);
+            List<Map<String, Object>> messages = dbManager.getMessagesByChannelId(channelId, before, Math.min(Math.max(limit, 1), 100));
             return ResponseEntity.ok(messages);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching messages from database", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
+
+    @GetMapping("/stats/tables")
+    public ResponseEntity<?> getTableStats() {
+        logger.info("Direct database request for table stats");
+        try {
+            List<Map<String, Object>> stats = dbManager.getTableStats();
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            logger.error("Error fetching table stats from database", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin/cache")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(readCache.getStats());
+    }
+
+    @DeleteMapping("/admin/cache")
+    public ResponseEntity<?> clearCache() {
+        logger.info("Clearing database read cache");
+        readCache.invalidateAll();
+        return ResponseEntity.ok(readCache.getStats());
+    }
+
+    @GetMapping("/stats/search")
+    public ResponseEntity<?> getSearchStats() {
+        return ResponseEntity.ok(searchIndex.getStats());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) String channelId,
+            @RequestParam(required = false) String guildId,
+            @RequestParam(required = false) String authorId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "25") int limit) {
+        logger.info("Direct database request to search messages: q={}, channel={}, guild={}, author={}",
+                q, channelId, guildId, authorId);
+        if (q.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Search query is required"));
+        }
+        try {
+            return ResponseEntity.ok(searchIndex.search(q, channelId, guildId, authorId, after, before, cursor, limit));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid ID: " + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error searching messages in database", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package com.cottonlesergal.ucontrolbot.db;
+
+import com.cottonlesergal.ucontrolbot.config.Config;
+import com.cottonlesergal.ucontrolbot.util.TtlLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the user, guild and channel lookups served by /api/db.
+ * Entries expire after the configured cache expiry, and the persistence
+ * handlers invalidate the affected keys whenever they write those rows.
+ */
+@Component
+public class DatabaseReadCache {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseReadCache.class);
+
+    private static final int MAX_ENTRIES = 2048;
+    private static final String ALL_USERS = "users";
+    private static final String ALL_GUILDS = "guilds";
+    private static final String USER_PREFIX = "user:";
+    private static final String CHANNELS_PREFIX = "channels:";
+
+    @Autowired
+    private Config config;
+
+    private TtlLruCache<String, Object> cache;
+
+    /**
+     * Creates the cache once the configured expiry is available.
+     */
+    @PostConstruct
+    public void initialize() {
+        cache = new TtlLruCache<>(MAX_ENTRIES, config.getCacheExpirySeconds() * 1000);
+        logger.info("Database read cache initialized with {}s expiry", config.getCacheExpirySeconds());
+    }
+
+    /**
+     * Gets the list of all users.
+     *
+     * @param loader Loads the list on a miss
+     * @return The cached or loaded list
+     */
+    public <T> T getAllUsers(Supplier<T> loader) {
+        return get(ALL_USERS, loader);
+    }
+
+    /**
+     * Gets the list of all guilds.
+     *
+     * @param loader Loads the list on a miss
+     * @return The cached or loaded list
+     */
+    public <T> T getAllGuilds(Supplier<T> loader) {
+        return get(ALL_GUILDS, loader);
+    }
+
+    /**
+     * Gets a single user row.
+     *
+     * @param userId The user ID
+     * @param loader Loads the row on a miss; null results are not cached
+     * @return The cached or loaded row
+     */
+    public <T> T getUser(Long userId, Supplier<T> loader) {
+        return get(USER_PREFIX + userId, loader);
+    }
+
+    /**
+     * Gets the channels of a guild.
+     *
+     * @param guildId The guild ID
+     * @param loader Loads the channels on a miss
+     * @return The cached or loaded channels
+     */
+    public <T> T getChannels(Long guildId, Supplier<T> loader) {
+        return get(CHANNELS_PREFIX + guildId, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, Supplier<T> loader) {
+        return (T) cache.get(key, (Supplier<Object>) loader);
+    }
+
+    /**
+     * Invalidates a user and the user list.
+     *
+     * @param userId The user that changed
+     */
+    public void invalidateUser(Long userId) {
+        cache.invalidate(USER_PREFIX + userId);
+        cache.invalidate(ALL_USERS);
+    }
+
+    /**
+     * Invalidates a user after a presence-only change. The user list is kept, so
+     * its statuses can be up to the cache expiry old; presence updates are too
+     * frequent to reload every user on each one.
+     *
+     * @param userId The user whose status changed
+     */
+    public void invalidateUserStatus(Long userId) {
+        cache.invalidate(USER_PREFIX + userId);
+    }
+
+    /**
+     * Invalidates the guild list.
+     */
+    public void invalidateGuilds() {
+        cache.invalidate(ALL_GUILDS);
+    }
+
+    /**
+     * Invalidates the channel list of a guild.
+     *
+     * @param guildId The guild whose channels changed, or null if unknown
+     */
+    public void invalidateChannels(Long guildId) {
+        if (guildId != null) {
+            cache.invalidate(CHANNELS_PREFIX + guildId);
+        } else {
+            cache.invalidateIf(key -> key.startsWith(CHANNELS_PREFIX));
+        }
+    }
+
+    /**
+     * Clears the whole cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Gets cache statistics.
+     *
+     * @return Cache counters
+     */
+    public Map<String, Object> getStats() {
+        return cache.getStats();
+    }
+}
@@ -0,0 +1,649 @@
+package com.cottonlesergal.ucontrolbot.db;
+
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Batched, transactional writes behind the /api/db save endpoints.
+ * Each call validates every item, then writes all valid items in one
+ * transaction using native upserts and JDBC batching. Results are returned
+ * per item in request order.
+ */
+@Component
+public class DatabaseWriteService {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseWriteService.class);
+
+    public static final String STATUS_SUCCESS = "success";
+    public static final String STATUS_INVALID = "invalid";
+    public static final String STATUS_FAILED = "failed";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DatabaseReadCache readCache;
+
+    @Autowired
+    private MessageSearchIndex searchIndex;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates or updates users.
+     *
+     * @param items User objects from the request
+     * @return One result per item
+     */
+    public List<Map<String, Object>> saveUsers(List<Map<String, Object>> items) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Integer> valid = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> user = items.get(i);
+            String userId = Snowflake.format(user.get("id"));
+            if (!Snowflake.isValid(userId)) {
+                results.add(invalid(i, userId, "User ID is required"));
+                continue;
+            }
+
+            try {
+                String username = (String) user.get("username");
+                String status = (String) user.get("status");
+                Boolean isBot = (Boolean) user.get("isBot");
+                Boolean isOwner = (Boolean) user.get("isOwner");
+                rows.add(new Object[]{
+                        Snowflake.parse(userId),
+                        username != null ? username : "Unknown User",
+                        (String) user.get("discriminator"),
+                        (String) user.get("avatarUrl"),
+                        isBot != null ? isBot : false,
+                        isOwner != null ? isOwner : false,
+                        status != null ? status : "offline"
+                });
+            } catch (ClassCastException e) {
+                results.add(invalid(i, userId, "Invalid user data: " + e.getMessage()));
+                continue;
+            }
+            results.add(success(i, userId));
+            valid.add(i);
+        }
+
+        writeBatch(results, valid, "users", () -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO users (id, username, discriminator, avatar_url, is_bot, is_owner, status) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE username = VALUES(username), discriminator = VALUES(discriminator), " +
+                            "avatar_url = VALUES(avatar_url), is_bot = VALUES(is_bot), is_owner = VALUES(is_owner), " +
+                            "status = VALUES(status)",
+                    rows);
+        });
+
+        for (Object[] row : rows) {
+            readCache.invalidateUser((Long) row[0]);
+        }
+        return results;
+    }
+
+    /**
+     * Sets a user's status, creating a placeholder user if needed.
+     *
+     * @param userId The user ID
+     * @param status The new status
+     */
+    public void updateUserStatus(Long userId, String status) {
+        int affected = jdbcTemplate.update(
+                "INSERT INTO users (id, username, status) VALUES (?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE status = VALUES(status)",
+                userId, "Unknown User", status
+        );
+        // 1 means a placeholder user was inserted, which the user list must show
+        if (affected == 1) {
+            readCache.invalidateUser(userId);
+        } else {
+            readCache.invalidateUserStatus(userId);
+        }
+    }
+
+    /**
+     * Creates or updates guilds.
+     *
+     * @param items Guild objects from the request
+     * @return One result per item
+     */
+    public List<Map<String, Object>> saveGuilds(List<Map<String, Object>> items) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Integer> valid = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> guild = items.get(i);
+            String guildId = Snowflake.format(guild.get("id"));
+            if (!Snowflake.isValid(guildId)) {
+                results.add(invalid(i, guildId, "Guild ID is required"));
+                continue;
+            }
+
+            try {
+                String name = (String) guild.get("name");
+                rows.add(new Object[]{
+                        Snowflake.parse(guildId),
+                        name != null ? name : "Unknown Guild",
+                        (String) guild.get("iconUrl"),
+                        Snowflake.parse(guild.get("ownerId")),
+                        toInteger(guild.get("memberCount")),
+                        (String) guild.get("description")
+                });
+            } catch (NumberFormatException | ClassCastException e) {
+                results.add(invalid(i, guildId, "Invalid guild data: " + e.getMessage()));
+                continue;
+            }
+            results.add(success(i, guildId));
+            valid.add(i);
+        }
+
+        writeBatch(results, valid, "guilds", () -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO guilds (id, name, icon_url, owner_id, member_count, description) " +
+                            "VALUES (?, ?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE name = VALUES(name), icon_url = VALUES(icon_url), " +
+                            "owner_id = VALUES(owner_id), member_count = VALUES(member_count), description = VALUES(description)",
+                    rows);
+        });
+
+        readCache.invalidateGuilds();
+        return results;
+    }
+
+    /**
+     * Creates or updates channels.
+     *
+     * @param items Channel objects from the request
+     * @return One result per item
+     */
+    public List<Map<String, Object>> saveChannels(List<Map<String, Object>> items) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Integer> valid = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        Set<Long> guildIds = new HashSet<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> channel = items.get(i);
+            String channelId = Snowflake.format(channel.get("id"));
+            if (!Snowflake.isValid(channelId)) {
+                results.add(invalid(i, channelId, "Channel ID is required"));
+                continue;
+            }
+
+            Long guildId;
+            try {
+                guildId = Snowflake.parse(channel.get("guildId"));
+                String name = (String) channel.get("name");
+                String type = (String) channel.get("type");
+                Integer position = toInteger(channel.get("position"));
+                Boolean nsfw = (Boolean) channel.get("nsfw");
+                rows.add(new Object[]{
+                        Snowflake.parse(channelId),
+                        guildId,
+                        Snowflake.parse(channel.get("parentId")),
+                        name != null ? name : "Unknown Channel",
+                        type != null ? type : "UNKNOWN",
+                        (String) channel.get("topic"),
+                        position != null ? position : 0,
+                        nsfw != null ? nsfw : false
+                });
+            } catch (NumberFormatException | ClassCastException e) {
+                results.add(invalid(i, channelId, "Invalid channel data: " + e.getMessage()));
+                continue;
+            }
+            guildIds.add(guildId);
+            results.add(success(i, channelId));
+            valid.add(i);
+        }
+
+        writeBatch(results, valid, "channels", () -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO channels (id, guild_id, parent_id, name, type, topic, position, is_nsfw) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE guild_id = VALUES(guild_id), parent_id = VALUES(parent_id), " +
+                            "name = VALUES(name), type = VALUES(type), topic = VALUES(topic), " +
+                            "position = VALUES(position), is_nsfw = VALUES(is_nsfw)",
+                    rows);
+        });
+
+        for (Long guildId : guildIds) {
+            readCache.invalidateChannels(guildId);
+        }
+        return results;
+    }
+
+    /**
+     * Creates or updates messages along with their authors, attachments, embeds and DM channel records.
+     * Attachments and embeds of existing messages are replaced. If a message ID appears more than
+     * once, the last occurrence is saved and the earlier ones are reported invalid.
+     *
+     * @param items Message objects from the request
+     * @return One result per item
+     */
+    public List<Map<String, Object>> saveMessages(List<Map<String, Object>> items) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Integer> valid = new ArrayList<>();
+        Map<Long, MessageRow> byId = new LinkedHashMap<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> data = items.get(i);
+            String messageId = Snowflake.format(data.get("id"));
+            try {
+                MessageRow message = parseMessage(data);
+                if (message.error != null) {
+                    results.add(invalid(i, messageId, message.error));
+                    continue;
+                }
+                message.index = i;
+                // A repeated ID would insert its attachments twice and roll back the whole batch
+                MessageRow earlier = byId.remove(message.id);
+                if (earlier != null) {
+                    results.set(earlier.index, invalid(earlier.index, messageId,
+                            "Duplicate message ID in batch; item " + i + " was saved instead"));
+                    valid.remove(Integer.valueOf(earlier.index));
+                }
+                byId.put(message.id, message);
+                results.add(success(i, messageId));
+                valid.add(i);
+            } catch (NumberFormatException | ClassCastException e) {
+                results.add(invalid(i, messageId, "Invalid message data: " + e.getMessage()));
+            }
+        }
+        List<MessageRow> messages = new ArrayList<>(byId.values());
+
+        writeBatch(results, valid, "messages", () -> writeMessages(messages));
+
+        // Only messages that were committed are indexed
+        List<MessageRow> saved = messages.stream()
+                .filter(message -> STATUS_SUCCESS.equals(results.get(message.index).get("status")))
+                .toList();
+        Map<Long, Long> guildIds = guildIdsOf(saved);
+        for (MessageRow message : saved) {
+            readCache.invalidateUser(message.authorId);
+            searchIndex.index(message.id, message.channelId, guildIds.get(message.channelId), message.authorId,
+                    message.content, message.embedText.length() > 0 ? message.embedText.toString() : null);
+        }
+        return results;
+    }
+
+    /**
+     * Gets the guild of each message's channel, from the request or else from the stored channel.
+     *
+     * @return Guild IDs keyed by channel ID; DM channels are absent
+     */
+    private Map<Long, Long> guildIdsOf(List<MessageRow> messages) {
+        Map<Long, Long> guildIds = new HashMap<>();
+        Set<Long> unknown = new LinkedHashSet<>();
+        for (MessageRow message : messages) {
+            if (message.guildId != null) {
+                guildIds.put(message.channelId, message.guildId);
+            } else {
+                unknown.add(message.channelId);
+            }
+        }
+        unknown.removeAll(guildIds.keySet());
+        if (unknown.isEmpty()) {
+            return guildIds;
+        }
+
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        unknown.forEach(id -> placeholders.add("?"));
+        try {
+            jdbcTemplate.query("SELECT id, guild_id FROM channels WHERE guild_id IS NOT NULL AND id IN " + placeholders,
+                    rs -> {
+                        guildIds.put(rs.getLong(1), rs.getLong(2));
+                    }, unknown.toArray());
+        } catch (Exception e) {
+            logger.warn("Could not look up guilds of saved messages: {}", e.getMessage());
+        }
+        return guildIds;
+    }
+
+    private void writeMessages(List<MessageRow> messages) {
+        // Authors are upserted; fields missing from the request keep their stored values
+        List<Object[]> authors = new ArrayList<>();
+        List<Object[]> placeholderUsers = new ArrayList<>();
+        List<Object[]> channels = new ArrayList<>();
+        List<Object[]> messageRows = new ArrayList<>();
+        List<Object[]> messageIds = new ArrayList<>();
+        List<Object[]> attachments = new ArrayList<>();
+        List<Object[]> dmChannels = new ArrayList<>();
+        List<EmbedRow> embeds = new ArrayList<>();
+
+        for (MessageRow message : messages) {
+            String username = message.authorUsername;
+            Boolean isBot = message.authorIsBot;
+            authors.add(new Object[]{
+                    message.authorId, username != null ? username : "Unknown User",
+                    message.authorDiscriminator, message.authorAvatarUrl, isBot != null ? isBot : false,
+                    username, message.authorDiscriminator, message.authorAvatarUrl, isBot
+            });
+            channels.add(new Object[]{message.channelId});
+            messageRows.add(new Object[]{message.id, message.channelId, message.authorId, message.content,
+                    message.timestamp, message.editedTimestamp, message.referencedMessageId});
+            messageIds.add(new Object[]{message.id});
+            attachments.addAll(message.attachments);
+            embeds.addAll(message.embeds);
+            if (message.dmUserId != null) {
+                placeholderUsers.add(new Object[]{message.dmUserId});
+                dmChannels.add(new Object[]{message.channelId, message.dmUserId, message.id});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (id, username, discriminator, avatar_url, is_bot) VALUES (?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE username = COALESCE(?, username), " +
+                        "discriminator = COALESCE(?, discriminator), avatar_url = COALESCE(?, avatar_url), " +
+                        "is_bot = COALESCE(?, is_bot)",
+                authors);
+        if (!placeholderUsers.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO users (id, username) VALUES (?, 'Unknown User')", placeholderUsers);
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO channels (id, name, type) VALUES (?, 'Unknown Channel', 'UNKNOWN')", channels);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO messages (id, channel_id, author_id, content, timestamp, edited_timestamp, referenced_message_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE content = VALUES(content), edited_timestamp = VALUES(edited_timestamp), " +
+                        "referenced_message_id = VALUES(referenced_message_id)",
+                messageRows);
+
+        // Replace children of existing messages; embed fields cascade with their embeds
+        jdbcTemplate.batchUpdate("DELETE FROM attachments WHERE message_id = ?", messageIds);
+        jdbcTemplate.batchUpdate("DELETE FROM embeds WHERE message_id = ?", messageIds);
+
+        if (!attachments.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO attachments (id, message_id, filename, url, content_type, size) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)",
+                    attachments);
+        }
+
+        if (!embeds.isEmpty()) {
+            insertEmbeds(embeds);
+        }
+
+        if (!dmChannels.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO dm_channels (id, user_id, last_message_id) VALUES (?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), last_message_id = VALUES(last_message_id)",
+                    dmChannels);
+        }
+    }
+
+    /**
+     * Inserts embeds as one batch and uses the generated keys to insert their fields as a second batch.
+     */
+    private void insertEmbeds(List<EmbedRow> embeds) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(
+                        "INSERT INTO embeds (message_id, title, description, url, color, timestamp) VALUES (?, ?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        EmbedRow embed = embeds.get(i);
+                        ps.setLong(1, embed.messageId);
+                        ps.setString(2, embed.title);
+                        ps.setString(3, embed.description);
+                        ps.setString(4, embed.url);
+                        if (embed.color != null) ps.setInt(5, embed.color); else ps.setNull(5, Types.INTEGER);
+                        if (embed.timestamp != null) ps.setLong(6, embed.timestamp); else ps.setNull(6, Types.BIGINT);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return embeds.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != embeds.size()) {
+            // Fields cannot be matched to their embeds, so roll back rather than lose them
+            throw new IllegalStateException("Expected " + embeds.size() + " generated embed IDs, got " + keys.size());
+        }
+        List<Object[]> fields = new ArrayList<>();
+        for (int i = 0; i < embeds.size(); i++) {
+            Number embedId = (Number) keys.get(i).values().iterator().next();
+            int position = 0;
+            for (EmbedField field : embeds.get(i).fields) {
+                fields.add(new Object[]{embedId.intValue(), field.name, field.value, field.inline, position++});
+            }
+        }
+
+        if (!fields.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO embed_fields (embed_id, name, value, is_inline, position) VALUES (?, ?, ?, ?, ?)",
+                    fields);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private MessageRow parseMessage(Map<String, Object> data) {
+        MessageRow message = new MessageRow();
+
+        // Messages are keyed by their Discord snowflake, so one must be provided
+        message.id = Snowflake.isValid(data.get("id")) ? Snowflake.parse(data.get("id")) : null;
+        if (message.id == null) {
+            message.error = "Message ID is required";
+            return message;
+        }
+
+        message.channelId = Snowflake.parse(data.get("channelId"));
+        if (message.channelId == null) {
+            message.error = "Channel ID is required";
+            return message;
+        }
+
+        Map<String, Object> author = (Map<String, Object>) data.get("author");
+        message.authorId = author != null ? Snowflake.parse(author.get("id")) : null;
+        if (message.authorId == null) {
+            message.error = "Author ID is required";
+            return message;
+        }
+        // Type-checked here, so a malformed item is rejected alone instead of rolling back the batch
+        message.authorUsername = (String) author.get("username");
+        message.authorDiscriminator = (String) author.get("discriminator");
+        message.authorAvatarUrl = (String) author.get("avatarUrl");
+        message.authorIsBot = (Boolean) author.get("isBot");
+
+        message.guildId = Snowflake.parse(data.get("guildId"));
+
+        String content = (String) data.get("content");
+        message.content = content != null ? content : "";
+
+        Long timestamp = toLong(data.get("timestamp"));
+        message.timestamp = timestamp != null ? timestamp : System.currentTimeMillis();
+        message.editedTimestamp = toLong(data.get("editedTimestamp"));
+
+        Map<String, Object> referencedMessage = (Map<String, Object>) data.get("referencedMessage");
+        if (referencedMessage != null) {
+            message.referencedMessageId = Snowflake.parse(referencedMessage.get("messageId"));
+        }
+
+        List<Map<String, Object>> attachments = (List<Map<String, Object>>) data.get("attachments");
+        if (attachments != null) {
+            for (Map<String, Object> attachment : attachments) {
+                Long attachmentId = Snowflake.parse(attachment.get("id"));
+                if (attachmentId == null) {
+                    logger.warn("Skipping attachment without an ID on message {}", message.id);
+                    continue;
+                }
+                message.attachments.add(new Object[]{attachmentId, message.id, (String) attachment.get("filename"),
+                        (String) attachment.get("url"), (String) attachment.get("contentType"),
+                        toLong(attachment.get("size"))});
+            }
+        }
+
+        List<Map<String, Object>> embeds = (List<Map<String, Object>>) data.get("embeds");
+        if (embeds != null) {
+            for (Map<String, Object> embed : embeds) {
+                EmbedRow row = new EmbedRow();
+                row.messageId = message.id;
+                row.title = (String) embed.get("title");
+                row.description = (String) embed.get("description");
+                row.url = (String) embed.get("url");
+                row.color = toInteger(embed.get("color"));
+                row.timestamp = toLong(embed.get("timestamp"));
+                if (row.title != null) message.embedText.add(row.title);
+                if (row.description != null) message.embedText.add(row.description);
+                List<Map<String, Object>> fields = (List<Map<String, Object>>) embed.get("fields");
+                if (fields != null) {
+                    for (Map<String, Object> field : fields) {
+                        String name = (String) field.get("name");
+                        String value = (String) field.get("value");
+                        Boolean inline = (Boolean) field.get("inline");
+                        if (name != null) message.embedText.add(name);
+                        if (value != null) message.embedText.add(value);
+                        if (name != null && value != null) {
+                            row.fields.add(new EmbedField(name, value, inline != null && inline));
+                        }
+                    }
+                }
+                message.embeds.add(row);
+            }
+        }
+
+        // If this is a DM, the DM user is the author, or the recipient when the bot sent it
+        if (Boolean.TRUE.equals(data.get("isDm"))) {
+            message.dmUserId = message.authorId;
+            if (Boolean.TRUE.equals(data.get("fromBot"))) {
+                Long recipientId = Snowflake.parse(data.get("recipientId"));
+                if (recipientId != null) {
+                    message.dmUserId = recipientId;
+                }
+            }
+        }
+
+        return message;
+    }
+
+    /**
+     * Runs a batch write in one transaction and marks every valid item failed if it rolls back.
+     */
+    private void writeBatch(List<Map<String, Object>> results, List<Integer> valid, String entity, Runnable write) {
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write.run());
+            logger.info("Saved {} {} in one transaction", valid.size(), entity);
+        } catch (Exception e) {
+            logger.error("Error saving {} batch of {} to database", entity, valid.size(), e);
+            for (int index : valid) {
+                Map<String, Object> result = results.get(index);
+                result.put("status", STATUS_FAILED);
+                result.put("error", e.getMessage());
+            }
+        }
+    }
+
+    private static Map<String, Object> success(int index, String id) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("index", index);
+        result.put("id", id);
+        result.put("status", STATUS_SUCCESS);
+        return result;
+    }
+
+    private static Map<String, Object> invalid(int index, String id, String error) {
+        Map<String, Object> result = success(index, id);
+        result.put("status", STATUS_INVALID);
+        result.put("error", error);
+        return result;
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            return Long.parseLong((String) value);
+        }
+        return null;
+    }
+
+    private static Integer toInteger(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            return Integer.parseInt((String) value);
+        }
+        return null;
+    }
+
+    /**
+     * A validated message ready to be written.
+     */
+    private static final class MessageRow {
+        private String error;
+        private int index;
+        private Long id;
+        private Long channelId;
+        private Long guildId;
+        private Long authorId;
+        private String authorUsername;
+        private String authorDiscriminator;
+        private String authorAvatarUrl;
+        private Boolean authorIsBot;
+        private String content;
+        private long timestamp;
+        private Long editedTimestamp;
+        private Long referencedMessageId;
+        private Long dmUserId;
+        private final List<Object[]> attachments = new ArrayList<>();
+        private final List<EmbedRow> embeds = new ArrayList<>();
+        private final StringJoiner embedText = new StringJoiner("\n");
+    }
+
+    /**
+     * An embed waiting for its generated ID.
+     */
+    private static final class EmbedRow {
+        private long messageId;
+        private String title;
+        private String description;
+        private String url;
+        private Integer color;
+        private Long timestamp;
+        private final List<EmbedField> fields = new ArrayList<>();
+    }
+
+    /**
+     * An embed field with a name and value.
+     */
+    private record EmbedField(String name, String value, boolean inline) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.cottonlesergal.ucontrolbot.db;
+
+import com.cottonlesergal.ucontrolbot.config.Config;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the message retention tiers.
+ * Messages older than the hot retention are moved to the archive table,
+ * and archived messages older than the warm retention are deleted.
+ */
+@Component
+public class MessageArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(MessageArchiver.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private Config config;
+
+    @Autowired
+    private DatabaseManager dbManager;
+
+    /**
+     * Runs the retention job.
+     */
+    @Scheduled(fixedRate = 3600000, initialDelay = 300000) // Every hour, starting 5 minutes after boot
+    public void applyRetention() {
+        long now = System.currentTimeMillis();
+
+        try {
+            if (config.getMessageHotDays() > 0) {
+                long cutoffId = Snowflake.lowerBoundAt(now - TimeUnit.DAYS.toMillis(config.getMessageHotDays()));
+                int archived = dbManager.archiveMessagesBefore(cutoffId, BATCH_SIZE);
+                if (archived > 0) {
+                    logger.info("Archived {} messages older than {} days", archived, config.getMessageHotDays());
+                }
+            }
+
+            if (config.getMessageWarmDays() > 0) {
+                long cutoffId = Snowflake.lowerBoundAt(now - TimeUnit.DAYS.toMillis(config.getMessageWarmDays()));
+                int purged = dbManager.purgeArchivedMessagesBefore(cutoffId, BATCH_SIZE);
+                if (purged > 0) {
+                    logger.info("Deleted {} archived messages older than {} days", purged, config.getMessageWarmDays());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error applying message retention", e);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.cottonlesergal.ucontrolbot.db;
+
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-text search over persisted messages.
+ * The persistence handlers only enqueue index updates; a background thread
+ * drains the queue and writes them to the FULLTEXT-indexed message_search
+ * table in batches, so indexing never adds latency to event ingest.
+ * Messages stored before the index existed are backfilled in batches on a
+ * separate thread, which records its progress so a restart resumes it.
+ */
+@Component
+public class MessageSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(MessageSearchIndex.class);
+
+    private static final int MAX_PENDING = 100000;
+    private static final int BATCH_SIZE = 500;
+    private static final int BACKFILL_BATCH_SIZE = 5000;
+    private static final int MAX_RESULTS = 100;
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    // Embed titles, descriptions and field names and values, joined the way DatabaseWriteService indexes them
+    private static final String EMBED_TEXT_SQL =
+            "NULLIF((SELECT GROUP_CONCAT(CONCAT_WS('\\n', e.title, e.description, " +
+                    "(SELECT GROUP_CONCAT(CONCAT_WS('\\n', f.name, f.value) ORDER BY f.position SEPARATOR '\\n') " +
+                    "FROM embed_fields f WHERE f.embed_id = e.id)) ORDER BY e.id SEPARATOR '\\n') " +
+                    "FROM embeds e WHERE e.message_id = m.id), '')";
+
+    private final BlockingQueue<IndexUpdate> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "message-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService backfiller = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "message-search-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong backfilled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // The collapsed batch whose write failed, retried ahead of the queue; guarded by flush()
+    private final List<IndexUpdate> failed = new ArrayList<>();
+    private int failedAttempts;
+
+    private volatile JdbcTemplate jdbcTemplate;
+
+    /**
+     * Starts the background indexer.
+     * Called by the database manager once the tables exist.
+     *
+     * @param jdbcTemplate The template for the bot database
+     */
+    void start(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        backfiller.execute(this::backfill);
+        flusher.scheduleWithFixedDelay(this::flush, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a message to be added to or refreshed in the index.
+     *
+     * @param messageId The message ID
+     * @param channelId The channel ID
+     * @param guildId The guild ID, or null for DMs
+     * @param authorId The author ID
+     * @param content The message content
+     * @param embedText The searchable text of the message's embeds, may be null
+     */
+    public void index(long messageId, long channelId, Long guildId, long authorId, String content, String embedText) {
+        enqueue(new IndexUpdate(messageId, channelId, guildId, authorId, content, embedText, false));
+    }
+
+    /**
+     * Queues a message to be removed from the index.
+     *
+     * @param messageId The message ID
+     */
+    public void remove(long messageId) {
+        enqueue(new IndexUpdate(messageId, 0, null, 0, null, null, true));
+    }
+
+    private void enqueue(IndexUpdate update) {
+        if (!pending.offer(update)) {
+            // Never block ingest; a dropped message is indexed again on its next edit
+            long count = dropped.incrementAndGet();
+            if (count % 1000 == 1) {
+                logger.warn("Search index queue full, {} updates dropped so far", count);
+            }
+        }
+    }
+
+    /**
+     * Writes queued updates to the index table.
+     * Multiple updates for the same message within a batch collapse to the latest one.
+     * A batch that fails is kept and written ahead of newer updates on the next
+     * flush, and only counted as dropped once it has failed {@value #MAX_FLUSH_ATTEMPTS} times.
+     */
+    private synchronized void flush() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+
+        while (true) {
+            List<IndexUpdate> drained = new ArrayList<>(failed);
+            failed.clear();
+            pending.drainTo(drained, BATCH_SIZE - drained.size());
+            if (drained.isEmpty()) {
+                return;
+            }
+
+            Map<Long, IndexUpdate> latest = new LinkedHashMap<>();
+            for (IndexUpdate update : drained) {
+                latest.put(update.messageId, update);
+            }
+
+            try {
+                write(latest.values());
+                indexed.addAndGet(latest.size());
+                failedAttempts = 0;
+            } catch (Exception e) {
+                if (++failedAttempts < MAX_FLUSH_ATTEMPTS) {
+                    failed.addAll(latest.values());
+                    logger.warn("Error flushing search index, retrying {} updates on the next flush", latest.size(), e);
+                } else {
+                    dropped.addAndGet(latest.size());
+                    failedAttempts = 0;
+                    logger.error("Error flushing search index, dropped {} updates after {} attempts",
+                            latest.size(), MAX_FLUSH_ATTEMPTS, e);
+                }
+                // The rest of the queue stays pending until the next flush
+                return;
+            }
+        }
+    }
+
+    private void write(Collection<IndexUpdate> updates) {
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (IndexUpdate update : updates) {
+            if (update.delete) {
+                deletes.add(new Object[]{update.messageId});
+            } else {
+                upserts.add(new Object[]{update.messageId, update.channelId, update.guildId,
+                        update.authorId, update.content, update.embedText});
+            }
+        }
+
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO message_search (message_id, channel_id, guild_id, author_id, content, embed_text) " +
+                            "VALUES (?, ?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE content = VALUES(content), embed_text = VALUES(embed_text), " +
+                            "guild_id = COALESCE(VALUES(guild_id), guild_id)",
+                    upserts);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM message_search WHERE message_id = ?", deletes);
+        }
+    }
+
+    /**
+     * Populates the index from stored messages, resuming from the last batch
+     * recorded in message_search_backfill. Entries written by live indexing are
+     * newer and kept; only their missing embed text is filled in.
+     */
+    private void backfill() {
+        try {
+            int total = backfill("messages") + backfill("messages_archive");
+            if (total > 0) {
+                logger.info("Backfilled search index with {} messages", total);
+            }
+        } catch (Exception e) {
+            logger.error("Error backfilling search index, resuming on next start", e);
+        }
+    }
+
+    private int backfill(String table) {
+        List<Map<String, Object>> state = jdbcTemplate.queryForList(
+                "SELECT last_id, complete FROM message_search_backfill WHERE source = ?", table);
+        if (!state.isEmpty() && Boolean.TRUE.equals(toBoolean(state.get(0).get("complete")))) {
+            return 0;
+        }
+        long lastId = state.isEmpty() ? 0 : ((Number) state.get(0).get("last_id")).longValue();
+        if (lastId > 0) {
+            logger.info("Resuming search index backfill of {} after message {}", table, lastId);
+        }
+
+        int total = 0;
+        while (!backfiller.isShutdown()) {
+            Long upper = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM (SELECT id FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?) batch",
+                    Long.class, lastId, BACKFILL_BATCH_SIZE);
+            if (upper == null) {
+                saveBackfillState(table, lastId, true);
+                return total;
+            }
+
+            int count = "messages".equals(table)
+                    ? backfillHotBatch(lastId, upper)
+                    : backfillArchiveBatch(lastId, upper);
+            total += count;
+            backfilled.addAndGet(count);
+            lastId = upper;
+            saveBackfillState(table, lastId, false);
+        }
+        return total;
+    }
+
+    private int backfillHotBatch(long afterId, long upperId) {
+        return jdbcTemplate.update(
+                "INSERT INTO message_search (message_id, channel_id, guild_id, author_id, content, embed_text) " +
+                        "SELECT m.id, m.channel_id, c.guild_id, m.author_id, m.content, " + EMBED_TEXT_SQL + " " +
+                        "FROM messages m LEFT JOIN channels c ON m.channel_id = c.id WHERE m.id > ? AND m.id <= ? " +
+                        "ON DUPLICATE KEY UPDATE embed_text = COALESCE(embed_text, VALUES(embed_text))",
+                afterId, upperId);
+    }
+
+    /**
+     * Archived embeds are stored as JSON, so their text is extracted here rather than in SQL.
+     */
+    private int backfillArchiveBatch(long afterId, long upperId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT m.id, m.channel_id, c.guild_id, m.author_id, m.content, m.embeds FROM messages_archive m " +
+                        "LEFT JOIN channels c ON m.channel_id = c.id WHERE m.id > ? AND m.id <= ?",
+                afterId, upperId);
+        List<Object[]> inserts = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            inserts.add(new Object[]{row.get("id"), row.get("channel_id"), row.get("guild_id"),
+                    row.get("author_id"), row.get("content"), archivedEmbedText((String) row.get("embeds"))});
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO message_search (message_id, channel_id, guild_id, author_id, content, embed_text) " +
+                            "VALUES (?, ?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE embed_text = COALESCE(embed_text, VALUES(embed_text))",
+                    inserts);
+        }
+        return inserts.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String archivedEmbedText(String embedsJson) {
+        if (embedsJson == null) {
+            return null;
+        }
+        StringJoiner text = new StringJoiner("\n");
+        List<Map<String, Object>> embeds = JsonCodec.shared().fromJson(embedsJson, List.class);
+        for (Map<String, Object> embed : embeds) {
+            if (embed.get("title") != null) text.add((String) embed.get("title"));
+            if (embed.get("description") != null) text.add((String) embed.get("description"));
+            if (embed.get("fields") instanceof List<?> fields) {
+                for (Object field : fields) {
+                    Map<String, Object> f = (Map<String, Object>) field;
+                    if (f.get("name") != null) text.add((String) f.get("name"));
+                    if (f.get("value") != null) text.add((String) f.get("value"));
+                }
+            }
+        }
+        return text.length() > 0 ? text.toString() : null;
+    }
+
+    private void saveBackfillState(String table, long lastId, boolean complete) {
+        jdbcTemplate.update(
+                "INSERT INTO message_search_backfill (source, last_id, complete) VALUES (?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE last_id = VALUES(last_id), complete = VALUES(complete)",
+                table, lastId, complete);
+    }
+
+    private static Boolean toBoolean(Object value) {
+        return value instanceof Number number ? number.intValue() != 0 : (Boolean) value;
+    }
+
+    /**
+     * Removes index entries for messages older than the cutoff.
+     *
+     * @param cutoffId Entries with a message snowflake below this ID are removed
+     * @param batchSize Maximum number of rows deleted per statement
+     */
+    void purgeBefore(long cutoffId, int batchSize) {
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM message_search WHERE message_id < ? ORDER BY message_id LIMIT ?",
+                    cutoffId, batchSize);
+        } while (deleted == batchSize);
+    }
+
+    /**
+     * Searches indexed messages, newest first.
+     *
+     * @param query The search text; every word must match
+     * @param channelId Optional channel filter
+     * @param guildId Optional guild filter
+     * @param authorId Optional author filter
+     * @param after Optional lower bound on message time in epoch milliseconds
+     * @param before Optional upper bound on message time in epoch milliseconds
+     * @param cursor Optional message ID returned as nextCursor by the previous page
+     * @param limit Maximum number of results
+     * @return The results and the cursor for the next page, which is null on the last page
+     */
+    public Map<String, Object> search(String query, String channelId, String guildId, String authorId,
+                                      Long after, Long before, String cursor, int limit) {
+        String booleanQuery = toBooleanQuery(query);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_RESULTS);
+
+        Map<String, Object> result = new HashMap<>();
+        if (booleanQuery.isEmpty()) {
+            result.put("results", new ArrayList<>());
+            result.put("nextCursor", null);
+            return result;
+        }
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT s.message_id, s.channel_id, s.guild_id, s.author_id, s.content, u.username, u.avatar_url " +
+                        "FROM message_search s LEFT JOIN users u ON s.author_id = u.id " +
+                        "WHERE MATCH(s.content, s.embed_text) AGAINST (? IN BOOLEAN MODE)");
+        List<Object> params = new ArrayList<>();
+        params.add(booleanQuery);
+
+        if (channelId != null) {
+            sql.append(" AND s.channel_id = ?");
+            params.add(Snowflake.parse(channelId));
+        }
+        if (guildId != null) {
+            sql.append(" AND s.guild_id = ?");
+            params.add(Snowflake.parse(guildId));
+        }
+        if (authorId != null) {
+            sql.append(" AND s.author_id = ?");
+            params.add(Snowflake.parse(authorId));
+        }
+        if (after != null) {
+            sql.append(" AND s.message_id >= ?");
+            params.add(Snowflake.lowerBoundAt(after));
+        }
+        if (before != null) {
+            sql.append(" AND s.message_id < ?");
+            params.add(Snowflake.lowerBoundAt(before));
+        }
+        if (cursor != null) {
+            sql.append(" AND s.message_id < ?");
+            params.add(Snowflake.parse(cursor));
+        }
+        sql.append(" ORDER BY s.message_id DESC LIMIT ?");
+        params.add(pageSize + 1);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql.toString(), params.toArray());
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map<String, Object> row : rows.subList(0, Math.min(rows.size(), pageSize))) {
+            Map<String, Object> message = new HashMap<>();
+            long messageId = ((Number) row.get("message_id")).longValue();
+            message.put("id", Snowflake.format(row.get("message_id")));
+            message.put("channelId", Snowflake.format(row.get("channel_id")));
+            message.put("guildId", Snowflake.format(row.get("guild_id")));
+            message.put("content", row.get("content"));
+            message.put("timestamp", Snowflake.timestampOf(messageId));
+
+            Map<String, Object> author = new HashMap<>();
+            author.put("id", Snowflake.format(row.get("author_id")));
+            author.put("username", row.get("username"));
+            author.put("avatarUrl", row.get("avatar_url"));
+            message.put("author", author);
+            results.add(message);
+        }
+
+        result.put("results", results);
+        result.put("nextCursor", rows.size() > pageSize ? results.get(results.size() - 1).get("id") : null);
+        return result;
+    }
+
+    /**
+     * Converts free text into a boolean-mode query that requires every word.
+     * Operator characters are stripped so user input cannot change the query structure.
+     */
+    private static String toBooleanQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+
+        StringJoiner terms = new StringJoiner(" ");
+        for (String word : query.trim().split("\\s+")) {
+            String term = word.replaceAll("[+\\-<>()~*\"@]", "");
+            if (!term.isEmpty()) {
+                terms.add("+" + term);
+            }
+        }
+        return terms.toString();
+    }
+
+    /**
+     * Gets indexer counters.
+     *
+     * @return Pending, indexed, dropped and backfilled counts
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "pending", pending.size(),
+                "indexed", indexed.get(),
+                "dropped", dropped.get(),
+                "backfilled", backfilled.get()
+        );
+    }
+
+    /**
+     * Flushes remaining updates and stops the indexer.
+     */
+    @PreDestroy
+    public void shutdown() {
+        backfiller.shutdownNow();
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * A queued change to the index.
+     */
+    private static final class IndexUpdate {
+        private final long messageId;
+        private final long channelId;
+        private final Long guildId;
+        private final long authorId;
+        private final String content;
+        private final String embedText;
+        private final boolean delete;
+
+        private IndexUpdate(long messageId, long channelId, Long guildId, long authorId,
+                            String content, String embedText, boolean delete) {
+            this.messageId = messageId;
+            this.channelId = channelId;
+            this.guildId = guildId;
+            this.authorId = authorId;
+            this.content = content;
+            this.embedText = embedText;
+            this.delete = delete;
+        }
+    }
+}
@@ -2,10 +2,16 @@ package com.cottonlesergal.ucontrolbot.listeners;
 
 import com.cottonlesergal.ucontrolbot.Bot;
 import com.cottonlesergal.ucontrolbot.api.WebServer;
+import com.cottonlesergal.ucontrolbot.cache.GuildMemberIndex;
+import com.cottonlesergal.ucontrolbot.cache.GuildViewCache;
+import com.cottonlesergal.ucontrolbot.cache.PayloadFragmentCache;
+import com.cottonlesergal.ucontrolbot.cache.UserDirectory;
+import com.cottonlesergal.ucontrolbot.cache.UserProfileCache;
 import com.cottonlesergal.ucontrolbot.config.Config;
-import com.cottonlesergal.ucontrolbot.models.DiscordUser;
+import com.cottonlesergal.ucontrolbot.models.dto.MemberDTO;
+import com.cottonlesergal.ucontrolbot.models.dto.UserDTO;
 import jakarta.annotation.PostConstruct;
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
@@ -13,6 +19,7 @@ import net.dv8tion.jda.api.entities.channel.Channel;
 import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
 import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
 import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.GenericChannelUpdateEvent;
 import net.dv8tion.jda.api.events.channel.update.ChannelUpdateNameEvent;
 import net.dv8tion.jda.api.events.emoji.EmojiAddedEvent;
 import net.dv8tion.jda.api.events.emoji.EmojiRemovedEvent;
@@ -26,9 +33,11 @@ import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
 import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateNicknameEvent;
+import net.dv8tion.jda.api.events.guild.update.GenericGuildUpdateEvent;
 import net.dv8tion.jda.api.events.guild.update.GuildUpdateNameEvent;
 import net.dv8tion.jda.api.events.role.RoleCreateEvent;
 import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.GenericRoleUpdateEvent;
 import net.dv8tion.jda.api.events.role.update.RoleUpdateNameEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.Logger;
@@ -50,7 +59,7 @@ public class GuildListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(GuildListener.class);
 
     @Autowired
-    private JDA jda;
+    private DiscordRuntime discord;
 
     @Autowired
     private WebServer webServer;
@@ -58,13 +67,28 @@ public class GuildListener extends ListenerAdapter {
     @Autowired
     private Config config;
 
+    @Autowired
+    private GuildMemberIndex memberIndex;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private GuildViewCache viewCache;
+
+    @Autowired
+    private UserProfileCache profileCache;
+
+    @Autowired
+    private PayloadFragmentCache fragmentCache;
+
     public GuildListener() {
         logger.info("GuildListener created");
     }
 
     @PostConstruct
     public void registerListener() {
-        jda.addEventListener(this);
+        discord.addEventListener(this);
         logger.info("GuildListener registered with JDA");
     }
 
@@ -72,6 +96,8 @@ public class GuildListener extends ListenerAdapter {
     public void onGuildReady(GuildReadyEvent event) {
         Guild guild = event.getGuild();
         logger.info("Guild ready: {} (ID: {})", guild.getName(), guild.getId());
+        // Guilds load after startup, so the guild list grows until every shard is ready
+        viewCache.invalidateGuilds();
 
         // Broadcast guild ready event
         broadcastGuildEvent("GUILD_READY", guild);
@@ -81,6 +107,8 @@ public class GuildListener extends ListenerAdapter {
     public void onGuildJoin(GuildJoinEvent event) {
         Guild guild = event.getGuild();
         logger.info("Joined guild: {} (ID: {})", guild.getName(), guild.getId());
+        userDirectory.addGuild(guild);
+        viewCache.invalidateGuilds();
 
         // Broadcast guild join event
         broadcastGuildEvent("GUILD_JOIN", guild);
@@ -92,6 +120,10 @@ public class GuildListener extends ListenerAdapter {
     public void onGuildLeave(GuildLeaveEvent event) {
         Guild guild = event.getGuild();
         logger.info("Left guild: {} (ID: {})", guild.getName(), guild.getId());
+        memberIndex.removeGuild(guild.getIdLong());
+        userDirectory.invalidate();
+        viewCache.invalidateGuild(guild.getIdLong());
+        fragmentCache.invalidateGuild(guild.getIdLong());
 
         // Broadcast guild leave event
         Map<String, Object> data = new HashMap<>();
@@ -101,6 +133,12 @@ public class GuildListener extends ListenerAdapter {
         broadcastEvent("GUILD_LEAVE", data);
     }
 
+    @Override
+    public void onGenericGuildUpdate(GenericGuildUpdateEvent event) {
+        // Any guild property change can alter the cached guild list
+        viewCache.invalidateGuilds();
+    }
+
     @Override
     public void onGuildUpdateName(GuildUpdateNameEvent event) {
         Guild guild = event.getGuild();
@@ -163,12 +201,15 @@ public class GuildListener extends ListenerAdapter {
 
         logger.info("Member joined: {} (ID: {}) in guild: {} (ID: {})",
                 member.getUser().getName(), member.getId(), guild.getName(), guild.getId());
+        memberIndex.update(member);
+        userDirectory.update(member.getUser());
+        viewCache.invalidateGuilds();
 
         // Broadcast member join event
         Map<String, Object> data = new HashMap<>();
         data.put("guildId", guild.getId());
         data.put("guildName", guild.getName());
-        data.put("member", DiscordUser.fromJdaMember(member).getUserData());
+        data.put("member", MemberDTO.from(member, profileCache.enrich(UserDTO.from(member.getUser()), member.getUser())));
         data.put("joinTime", member.getTimeJoined().toInstant().toEpochMilli());
 
         broadcastEvent("GUILD_MEMBER_JOIN", data);
@@ -182,6 +223,10 @@ public class GuildListener extends ListenerAdapter {
 
         logger.info("Member left: {} (ID: {}) from guild: {} (ID: {})",
                 userName, userId, guild.getName(), guild.getId());
+        memberIndex.remove(guild.getIdLong(), event.getUser().getIdLong());
+        fragmentCache.invalidateMember(guild.getIdLong(), event.getUser().getIdLong());
+        userDirectory.removeIfUnreachable(event.getUser());
+        viewCache.invalidateGuilds();
 
         // Broadcast member leave event
         Map<String, Object> data = new HashMap<>();
@@ -203,6 +248,8 @@ public class GuildListener extends ListenerAdapter {
         logger.info("Member nickname updated: {} -> {} for user: {} (ID: {}) in guild: {} (ID: {})",
                 oldNickname, newNickname, member.getUser().getName(), member.getId(),
                 guild.getName(), guild.getId());
+        memberIndex.update(member);
+        fragmentCache.invalidateMember(guild.getIdLong(), member.getIdLong());
 
         // Broadcast member update event
         Map<String, Object> data = new HashMap<>();
@@ -225,6 +272,7 @@ public class GuildListener extends ListenerAdapter {
         logger.info("Roles added to member: {} (ID: {}) in guild: {} (ID: {}): {}",
                 member.getUser().getName(), member.getId(), guild.getName(), guild.getId(),
                 roles.stream().map(Role::getName).collect(Collectors.joining(", ")));
+        fragmentCache.invalidateMember(guild.getIdLong(), member.getIdLong());
 
         // Broadcast member role update event
         Map<String, Object> data = new HashMap<>();
@@ -254,6 +302,7 @@ public class GuildListener extends ListenerAdapter {
         logger.info("Roles removed from member: {} (ID: {}) in guild: {} (ID: {}): {}",
                 member.getUser().getName(), member.getId(), guild.getName(), guild.getId(),
                 roles.stream().map(Role::getName).collect(Collectors.joining(", ")));
+        fragmentCache.invalidateMember(guild.getIdLong(), member.getIdLong());
 
         // Broadcast member role update event
         Map<String, Object> data = new HashMap<>();
@@ -281,6 +330,7 @@ public class GuildListener extends ListenerAdapter {
 
         logger.info("Role created: {} (ID: {}) in guild: {} (ID: {})",
                 role.getName(), role.getId(), guild.getName(), guild.getId());
+        viewCache.invalidateRoles(guild.getIdLong());
 
         // Broadcast role create event
         Map<String, Object> data = new HashMap<>();
@@ -301,6 +351,8 @@ public class GuildListener extends ListenerAdapter {
 
         logger.info("Role deleted: {} (ID: {}) in guild: {} (ID: {})",
                 role.getName(), role.getId(), guild.getName(), guild.getId());
+        viewCache.invalidateRoles(guild.getIdLong());
+        fragmentCache.invalidateGuild(guild.getIdLong());
 
         // Broadcast role delete event
         Map<String, Object> data = new HashMap<>();
@@ -312,6 +364,14 @@ public class GuildListener extends ListenerAdapter {
         broadcastEvent("ROLE_DELETE", data);
     }
 
+    @Override
+    public void onGenericRoleUpdate(GenericRoleUpdateEvent event) {
+        // Name, color, position, permission and other role changes all alter the cached role view
+        // and the role lists in cached member fragments
+        viewCache.invalidateRoles(event.getGuild().getIdLong());
+        fragmentCache.invalidateGuild(event.getGuild().getIdLong());
+    }
+
     @Override
     public void onRoleUpdateName(RoleUpdateNameEvent event) {
         Guild guild = event.getGuild();
@@ -344,6 +404,7 @@ public class GuildListener extends ListenerAdapter {
 
         logger.info("Channel created: {} (ID: {}) in guild: {} (ID: {})",
                 channel.getName(), channel.getId(), guild.getName(), guild.getId());
+        viewCache.invalidateChannels(guild.getIdLong());
 
         // Broadcast channel create event
         Map<String, Object> data = new HashMap<>();
@@ -367,6 +428,7 @@ public class GuildListener extends ListenerAdapter {
 
         logger.info("Channel deleted: {} (ID: {}) in guild: {} (ID: {})",
                 channel.getName(), channel.getId(), guild.getName(), guild.getId());
+        viewCache.invalidateChannels(guild.getIdLong());
 
         // Broadcast channel delete event
         Map<String, Object> data = new HashMap<>();
@@ -379,6 +441,14 @@ public class GuildListener extends ListenerAdapter {
         broadcastEvent("CHANNEL_DELETE", data);
     }
 
+    @Override
+    public void onGenericChannelUpdate(GenericChannelUpdateEvent<?> event) {
+        // Name, topic, position, parent and other channel changes all alter the cached channel view
+        if (event.isFromGuild()) {
+            viewCache.invalidateChannels(event.getGuild().getIdLong());
+        }
+    }
+
     @Override
     public void onChannelUpdateName(ChannelUpdateNameEvent event) {
         if (!event.isFromGuild()) {
@@ -2,13 +2,15 @@ package com.cottonlesergal.ucontrolbot.listeners;
 
 import com.cottonlesergal.ucontrolbot.Bot;
 import com.cottonlesergal.ucontrolbot.api.WebServer;
+import com.cottonlesergal.ucontrolbot.cache.DmChannelResolver;
+import com.cottonlesergal.ucontrolbot.cache.PayloadFragmentCache;
 import com.cottonlesergal.ucontrolbot.config.Config;
-import com.cottonlesergal.ucontrolbot.models.DiscordUser;
 import jakarta.annotation.PostConstruct;
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
 import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
@@ -32,7 +34,7 @@ public class MessageListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(MessageListener.class);
 
     @Autowired
-    private JDA jda;
+    private DiscordRuntime discord;
 
     @Autowired
     private WebServer webServer;
@@ -40,6 +42,12 @@ public class MessageListener extends ListenerAdapter {
     @Autowired
     private Config config;
 
+    @Autowired
+    private DmChannelResolver dmChannelResolver;
+
+    @Autowired
+    private PayloadFragmentCache fragmentCache;
+
     private final long startTime = System.currentTimeMillis();
 
     public MessageListener() {
@@ -48,7 +56,7 @@ public class MessageListener extends ListenerAdapter {
 
     @PostConstruct
     public void registerListener() {
-        jda.addEventListener(this);
+        discord.addEventListener(this);
         logger.info("MessageListener registered with JDA");
     }
 
@@ -63,6 +71,7 @@ public class MessageListener extends ListenerAdapter {
             // Log message
             if (event.isFromType(ChannelType.PRIVATE)) {
                 logger.info("DM from {}: {}", event.getAuthor().getName(), event.getMessage().getContentDisplay());
+                dmChannelResolver.remember(event.getChannel().asPrivateChannel());
             } else {
                 logger.info("Message from {}#{} in {}/{}: {}",
                         event.getAuthor().getName(),
@@ -131,6 +140,24 @@ public class MessageListener extends ListenerAdapter {
         }
     }
 
+    @Override
+    public void onMessageBulkDelete(MessageBulkDeleteEvent event) {
+        try {
+            // Discord reports bulk deletes as one event; fan it out so clients and storage see each message
+            for (String messageId : event.getMessageIds()) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("messageId", messageId);
+                data.put("channelId", event.getChannel().getId());
+                data.put("guildId", event.getGuild().getId());
+                data.put("guildName", event.getGuild().getName());
+
+                broadcastEvent("MESSAGE_DELETE", data);
+            }
+        } catch (Exception e) {
+            logger.error("Error processing message bulk delete", e);
+        }
+    }
+
     @Override
     public void onMessageReactionAdd(MessageReactionAddEvent event) {
         try {
@@ -235,7 +262,7 @@ public class MessageListener extends ListenerAdapter {
      * @param event The message event
      */
     private void handlePingCommand(MessageReceivedEvent event) {
-        long gatewayPing = jda.getGatewayPing();
+        long gatewayPing = event.getJDA().getGatewayPing();
         event.getChannel().sendMessage("Pong! Gateway ping: " + gatewayPing + "ms").queue(message -> {
             long apiPing = System.currentTimeMillis() - event.getMessage().getTimeCreated().toInstant().toEpochMilli();
             message.editMessage("Pong! Gateway ping: " + gatewayPing + "ms | API ping: " + apiPing + "ms").queue();
@@ -265,9 +292,9 @@ public class MessageListener extends ListenerAdapter {
      */
     private void handleInfoCommand(MessageReceivedEvent event) {
         StringBuilder info = new StringBuilder("**Bot Information:**\n");
-        info.append("Name: ").append(jda.getSelfUser().getName()).append("\n");
-        info.append("Guilds: ").append(jda.getGuilds().size()).append("\n");
-        info.append("Users: ").append(jda.getUserCache().size()).append("\n");
+        info.append("Name: ").append(discord.getSelfUser().getName()).append("\n");
+        info.append("Guilds: ").append(discord.getGuilds().size()).append("\n");
+        info.append("Users: ").append(discord.getUserCache().size()).append("\n");
         info.append("Web Interface: ").append(config.getApiBaseUrl()).append("\n");
         info.append("Uptime: ").append(getUptime()).append("\n");
 
@@ -305,8 +332,7 @@ public class MessageListener extends ListenerAdapter {
 
         // Add author information
         User author = message.getAuthor();
-        DiscordUser user = DiscordUser.fromJdaUser(author);
-        messageData.put("author", user.getUserData());
+        messageData.put("author", fragmentCache.author(author));
 
         // Add guild information if applicable
         if (message.isFromGuild()) {
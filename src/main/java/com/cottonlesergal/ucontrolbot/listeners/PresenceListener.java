@@ -2,7 +2,7 @@ package com.cottonlesergal.ucontrolbot.listeners;
 
 import com.cottonlesergal.ucontrolbot.api.WebServer;
 import jakarta.annotation.PostConstruct;
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
@@ -38,7 +38,7 @@ public class PresenceListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(PresenceListener.class);
 
     @Autowired
-    private JDA jda;
+    private DiscordRuntime discord;
 
     @Autowired
     private WebServer webServer;
@@ -55,7 +55,7 @@ public class PresenceListener extends ListenerAdapter {
 
     @PostConstruct
     public void registerListener() {
-        jda.addEventListener(this);
+        discord.addEventListener(this);
         logger.info("PresenceListener registered with JDA");
     }
 
@@ -79,7 +79,7 @@ public class PresenceListener extends ListenerAdapter {
         lastKnownStatuses.clear();
 
         // Add all guild members to tracked users
-        for (Guild guild : jda.getGuilds()) {
+        for (Guild guild : discord.getGuilds()) {
             for (Member member : guild.getMembers()) {
                 User user = member.getUser();
                 trackedUsers.put(user.getId(), user);
@@ -219,7 +219,7 @@ public class PresenceListener extends ListenerAdapter {
         List<String> updatedUsers = new ArrayList<>();
 
         // Check status for each guild member
-        for (Guild guild : jda.getGuilds()) {
+        for (Guild guild : discord.getGuilds()) {
             for (Member member : guild.getMembers()) {
                 User user = member.getUser();
                 String userId = user.getId();
@@ -0,0 +1,104 @@
+package com.cottonlesergal.ucontrolbot.listeners;
+
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
+import jakarta.annotation.PostConstruct;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gateway metrics per shard: events received, the event rate over the last
+ * sampling interval, and the heartbeat latency and connection status of each shard.
+ * An unsharded bot reports a single shard 0.
+ */
+@Component
+public class ShardMetrics implements EventListener {
+    private static final Logger logger = LoggerFactory.getLogger(ShardMetrics.class);
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 10_000;
+
+    @Autowired
+    private DiscordRuntime discord;
+
+    private final ConcurrentMap<Integer, ShardCounter> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerListener() {
+        discord.addEventListener(this);
+        logger.info("ShardMetrics registered with {} shard(s)", discord.getShardsTotal());
+    }
+
+    @Override
+    public void onEvent(GenericEvent event) {
+        counters.computeIfAbsent(event.getJDA().getShardInfo().getShardId(), id -> new ShardCounter())
+                .events.increment();
+    }
+
+    /**
+     * Samples the event rate of every shard.
+     */
+    @Scheduled(fixedRate = SAMPLE_INTERVAL_MILLIS)
+    public void sampleRates() {
+        counters.values().forEach(ShardCounter::sample);
+    }
+
+    /**
+     * Gets gateway statistics per shard.
+     *
+     * @return Shard count, average ping and a list of per-shard status, ping, guild count and event counters
+     */
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> shards = new ArrayList<>();
+        for (JDA shard : discord.getShards()) {
+            int shardId = shard.getShardInfo().getShardId();
+            Map<String, Object> shardStats = new HashMap<>();
+            shardStats.put("id", shardId);
+            shardStats.put("status", shard.getStatus().name());
+            shardStats.put("gatewayPingMillis", shard.getGatewayPing());
+            shardStats.put("guilds", shard.getGuildCache().size());
+            ShardCounter counter = counters.get(shardId);
+            shardStats.put("events", counter != null ? counter.events.sum() : 0);
+            shardStats.put("eventsPerSecond", counter != null ? counter.rate : 0.0);
+            shards.add(shardStats);
+        }
+        shards.sort((a, b) -> Integer.compare((int) a.get("id"), (int) b.get("id")));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sharded", discord.isSharded());
+        stats.put("shardsTotal", discord.getShardsTotal());
+        stats.put("averageGatewayPingMillis", discord.getGatewayPing());
+        stats.put("shards", shards);
+        return stats;
+    }
+
+    private static final class ShardCounter {
+        private final LongAdder events = new LongAdder();
+        private long lastCount;
+        private long lastSampleMillis = System.currentTimeMillis();
+        private volatile double rate;
+
+        synchronized void sample() {
+            long now = System.currentTimeMillis();
+            long count = events.sum();
+            long elapsed = now - lastSampleMillis;
+            if (elapsed > 0) {
+                rate = (count - lastCount) * 1000.0 / elapsed;
+            }
+            lastCount = count;
+            lastSampleMillis = now;
+        }
+    }
+}
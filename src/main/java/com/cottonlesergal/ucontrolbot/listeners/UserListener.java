@@ -2,8 +2,11 @@ package com.cottonlesergal.ucontrolbot.listeners;
 
 import com.cottonlesergal.ucontrolbot.Bot;
 import com.cottonlesergal.ucontrolbot.api.WebServer;
+import com.cottonlesergal.ucontrolbot.cache.GuildMemberIndex;
+import com.cottonlesergal.ucontrolbot.cache.PayloadFragmentCache;
+import com.cottonlesergal.ucontrolbot.cache.UserDirectory;
 import jakarta.annotation.PostConstruct;
-import net.dv8tion.jda.api.JDA;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.user.UserActivityEndEvent;
@@ -11,6 +14,7 @@ import net.dv8tion.jda.api.events.user.UserActivityStartEvent;
 import net.dv8tion.jda.api.events.user.UserTypingEvent;
 import net.dv8tion.jda.api.events.user.update.UserUpdateAvatarEvent;
 import net.dv8tion.jda.api.events.user.update.UserUpdateDiscriminatorEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateGlobalNameEvent;
 import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
 import net.dv8tion.jda.api.events.user.update.UserUpdateOnlineStatusEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
@@ -31,18 +35,27 @@ public class UserListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(UserListener.class);
 
     @Autowired
-    private JDA jda;
+    private DiscordRuntime discord;
 
     @Autowired
     private WebServer webServer;
 
+    @Autowired
+    private GuildMemberIndex memberIndex;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private PayloadFragmentCache fragmentCache;
+
     public UserListener() {
         logger.info("UserListener created");
     }
 
     @PostConstruct
     public void registerListener() {
-        jda.addEventListener(this);
+        discord.addEventListener(this);
         logger.info("UserListener registered with JDA");
     }
 
@@ -53,6 +66,9 @@ public class UserListener extends ListenerAdapter {
         String newName = event.getNewName();
 
         logger.info("User name updated: {} -> {} (ID: {})", oldName, newName, user.getId());
+        memberIndex.updateUser(user);
+        userDirectory.update(user);
+        fragmentCache.invalidateUser(user.getIdLong());
 
         // Broadcast user update event
         Map<String, Object> data = new HashMap<>();
@@ -63,6 +79,14 @@ public class UserListener extends ListenerAdapter {
         broadcastEvent("USER_UPDATE_NAME", data);
     }
 
+    @Override
+    public void onUserUpdateGlobalName(UserUpdateGlobalNameEvent event) {
+        // Global names are searchable in the member index and user directory
+        memberIndex.updateUser(event.getUser());
+        userDirectory.update(event.getUser());
+        fragmentCache.invalidateUser(event.getUser().getIdLong());
+    }
+
     @Override
     public void onUserUpdateDiscriminator(UserUpdateDiscriminatorEvent event) {
         User user = event.getUser();
@@ -71,6 +95,7 @@ public class UserListener extends ListenerAdapter {
 
         logger.info("User discriminator updated: {} -> {} for user: {} (ID: {})",
                 oldDiscriminator, newDiscriminator, user.getName(), user.getId());
+        fragmentCache.invalidateUser(user.getIdLong());
 
         // Broadcast user update event
         Map<String, Object> data = new HashMap<>();
@@ -89,6 +114,7 @@ public class UserListener extends ListenerAdapter {
         String newAvatarId = event.getNewAvatarId();
 
         logger.info("User avatar updated for user: {} (ID: {})", user.getName(), user.getId());
+        fragmentCache.invalidateUser(user.getIdLong());
 
         // Broadcast user update event
         Map<String, Object> data = new HashMap<>();
@@ -108,6 +134,7 @@ public class UserListener extends ListenerAdapter {
 
         String oldStatus = event.getOldOnlineStatus().name().toLowerCase();
         String newStatus = event.getNewOnlineStatus().name().toLowerCase();
+        userDirectory.updateStatus(user);
 
         // Log status change
         if (member != null) {
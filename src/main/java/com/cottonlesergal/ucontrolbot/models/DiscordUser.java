@@ -1,7 +1,6 @@
 package com.cottonlesergal.ucontrolbot.models;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.Member;
@@ -10,6 +9,7 @@ import net.dv8tion.jda.api.entities.Guild;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A unified model for Discord User data that can be used
@@ -36,9 +36,6 @@ public class DiscordUser {
     // The actual data storage
     private Map<String, Object> userData;
 
-    // For JSON serialization/deserialization
-    private static final Gson gson = new GsonBuilder().serializeNulls().create();
-
     // JDA reference for fetching data
     private transient JDA jda;
 
@@ -137,87 +134,106 @@ public class DiscordUser {
     }
 
     /**
-     * Fetches user information from Discord API
+     * Fetches user information from Discord API.
+     * Blocks until Discord responds if the user is not cached.
      *
      * @param userId Discord user ID
      * @return This instance with updated data
+     * @deprecated Use {@link #fetchInfoAsync(String)}, which does not block the calling thread
      */
+    @Deprecated
     public DiscordUser fetchInfo(String userId) {
-        if (jda == null) {
-            throw new IllegalStateException("JDA instance not set. Cannot fetch user info.");
-        }
-
-        User jdaUser = jda.getUserById(userId);
-        if (jdaUser == null) {
-            // Try retrieving from REST API if not cached
-            try {
-                jdaUser = jda.retrieveUserById(userId).complete();
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to fetch user with ID: " + userId, e);
-            }
-        }
-
-        if (jdaUser != null) {
-            populateFromJdaUser(jdaUser);
+        try {
+            return fetchInfoAsync(userId).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to fetch user with ID: " + userId, e.getCause());
         }
-
-        return this;
     }
 
     /**
-     * Fetches user information asynchronously
+     * Fetches user information asynchronously.
+     * Cached users complete immediately; others are requested from Discord.
      *
      * @param userId Discord user ID
      * @return CompletableFuture that resolves to this instance with updated data
      */
     public CompletableFuture<DiscordUser> fetchInfoAsync(String userId) {
         if (jda == null) {
-            CompletableFuture<DiscordUser> future = new CompletableFuture<>();
-            future.completeExceptionally(new IllegalStateException("JDA instance not set. Cannot fetch user info."));
-            return future;
+            return CompletableFuture.failedFuture(new IllegalStateException("JDA instance not set. Cannot fetch user info."));
         }
 
-        return jda.retrieveUserById(userId).submit()
-                .thenApply(jdaUser -> {
-                    populateFromJdaUser(jdaUser);
-                    return this;
-                });
+        User cached = jda.getUserById(userId);
+        CompletableFuture<User> jdaUser = cached != null
+                ? CompletableFuture.completedFuture(cached)
+                : jda.retrieveUserById(userId).submit();
+        return jdaUser.thenApply(user -> {
+            populateFromJdaUser(user);
+            return this;
+        });
     }
 
     /**
-     * Fetches guild member information
+     * Fetches guild member information.
+     * Blocks until Discord responds if the user or member is not cached.
      *
      * @param userId Discord user ID
      * @param guildId Discord guild ID
      * @return This instance with updated data
+     * @deprecated Use {@link #fetchMemberInfoAsync(String, String)}, which does not block the calling thread
      */
+    @Deprecated
     public DiscordUser fetchMemberInfo(String userId, String guildId) {
+        try {
+            return fetchMemberInfoAsync(userId, guildId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalArgumentException iae) {
+                throw iae;
+            }
+            throw new RuntimeException("Failed to fetch member with ID: " + userId + " in guild: " + guildId, e.getCause());
+        }
+    }
+
+    /**
+     * Fetches guild member information asynchronously.
+     * Cached members complete immediately; others are requested from Discord.
+     *
+     * @param userId Discord user ID
+     * @param guildId Discord guild ID
+     * @return CompletableFuture that resolves to this instance with updated data
+     */
+    public CompletableFuture<DiscordUser> fetchMemberInfoAsync(String userId, String guildId) {
         if (jda == null) {
-            throw new IllegalStateException("JDA instance not set. Cannot fetch member info.");
+            return CompletableFuture.failedFuture(new IllegalStateException("JDA instance not set. Cannot fetch member info."));
         }
 
         Guild guild = jda.getGuildById(guildId);
         if (guild == null) {
-            throw new IllegalArgumentException("Guild not found with ID: " + guildId);
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Guild not found with ID: " + guildId));
         }
 
-        // First fetch basic user info
-        fetchInfo(userId);
-
-        // Then fetch guild-specific info
-        Member member = guild.getMemberById(userId);
-        if (member == null) {
-            try {
-                member = guild.retrieveMemberById(userId).complete();
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to fetch member with ID: " + userId + " in guild: " + guildId, e);
-            }
-        }
-
-        if (member != null) {
-            populateFromGuildMember(member);
-        }
+        // The member carries its user, so one lookup covers both
+        Member cached = guild.getMemberById(userId);
+        CompletableFuture<Member> member = cached != null
+                ? CompletableFuture.completedFuture(cached)
+                : guild.retrieveMemberById(userId).submit();
+        return member.thenApply(resolved -> {
+            populateFromJdaUser(resolved.getUser());
+            populateFromGuildMember(resolved);
+            return this;
+        });
+    }
 
+    /**
+     * Sets the extended profile data, which is not part of the user object
+     * and is fetched separately (see UserProfileCache).
+     *
+     * @param bannerUrl Banner URL, or null if the user has none
+     * @param accentColor Raw accent color, or null if the user has none
+     * @return This instance for chaining
+     */
+    public DiscordUser applyProfile(String bannerUrl, Integer accentColor) {
+        set(BANNER, bannerUrl);
+        set(ACCENT_COLOR, accentColor);
         return this;
     }
 
@@ -246,13 +262,8 @@ public class DiscordUser {
         set(DISCRIMINATOR, jdaUser.getDiscriminator());
         set(IS_BOT, jdaUser.isBot());
 
-        // These require privileged gateway intents, so may be null
-        try {
-            set(BANNER, jdaUser.retrieveProfile().complete().getBannerUrl());
-            set(ACCENT_COLOR, jdaUser.retrieveProfile().complete().getAccentColorRaw());
-        } catch (Exception e) {
-            // Silently ignore if we can't retrieve extended profile data
-        }
+        // Banner and accent color need a separate profile request per user,
+        // so they are added by applyProfile rather than fetched here
     }
 
     /**
@@ -293,7 +304,7 @@ public class DiscordUser {
      * @return JSON string
      */
     public String toJson() {
-        return gson.toJson(userData);
+        return JsonCodec.shared().toJson(userData);
     }
 
     /**
@@ -304,7 +315,7 @@ public class DiscordUser {
      */
     public static DiscordUser fromJson(String json) {
         @SuppressWarnings("unchecked")
-        Map<String, Object> data = gson.fromJson(json, Map.class);
+        Map<String, Object> data = JsonCodec.shared().fromJson(json, Map.class);
         return new DiscordUser(data);
     }
 
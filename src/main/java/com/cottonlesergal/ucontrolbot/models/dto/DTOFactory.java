@@ -1,29 +1,29 @@
 package com.cottonlesergal.ucontrolbot.models.dto;
 
+import com.cottonlesergal.ucontrolbot.util.JsonCodec;
+import com.google.gson.JsonParseException;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 
 public class DTOFactory {
     public static UserDTO createUserDTO(User jdaUser) {
-        return new UserDTO(jdaUser);
+        return UserDTO.from(jdaUser);
     }
 
     public static GuildDTO createGuildDTO(Guild jdaGuild) {
-        return new GuildDTO(jdaGuild);
+        return GuildDTO.from(jdaGuild);
     }
 
     public static MessageDTO createMessageDTO(Message jdaMessage) {
-        return new MessageDTO(jdaMessage);
+        return MessageDTO.from(jdaMessage);
     }
 
-    public static DiscordDTO fromJson(String json, Class<? extends DiscordDTO> dtoClass) {
+    public static <T extends DiscordDTO> T fromJson(String json, Class<T> dtoClass) {
         try {
-            DiscordDTO dto = dtoClass.newInstance();
-            dto.fromJson(json);
-            return dto;
-        } catch (Exception e) {
+            return JsonCodec.shared().fromJson(json, dtoClass);
+        } catch (JsonParseException e) {
             throw new RuntimeException("Failed to create DTO from JSON", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,38 @@
 package com.cottonlesergal.ucontrolbot.models.dto;
 
-public interface DiscordDTO {
-    /**
-     * Converts the DTO to a JSON string
-     */
-    String toJson();
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.gson.stream.JsonWriter;
 
-    /**
-     * Updates the DTO with data from a JSON string
-     */
-    void fromJson(String json);
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 
+/**
+ * An immutable Discord entity as sent to API clients.
+ * Each DTO writes its own JSON, so serializing one needs no reflection and no
+ * intermediate map. Gson (JsonCodec, for Spring MVC and WebSocket events) and
+ * Jackson (the Javalin endpoints) both delegate to {@link #writeJson}.
+ */
+@JsonSerialize(using = DtoJsonSerializer.class)
+public interface DiscordDTO {
     /**
-     * Get a specific property
+     * Writes the DTO as a JSON object
+     *
+     * @param out The writer
+     * @throws IOException If the writer fails
      */
-    Object get(String property);
+    void writeJson(JsonWriter out) throws IOException;
 
     /**
-     * Set a specific property
+     * Converts the DTO to a JSON string
      */
-    void set(String property, Object value);
-}
\ No newline at end of file
+    default String toJson() {
+        StringWriter buffer = new StringWriter();
+        try (JsonWriter out = new JsonWriter(buffer)) {
+            writeJson(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.cottonlesergal.ucontrolbot.models.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Lets Jackson serialize DTOs with their own writers. Only the Javalin endpoints
+ * need it: ctx.json() uses Javalin's Jackson mapper, e.g. for the member lists,
+ * while Spring MVC responses and WebSocket events go through Gson in JsonCodec.
+ */
+public class DtoJsonSerializer extends JsonSerializer<DiscordDTO> {
+    @Override
+    public void serialize(DiscordDTO value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(value.toJson());
+    }
+}
@@ -0,0 +1,39 @@
+package com.cottonlesergal.ucontrolbot.models.dto;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Lets Gson serialize DTOs with their own writers instead of reflecting over
+ * record components. Reading falls back to Gson's default record handling.
+ */
+public class DtoTypeAdapterFactory implements TypeAdapterFactory {
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (!DiscordDTO.class.isAssignableFrom(type.getRawType())) {
+            return null;
+        }
+        TypeAdapter<T> defaultAdapter = gson.getDelegateAdapter(this, type);
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                } else {
+                    ((DiscordDTO) value).writeJson(out);
+                }
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                return defaultAdapter.read(in);
+            }
+        };
+    }
+}
@@ -1,34 +1,33 @@
 package com.cottonlesergal.ucontrolbot.models.dto;
 
+import com.google.gson.stream.JsonWriter;
 import net.dv8tion.jda.api.entities.Guild;
 
-public class GuildDTO extends BaseDTO {
-    public static final String ID = "id";
-    public static final String NAME = "name";
-    public static final String ICON_URL = "iconUrl";
-    public static final String OWNER_ID = "ownerId";
-    public static final String MEMBER_COUNT = "memberCount";
+import java.io.IOException;
 
-    public GuildDTO() {
-        // Default constructor
-    }
-
-    public GuildDTO(Guild jdaGuild) {
-        if (jdaGuild != null) {
-            set(ID, jdaGuild.getId());
-            set(NAME, jdaGuild.getName());
-            set(ICON_URL, jdaGuild.getIconUrl());
-            set(OWNER_ID, jdaGuild.getOwnerId());
-            set(MEMBER_COUNT, jdaGuild.getMemberCount());
-        }
-    }
+/**
+ * A guild summary.
+ *
+ * @param id Guild ID
+ * @param name Guild name
+ * @param iconUrl Icon URL, or null
+ * @param ownerId Owner's user ID
+ * @param memberCount Member count
+ */
+public record GuildDTO(String id, String name, String iconUrl, String ownerId, int memberCount) implements DiscordDTO {
 
-    // Add guild-specific methods
-    public String getId() {
-        return (String) get(ID);
+    public static GuildDTO from(Guild guild) {
+        return new GuildDTO(guild.getId(), guild.getName(), guild.getIconUrl(), guild.getOwnerId(), guild.getMemberCount());
     }
 
-    public String getName() {
-        return (String) get(NAME);
+    @Override
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("id").value(id);
+        out.name("name").value(name);
+        out.name("iconUrl").value(iconUrl);
+        out.name("ownerId").value(ownerId);
+        out.name("memberCount").value(memberCount);
+        out.endObject();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.cottonlesergal.ucontrolbot.models.dto;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A value that has already been serialized. Writing it copies the JSON into
+ * the output as is, so a fragment shared by many payloads is encoded only once.
+ *
+ * @param json The serialized value
+ */
+public record JsonFragment(String json) implements DiscordDTO {
+
+    @Override
+    public void writeJson(JsonWriter out) throws IOException {
+        out.jsonValue(json);
+    }
+
+    @Override
+    public String toJson() {
+        return json;
+    }
+}
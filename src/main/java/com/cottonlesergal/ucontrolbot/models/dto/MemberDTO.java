@@ -0,0 +1,70 @@
+package com.cottonlesergal.ucontrolbot.models.dto;
+
+import com.google.gson.stream.JsonWriter;
+import net.dv8tion.jda.api.entities.Member;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A guild member. Written as the user's fields followed by the member's,
+ * in one flat object.
+ *
+ * @param user The member's user
+ * @param guildId Guild ID
+ * @param nickname Guild nickname, or null
+ * @param displayName Effective name in the guild
+ * @param joinDate Join time in epoch seconds
+ * @param owner Whether the member owns the guild
+ * @param roles The member's roles
+ * @param status Online status, or null if presences are not available
+ */
+public record MemberDTO(
+        UserDTO user,
+        String guildId,
+        String nickname,
+        String displayName,
+        long joinDate,
+        boolean owner,
+        List<RoleDTO> roles,
+        String status) implements DiscordDTO {
+
+    /**
+     * Creates a MemberDTO from a JDA Member
+     *
+     * @param member JDA Member
+     * @param user The member's user, possibly with its profile applied
+     * @return New MemberDTO
+     */
+    public static MemberDTO from(Member member, UserDTO user) {
+        String status;
+        try {
+            status = member.getOnlineStatus().name();
+        } catch (Exception e) {
+            // Presence intent may not be enabled
+            status = null;
+        }
+        return new MemberDTO(user, member.getGuild().getId(), member.getNickname(), member.getEffectiveName(),
+                member.getTimeJoined().toEpochSecond(), member.isOwner(),
+                member.getRoles().stream().map(RoleDTO::from).toList(), status);
+    }
+
+    @Override
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        user.writeFields(out, displayName);
+        out.name("guildId").value(guildId);
+        out.name("nickname").value(nickname);
+        out.name("joinDate").value(joinDate);
+        out.name("isOwner").value(owner);
+        out.name("roles").beginArray();
+        for (RoleDTO role : roles) {
+            role.writeJson(out);
+        }
+        out.endArray();
+        if (status != null) {
+            out.name("status").value(status);
+        }
+        out.endObject();
+    }
+}
@@ -1,52 +1,41 @@
 package com.cottonlesergal.ucontrolbot.models.dto;
 
+import com.google.gson.stream.JsonWriter;
 import net.dv8tion.jda.api.entities.Message;
 
-public class MessageDTO extends BaseDTO {
-    public static final String ID = "id";
-    public static final String CONTENT = "content";
-    public static final String AUTHOR = "author";
-    public static final String CHANNEL_ID = "channelId";
-    public static final String GUILD_ID = "guildId";
-    public static final String TIMESTAMP = "timestamp";
-
-    public MessageDTO() {
-        // Default constructor
-    }
-
-    public MessageDTO(Message jdaMessage) {
-        if (jdaMessage != null) {
-            set(ID, jdaMessage.getId());
-            set(CONTENT, jdaMessage.getContentRaw());
-            set(CHANNEL_ID, jdaMessage.getChannel().getId());
-            set(TIMESTAMP, jdaMessage.getTimeCreated().toEpochSecond());
-
-            if (jdaMessage.isFromGuild()) {
-                set(GUILD_ID, jdaMessage.getGuild().getId());
-            }
-
-            // Include author as nested DTO
-            UserDTO author = new UserDTO(jdaMessage.getAuthor());
-            set(AUTHOR, author.toJson());
-        }
-    }
-
-    // Add message-specific methods
-    public String getId() {
-        return (String) get(ID);
-    }
-
-    public String getContent() {
-        return (String) get(CONTENT);
+import java.io.IOException;
+
+/**
+ * A message, with its author as a nested object.
+ *
+ * @param id Message ID
+ * @param content Raw content
+ * @param author The author
+ * @param channelId Channel ID
+ * @param guildId Guild ID, or null outside guilds
+ * @param timestamp Creation time in epoch seconds
+ */
+public record MessageDTO(String id, String content, UserDTO author, String channelId, String guildId,
+                         long timestamp) implements DiscordDTO {
+
+    public static MessageDTO from(Message message) {
+        return new MessageDTO(message.getId(), message.getContentRaw(), UserDTO.from(message.getAuthor()),
+                message.getChannel().getId(), message.isFromGuild() ? message.getGuild().getId() : null,
+                message.getTimeCreated().toEpochSecond());
     }
 
-    public UserDTO getAuthor() {
-        String authorJson = (String) get(AUTHOR);
-        if (authorJson != null) {
-            UserDTO author = new UserDTO();
-            author.fromJson(authorJson);
-            return author;
+    @Override
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("id").value(id);
+        out.name("content").value(content);
+        out.name("author");
+        author.writeJson(out);
+        out.name("channelId").value(channelId);
+        if (guildId != null) {
+            out.name("guildId").value(guildId);
         }
-        return null;
+        out.name("timestamp").value(timestamp);
+        out.endObject();
     }
-}
\ No newline at end of file
+}
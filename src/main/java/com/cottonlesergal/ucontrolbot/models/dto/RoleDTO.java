@@ -0,0 +1,31 @@
+package com.cottonlesergal.ucontrolbot.models.dto;
+
+import com.google.gson.stream.JsonWriter;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.io.IOException;
+
+/**
+ * A role as listed on a member.
+ *
+ * @param id Role ID
+ * @param name Role name
+ * @param color Raw role color
+ * @param position Position in the role hierarchy
+ */
+public record RoleDTO(String id, String name, int color, int position) implements DiscordDTO {
+
+    public static RoleDTO from(Role role) {
+        return new RoleDTO(role.getId(), role.getName(), role.getColorRaw(), role.getPosition());
+    }
+
+    @Override
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("id").value(id);
+        out.name("name").value(name);
+        out.name("color").value(color);
+        out.name("position").value(position);
+        out.endObject();
+    }
+}
@@ -1,50 +1,97 @@
 package com.cottonlesergal.ucontrolbot.models.dto;
 
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonWriter;
 import net.dv8tion.jda.api.entities.User;
 
-public class UserDTO extends BaseDTO {
-    // Constants for user properties
-    public static final String ID = "id";
-    public static final String USERNAME = "username";
-    public static final String DISPLAY_NAME = "displayName";
-    public static final String AVATAR = "avatarUrl";
-    public static final String DISCRIMINATOR = "discriminator";
-    public static final String IS_BOT = "isBot";
-    public static final String STATUS = "status";
-
-    public UserDTO() {
-        // Default constructor
-    }
+import java.io.IOException;
 
-    public UserDTO(User jdaUser) {
-        if (jdaUser != null) {
-            set(ID, jdaUser.getId());
-            set(USERNAME, jdaUser.getName());
-            set(AVATAR, jdaUser.getEffectiveAvatarUrl());
-            set(DISCRIMINATOR, jdaUser.getDiscriminator());
-            set(IS_BOT, jdaUser.isBot());
-        }
-    }
+/**
+ * A Discord user.
+ *
+ * @param id User ID
+ * @param username Username
+ * @param globalName Global display name, or null
+ * @param displayName Global name if set, otherwise the username
+ * @param avatarUrl Effective avatar URL
+ * @param discriminator Legacy discriminator
+ * @param bot Whether the user is a bot
+ * @param bannerUrl Banner URL, or null if unknown or unset
+ * @param accentColor Raw accent color, or null if unknown or unset
+ * @param status Online status, or null if not reported
+ * @param owner Whether the user is the bot's owner
+ */
+public record UserDTO(
+        String id,
+        String username,
+        String globalName,
+        String displayName,
+        String avatarUrl,
+        String discriminator,
+        @SerializedName("isBot") boolean bot,
+        String bannerUrl,
+        Integer accentColor,
+        String status,
+        @SerializedName("isOwner") boolean owner) implements DiscordDTO {
 
-    // Add user-specific methods
-    public String getId() {
-        return (String) get(ID);
+    /**
+     * Creates a UserDTO from a JDA User, without profile or status
+     *
+     * @param user JDA User
+     * @return New UserDTO
+     */
+    public static UserDTO from(User user) {
+        return new UserDTO(user.getId(), user.getName(), user.getGlobalName(),
+                user.getGlobalName() != null ? user.getGlobalName() : user.getName(),
+                user.getEffectiveAvatarUrl(), user.getDiscriminator(), user.isBot(),
+                null, null, null, false);
     }
 
-    public String getUsername() {
-        return (String) get(USERNAME);
+    /**
+     * Returns a copy with the extended profile set
+     */
+    public UserDTO withProfile(String bannerUrl, Integer accentColor) {
+        return new UserDTO(id, username, globalName, displayName, avatarUrl, discriminator, bot,
+                bannerUrl, accentColor, status, owner);
     }
 
-    public String getDisplayName() {
-        return (String) get(DISPLAY_NAME);
+    /**
+     * Returns a copy with the online status and owner flag set
+     */
+    public UserDTO withStatus(String status, boolean owner) {
+        return new UserDTO(id, username, globalName, displayName, avatarUrl, discriminator, bot,
+                bannerUrl, accentColor, status, owner);
     }
 
-    public String getAvatarUrl() {
-        return (String) get(AVATAR);
+    @Override
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        writeFields(out, displayName);
+        if (status != null) {
+            out.name("status").value(status);
+        }
+        if (owner) {
+            out.name("isOwner").value(true);
+        }
+        out.endObject();
     }
 
-    public UserDTO fetchInfo(String userId) {
-        // Implement fetch logic
-        return this;
+    /**
+     * Writes the user's own fields into an open object, for DTOs that flatten a user.
+     */
+    void writeFields(JsonWriter out, String displayName) throws IOException {
+        out.name("id").value(id);
+        out.name("username").value(username);
+        out.name("globalName").value(globalName);
+        out.name("displayName").value(displayName);
+        out.name("avatarUrl").value(avatarUrl);
+        out.name("discriminator").value(discriminator);
+        out.name("isBot").value(bot);
+        if (bannerUrl != null) {
+            out.name("bannerUrl").value(bannerUrl);
+        }
+        if (accentColor != null) {
+            out.name("accentColor").value(accentColor);
+        }
     }
-}
\ No newline at end of file
+}
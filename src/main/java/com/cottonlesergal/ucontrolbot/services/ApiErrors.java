@@ -0,0 +1,60 @@
+package com.cottonlesergal.ucontrolbot.services;
+
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Error responses for failed service calls, shared by both API front ends.
+ * Discord errors are reported as 503 with Discord's error code; anything else is a 500.
+ */
+public final class ApiErrors {
+
+    private ApiErrors() {
+    }
+
+    /**
+     * Gets the underlying failure of a future.
+     *
+     * @param error The failure, possibly wrapped by a future
+     * @return The cause
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Gets the HTTP status for a failure.
+     *
+     * @param cause The unwrapped failure
+     * @return 503 for Discord errors, otherwise 500
+     */
+    public static int status(Throwable cause) {
+        return cause instanceof ErrorResponseException ? 503 : 500;
+    }
+
+    /**
+     * Gets the response body for a failure.
+     *
+     * @param cause The unwrapped failure
+     * @return The error body
+     */
+    public static Map<String, Object> body(Throwable cause) {
+        if (cause instanceof ErrorResponseException e) {
+            return Map.of(
+                    "error", "Discord API error",
+                    "code", e.getErrorCode(),
+                    "message", e.getMeaning()
+            );
+        }
+        return Map.of(
+                "error", "Internal server error",
+                "message", String.valueOf(cause.getMessage())
+        );
+    }
+}
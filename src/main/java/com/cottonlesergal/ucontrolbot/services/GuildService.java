@@ -0,0 +1,376 @@
+package com.cottonlesergal.ucontrolbot.services;
+
+import com.cottonlesergal.ucontrolbot.Bot;
+import com.cottonlesergal.ucontrolbot.cache.GuildMemberIndex;
+import com.cottonlesergal.ucontrolbot.cache.UserProfileCache;
+import com.cottonlesergal.ucontrolbot.models.dto.MemberDTO;
+import com.cottonlesergal.ucontrolbot.models.dto.UserDTO;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.*;
+import net.dv8tion.jda.api.entities.emoji.RichCustomEmoji;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Guild operations shared by the REST controllers and the Javalin endpoints.
+ * Everything except member listing is answered from the JDA cache. Member pages
+ * come from the member index; a guild whose members are not cached yet is loaded
+ * asynchronously, so the caller's thread is not held while Discord chunks it.
+ */
+@Component
+public class GuildService {
+    private static final Logger logger = LoggerFactory.getLogger(GuildService.class);
+
+    public static final int MAX_MEMBER_PAGE_SIZE = 1000;
+
+    @Autowired
+    private Bot bot;
+
+    @Autowired
+    private GuildMemberIndex memberIndex;
+
+    @Autowired
+    private UserProfileCache profileCache;
+
+    /**
+     * Gets a guild by ID.
+     *
+     * @param guildId The guild ID
+     * @return The guild, or null if the bot is not in it
+     */
+    public Guild getGuild(String guildId) {
+        return bot.getDiscord().getGuildById(guildId);
+    }
+
+    /**
+     * Lists the guilds the bot is in.
+     *
+     * @return Summary data of each guild
+     */
+    public List<Map<String, Object>> listGuilds() {
+        return bot.getDiscord().getGuilds().stream()
+                .map(guild -> {
+                    Map<String, Object> guildData = new HashMap<>();
+                    guildData.put("id", guild.getId());
+                    guildData.put("name", guild.getName());
+                    guildData.put("iconUrl", guild.getIconUrl());
+                    guildData.put("memberCount", guild.getMemberCount());
+                    guildData.put("ownerId", guild.getOwnerId());
+                    guildData.put("features", guild.getFeatures());
+                    return guildData;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Describes a guild in detail.
+     *
+     * @param guild The guild
+     * @return Map containing guild data
+     */
+    public Map<String, Object> describeGuild(Guild guild) {
+        Map<String, Object> guildData = new HashMap<>();
+        guildData.put("id", guild.getId());
+        guildData.put("name", guild.getName());
+        guildData.put("iconUrl", guild.getIconUrl());
+        guildData.put("memberCount", guild.getMemberCount());
+        guildData.put("ownerId", guild.getOwnerId());
+        guildData.put("description", guild.getDescription());
+        guildData.put("vanityCode", guild.getVanityCode());
+        guildData.put("locale", guild.getLocale().getLocale());
+        guildData.put("nsfwLevel", guild.getNSFWLevel().name());
+        guildData.put("boostTier", guild.getBoostTier().name());
+        guildData.put("boostCount", guild.getBoostCount());
+        guildData.put("verificationLevel", guild.getVerificationLevel().name());
+        guildData.put("defaultNotificationLevel", guild.getDefaultNotificationLevel().name());
+        guildData.put("explicitContentLevel", guild.getExplicitContentLevel().name());
+        guildData.put("features", guild.getFeatures());
+
+        if (guild.getAfkChannel() != null) {
+            guildData.put("afkChannelId", guild.getAfkChannel().getId());
+            guildData.put("afkTimeout", guild.getAfkTimeout().getSeconds());
+        }
+
+        if (guild.getSystemChannel() != null) {
+            guildData.put("systemChannelId", guild.getSystemChannel().getId());
+        }
+
+        if (guild.getRulesChannel() != null) {
+            guildData.put("rulesChannelId", guild.getRulesChannel().getId());
+        }
+
+        if (guild.getCommunityUpdatesChannel() != null) {
+            guildData.put("communityUpdatesChannelId", guild.getCommunityUpdatesChannel().getId());
+        }
+
+        return guildData;
+    }
+
+    /**
+     * Lists the channels of a guild.
+     *
+     * @param guild The guild
+     * @return Map of each channel
+     */
+    public List<Map<String, Object>> listChannels(Guild guild) {
+        return guild.getChannels().stream()
+                .map(this::mapChannel)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets members of a guild, ordered by user ID, or those whose names start with a query.
+     *
+     * @param guild The guild
+     * @param afterId Return members after this user ID, or null
+     * @param limit Maximum number of members to return; clamped to 1..MAX_MEMBER_PAGE_SIZE
+     * @param query Optional name prefix to search for instead of paging
+     * @return The member data
+     */
+    public CompletableFuture<List<MemberDTO>> getMembers(Guild guild, Long afterId, int limit, String query) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_MEMBER_PAGE_SIZE);
+        CompletableFuture<List<Member>> members = query != null && !query.isBlank()
+                ? memberIndex.search(guild, query.trim(), pageSize)
+                : memberIndex.page(guild, afterId, pageSize);
+
+        return members.thenApply(page -> page.stream()
+                .map(member -> MemberDTO.from(member, profileCache.enrich(UserDTO.from(member.getUser()), member.getUser())))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets every member of a guild. Guilds JDA does not fully cache are served
+     * from the member index, which requests their members once.
+     *
+     * @param guild The guild
+     * @return The members
+     */
+    public CompletableFuture<List<Member>> getAllMembers(Guild guild) {
+        if (guild.isLoaded()) {
+            return CompletableFuture.completedFuture(guild.getMembers());
+        }
+        return memberIndex.all(guild);
+    }
+
+    /**
+     * Lists the roles of a guild.
+     *
+     * @param guild The guild
+     * @return Map of each role
+     */
+    public List<Map<String, Object>> listRoles(Guild guild) {
+        return guild.getRoles().stream()
+                .map(this::mapRole)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lists the custom emojis of a guild.
+     *
+     * @param guild The guild
+     * @return Map of each emoji
+     */
+    public List<Map<String, Object>> listEmojis(Guild guild) {
+        return guild.getEmojis().stream()
+                .map(this::mapEmoji)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps a JDA Role to a Map.
+     *
+     * @param role The JDA Role
+     * @return Map containing role data
+     */
+    public Map<String, Object> mapRole(Role role) {
+        Map<String, Object> roleData = new HashMap<>();
+        roleData.put("id", role.getId());
+        roleData.put("name", role.getName());
+        roleData.put("color", role.getColorRaw());
+        roleData.put("position", role.getPosition());
+        roleData.put("permissions", role.getPermissionsRaw());
+        roleData.put("mentionable", role.isMentionable());
+        roleData.put("hoisted", role.isHoisted());
+        roleData.put("managed", role.isManaged());
+
+        // Role tags if available
+        if (role.getTags() != null) {
+            Map<String, Object> tags = new HashMap<>();
+
+            if (role.getTags().isBoost()) {
+                tags.put("isBoost", true);
+            }
+
+            if (role.getTags().getBotIdLong() != 0) {
+                tags.put("botId", role.getTags().getBotIdLong());
+            }
+
+            if (role.getTags().getIntegrationIdLong() != 0) {
+                tags.put("integrationId", role.getTags().getIntegrationIdLong());
+            }
+
+            // Only add tags if we have any
+            if (!tags.isEmpty()) {
+                roleData.put("tags", tags);
+            }
+        }
+
+        return roleData;
+    }
+
+    /**
+     * Maps a JDA custom emoji to a Map.
+     *
+     * @param emoji The JDA emoji
+     * @return Map containing emoji data
+     */
+    public Map<String, Object> mapEmoji(RichCustomEmoji emoji) {
+        Map<String, Object> emojiData = new HashMap<>();
+        emojiData.put("id", emoji.getId());
+        emojiData.put("name", emoji.getName());
+        emojiData.put("animated", emoji.isAnimated());
+        emojiData.put("managed", emoji.isManaged());
+        emojiData.put("available", emoji.isAvailable());
+        emojiData.put("url", emoji.getImageUrl());
+
+        // Get roles that can use this emoji
+        List<String> roleIds = emoji.getRoles().stream()
+                .map(Role::getId)
+                .collect(Collectors.toList());
+
+        emojiData.put("roles", roleIds);
+
+        return emojiData;
+    }
+
+    /**
+     * Maps a JDA Channel to a Map.
+     *
+     * @param channel The JDA Channel
+     * @return Map containing channel data
+     */
+    public Map<String, Object> mapChannel(Channel channel) {
+        Map<String, Object> channelData = new HashMap<>();
+        channelData.put("id", channel.getId());
+        channelData.put("name", channel.getName());
+        channelData.put("type", channel.getType().name());
+
+        // Add flags if any
+        if (!channel.getFlags().isEmpty()) {
+            channelData.put("flags", channel.getFlags().stream()
+                    .map(Enum::name)
+                    .collect(Collectors.toList()));
+        }
+
+        try {
+            // Add type-specific data based on channel type
+            ChannelType type = channel.getType();
+
+            // Handle different channel types
+            if (type == ChannelType.TEXT) {
+                TextChannel textChannel = (TextChannel) channel;
+                channelData.put("topic", textChannel.getTopic());
+                channelData.put("nsfw", textChannel.isNSFW());
+                channelData.put("slowmode", textChannel.getSlowmode());
+                if (textChannel.getParentCategory() != null) {
+                    channelData.put("parentId", textChannel.getParentCategory().getId());
+                }
+            }
+            else if (type == ChannelType.VOICE) {
+                VoiceChannel voiceChannel = (VoiceChannel) channel;
+                channelData.put("bitrate", voiceChannel.getBitrate());
+                channelData.put("userLimit", voiceChannel.getUserLimit());
+                channelData.put("region", voiceChannel.getRegion().getName());
+                if (voiceChannel.getParentCategory() != null) {
+                    channelData.put("parentId", voiceChannel.getParentCategory().getId());
+                }
+            }
+            else if (type == ChannelType.STAGE) {
+                StageChannel stageChannel = (StageChannel) channel;
+                channelData.put("bitrate", stageChannel.getBitrate());
+                channelData.put("region", stageChannel.getRegion().getName());
+                if (stageChannel.getParentCategory() != null) {
+                    channelData.put("parentId", stageChannel.getParentCategory().getId());
+                }
+            }
+            else if (type == ChannelType.FORUM) {
+                ForumChannel forumChannel = (ForumChannel) channel;
+                channelData.put("topic", forumChannel.getTopic());
+                if (forumChannel.getParentCategory() != null) {
+                    channelData.put("parentId", forumChannel.getParentCategory().getId());
+                }
+            }
+            else if (type == ChannelType.CATEGORY) {
+                Category categoryChannel = (Category) channel;
+                // Get child channels
+                List<String> childIds = categoryChannel.getChannels().stream()
+                        .map(Channel::getId)
+                        .collect(Collectors.toList());
+                channelData.put("childChannels", childIds);
+            }
+            else if (type == ChannelType.NEWS) {
+                NewsChannel newsChannel = (NewsChannel) channel;
+                channelData.put("topic", newsChannel.getTopic());
+                channelData.put("nsfw", newsChannel.isNSFW());
+                if (newsChannel.getParentCategory() != null) {
+                    channelData.put("parentId", newsChannel.getParentCategory().getId());
+                }
+            }
+            else if (type == ChannelType.MEDIA) {
+                MediaChannel mediaChannel = (MediaChannel) channel;
+                channelData.put("topic", mediaChannel.getTopic());
+                if (mediaChannel.getParentCategory() != null) {
+                    channelData.put("parentId", mediaChannel.getParentCategory().getId());
+                }
+            }
+            else if (type == ChannelType.GUILD_NEWS_THREAD
+                    || type == ChannelType.GUILD_PUBLIC_THREAD
+                    || type == ChannelType.GUILD_PRIVATE_THREAD) {
+                ThreadChannel threadChannel = (ThreadChannel) channel;
+                channelData.put("ownerId", threadChannel.getOwnerId());
+                channelData.put("messageCount", threadChannel.getMessageCount());
+                channelData.put("memberCount", threadChannel.getMemberCount());
+                channelData.put("archived", threadChannel.isArchived());
+                channelData.put("locked", threadChannel.isLocked());
+                if (threadChannel.getParentChannel() != null) {
+                    channelData.put("parentId", threadChannel.getParentChannel().getId());
+                }
+            }
+
+            // Add position for guild channels
+            if (channel instanceof TextChannel) {
+                channelData.put("position", ((TextChannel) channel).getPosition());
+            } else if (channel instanceof VoiceChannel) {
+                channelData.put("position", ((VoiceChannel) channel).getPosition());
+            } else if (channel instanceof Category) {
+                channelData.put("position", ((Category) channel).getPosition());
+            } else if (channel instanceof NewsChannel) {
+                channelData.put("position", ((NewsChannel) channel).getPosition());
+            } else if (channel instanceof StageChannel) {
+                channelData.put("position", ((StageChannel) channel).getPosition());
+            } else if (channel instanceof ForumChannel) {
+                channelData.put("position", ((ForumChannel) channel).getPosition());
+            } else if (channel instanceof MediaChannel) {
+                channelData.put("position", ((MediaChannel) channel).getPosition());
+            }
+
+        } catch (Exception e) {
+            // If we can't get type-specific data, just ignore it
+            logger.warn("Could not get type-specific data for channel: " + channel.getId(), e);
+        }
+
+        return channelData;
+    }
+}
@@ -0,0 +1,580 @@
+package com.cottonlesergal.ucontrolbot.services;
+
+import com.cottonlesergal.ucontrolbot.Bot;
+import com.cottonlesergal.ucontrolbot.api.MessageAuthorLookup;
+import com.cottonlesergal.ucontrolbot.api.MessageSendQueue;
+import com.cottonlesergal.ucontrolbot.cache.PayloadFragmentCache;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Message operations shared by the REST controllers and the Javalin endpoints.
+ * Discord calls return futures instead of blocking, sends go through the
+ * per-channel outbound queue, and author checks use the local message store
+ * before asking Discord.
+ */
+@Component
+public class MessageService {
+    private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
+
+    @Autowired
+    private Bot bot;
+
+    @Autowired
+    private MessageSendQueue sendQueue;
+
+    @Autowired
+    private MessageAuthorLookup authorLookup;
+
+    @Autowired
+    private PayloadFragmentCache fragmentCache;
+
+    /**
+     * Gets a channel by ID, attempting to resolve it as any valid message channel type.
+     *
+     * @param channelId The channel ID
+     * @return The message channel, or null if not found
+     */
+    public MessageChannel getChannel(String channelId) {
+        // Try as text channel
+        TextChannel textChannel = bot.getDiscord().getTextChannelById(channelId);
+        if (textChannel != null) {
+            return textChannel;
+        }
+
+        // Try as thread channel
+        ThreadChannel threadChannel = bot.getDiscord().getThreadChannelById(channelId);
+        if (threadChannel != null) {
+            return threadChannel;
+        }
+
+        // Try as private channel
+        return bot.getDiscord().getPrivateChannelById(channelId);
+    }
+
+    /**
+     * Gets a page of a channel's message history.
+     *
+     * @param channel The channel
+     * @param limit Maximum number of messages to return
+     * @param before Return messages before this message ID, or null
+     * @param after Return messages after this message ID, or null
+     * @return The mapped messages
+     */
+    public CompletableFuture<List<Map<String, Object>>> getHistory(MessageChannel channel, int limit,
+                                                                   String before, String after) {
+        CompletableFuture<List<Message>> messages;
+        if (before != null && !before.isEmpty()) {
+            messages = channel.getHistoryBefore(before, limit).submit().thenApply(history -> history.getRetrievedHistory());
+        } else if (after != null && !after.isEmpty()) {
+            messages = channel.getHistoryAfter(after, limit).submit().thenApply(history -> history.getRetrievedHistory());
+        } else {
+            messages = channel.getHistory().retrievePast(limit).submit();
+        }
+        return messages.thenApply(list -> list.stream()
+                .map(this::mapMessage)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets a single message.
+     *
+     * @param channel The channel
+     * @param messageId The message ID
+     * @return The mapped message
+     */
+    public CompletableFuture<Map<String, Object>> getMessage(MessageChannel channel, String messageId) {
+        return channel.retrieveMessageById(messageId).submit().thenApply(this::mapMessage);
+    }
+
+    /**
+     * Builds an outgoing message.
+     *
+     * @param content The text content, or null
+     * @param embed The embed properties, or null
+     * @param suppressEmbeds Whether link embeds should be suppressed
+     * @return The message data
+     */
+    public MessageCreateData buildMessage(String content, Map<String, Object> embed, boolean suppressEmbeds) {
+        MessageCreateBuilder messageBuilder = new MessageCreateBuilder();
+
+        // Add content if present
+        if (content != null && !content.isEmpty()) {
+            messageBuilder.setContent(content);
+        }
+
+        // Add embed if present
+        if (embed != null) {
+            messageBuilder.addEmbeds(buildEmbed(embed));
+        }
+
+        // Set message flags if needed
+        if (suppressEmbeds) {
+            messageBuilder.setSuppressEmbeds(true);
+        }
+
+        return messageBuilder.build();
+    }
+
+    /**
+     * Queues a message for sending.
+     *
+     * @param channel The channel
+     * @param message The message data
+     * @return The queued job
+     * @throws java.util.concurrent.RejectedExecutionException If the channel's queue is full
+     */
+    public MessageSendQueue.SendJob send(MessageChannel channel, MessageCreateData message) {
+        return sendQueue.submit(channel, message);
+    }
+
+    /**
+     * Checks whether the bot may edit a message, i.e. whether it wrote it.
+     *
+     * @param channel The channel
+     * @param messageId The message ID
+     * @return Whether the message can be edited
+     */
+    public CompletableFuture<Boolean> canEdit(MessageChannel channel, String messageId) {
+        return authorLookup.isOwnMessage(channel, messageId);
+    }
+
+    /**
+     * Checks whether the bot may delete a message.
+     * With MESSAGE_MANAGE in the channel the author does not matter.
+     *
+     * @param channel The channel
+     * @param messageId The message ID
+     * @return Whether the message can be deleted
+     */
+    public CompletableFuture<Boolean> canDelete(MessageChannel channel, String messageId) {
+        if (channel instanceof GuildMessageChannel guildChannel) {
+            Member selfMember = guildChannel.getGuild().getSelfMember();
+            if (selfMember.hasPermission(guildChannel, Permission.MESSAGE_MANAGE)) {
+                return CompletableFuture.completedFuture(true);
+            }
+        }
+        return authorLookup.isOwnMessage(channel, messageId);
+    }
+
+    /**
+     * Edits the content of a message.
+     *
+     * @param channel The channel
+     * @param messageId The message ID
+     * @param content The new content, or null to leave the message unchanged
+     * @return The mapped message after the edit
+     */
+    public CompletableFuture<Map<String, Object>> editMessage(MessageChannel channel, String messageId, String content) {
+        CompletableFuture<Message> message = content != null
+                ? channel.editMessageById(messageId, content).submit()
+                : channel.retrieveMessageById(messageId).submit();
+        return message.thenApply(this::mapMessage);
+    }
+
+    /**
+     * Deletes a message.
+     *
+     * @param channel The channel
+     * @param messageId The message ID
+     * @return Completes when the message has been deleted
+     */
+    public CompletableFuture<Void> deleteMessage(MessageChannel channel, String messageId) {
+        return channel.deleteMessageById(messageId).submit();
+    }
+
+    /**
+     * Builds the event data used to persist a sent or fetched message.
+     * Adds the guild or DM recipient, which the API representation omits.
+     *
+     * @param messageData The mapped message
+     * @param message The JDA Message
+     * @param channel The channel the message is in
+     * @return The event data
+     */
+    public Map<String, Object> toPersistData(Map<String, Object> messageData, Message message, MessageChannel channel) {
+        Map<String, Object> persistData = new HashMap<>(messageData);
+        if (message.isFromGuild()) {
+            persistData.put("guildId", message.getGuild().getId());
+        } else if (channel instanceof PrivateChannel privateChannel && privateChannel.getUser() != null) {
+            persistData.put("recipient", Map.of("id", privateChannel.getUser().getId()));
+        }
+        return persistData;
+    }
+
+    /**
+     * Maps a JDA Message to a Map.
+     *
+     * @param message The JDA Message
+     * @return Map containing message data
+     */
+    public Map<String, Object> mapMessage(Message message) {
+        Map<String, Object> messageData = new HashMap<>();
+        messageData.put("id", message.getId());
+        messageData.put("content", message.getContentRaw());
+        messageData.put("channelId", message.getChannel().getId());
+
+        // Add timestamps
+        messageData.put("timestamp", message.getTimeCreated().toInstant().toEpochMilli());
+        if (message.getTimeEdited() != null) {
+            messageData.put("editedTimestamp", message.getTimeEdited().toInstant().toEpochMilli());
+        }
+
+        // Author and member data repeat from message to message, so they are serialized once and reused
+        messageData.put("author", fragmentCache.messageAuthor(message.getAuthor()));
+        if (message.getMember() != null) {
+            messageData.put("member", fragmentCache.member(message.getMember()));
+        }
+
+        // Add mentions
+        messageData.put("mentions", message.getMentions().getUsers().stream()
+                .map(user -> {
+                    Map<String, Object> userData = new HashMap<>();
+                    userData.put("id", user.getId());
+                    userData.put("username", user.getName());
+                    userData.put("discriminator", user.getDiscriminator());
+                    userData.put("avatarUrl", user.getEffectiveAvatarUrl());
+                    userData.put("bot", user.isBot());
+                    return userData;
+                })
+                .collect(Collectors.toList()));
+
+        // Add mentioned roles
+        messageData.put("mentionedRoles", message.getMentions().getRoles().stream()
+                .map(role -> {
+                    Map<String, Object> roleData = new HashMap<>();
+                    roleData.put("id", role.getId());
+                    roleData.put("name", role.getName());
+                    roleData.put("color", role.getColorRaw());
+                    return roleData;
+                })
+                .collect(Collectors.toList()));
+
+        // Add mentioned channels
+        messageData.put("mentionedChannels", message.getMentions().getChannels().stream()
+                .map(channel -> {
+                    Map<String, Object> channelData = new HashMap<>();
+                    channelData.put("id", channel.getId());
+                    channelData.put("name", channel.getName());
+                    channelData.put("type", channel.getType().name());
+                    return channelData;
+                })
+                .collect(Collectors.toList()));
+
+        // Add embeds
+        messageData.put("embeds", message.getEmbeds().stream()
+                .map(this::mapEmbed)
+                .collect(Collectors.toList()));
+
+        // Add attachments
+        messageData.put("attachments", message.getAttachments().stream()
+                .map(attachment -> {
+                    Map<String, Object> attachmentData = new HashMap<>();
+                    attachmentData.put("id", attachment.getId());
+                    attachmentData.put("filename", attachment.getFileName());
+                    attachmentData.put("size", attachment.getSize());
+                    attachmentData.put("url", attachment.getUrl());
+                    if (attachment.getContentType() != null) {
+                        attachmentData.put("contentType", attachment.getContentType());
+                    } else {
+                        attachmentData.put("contentType", "unknown");
+                    }
+                    return attachmentData;
+                })
+                .collect(Collectors.toList()));
+
+        // Add reactions
+        messageData.put("reactions", message.getReactions().stream()
+                .map(reaction -> {
+                    Map<String, Object> reactionData = new HashMap<>();
+                    reactionData.put("emoji", reaction.getEmoji().getAsReactionCode());
+                    reactionData.put("count", reaction.getCount());
+                    reactionData.put("me", reaction.isSelf());
+                    return reactionData;
+                })
+                .collect(Collectors.toList()));
+
+        // Add message flags
+        messageData.put("flags", message.getFlags().stream()
+                .map(Message.MessageFlag::name)
+                .collect(Collectors.toList()));
+
+        // Add reply data if this is a reply
+        if (message.getReferencedMessage() != null) {
+            Message referencedMessage = message.getReferencedMessage();
+            Map<String, Object> reference = new HashMap<>();
+            reference.put("messageId", referencedMessage.getId());
+            reference.put("channelId", referencedMessage.getChannel().getId());
+            reference.put("authorId", referencedMessage.getAuthor().getId());
+            messageData.put("referencedMessage", reference);
+        }
+
+        return messageData;
+    }
+
+    /**
+     * Maps a message from the local store to the shape of {@link #mapMessage(Message)}.
+     * The store does not keep mentions or flags, so those lists are empty, and
+     * reactions are counted from the stored user IDs.
+     *
+     * @param stored A message from DatabaseManager.getMessagesByIds
+     * @return Map containing message data
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> mapStoredMessage(Map<String, Object> stored) {
+        Map<String, Object> messageData = new HashMap<>();
+        messageData.put("id", stored.get("id"));
+        messageData.put("content", stored.get("content"));
+        messageData.put("channelId", stored.get("channelId"));
+        messageData.put("timestamp", stored.get("timestamp"));
+        if (stored.get("editedTimestamp") != null) {
+            messageData.put("editedTimestamp", stored.get("editedTimestamp"));
+        }
+
+        Map<String, Object> storedAuthor = (Map<String, Object>) stored.get("author");
+        Map<String, Object> authorData = new HashMap<>();
+        authorData.put("id", storedAuthor.get("id"));
+        authorData.put("username", storedAuthor.get("username"));
+        authorData.put("avatarUrl", storedAuthor.get("avatarUrl"));
+        authorData.put("bot", isTrue(storedAuthor.get("isBot")));
+        messageData.put("author", authorData);
+
+        messageData.put("mentions", List.of());
+        messageData.put("mentionedRoles", List.of());
+        messageData.put("mentionedChannels", List.of());
+        messageData.put("flags", List.of());
+
+        // Embeds keep mapEmbed's rule of leaving out unset properties
+        messageData.put("embeds", ((List<Map<String, Object>>) stored.getOrDefault("embeds", List.of())).stream()
+                .map(embed -> {
+                    Map<String, Object> embedData = new HashMap<>();
+                    if (embed.get("title") != null) embedData.put("title", embed.get("title"));
+                    if (embed.get("description") != null) embedData.put("description", embed.get("description"));
+                    if (embed.get("url") != null) embedData.put("url", embed.get("url"));
+                    if (embed.get("color") instanceof Number color) embedData.put("color", color.intValue());
+                    if (embed.get("timestamp") instanceof Number timestamp) embedData.put("timestamp", timestamp.longValue());
+                    List<Map<String, Object>> fields = (List<Map<String, Object>>) embed.get("fields");
+                    if (fields != null && !fields.isEmpty()) {
+                        embedData.put("fields", fields.stream()
+                                .map(field -> {
+                                    Map<String, Object> fieldData = new HashMap<>();
+                                    fieldData.put("name", field.get("name"));
+                                    fieldData.put("value", field.get("value"));
+                                    fieldData.put("inline", isTrue(field.get("inline")));
+                                    return fieldData;
+                                })
+                                .collect(Collectors.toList()));
+                    }
+                    return embedData;
+                })
+                .collect(Collectors.toList()));
+
+        messageData.put("attachments", ((List<Map<String, Object>>) stored.getOrDefault("attachments", List.of())).stream()
+                .map(attachment -> {
+                    Map<String, Object> attachmentData = new HashMap<>();
+                    attachmentData.put("id", attachment.get("id"));
+                    attachmentData.put("filename", attachment.get("filename"));
+                    attachmentData.put("size", attachment.get("size") instanceof Number size ? size.longValue() : 0L);
+                    attachmentData.put("url", attachment.get("url"));
+                    attachmentData.put("contentType", attachment.get("content_type") != null
+                            ? attachment.get("content_type") : "unknown");
+                    return attachmentData;
+                })
+                .collect(Collectors.toList()));
+
+        String selfId = bot.getDiscord().getSelfUser().getId();
+        Map<String, Map<String, Object>> reactions = new LinkedHashMap<>();
+        for (Map<String, Object> reaction : (List<Map<String, Object>>) stored.getOrDefault("reactions", List.of())) {
+            Map<String, Object> reactionData = reactions.computeIfAbsent((String) reaction.get("emoji"), emoji -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("emoji", emoji);
+                data.put("count", 0);
+                data.put("me", false);
+                return data;
+            });
+            reactionData.put("count", (Integer) reactionData.get("count") + 1);
+            if (selfId.equals(reaction.get("user_id"))) {
+                reactionData.put("me", true);
+            }
+        }
+        messageData.put("reactions", new ArrayList<>(reactions.values()));
+
+        if (stored.get("referencedMessageId") != null) {
+            Map<String, Object> reference = new HashMap<>();
+            reference.put("messageId", stored.get("referencedMessageId"));
+            reference.put("channelId", stored.get("channelId"));
+            messageData.put("referencedMessage", reference);
+        }
+        if (Boolean.TRUE.equals(stored.get("archived"))) {
+            messageData.put("archived", true);
+        }
+
+        return messageData;
+    }
+
+    private static boolean isTrue(Object value) {
+        return Boolean.TRUE.equals(value) || (value instanceof Number number && number.intValue() != 0);
+    }
+
+    /**
+     * Maps a JDA MessageEmbed to a Map.
+     *
+     * @param embed The JDA MessageEmbed
+     * @return Map containing embed data
+     */
+    public Map<String, Object> mapEmbed(MessageEmbed embed) {
+        Map<String, Object> embedData = new HashMap<>();
+
+        // Add basic properties
+        if (embed.getTitle() != null) embedData.put("title", embed.getTitle());
+        if (embed.getDescription() != null) embedData.put("description", embed.getDescription());
+        if (embed.getUrl() != null) embedData.put("url", embed.getUrl());
+        if (embed.getColor() != null) embedData.put("color", embed.getColor().getRGB());
+        if (embed.getTimestamp() != null) embedData.put("timestamp", embed.getTimestamp().toInstant().toEpochMilli());
+
+        // Add author
+        if (embed.getAuthor() != null) {
+            Map<String, Object> author = new HashMap<>();
+            author.put("name", embed.getAuthor().getName());
+            if (embed.getAuthor().getUrl() != null) author.put("url", embed.getAuthor().getUrl());
+            if (embed.getAuthor().getIconUrl() != null) author.put("iconUrl", embed.getAuthor().getIconUrl());
+            embedData.put("author", author);
+        }
+
+        // Add footer
+        if (embed.getFooter() != null) {
+            Map<String, Object> footer = new HashMap<>();
+            footer.put("text", embed.getFooter().getText());
+            if (embed.getFooter().getIconUrl() != null) footer.put("iconUrl", embed.getFooter().getIconUrl());
+            embedData.put("footer", footer);
+        }
+
+        // Add image
+        if (embed.getImage() != null) {
+            Map<String, Object> image = new HashMap<>();
+            image.put("url", embed.getImage().getUrl());
+            embedData.put("image", image);
+        }
+
+        // Add thumbnail
+        if (embed.getThumbnail() != null) {
+            Map<String, Object> thumbnail = new HashMap<>();
+            thumbnail.put("url", embed.getThumbnail().getUrl());
+            embedData.put("thumbnail", thumbnail);
+        }
+
+        // Add fields
+        if (!embed.getFields().isEmpty()) {
+            List<Map<String, Object>> fields = embed.getFields().stream()
+                    .map(field -> {
+                        Map<String, Object> fieldData = new HashMap<>();
+                        fieldData.put("name", field.getName());
+                        fieldData.put("value", field.getValue());
+                        fieldData.put("inline", field.isInline());
+                        return fieldData;
+                    })
+                    .collect(Collectors.toList());
+            embedData.put("fields", fields);
+        }
+
+        return embedData;
+    }
+
+    /**
+     * Builds a MessageEmbed from a map of properties.
+     * Numbers may be of any type, since Jackson and Gson decode them differently.
+     *
+     * @param embedJson The embed properties map
+     * @return The built MessageEmbed
+     */
+    public MessageEmbed buildEmbed(Map<String, Object> embedJson) {
+        EmbedBuilder builder = new EmbedBuilder();
+
+        // Set basic properties
+        if (embedJson.containsKey("title")) builder.setTitle((String) embedJson.get("title"));
+        if (embedJson.containsKey("description")) builder.setDescription((String) embedJson.get("description"));
+        if (embedJson.containsKey("url")) builder.setUrl((String) embedJson.get("url"));
+        if (embedJson.get("color") instanceof Number color) builder.setColor(color.intValue());
+        if (embedJson.containsKey("timestamp")) {
+            try {
+                long timestamp = ((Number) embedJson.get("timestamp")).longValue();
+                builder.setTimestamp(OffsetDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()));
+            } catch (Exception e) {
+                logger.warn("Invalid timestamp format, using current time", e);
+                builder.setTimestamp(OffsetDateTime.now().withNano(0)); // Set to current time as fallback
+            }
+        }
+
+        // Set author
+        if (embedJson.get("author") instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> authorJson = (Map<String, Object>) embedJson.get("author");
+            String name = authorJson.containsKey("name") ? (String) authorJson.get("name") : "";
+            String url = authorJson.containsKey("url") ? (String) authorJson.get("url") : null;
+            String iconUrl = authorJson.containsKey("iconUrl") ? (String) authorJson.get("iconUrl") : null;
+            builder.setAuthor(name, url, iconUrl);
+        }
+
+        // Set footer
+        if (embedJson.get("footer") instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> footerJson = (Map<String, Object>) embedJson.get("footer");
+            String text = footerJson.containsKey("text") ? (String) footerJson.get("text") : "";
+            String iconUrl = footerJson.containsKey("iconUrl") ? (String) footerJson.get("iconUrl") : null;
+            builder.setFooter(text, iconUrl);
+        }
+
+        // Set image
+        if (embedJson.get("image") instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> imageJson = (Map<String, Object>) embedJson.get("image");
+            if (imageJson.containsKey("url")) builder.setImage((String) imageJson.get("url"));
+        }
+
+        // Set thumbnail
+        if (embedJson.get("thumbnail") instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> thumbnailJson = (Map<String, Object>) embedJson.get("thumbnail");
+            if (thumbnailJson.containsKey("url")) builder.setThumbnail((String) thumbnailJson.get("url"));
+        }
+
+        // Add fields
+        if (embedJson.get("fields") instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> fields = (List<Map<String, Object>>) embedJson.get("fields");
+            for (Map<String, Object> fieldJson : fields) {
+                String name = fieldJson.containsKey("name") ? (String) fieldJson.get("name") : "";
+                String value = fieldJson.containsKey("value") ? (String) fieldJson.get("value") : "";
+                boolean inline = Boolean.TRUE.equals(fieldJson.get("inline"));
+                builder.addField(name, value, inline);
+            }
+        }
+
+        return builder.build();
+    }
+}
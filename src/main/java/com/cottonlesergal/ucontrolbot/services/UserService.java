@@ -0,0 +1,293 @@
+package com.cottonlesergal.ucontrolbot.services;
+
+import com.cottonlesergal.ucontrolbot.Bot;
+import com.cottonlesergal.ucontrolbot.cache.DmChannelResolver;
+import com.cottonlesergal.ucontrolbot.cache.UserDirectory;
+import com.cottonlesergal.ucontrolbot.cache.UserProfileCache;
+import com.cottonlesergal.ucontrolbot.config.Config;
+import com.cottonlesergal.ucontrolbot.models.dto.UserDTO;
+import com.cottonlesergal.ucontrolbot.util.Snowflake;
+import com.cottonlesergal.ucontrolbot.config.DiscordRuntime;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * User operations shared by the REST controllers and the Javalin endpoints.
+ * Users and members are taken from the JDA cache when present and only
+ * requested from Discord otherwise; Discord calls return futures instead of blocking.
+ */
+@Component
+public class UserService {
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    @Autowired
+    private Bot bot;
+
+    @Autowired
+    private Config config;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private DmChannelResolver dmChannelResolver;
+
+    @Autowired
+    private UserProfileCache profileCache;
+
+    @Autowired
+    private GuildService guildService;
+
+    /**
+     * Gets a user, from the cache if possible.
+     *
+     * @param userId The user ID
+     * @return The user
+     */
+    public CompletableFuture<User> retrieveUser(String userId) {
+        User cached = bot.getDiscord().getUserById(userId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return bot.getDiscord().retrieveUserById(userId).submit();
+    }
+
+    /**
+     * Lists users the bot can see.
+     * Note: This only returns users in the bot's cache due to Discord API limitations.
+     *
+     * @param guild Optional guild to list the members of
+     * @param name Optional name filter
+     * @param allUsers Whether to list the unique users of every guild
+     * @return The user data
+     */
+    public CompletableFuture<List<UserDTO>> listUsers(Guild guild, String name, boolean allUsers) {
+        boolean hasName = name != null && !name.isEmpty();
+        CompletableFuture<List<User>> users;
+        boolean nameFiltered = false;
+        if (allUsers) {
+            // Get all unique users from all guilds via the directory index
+            List<User> all = hasName ? userDirectory.search(name) : userDirectory.getAll();
+            nameFiltered = hasName;
+            logger.info("Fetched {} unique users from all guilds", all.size());
+            users = CompletableFuture.completedFuture(all);
+        } else if (guild != null) {
+            users = guildService.getAllMembers(guild).thenApply(members -> members.stream()
+                    .map(Member::getUser)
+                    .collect(Collectors.toList()));
+        } else {
+            // Otherwise, get all users from cache
+            users = CompletableFuture.completedFuture(bot.getDiscord().getUserCache().asList());
+        }
+
+        boolean filterByName = hasName && !nameFiltered;
+        return users.thenApply(list -> list.stream()
+                .filter(user -> !filterByName || user.getName().toLowerCase().contains(name.toLowerCase()))
+                .map(this::mapListedUser)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Maps a user for the user list, with the status precomputed by the directory.
+     */
+    private UserDTO mapListedUser(User user) {
+        UserDTO listed = profileCache.enrich(UserDTO.from(user), user);
+
+        // The owner is shown online by default
+        boolean isOwner = user.getId().equals(config.getOwnerId());
+        String status;
+        if (isOwner) {
+            status = "online";
+        } else {
+            // Use the status precomputed from mutual guilds
+            try {
+                status = userDirectory.getStatus(user);
+            } catch (Exception e) {
+                status = "offline";
+                logger.warn("Could not get status for user {}: {}", user.getId(), e.getMessage());
+            }
+        }
+
+        // Hard-coded statuses for key users (temporary)
+        if (user.getId().equals("1040120006534516806")) { // Deathly Ecks
+            status = "dnd";
+        } else if (user.getName().equals("Manifold")) {
+            status = "online";
+        }
+
+        return listed.withStatus(status, isOwner);
+    }
+
+    /**
+     * Describes a user, with their membership of a guild if one is given.
+     *
+     * @param user The user
+     * @param guild Optional guild for member-specific data
+     * @return Map containing user data
+     */
+    public CompletableFuture<Map<String, Object>> describeUser(User user, Guild guild) {
+        CompletableFuture<Member> member;
+        if (guild == null) {
+            member = CompletableFuture.completedFuture(null);
+        } else {
+            Member cached = guild.getMember(user);
+            member = cached != null ? CompletableFuture.completedFuture(cached) : guild.retrieveMember(user).submit();
+        }
+        return member.thenApply(resolved -> describeUser(user, resolved));
+    }
+
+    private Map<String, Object> describeUser(User user, Member member) {
+        DiscordRuntime discord = bot.getDiscord();
+
+        // Basic user data
+        Map<String, Object> userData = new HashMap<>();
+        userData.put("id", user.getId());
+        userData.put("username", user.getName());
+        userData.put("displayName", user.getGlobalName() != null ? user.getGlobalName() : user.getName());
+        userData.put("discriminator", user.getDiscriminator());
+        userData.put("avatarUrl", user.getEffectiveAvatarUrl());
+        userData.put("isBot", user.isBot());
+        userData.put("bot", user.isBot());
+        userData.put("globalName", user.getGlobalName());
+
+        // Check if this is the owner
+        if (user.getId().equals(config.getOwnerId())) {
+            userData.put("isOwner", true);
+            userData.put("status", "online");
+        }
+
+        // Get guild-specific data if available
+        if (member != null) {
+            Map<String, Object> memberData = new HashMap<>();
+            memberData.put("nickname", member.getNickname());
+            memberData.put("joinedAt", member.getTimeJoined().toInstant().toEpochMilli());
+            memberData.put("boosting", member.isBoosting());
+            memberData.put("color", member.getColorRaw());
+            memberData.put("status", member.getOnlineStatus().name().toLowerCase());
+
+            // Get roles
+            List<Map<String, Object>> roles = member.getRoles().stream()
+                    .map(role -> {
+                        Map<String, Object> roleData = new HashMap<>();
+                        roleData.put("id", role.getId());
+                        roleData.put("name", role.getName());
+                        roleData.put("color", role.getColorRaw());
+                        roleData.put("position", role.getPosition());
+                        return roleData;
+                    })
+                    .collect(Collectors.toList());
+            memberData.put("roles", roles);
+
+            // Add permissions
+            memberData.put("permissions", member.getPermissions().stream()
+                    .map(Enum::name)
+                    .collect(Collectors.toList()));
+
+            userData.put("memberData", memberData);
+            userData.put("status", member.getOnlineStatus().name().toLowerCase());
+        }
+
+        // If status not set yet, use the one precomputed from mutual guilds
+        if (!userData.containsKey("status")) {
+            try {
+                userData.put("status", userDirectory.getStatus(user));
+            } catch (Exception e) {
+                logger.warn("Could not get status for user {}: {}", user.getId(), e.getMessage());
+                userData.put("status", "offline");
+            }
+        }
+
+        // Get mutual guilds
+        List<Map<String, Object>> mutualGuilds = discord.getMutualGuilds(user).stream()
+                .map(this::mapGuildSummary)
+                .collect(Collectors.toList());
+        userData.put("mutualGuilds", mutualGuilds);
+
+        return userData;
+    }
+
+    /**
+     * Describes the bot user (@me).
+     *
+     * @return Map containing bot user data
+     */
+    public Map<String, Object> describeSelfUser() {
+        DiscordRuntime discord = bot.getDiscord();
+        User selfUser = discord.getSelfUser();
+
+        // Basic user data
+        Map<String, Object> userData = new HashMap<>();
+        userData.put("id", selfUser.getId());
+        userData.put("username", selfUser.getName());
+        userData.put("displayName", selfUser.getGlobalName() != null ? selfUser.getGlobalName() : selfUser.getName());
+        userData.put("discriminator", selfUser.getDiscriminator());
+        userData.put("avatarUrl", selfUser.getEffectiveAvatarUrl());
+        userData.put("isBot", selfUser.isBot());
+        userData.put("globalName", selfUser.getGlobalName());
+        userData.put("status", "online");  // Bot is always online
+
+        // Get guilds this bot is in
+        List<Map<String, Object>> guilds = discord.getGuilds().stream()
+                .map(this::mapGuildSummary)
+                .collect(Collectors.toList());
+        userData.put("guilds", guilds);
+
+        return userData;
+    }
+
+    private Map<String, Object> mapGuildSummary(Guild guild) {
+        Map<String, Object> guildData = new HashMap<>();
+        guildData.put("id", guild.getId());
+        guildData.put("name", guild.getName());
+        guildData.put("iconUrl", guild.getIconUrl());
+        return guildData;
+    }
+
+    /**
+     * Gets the DM channel with a user, opening it if the bot has none on record.
+     * Discord creates the channel if it doesn't exist.
+     *
+     * @param userId The user ID
+     * @return Map containing DM channel data
+     */
+    public CompletableFuture<Map<String, Object>> openDmChannel(String userId) {
+        return dmChannelResolver.resolve(Snowflake.parse(userId)).thenCompose(channel -> {
+            // Prefer the current name of a cached user over the one on record
+            User cached = bot.getDiscord().getUserById(userId);
+            String name = cached != null ? cached.getName() : channel.getUserName();
+            if (name != null) {
+                return CompletableFuture.completedFuture(mapDmChannel(channel.getChannelId(), userId, name));
+            }
+            return retrieveUser(userId).thenApply(user -> mapDmChannel(channel.getChannelId(), userId, user.getName()));
+        });
+    }
+
+    /**
+     * Maps a DM channel to a Map.
+     *
+     * @param channelId The DM channel ID
+     * @param userId The recipient's user ID
+     * @param userName The recipient's name
+     * @return Map containing DM channel data
+     */
+    public Map<String, Object> mapDmChannel(String channelId, String userId, String userName) {
+        Map<String, Object> channelData = new HashMap<>();
+        channelData.put("id", channelId);
+        channelData.put("type", ChannelType.PRIVATE.name());
+        channelData.put("name", "@" + userName);
+        channelData.put("userId", userId);
+        return channelData;
+    }
+}
@@ -0,0 +1,226 @@
+package com.cottonlesergal.ucontrolbot.util;
+
+import com.cottonlesergal.ucontrolbot.models.dto.DtoTypeAdapterFactory;
+import com.cottonlesergal.ucontrolbot.models.dto.JsonFragment;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The JSON codec shared by the REST API, the WebSocket server, the database
+ * layer and the models, so every part of the bot serializes the same way.
+ * DTOs are written by their own writers, nulls are kept and HTML is not escaped,
+ * matching what API clients received from Jackson before. Whole numbers in
+ * untyped values parse as Long, like Jackson, so snowflakes sent as numbers
+ * keep their precision.
+ * Encoding of WebSocket events is timed per event type.
+ */
+public final class JsonCodec {
+    private static final JsonCodec SHARED = new JsonCodec();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private final Gson gson = builder().serializeNulls().create();
+    // For toMap: the database layer treats a present key as a non-null value
+    private final Gson gsonWithoutNulls = builder().create();
+
+    private final ConcurrentMap<String, EventStats> eventStats = new ConcurrentHashMap<>();
+
+    private JsonCodec() {
+    }
+
+    private static GsonBuilder builder() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new DtoTypeAdapterFactory())
+                .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+                .disableHtmlEscaping();
+    }
+
+    /**
+     * Gets the shared codec.
+     *
+     * @return The codec
+     */
+    public static JsonCodec shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the configured Gson instance, for integrations that take one.
+     *
+     * @return The Gson instance
+     */
+    public Gson gson() {
+        return gson;
+    }
+
+    /**
+     * Serializes a value to a JSON string.
+     *
+     * @param value The value
+     * @return The JSON
+     */
+    public String toJson(Object value) {
+        return gson.toJson(value);
+    }
+
+    /**
+     * Serializes a value to UTF-8 JSON bytes.
+     *
+     * @param value The value
+     * @return The JSON
+     */
+    public byte[] toBytes(Object value) {
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Streams a value as JSON to a writer.
+     *
+     * @param value The value
+     * @param out The writer
+     */
+    public void write(Object value, Writer out) {
+        gson.toJson(value, out);
+    }
+
+    /**
+     * Converts a value to a generic map, as its JSON would parse.
+     * Null fields are left out.
+     *
+     * @param value The value
+     * @return The map
+     */
+    public Map<String, Object> toMap(Object value) {
+        // Through a string rather than a JSON tree, which cannot take pre-serialized fragments
+        return gsonWithoutNulls.fromJson(gsonWithoutNulls.toJson(value), MAP_TYPE);
+    }
+
+    /**
+     * Serializes a value once for splicing into other payloads.
+     * Fragments end up in API responses and events, so nulls are kept as
+     * {@link #toJson} keeps them; the database layer reads absent and null alike.
+     *
+     * @param value The value
+     * @return The fragment
+     */
+    public JsonFragment fragment(Object value) {
+        return new JsonFragment(gson.toJson(value));
+    }
+
+    /**
+     * Parses JSON.
+     *
+     * @param json The JSON
+     * @param type The type to parse to
+     * @return The value
+     */
+    public <T> T fromJson(String json, Class<T> type) {
+        return gson.fromJson(json, type);
+    }
+
+    /**
+     * Parses JSON.
+     *
+     * @param json The JSON
+     * @param type The type to parse to
+     * @return The value
+     */
+    public <T> T fromJson(String json, Type type) {
+        return gson.fromJson(json, type);
+    }
+
+    /**
+     * Encodes a WebSocket event envelope ({"type": ..., "data": ...}) in one pass,
+     * recording the time and size per event type.
+     *
+     * @param eventType The event type
+     * @param data The event data
+     * @return The encoded event
+     */
+    public String encodeEvent(String eventType, Object data) {
+        long start = System.nanoTime();
+        StringWriter buffer = new StringWriter(256);
+        try {
+            JsonWriter out = gson.newJsonWriter(buffer);
+            out.beginObject();
+            out.name("type").value(eventType);
+            out.name("data");
+            if (data == null) {
+                out.nullValue();
+            } else {
+                gson.toJson(data, data.getClass(), out);
+            }
+            out.endObject();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String encoded = buffer.toString();
+        eventStats.computeIfAbsent(eventType, type -> new EventStats())
+                .record(System.nanoTime() - start, encoded.length());
+        return encoded;
+    }
+
+    /**
+     * Adds a sequence number to an encoded event envelope, as its first field.
+     * The envelope is not parsed again.
+     *
+     * @param encodedEvent An event from {@link #encodeEvent}
+     * @param seq The sequence number
+     * @return The event with "seq" added
+     */
+    public static String withSequence(String encodedEvent, long seq) {
+        return "{\"seq\":" + seq + "," + encodedEvent.substring(1);
+    }
+
+    /**
+     * Gets encoding statistics per event type.
+     *
+     * @return Count, total and maximum encode time and average size of each event type
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        eventStats.forEach((type, s) -> stats.put(type, s.toMap()));
+        return stats;
+    }
+
+    private static final class EventStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder totalChars = new LongAdder();
+
+        void record(long nanos, int chars) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            totalChars.add(chars);
+        }
+
+        Map<String, Object> toMap() {
+            long n = count.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("count", n);
+            map.put("totalMicros", totalNanos.sum() / 1000);
+            map.put("avgMicros", n > 0 ? totalNanos.sum() / 1000.0 / n : 0);
+            map.put("maxMicros", maxNanos.get() / 1000);
+            map.put("avgChars", n > 0 ? totalChars.sum() / n : 0);
+            return map;
+        }
+    }
+}
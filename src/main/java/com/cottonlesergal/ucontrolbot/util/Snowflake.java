@@ -0,0 +1,90 @@
+package com.cottonlesergal.ucontrolbot.util;
+
+import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.TimeUtil;
+
+/**
+ * Helpers for carrying Discord snowflake IDs as {@code long} values.
+ * IDs are stored as BIGINT UNSIGNED in the database and only turned back
+ * into strings at the JSON boundary, since JavaScript cannot represent
+ * 64-bit integers exactly.
+ */
+public final class Snowflake {
+
+    private Snowflake() {
+    }
+
+    /**
+     * Parses a snowflake from an event or request value.
+     *
+     * @param value A String or Number holding the ID, may be null
+     * @return The ID as a Long, or null if the value is null or blank
+     * @throws NumberFormatException If the value is not a valid snowflake, or a floating-point number
+     */
+    public static Long parse(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            // A snowflake that went through a double has lost its low bits
+            throw new NumberFormatException("Snowflake must be a string or an integer: " + value);
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+
+        String text = value.toString().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        return MiscUtil.parseSnowflake(text);
+    }
+
+    /**
+     * Checks whether a value can be parsed as a snowflake.
+     *
+     * @param value The value to check
+     * @return True if {@link #parse(Object)} would return a non-null ID
+     */
+    public static boolean isValid(Object value) {
+        try {
+            return parse(value) != null;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Formats a snowflake read from the database for JSON output.
+     * BIGINT UNSIGNED columns come back as BigInteger or Long depending on the driver.
+     *
+     * @param value The column value
+     * @return The ID as a decimal string, or null
+     */
+    public static String format(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Gets the creation time encoded in a snowflake.
+     *
+     * @param id The snowflake
+     * @return Epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return TimeUtil.getTimeCreated(id).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Gets the smallest snowflake that could have been created at the given time.
+     *
+     * @param epochMillis Epoch milliseconds
+     * @return The lower bound snowflake
+     */
+    public static long lowerBoundAt(long epochMillis) {
+        return TimeUtil.getDiscordTimestamp(epochMillis);
+    }
+}
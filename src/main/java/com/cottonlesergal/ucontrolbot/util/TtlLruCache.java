@@ -0,0 +1,201 @@
+package com.cottonlesergal.ucontrolbot.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A size-bounded LRU cache whose entries also expire after a fixed time.
+ * All operations are synchronized; loaders run outside the lock so a slow
+ * load does not block readers of other keys. A load is only stored if its key
+ * was not invalidated while it ran; invalidating other keys does not affect it.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class TtlLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Token of the latest load of each key in flight; invalidating a key removes its token
+    // so a load that raced with the invalidation is not stored
+    private final Map<K, Object> loading = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize Maximum number of entries before the least recently used is evicted
+     * @param ttlMillis Time after which an entry expires, or 0 for no expiry
+     */
+    public TtlLruCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached value.
+     *
+     * @param key The key
+     * @return The value, or null if absent or expired
+     */
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Gets a cached value, loading and caching it on a miss.
+     *
+     * @param key The key
+     * @param loader Loads the value on a miss; a null result is not cached
+     * @return The cached or loaded value
+     */
+    public V get(K key, Supplier<V> loader) {
+        Object token = new Object();
+        synchronized (this) {
+            V cached = getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+            loading.put(key, token);
+        }
+
+        V value = null;
+        try {
+            value = loader.get();
+        } finally {
+            synchronized (this) {
+                // A later load of the same key replaced the token and stores its own, fresher value
+                if (loading.get(key) == token) {
+                    loading.remove(key);
+                    if (value != null) {
+                        entries.put(key, new Entry<>(value, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE));
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE));
+    }
+
+    /**
+     * Removes one entry.
+     *
+     * @param key The key
+     */
+    public synchronized void invalidate(K key) {
+        loading.remove(key);
+        if (entries.remove(key) != null) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Removes every entry whose key matches.
+     *
+     * @param predicate Key filter
+     */
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        loading.keySet().removeIf(predicate);
+        Iterator<K> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (predicate.test(keys.next())) {
+                keys.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void invalidateAll() {
+        loading.clear();
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of entries, including any that have expired but not been read since.
+     *
+     * @return Entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets cache statistics.
+     *
+     * @return Size, limits and hit/miss/eviction counters
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long requests = hits + misses;
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", requests > 0 ? (double) hits / requests : 0.0);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -2,7 +2,7 @@
 
 -- Users table to store all users
 CREATE TABLE IF NOT EXISTS users (
-                                     id VARCHAR(255) PRIMARY KEY,
+                                     id BIGINT UNSIGNED PRIMARY KEY,
     username VARCHAR(255) NOT NULL,
     discriminator VARCHAR(10),
     global_name VARCHAR(255),
@@ -16,10 +16,10 @@ CREATE TABLE IF NOT EXISTS users (
 
 -- Guilds (servers) table
 CREATE TABLE IF NOT EXISTS guilds (
-                                      id VARCHAR(255) PRIMARY KEY,
+                                      id BIGINT UNSIGNED PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     icon_url VARCHAR(512),
-    owner_id VARCHAR(255),
+    owner_id BIGINT UNSIGNED,
     member_count INT DEFAULT 0,
     description TEXT,
     last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
@@ -28,9 +28,9 @@ CREATE TABLE IF NOT EXISTS guilds (
 
 -- Channels table
 CREATE TABLE IF NOT EXISTS channels (
-                                        id VARCHAR(255) PRIMARY KEY,
-    guild_id VARCHAR(255),
-    parent_id VARCHAR(255),
+                                        id BIGINT UNSIGNED PRIMARY KEY,
+    guild_id BIGINT UNSIGNED,
+    parent_id BIGINT UNSIGNED,
     name VARCHAR(255) NOT NULL,
     type VARCHAR(50) NOT NULL,
     topic TEXT,
@@ -43,13 +43,13 @@ CREATE TABLE IF NOT EXISTS channels (
 
 -- Messages table
 CREATE TABLE IF NOT EXISTS messages (
-                                        id VARCHAR(255) PRIMARY KEY,
-    channel_id VARCHAR(255) NOT NULL,
-    author_id VARCHAR(255) NOT NULL,
+                                        id BIGINT UNSIGNED PRIMARY KEY,
+    channel_id BIGINT UNSIGNED NOT NULL,
+    author_id BIGINT UNSIGNED NOT NULL,
     content TEXT,
     timestamp BIGINT NOT NULL,
     edited_timestamp BIGINT,
-    referenced_message_id VARCHAR(255),
+    referenced_message_id BIGINT UNSIGNED,
     last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (channel_id) REFERENCES channels(id) ON DELETE CASCADE,
     FOREIGN KEY (author_id) REFERENCES users(id) ON DELETE CASCADE,
@@ -58,8 +58,8 @@ CREATE TABLE IF NOT EXISTS messages (
 
 -- Attachments table
 CREATE TABLE IF NOT EXISTS attachments (
-                                           id VARCHAR(255) PRIMARY KEY,
-    message_id VARCHAR(255) NOT NULL,
+                                           id BIGINT UNSIGNED PRIMARY KEY,
+    message_id BIGINT UNSIGNED NOT NULL,
     filename VARCHAR(255) NOT NULL,
     url VARCHAR(512) NOT NULL,
     content_type VARCHAR(255),
@@ -70,7 +70,7 @@ CREATE TABLE IF NOT EXISTS attachments (
 -- Embeds table
 CREATE TABLE IF NOT EXISTS embeds (
                                       id INT AUTO_INCREMENT PRIMARY KEY,
-                                      message_id VARCHAR(255) NOT NULL,
+                                      message_id BIGINT UNSIGNED NOT NULL,
     title VARCHAR(255),
     description TEXT,
     url VARCHAR(512),
@@ -92,8 +92,8 @@ CREATE TABLE IF NOT EXISTS embed_fields (
 
 -- Roles table
 CREATE TABLE IF NOT EXISTS roles (
-                                     id VARCHAR(255) PRIMARY KEY,
-    guild_id VARCHAR(255) NOT NULL,
+                                     id BIGINT UNSIGNED PRIMARY KEY,
+    guild_id BIGINT UNSIGNED NOT NULL,
     name VARCHAR(255) NOT NULL,
     color INT DEFAULT 0,
     position INT DEFAULT 0,
@@ -106,9 +106,9 @@ CREATE TABLE IF NOT EXISTS roles (
 
 -- User roles (many-to-many relationship)
 CREATE TABLE IF NOT EXISTS user_roles (
-                                          user_id VARCHAR(255) NOT NULL,
-    role_id VARCHAR(255) NOT NULL,
-    guild_id VARCHAR(255) NOT NULL,
+                                          user_id BIGINT UNSIGNED NOT NULL,
+    role_id BIGINT UNSIGNED NOT NULL,
+    guild_id BIGINT UNSIGNED NOT NULL,
     PRIMARY KEY (user_id, role_id),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (role_id) REFERENCES roles(id) ON DELETE CASCADE,
@@ -117,8 +117,8 @@ CREATE TABLE IF NOT EXISTS user_roles (
 
 -- Guild members table (including user-specific data within a guild)
 CREATE TABLE IF NOT EXISTS guild_members (
-                                             user_id VARCHAR(255) NOT NULL,
-    guild_id VARCHAR(255) NOT NULL,
+                                             user_id BIGINT UNSIGNED NOT NULL,
+    guild_id BIGINT UNSIGNED NOT NULL,
     nickname VARCHAR(255),
     joined_at BIGINT,
     PRIMARY KEY (user_id, guild_id),
@@ -128,9 +128,9 @@ CREATE TABLE IF NOT EXISTS guild_members (
 
 -- Direct message channels table
 CREATE TABLE IF NOT EXISTS dm_channels (
-                                           id VARCHAR(255) PRIMARY KEY,
-    user_id VARCHAR(255) NOT NULL,
-    last_message_id VARCHAR(255),
+                                           id BIGINT UNSIGNED PRIMARY KEY,
+    user_id BIGINT UNSIGNED NOT NULL,
+    last_message_id BIGINT UNSIGNED,
     last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (last_message_id) REFERENCES messages(id) ON DELETE SET NULL
@@ -138,8 +138,8 @@ CREATE TABLE IF NOT EXISTS dm_channels (
 
 -- Reactions table
 CREATE TABLE IF NOT EXISTS reactions (
-                                         message_id VARCHAR(255) NOT NULL,
-    user_id VARCHAR(255) NOT NULL,
+                                         message_id BIGINT UNSIGNED NOT NULL,
+    user_id BIGINT UNSIGNED NOT NULL,
     emoji VARCHAR(255) NOT NULL,
     PRIMARY KEY (message_id, user_id, emoji),
     FOREIGN KEY (message_id) REFERENCES messages(id) ON DELETE CASCADE,
@@ -148,19 +148,48 @@ CREATE TABLE IF NOT EXISTS reactions (
 
 -- Typing indicators (ephemeral)
 CREATE TABLE IF NOT EXISTS typing_indicators (
-                                                 user_id VARCHAR(255) NOT NULL,
-    channel_id VARCHAR(255) NOT NULL,
+                                                 user_id BIGINT UNSIGNED NOT NULL,
+    channel_id BIGINT UNSIGNED NOT NULL,
     timestamp BIGINT NOT NULL,
     PRIMARY KEY (user_id, channel_id),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (channel_id) REFERENCES channels(id) ON DELETE CASCADE
     );
 
+-- Message archive table (messages past the hot retention window)
+CREATE TABLE IF NOT EXISTS messages_archive (
+                                                id BIGINT UNSIGNED PRIMARY KEY,
+    channel_id BIGINT UNSIGNED NOT NULL,
+    author_id BIGINT UNSIGNED NOT NULL,
+    content TEXT,
+    timestamp BIGINT NOT NULL,
+    edited_timestamp BIGINT,
+    referenced_message_id BIGINT UNSIGNED,
+    attachments LONGTEXT,
+    embeds LONGTEXT,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_messages_archive_channel (channel_id, id)
+    ) ROW_FORMAT=COMPRESSED;
+
+-- Message search table (full-text index over message and embed text)
+CREATE TABLE IF NOT EXISTS message_search (
+                                              message_id BIGINT UNSIGNED PRIMARY KEY,
+    channel_id BIGINT UNSIGNED NOT NULL,
+    guild_id BIGINT UNSIGNED,
+    author_id BIGINT UNSIGNED NOT NULL,
+    content TEXT,
+    embed_text TEXT,
+    FULLTEXT INDEX ft_message_search_text (content, embed_text),
+    INDEX idx_message_search_channel (channel_id, message_id),
+    INDEX idx_message_search_guild (guild_id, message_id),
+    INDEX idx_message_search_author (author_id, message_id)
+    );
+
 -- Indexes for faster queries
 CREATE INDEX idx_users_status ON users(status);
 CREATE INDEX idx_channels_guild_id ON channels(guild_id);
 CREATE INDEX idx_channels_parent_id ON channels(parent_id);
-CREATE INDEX idx_messages_channel_id ON messages(channel_id);
+CREATE INDEX idx_messages_channel_id_id ON messages(channel_id, id);
 CREATE INDEX idx_messages_author_id ON messages(author_id);
 CREATE INDEX idx_guild_members_guild_id ON guild_members(guild_id);
 CREATE INDEX idx_user_roles_user_id ON user_roles(user_id);
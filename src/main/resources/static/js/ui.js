@@ -1414,12 +1414,39 @@ window.ui.initWebSocket = function() {
             const message = JSON.parse(event.data);
             console.log('WebSocket message received:', message);
 
+            // Remember the highest sequence number seen, to resume from after a reconnect
+            if (typeof message.seq === 'number' && message.seq > (window.currentState.eventSeq || 0)) {
+                window.currentState.eventSeq = message.seq;
+            }
+
             // Handle welcome message
             if (message.type === 'WELCOME') {
                 console.log('Received welcome message:', message.data.message);
 
-                // Subscribe to current view after welcome
-                if (window.currentState.isDmView && window.currentState.selectedDmUserId) {
+                const resuming = Boolean(window.currentState.eventEpoch);
+                if (resuming) {
+                    // Reconnected: replay what was missed, subscribing to the current view at the same time
+                    const resumeData = {
+                        epoch: window.currentState.eventEpoch,
+                        seq: window.currentState.eventSeq || 0
+                    };
+                    if (window.currentState.isDmView && window.currentState.selectedDmUserId) {
+                        resumeData.userId = window.currentState.selectedDmUserId;
+                    } else if (window.currentState.selectedChannelId) {
+                        resumeData.channelId = window.currentState.selectedChannelId;
+                    }
+                    ws.send(JSON.stringify({
+                        type: 'RESUME',
+                        data: resumeData
+                    }));
+                    console.log('Sent RESUME from', resumeData.epoch, resumeData.seq);
+                } else {
+                    window.currentState.eventEpoch = message.data.epoch;
+                    window.currentState.eventSeq = message.data.seq;
+                }
+
+                // Subscribe to current view after welcome; RESUME already did when reconnecting
+                if (!resuming && window.currentState.isDmView && window.currentState.selectedDmUserId) {
                     ws.send(JSON.stringify({
                         type: 'SUBSCRIBE_DM',
                         data: {
@@ -1427,7 +1454,7 @@ window.ui.initWebSocket = function() {
                         }
                     }));
                     console.log('Sent SUBSCRIBE_DM for user:', window.currentState.selectedDmUserId);
-                } else if (window.currentState.selectedChannelId) {
+                } else if (!resuming && window.currentState.selectedChannelId) {
                     ws.send(JSON.stringify({
                         type: 'SUBSCRIBE_CHANNEL',
                         data: {
@@ -1650,6 +1677,24 @@ window.ui.handleWebSocketEvent = function(event) {
             console.log(`Action acknowledged: ${data.action} for ID: ${data.id}`);
             break;
 
+        case 'RESUMED':
+            console.log(`Resumed, ${data.replayed} missed events replayed`);
+            window.currentState.eventEpoch = data.epoch;
+            break;
+
+        case 'RESYNC':
+            // Missed events are gone, so reload the current view and continue from the new position
+            console.log(`Resync required: ${data.reason}`);
+            window.currentState.eventEpoch = data.epoch;
+            window.currentState.eventSeq = data.seq;
+            window.api.fetchDMs();
+            if (window.currentState.isDmView && window.currentState.selectedDmUserId) {
+                window.api.fetchDmMessages(window.currentState.selectedDmUserId);
+            } else if (window.currentState.selectedChannelId) {
+                window.api.fetchMessages(window.currentState.selectedChannelId);
+            }
+            break;
+
         case 'REFRESH_DM_LIST':
             window.api.fetchDMs();
             break;